@@ -0,0 +1,181 @@
+package com.renault.garage.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.event.CacheInvalidationEvent;
+import com.renault.garage.kafka.CacheInvalidationPublisher;
+import com.renault.garage.support.TransactionHooks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cache local (par instance) des réponses {@code GarageDTO} / {@code VehicleDTO} lues par ID.
+ *
+ * <p>Chaque écriture invalide l'entrée localement, puis, après commit, diffuse l'invalidation
+ * aux autres instances sur un topic Kafka compacté. L'obsolescence sur une autre instance est
+ * bornée par le délai de diffusion (mesuré par {@code garage.near-cache.invalidation.lag})
+ * et, si Kafka est indisponible, par la durée de vie des entrées.</p>
+ *
+ * <p>Pour les réponses les plus lues, le cache garde aussi le JSON final (et sa variante gzip) :
+ * une lecture en cache n'exécute alors ni le mapper ni Jackson. Les deux formes d'une entrée
+ * sont invalidées ensemble.</p>
+ *
+ * <p>Les DTO et tableaux renvoyés sont partagés entre les appelants et ne doivent pas être modifiés.</p>
+ */
+@Component
+@Slf4j
+public class ResponseNearCache {
+
+    private final CacheInvalidationPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final Map<NearCacheRegion, Cache<Long, Object>> caches = new EnumMap<>(NearCacheRegion.class);
+    private final Map<NearCacheRegion, Cache<Long, SerializedResponse>> serializedCaches =
+            new EnumMap<>(NearCacheRegion.class);
+    private final boolean serializedEnabled;
+    private final boolean gzipEnabled;
+    private final Timer invalidationLag;
+    private final Counter remoteInvalidations;
+
+    @Getter
+    private final String nodeId;
+
+    public ResponseNearCache(CacheInvalidationPublisher publisher,
+                             MeterRegistry meterRegistry,
+                             ObjectMapper objectMapper,
+                             @Value("${garage.near-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${garage.near-cache.ttl:PT5M}") Duration ttl,
+                             @Value("${garage.near-cache.serialized.enabled:true}") boolean serializedEnabled,
+                             @Value("${garage.near-cache.serialized.gzip:true}") boolean gzipEnabled,
+                             @Value("${garage.node-id:}") String nodeId) {
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.serializedEnabled = serializedEnabled;
+        this.gzipEnabled = gzipEnabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        for (NearCacheRegion region : NearCacheRegion.values()) {
+            String name = "near-cache-" + region.name().toLowerCase();
+            caches.put(region, buildCache(meterRegistry, name, maximumSize, ttl));
+            serializedCaches.put(region, buildCache(meterRegistry, name + "-json", maximumSize, ttl));
+        }
+        this.invalidationLag = Timer.builder("garage.near-cache.invalidation.lag")
+                .description("Délai entre l'écriture et l'invalidation reçue par cette instance")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.remoteInvalidations = Counter.builder("garage.near-cache.invalidations.received")
+                .description("Invalidations reçues des instances (y compris celle-ci)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Réponse en cache, ou chargée puis mise en cache. Une exception du chargement
+     * (entité introuvable) est propagée et rien n'est mis en cache.
+     */
+    public <T> T get(NearCacheRegion region, Long id, Class<T> type, Supplier<T> loader) {
+        return type.cast(caches.get(region).get(id, key -> loader.get()));
+    }
+
+    /**
+     * Met une réponse en cache sans remplacer une entrée présente (remplissage au démarrage :
+     * une entrée déjà chargée depuis la base est au moins aussi récente).
+     */
+    public void put(NearCacheRegion region, Long id, Object value) {
+        caches.get(region).asMap().putIfAbsent(id, value);
+    }
+
+    /**
+     * Réponse sérialisée en cache, ou chargée puis mise en cache ; sans mise en cache si
+     * l'option est désactivée.
+     */
+    public SerializedResponse getSerialized(NearCacheRegion region, Long id, Supplier<SerializedResponse> loader) {
+        if (!serializedEnabled) {
+            return loader.get();
+        }
+        return serializedCaches.get(region).get(id, key -> loader.get());
+    }
+
+    /**
+     * Sérialise une réponse en JSON UTF-8, et en gzip si elle est assez grande et l'option active.
+     */
+    public SerializedResponse serialize(Object body, String etag) {
+        try {
+            return SerializedResponse.of(objectMapper.writeValueAsBytes(body), etag, gzipEnabled);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation impossible de la réponse " + etag, e);
+        }
+    }
+
+    public void invalidate(NearCacheRegion region, Long id) {
+        invalidate(region, List.of(id));
+    }
+
+    /**
+     * Invalide les entrées : immédiatement et à la fin de la transaction (une lecture concurrente
+     * a pu remettre en cache l'état précédent), puis diffuse l'invalidation après commit.
+     */
+    public void invalidate(NearCacheRegion region, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> invalidated = List.copyOf(ids);
+        evict(region, invalidated);
+        TransactionHooks.afterCompletion(() -> evict(region, invalidated));
+        TransactionHooks.afterCommit(() -> invalidated.forEach(id ->
+                publisher.publish(CacheInvalidationEvent.of(region, id, nodeId))));
+    }
+
+    /**
+     * Vide le cache de cette instance uniquement (données modifiées hors de l'application).
+     */
+    public void invalidateAll() {
+        caches.values().forEach(Cache::invalidateAll);
+        serializedCaches.values().forEach(Cache::invalidateAll);
+    }
+
+    /**
+     * Applique une invalidation reçue de Kafka et mesure le délai depuis l'écriture.
+     */
+    public void onRemoteInvalidation(CacheInvalidationEvent event) {
+        evict(event.region(), List.of(event.id()));
+        remoteInvalidations.increment();
+        Duration lag = Duration.between(event.emittedAt(), Instant.now());
+        // Horloges des instances non synchronisées : un délai négatif n'est pas significatif
+        if (!lag.isNegative()) {
+            invalidationLag.record(lag);
+        }
+        log.debug("Invalidation {} reçue de {} ({} ms)", event.key(), event.originNode(), lag.toMillis());
+    }
+
+    private void evict(NearCacheRegion region, List<Long> ids) {
+        caches.get(region).invalidateAll(ids);
+        serializedCaches.get(region).invalidateAll(ids);
+    }
+
+    private static <V> Cache<Long, V> buildCache(MeterRegistry meterRegistry, String name, long maximumSize,
+                                                 Duration ttl) {
+        Cache<Long, V> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+}
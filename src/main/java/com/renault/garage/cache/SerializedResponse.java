@@ -0,0 +1,43 @@
+package com.renault.garage.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Réponse JSON déjà sérialisée (UTF-8), éventuellement aussi compressée en gzip, avec son ETag.
+ * Les tableaux sont partagés entre les requêtes et ne doivent pas être modifiés.
+ *
+ * @param json  corps JSON en UTF-8
+ * @param gzip  même corps compressé, ou {@code null} si la compression est désactivée ou inutile
+ * @param etag  ETag faible de la ressource
+ */
+public record SerializedResponse(byte[] json, byte[] gzip, String etag) {
+
+    /**
+     * Taille en dessous de laquelle la compression ne réduit pas sensiblement la réponse.
+     */
+    static final int GZIP_MIN_SIZE = 1024;
+
+    static SerializedResponse of(byte[] json, String etag, boolean gzip) {
+        return new SerializedResponse(json, gzip && json.length >= GZIP_MIN_SIZE ? compress(json) : null, etag);
+    }
+
+    /**
+     * Indique si la variante gzip peut être servie pour cet en-tête Accept-Encoding.
+     */
+    public boolean servesGzip(String acceptEncoding) {
+        return gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
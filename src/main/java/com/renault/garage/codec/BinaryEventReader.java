@@ -0,0 +1,109 @@
+package com.renault.garage.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Lecture d'un message écrit par {@link BinaryEventWriter}. Chaque lecture d'un champ consomme
+ * le bit suivant du masque des nulls : un champ nul n'occupe aucun octet.
+ */
+public final class BinaryEventReader {
+
+    private final byte[] data;
+    private final byte typeTag;
+    private final int schemaVersion;
+    private final long nullMask;
+    private int position;
+    private int field;
+
+    private BinaryEventReader(byte[] data) {
+        this.data = data;
+        if (!isBinary(data) || data.length < 4) {
+            throw new SerializationException("Message binaire invalide");
+        }
+        this.position = 1;
+        this.typeTag = data[position++];
+        this.schemaVersion = data[position++] & 0xFF;
+        this.nullMask = readUnsignedLong();
+    }
+
+    /**
+     * Lit l'en-tête du message ; les champs sont ensuite lus dans l'ordre du schéma.
+     */
+    public static BinaryEventReader of(byte[] data) {
+        return new BinaryEventReader(data);
+    }
+
+    /**
+     * Indique si les données sont un message binaire (et non du JSON).
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == BinaryEventWriter.MAGIC;
+    }
+
+    public byte typeTag() {
+        return typeTag;
+    }
+
+    public int schemaVersion() {
+        return schemaVersion;
+    }
+
+    public Long readLong() {
+        if (nextIsNull()) {
+            return null;
+        }
+        long raw = readUnsignedLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public Integer readInt() {
+        Long value = readLong();
+        return value != null ? Math.toIntExact(value) : null;
+    }
+
+    public String readString() {
+        if (nextIsNull()) {
+            return null;
+        }
+        int length = Math.toIntExact(readUnsignedLong());
+        checkAvailable(length);
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Instant readInstant() {
+        if (nextIsNull()) {
+            return null;
+        }
+        long raw = readUnsignedLong();
+        long epochSecond = (raw >>> 1) ^ -(raw & 1);
+        return Instant.ofEpochSecond(epochSecond, readUnsignedLong());
+    }
+
+    private boolean nextIsNull() {
+        return (nullMask & (1L << field++)) != 0;
+    }
+
+    private long readUnsignedLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            checkAvailable(1);
+            byte b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Entier trop long dans le message binaire");
+    }
+
+    private void checkAvailable(int length) {
+        if (position + length > data.length) {
+            throw new SerializationException("Message binaire tronqué");
+        }
+    }
+}
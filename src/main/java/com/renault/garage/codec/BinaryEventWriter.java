@@ -0,0 +1,98 @@
+package com.renault.garage.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Écriture d'un message binaire : en-tête (magic, type, version), masque des champs nuls,
+ * puis les champs non nuls dans l'ordre du schéma. Entiers en varint zigzag, chaînes en UTF-8
+ * préfixées par leur longueur.
+ */
+public final class BinaryEventWriter {
+
+    /**
+     * Premier octet des messages binaires ; jamais le premier octet d'un texte UTF-8 (donc d'un
+     * message JSON), ce qui permet de distinguer les deux formats sans en-tête.
+     */
+    public static final byte MAGIC = (byte) 0xC1;
+
+    private byte[] buffer;
+    private int size;
+
+    private BinaryEventWriter(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Commence un message : en-tête et masque des champs nuls (bit i pour le i-ème champ).
+     */
+    public static BinaryEventWriter start(byte typeTag, int schemaVersion, Object... fields) {
+        BinaryEventWriter writer = new BinaryEventWriter(64);
+        writer.writeByte(MAGIC);
+        writer.writeByte(typeTag);
+        writer.writeByte((byte) schemaVersion);
+        long nullMask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] == null) {
+                nullMask |= 1L << i;
+            }
+        }
+        writer.writeUnsignedLong(nullMask);
+        return writer;
+    }
+
+    public BinaryEventWriter writeLong(Long value) {
+        if (value != null) {
+            writeUnsignedLong((value << 1) ^ (value >> 63));
+        }
+        return this;
+    }
+
+    public BinaryEventWriter writeInt(Integer value) {
+        return writeLong(value != null ? value.longValue() : null);
+    }
+
+    public BinaryEventWriter writeString(String value) {
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeUnsignedLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+        return this;
+    }
+
+    public BinaryEventWriter writeInstant(Instant value) {
+        if (value != null) {
+            writeLong(value.getEpochSecond());
+            writeUnsignedLong(value.getNano());
+        }
+        return this;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void writeUnsignedLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[size++] = value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.renault.garage.codec;
+
+/**
+ * Codec binaire d'un type d'événement Kafka.
+ *
+ * <p>Chaque message commence par {@link BinaryEventWriter#MAGIC}, le {@link #typeTag()} du codec
+ * et la version du schéma : le type est porté par les données, sans en-tête. Règles d'évolution
+ * du schéma : un champ ajouté l'est toujours à la fin (bit suivant du masque des nulls) avec une
+ * nouvelle version ; un lecteur plus ancien ignore les octets restants, un lecteur plus récent
+ * ne lit les nouveaux champs que pour les versions qui les contiennent. Un champ n'est jamais
+ * supprimé ni réordonné, au plus toujours écrit à null.</p>
+ */
+public interface EventCodec<T> {
+
+    /**
+     * Type d'événement pris en charge.
+     */
+    Class<T> type();
+
+    /**
+     * Identifiant du type dans les messages, unique parmi les codecs.
+     */
+    byte typeTag();
+
+    byte[] encode(T event);
+
+    /**
+     * Décode un message dont l'en-tête (magic, type) a déjà été lu par le lecteur.
+     */
+    T decode(BinaryEventReader reader);
+}
@@ -0,0 +1,68 @@
+package com.renault.garage.codec;
+
+import com.renault.garage.enums.EventFormat;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registre des codecs binaires des événements. Les événements sans codec, ou tous les événements
+ * si le format configuré est JSON, restent sérialisés en JSON : les consommateurs lisent les deux
+ * formats, ce qui permet de basculer sans arrêt (consommateurs mis à jour d'abord).
+ */
+@Component
+public class EventCodecs {
+
+    private final Map<Class<?>, EventCodec<?>> codecsByType = new HashMap<>();
+    private final EventCodec<?>[] codecsByTag = new EventCodec<?>[256];
+    private final EventFormat format;
+
+    public EventCodecs(List<EventCodec<?>> codecs,
+                       @Value("${garage.kafka.events.format:BINARY}") EventFormat format) {
+        for (EventCodec<?> codec : codecs) {
+            int tag = codec.typeTag() & 0xFF;
+            if (codecsByTag[tag] != null) {
+                throw new IllegalStateException("Identifiant de type " + tag + " déjà utilisé par "
+                        + codecsByTag[tag].type().getSimpleName());
+            }
+            codecsByTag[tag] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+        this.format = format;
+    }
+
+    /**
+     * Format dans lequel publier un événement de ce type.
+     */
+    public EventFormat formatFor(Class<?> type) {
+        return format == EventFormat.BINARY && codecsByType.containsKey(type) ? EventFormat.BINARY : EventFormat.JSON;
+    }
+
+    /**
+     * Encode un événement avec son codec binaire.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> byte[] encode(T event) {
+        EventCodec<T> codec = (EventCodec<T>) codecsByType.get(event.getClass());
+        if (codec == null) {
+            throw new IllegalArgumentException("Aucun codec binaire pour " + event.getClass().getSimpleName());
+        }
+        return codec.encode(event);
+    }
+
+    /**
+     * Décode un message binaire, le type étant déterminé par son en-tête.
+     */
+    public Object decode(byte[] data) {
+        BinaryEventReader reader = BinaryEventReader.of(data);
+        EventCodec<?> codec = codecsByTag[reader.typeTag() & 0xFF];
+        if (codec == null) {
+            throw new SerializationException("Type d'événement binaire inconnu: " + reader.typeTag());
+        }
+        return codec.decode(reader);
+    }
+}
@@ -0,0 +1,41 @@
+package com.renault.garage.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Deserializer Kafka des événements : les messages binaires (reconnus à leur premier octet) sont
+ * décodés par leur codec, les autres par le JsonDeserializer à partir de l'en-tête de type.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    private final EventCodecs eventCodecs;
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    public EventDeserializer(EventCodecs eventCodecs) {
+        this.eventCodecs = eventCodecs;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return BinaryEventReader.isBinary(data) ? eventCodecs.decode(data) : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return BinaryEventReader.isBinary(data) ? eventCodecs.decode(data) : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,58 @@
+package com.renault.garage.codec;
+
+import com.renault.garage.event.VehicleCreatedEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Codec binaire de {@link VehicleCreatedEvent}.
+ *
+ * <p>Schéma v1 : vehicleId, brand, model, anneeFabrication, typeCarburant, garageId, garageName,
+ * createdAt (secondes epoch + nanos). v2 : + version (null à la lecture d'un message v1).</p>
+ */
+@Component
+public class VehicleCreatedEventCodec implements EventCodec<VehicleCreatedEvent> {
+
+    static final byte TYPE_TAG = 1;
+    static final int SCHEMA_VERSION = 2;
+
+    @Override
+    public Class<VehicleCreatedEvent> type() {
+        return VehicleCreatedEvent.class;
+    }
+
+    @Override
+    public byte typeTag() {
+        return TYPE_TAG;
+    }
+
+    @Override
+    public byte[] encode(VehicleCreatedEvent event) {
+        return BinaryEventWriter.start(TYPE_TAG, SCHEMA_VERSION,
+                        event.vehicleId(), event.brand(), event.model(), event.anneeFabrication(),
+                        event.typeCarburant(), event.garageId(), event.garageName(), event.createdAt(), event.version())
+                .writeLong(event.vehicleId())
+                .writeString(event.brand())
+                .writeString(event.model())
+                .writeInt(event.anneeFabrication())
+                .writeString(event.typeCarburant())
+                .writeLong(event.garageId())
+                .writeString(event.garageName())
+                .writeInstant(event.createdAt())
+                .writeLong(event.version())
+                .toByteArray();
+    }
+
+    @Override
+    public VehicleCreatedEvent decode(BinaryEventReader reader) {
+        return new VehicleCreatedEvent(
+                reader.readLong(),
+                reader.readString(),
+                reader.readString(),
+                reader.readInt(),
+                reader.readString(),
+                reader.readLong(),
+                reader.readString(),
+                reader.readInstant(),
+                reader.schemaVersion() >= 2 ? reader.readLong() : null);
+    }
+}
@@ -1,9 +1,16 @@
 package com.renault.garage.config;
 
-import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.codec.EventCodecs;
+import com.renault.garage.codec.EventDeserializer;
+import com.renault.garage.kafka.VehicleEventRetryConsumer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,66 +19,274 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Configuration Kafka pour le publisher et consumer.
+ * Les factories sont partagées par tous les topics : le JsonSerializer ajoute le type de
+ * l'événement dans les en-têtes, le JsonDeserializer s'en sert pour reconstruire l'objet.
+ * Les consumers lisent aussi le format binaire des événements publiés via l'outbox
+ * (voir {@link EventDeserializer}) ; un message illisible ne bloque pas sa partition : il est
+ * remis au listener sans valeur ({@link ErrorHandlingDeserializer}).
+ * Les métriques natives des clients (retard des consommateurs {@code kafka.consumer.fetch.manager.records.lag},
+ * latence des envois {@code kafka.producer.request.latency.avg}...) sont publiées dans Micrometer.
  */
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConfig {
 
+    private final EventCodecs eventCodecs;
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id:garage-management-group}")
     private String groupId;
 
+    @Value("${garage.kafka.producer.compression-type:lz4}")
+    private String outboxCompressionType;
+
+    @Value("${garage.kafka.producer.bulk.linger-ms:5}")
+    private int bulkLingerMs;
+
+    @Value("${garage.kafka.producer.bulk.batch-size:262144}")
+    private int bulkBatchSize;
+
+    @Value("${garage.kafka.producer.bulk.compression-type:lz4}")
+    private String bulkCompressionType;
+
+    @Value("${garage.outbox.relay.send-timeout:PT10S}")
+    private Duration outboxSendTimeout;
+
+    @Value("${garage.kafka.consumer.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
     @Value("${app.kafka.topics.vehicle-created:vehicle-created}")
     private String vehicleCreatedTopic;
 
+    @Value("${garage.kafka.vehicle-created.partitions:3}")
+    private int vehicleCreatedPartitions;
+
+    @Value("${app.kafka.topics.vehicle-created-failed:vehicle-created-failed}")
+    private String vehicleCreatedFailedTopic;
+
+    @Value("${app.kafka.topics.cache-invalidation:garage-cache-invalidation}")
+    private String cacheInvalidationTopic;
+
+    @Value("${app.kafka.topics.garage-changes:garage-changes}")
+    private String garageChangesTopic;
+
+    @Value("${app.kafka.topics.garage-state:garage-state}")
+    private String garageStateTopic;
+
+    /**
+     * Topic des créations de véhicules, clé = ID du garage. Le nombre de partitions fixe aussi la
+     * concurrence du listener : un thread par partition.
+     */
     @Bean
     public NewTopic vehicleCreatedTopic() {
         return TopicBuilder.name(vehicleCreatedTopic)
+                .partitions(vehicleCreatedPartitions)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Topic des événements de changement, clé = ID du garage : tous les événements d'un garage
+     * sont sur la même partition, dans l'ordre.
+     */
+    @Bean
+    public NewTopic garageChangesTopic() {
+        return TopicBuilder.name(garageChangesTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Topic compacté des invalidations de cache : seule la dernière invalidation de chaque
+     * entité (clé "REGION:id") est conservée.
+     */
+    @Bean
+    public NewTopic cacheInvalidationTopic() {
+        return TopicBuilder.name(cacheInvalidationTopic)
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .build();
+    }
+
+    /**
+     * Topic compacté de l'état des garages, clé = ID du garage : seul le dernier état de chaque
+     * garage est conservé (un tombstone efface un garage supprimé), lu en entier au démarrage
+     * d'une instance pour remplir ses caches.
+     */
+    @Bean
+    public NewTopic garageStateTopic() {
+        return TopicBuilder.name(garageStateTopic)
                 .partitions(3)
                 .replicas(1)
+                .compact()
                 .build();
     }
 
     @Bean
-    public ProducerFactory<String, VehicleCreatedEvent> producerFactory() {
+    public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return withMetrics(new DefaultKafkaProducerFactory<>(configProps));
     }
 
     @Bean
-    public KafkaTemplate<String, VehicleCreatedEvent> kafkaTemplate() {
+    public KafkaTemplate<String, Object> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * Producteur du relais de l'outbox : les messages sont déjà sérialisés en JSON, le type est
+     * ajouté en en-tête par le relais. Idempotent (acks=all) pour garder l'ordre par clé malgré
+     * les renvois ; un court linger.ms regroupe les messages d'un même lot, compressé en bloc
+     * ({@code compression.type}, lz4 par défaut).
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> outboxProducerFactory() {
+        return withMetrics(new DefaultKafkaProducerFactory<>(outboxProducerProps(5, 16384, outboxCompressionType)));
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> outboxKafkaTemplate() {
+        return new KafkaTemplate<>(outboxProducerFactory());
+    }
+
+    /**
+     * Profil « bulk » du producteur de l'outbox, utilisé par le relais pour vider un arriéré
+     * (import en masse) : un batch.size élevé laisse partir des lots de plusieurs centaines de
+     * messages par partition, compressés ensemble. Le linger.ms reste court : le relais attend
+     * l'acquittement de chaque lot avant le suivant, un linger plus long ne ferait qu'allonger
+     * cette attente (voir {@code VehiclePublishBenchmarkTest}).
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> bulkOutboxProducerFactory() {
+        return withMetrics(new DefaultKafkaProducerFactory<>(
+                outboxProducerProps(bulkLingerMs, bulkBatchSize, bulkCompressionType)));
+    }
+
     @Bean
-    public ConsumerFactory<String, VehicleCreatedEvent> consumerFactory() {
+    public KafkaTemplate<String, byte[]> bulkOutboxKafkaTemplate() {
+        return new KafkaTemplate<>(bulkOutboxProducerFactory());
+    }
+
+    private Map<String, Object> outboxProducerProps(int lingerMs, int batchSize, String compressionType) {
         Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.renault.garage.event");
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        // Un envoi bloqué (métadonnées, tampon plein) ne dépasse pas l'attente d'un lot du relais
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, outboxSendTimeout.toMillis());
+        return configProps;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, VehicleCreatedEvent> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, VehicleCreatedEvent> factory =
+    public ConsumerFactory<String, Object> consumerFactory() {
+        return eventConsumerFactory(consumerProps());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         return factory;
     }
+
+    /**
+     * Factory des listeners par lot : le listener reçoit tous les enregistrements d'un poll
+     * (jusqu'à max.poll.records) et les offsets sont validés après le lot (AckMode.BATCH).
+     * L'enregistrement désigné par une {@code BatchListenerFailedException} est écarté sans
+     * nouvelle tentative bloquante (voir {@link #vehicleEventErrorHandler()}).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        Map<String, Object> configProps = consumerProps();
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory(configProps));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(vehicleEventErrorHandler());
+        return factory;
+    }
+
+    /**
+     * Gestionnaire d'erreurs des lots d'événements véhicules : les enregistrements qui précèdent
+     * l'enregistrement en échec sont validés, celui-ci est publié aussitôt sur le topic des échecs
+     * (reprises non bloquantes, voir {@link VehicleEventRetryConsumer}), ou directement sur le DLT
+     * s'il est illisible, et la partition reprend à l'enregistrement suivant.
+     */
+    @Bean
+    public DefaultErrorHandler vehicleEventErrorHandler() {
+        // Valeur illisible republiée telle quelle (octets d'origine), événement en JSON sinon
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, outboxKafkaTemplate());
+        templates.put(Object.class, kafkaTemplate());
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates,
+                (record, exception) -> new TopicPartition(record.value() == null
+                        ? vehicleCreatedFailedTopic + VehicleEventRetryConsumer.DLT_SUFFIX
+                        : vehicleCreatedFailedTopic, -1));
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
+    }
+
+    /**
+     * Consommateur du rejeu du DLT : octets bruts, republiés tels quels, et positions validées
+     * explicitement après republication.
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> deadLetterConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private ConsumerFactory<String, Object> eventConsumerFactory(Map<String, Object> configProps) {
+        DefaultKafkaConsumerFactory<String, Object> factory = new DefaultKafkaConsumerFactory<>(configProps,
+                StringDeserializer::new, () -> new ErrorHandlingDeserializer<>(new EventDeserializer(eventCodecs)));
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private <V> ProducerFactory<String, V> withMetrics(DefaultKafkaProducerFactory<String, V> factory) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.renault.garage.event");
+        return configProps;
+    }
 }
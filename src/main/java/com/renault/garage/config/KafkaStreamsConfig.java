@@ -0,0 +1,57 @@
+package com.renault.garage.config;
+
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration Kafka Streams des agrégats de flotte par garage.
+ * {@code application.server} annonce l'adresse HTTP de l'instance : les requêtes interactives
+ * sur un garage dont la partition est hébergée ailleurs sont redirigées vers cette adresse.
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "garage.fleet-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaStreamsConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${garage.fleet-stats.application-id:garage-fleet-stats}")
+    private String applicationId;
+
+    @Value("${garage.fleet-stats.advertised-host:localhost}")
+    private String advertisedHost;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${garage.fleet-stats.state-dir:${java.io.tmpdir}/kafka-streams}")
+    private String stateDir;
+
+    @Value("${garage.fleet-stats.stream-threads:1}")
+    private int streamThreads;
+
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfiguration() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        configProps.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(StreamsConfig.APPLICATION_SERVER_CONFIG, advertisedHost + ":" + serverPort);
+        configProps.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        configProps.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, streamThreads);
+        // Un message illisible est journalisé et ignoré plutôt que d'arrêter la topologie
+        configProps.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
+                LogAndContinueExceptionHandler.class);
+        return new KafkaStreamsConfiguration(configProps);
+    }
+}
@@ -0,0 +1,12 @@
+package com.renault.garage.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (relais de l'outbox Kafka, statistiques de recherche).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,8 +2,10 @@ package com.renault.garage.controller;
 
 import com.renault.garage.dto.AccessoryDTO;
 import com.renault.garage.service.AccessoryService;
+import com.renault.garage.support.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -33,13 +35,21 @@ public class AccessoryController {
     }
 
     /**
-     * Récupère un accessoire par son ID.
+     * Récupère un accessoire par son ID (ETag faible, 304 si If-None-Match correspond).
      * GET /api/accessories/{id}
      */
     @GetMapping("/accessories/{id}")
-    public ResponseEntity<AccessoryDTO> getAccessoryById(@PathVariable Long id) {
+    public ResponseEntity<AccessoryDTO> getAccessoryById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = accessoryService.getAccessoryETag(id);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         AccessoryDTO accessory = accessoryService.getAccessoryById(id);
-        return ResponseEntity.ok(accessory);
+        return ResponseEntity.ok().eTag(ETags.of(accessory)).body(accessory);
     }
 
     /**
@@ -53,15 +63,16 @@ public class AccessoryController {
     }
 
     /**
-     * Met à jour un accessoire.
+     * Met à jour un accessoire (412 si If-Match ne correspond plus).
      * PUT /api/accessories/{id}
      */
     @PutMapping("/accessories/{id}")
     public ResponseEntity<AccessoryDTO> updateAccessory(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody AccessoryDTO accessoryDTO) {
-        AccessoryDTO updatedAccessory = accessoryService.updateAccessory(id, accessoryDTO);
-        return ResponseEntity.ok(updatedAccessory);
+        AccessoryDTO updatedAccessory = accessoryService.updateAccessory(id, accessoryDTO, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updatedAccessory)).body(updatedAccessory);
     }
 
     /**
@@ -0,0 +1,37 @@
+package com.renault.garage.controller;
+
+import com.renault.garage.dto.CacheStatisticsDTO;
+import com.renault.garage.service.SecondLevelCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur REST d'administration du cache de second niveau.
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+public class CacheAdminController {
+
+    private final SecondLevelCacheService secondLevelCacheService;
+
+    /**
+     * Statistiques de succès et d'échecs du cache, globales et par région.
+     * GET /api/admin/cache
+     */
+    @GetMapping
+    public ResponseEntity<CacheStatisticsDTO> getStatistics() {
+        return ResponseEntity.ok(secondLevelCacheService.getStatistics());
+    }
+
+    /**
+     * Vide toutes les régions du cache.
+     * DELETE /api/admin/cache
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        secondLevelCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,14 +1,16 @@
 package com.renault.garage.controller;
 
+import com.renault.garage.cache.SerializedResponse;
 import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.pagination.CursorPage;
+import com.renault.garage.pagination.GarageSortKey;
 import com.renault.garage.service.GarageService;
+import com.renault.garage.support.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -33,36 +35,58 @@ public class GarageController {
     }
 
     /**
-     * Récupère un garage par son ID.
+     * Récupère un garage par son ID (ETag faible, 304 si If-None-Match correspond).
+     * Le JSON pré-sérialisé est écrit tel quel, en gzip si le client l'accepte.
      * GET /api/garages/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<GarageDTO> getGarageById(@PathVariable Long id) {
-        GarageDTO garage = garageService.getGarageById(id);
-        return ResponseEntity.ok(garage);
+    public ResponseEntity<byte[]> getGarageById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (ifNoneMatch != null) {
+            String etag = garageService.getGarageETag(id);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        SerializedResponse garage = garageService.getSerializedGarageById(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(garage.etag());
+        if (garage.gzip() == null) {
+            return response.body(garage.json());
+        }
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return garage.servesGzip(acceptEncoding)
+                ? response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(garage.gzip())
+                : response.body(garage.json());
     }
 
     /**
-     * Récupère tous les garages avec pagination et tri.
-     * GET /api/garages?page=0&size=10&sort=name,asc
+     * Récupère les garages par pagination par curseur, triés par nom (défaut) ou par ID.
+     * GET /api/garages?size=10&sort=name,asc&cursor=...
      */
     @GetMapping
-    public ResponseEntity<Page<GarageDTO>> getAllGarages(
-            @PageableDefault(size = 10, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
-        Page<GarageDTO> garages = garageService.getAllGarages(pageable);
+    public ResponseEntity<CursorPage<GarageDTO>> getAllGarages(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sort) {
+        CursorPage<GarageDTO> garages = garageService.getAllGarages(GarageSortKey.fromParameter(sort), cursor, size);
         return ResponseEntity.ok(garages);
     }
 
     /**
-     * Met à jour un garage.
+     * Met à jour un garage (412 si If-Match ne correspond plus).
      * PUT /api/garages/{id}
      */
     @PutMapping("/{id}")
     public ResponseEntity<GarageDTO> updateGarage(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody GarageDTO garageDTO) {
-        GarageDTO updatedGarage = garageService.updateGarage(id, garageDTO);
-        return ResponseEntity.ok(updatedGarage);
+        GarageDTO updatedGarage = garageService.updateGarage(id, garageDTO, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updatedGarage)).body(updatedGarage);
     }
 
     /**
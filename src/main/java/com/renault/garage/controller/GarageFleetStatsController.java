@@ -0,0 +1,45 @@
+package com.renault.garage.controller;
+
+import com.renault.garage.dto.GarageFleetStatsDTO;
+import com.renault.garage.service.GarageFleetStatsService;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Optional;
+
+/**
+ * Contrôleur REST des agrégats de flotte par garage (requêtes interactives Kafka Streams).
+ */
+@RestController
+@RequestMapping("/api/garages")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "garage.fleet-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class GarageFleetStatsController {
+
+    private final GarageFleetStatsService garageFleetStatsService;
+
+    /**
+     * Récupère les agrégats de flotte d'un garage : véhicules par carburant, par tranche d'années
+     * et capacité restante. Redirige (307) vers l'instance qui héberge le garage.
+     * GET /api/garages/{id}/fleet-stats
+     */
+    @GetMapping("/{id}/fleet-stats")
+    public ResponseEntity<GarageFleetStatsDTO> getFleetStats(@PathVariable Long id) {
+        Optional<HostInfo> owner = garageFleetStatsService.findRemoteOwner(id);
+        if (owner.isPresent()) {
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                            .host(owner.get().host())
+                            .port(owner.get().port())
+                            .build()
+                            .toUri())
+                    .build();
+        }
+        return ResponseEntity.ok(garageFleetStatsService.getFleetStats(id));
+    }
+}
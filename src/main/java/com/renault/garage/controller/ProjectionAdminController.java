@@ -0,0 +1,75 @@
+package com.renault.garage.controller;
+
+import com.renault.garage.dto.GarageFleetBackfillResultDTO;
+import com.renault.garage.dto.GarageStateBootstrapDTO;
+import com.renault.garage.dto.GarageStatePublishResultDTO;
+import com.renault.garage.dto.ProjectionRebuildStatusDTO;
+import com.renault.garage.kafka.GarageFleetBackfill;
+import com.renault.garage.kafka.GarageStateBootstrap;
+import com.renault.garage.kafka.GarageStatePublisher;
+import com.renault.garage.service.GarageActivityRebuildService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur REST d'administration des projections reconstruites depuis le journal d'événements,
+ * du topic compacté de l'état des garages et des agrégats de flotte.
+ */
+@RestController
+@RequestMapping("/api/admin/projections")
+@RequiredArgsConstructor
+public class ProjectionAdminController {
+
+    private final GarageActivityRebuildService garageActivityRebuildService;
+    private final GarageStatePublisher garageStatePublisher;
+    private final GarageStateBootstrap garageStateBootstrap;
+    private final GarageFleetBackfill garageFleetBackfill;
+
+    /**
+     * Lance la reconstruction de l'activité des garages (409 si une reconstruction est en cours).
+     * POST /api/admin/projections/garage-activity/rebuild
+     */
+    @PostMapping("/garage-activity/rebuild")
+    public ResponseEntity<ProjectionRebuildStatusDTO> rebuildGarageActivity() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(garageActivityRebuildService.start());
+    }
+
+    /**
+     * Avancement de la reconstruction en cours ou de la dernière terminée.
+     * GET /api/admin/projections/garage-activity/rebuild
+     */
+    @GetMapping("/garage-activity/rebuild")
+    public ResponseEntity<ProjectionRebuildStatusDTO> getGarageActivityRebuild() {
+        return ResponseEntity.of(garageActivityRebuildService.getStatus());
+    }
+
+    /**
+     * Republie l'état de tous les garages sur le topic compacté (premier remplissage du topic).
+     * POST /api/admin/projections/garage-state/publish
+     */
+    @PostMapping("/garage-state/publish")
+    public ResponseEntity<GarageStatePublishResultDTO> publishGarageState() {
+        return ResponseEntity.ok(garageStatePublisher.republishAll());
+    }
+
+    /**
+     * Résultat du remplissage des caches de cette instance au démarrage (404 s'il est désactivé).
+     * GET /api/admin/projections/garage-state/bootstrap
+     */
+    @GetMapping("/garage-state/bootstrap")
+    public ResponseEntity<GarageStateBootstrapDTO> getGarageStateBootstrap() {
+        return ResponseEntity.of(garageStateBootstrap.getLastResult());
+    }
+
+    /**
+     * Publie l'instantané des véhicules de tous les garages sur le flux des changements, pour les
+     * agrégats de flotte des garages sans changement depuis le démarrage du flux.
+     * POST /api/admin/projections/garage-fleet-stats/backfill
+     */
+    @PostMapping("/garage-fleet-stats/backfill")
+    public ResponseEntity<GarageFleetBackfillResultDTO> backfillGarageFleetStats() {
+        return ResponseEntity.ok(garageFleetBackfill.backfill());
+    }
+}
@@ -1,13 +1,16 @@
 package com.renault.garage.controller;
 
-import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.GarageSearchResultDTO;
+import com.renault.garage.enums.AccessoryType;
 import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import com.renault.garage.search.GarageSearchCriteria;
 import com.renault.garage.service.GarageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Set;
 
 /**
  * Contrôleur REST pour les recherches avancées.
@@ -20,24 +23,34 @@ public class SearchController {
     private final GarageService garageService;
 
     /**
-     * Recherche les garages par type de carburant.
-     * GET /api/search/garages?fuelType=ELECTRIQUE
+     * Recherche multicritère des garages, critères combinés en ET :
+     * type(s) de carburant (OU avec match=ANY, défaut, ou ET avec match=ALL), modèle et nom
+     * d'accessoire (sous-chaînes), type d'accessoire et intervalle d'années de fabrication.
+     * Avec explain=true, la réponse contient le plan choisi.
+     * GET /api/search/garages?fuelType=ELECTRIQUE&accessory=GPS&yearFrom=2020&explain=true
      */
     @GetMapping("/garages")
-    public ResponseEntity<List<GarageDTO>> searchGarages(
-            @RequestParam(required = false) FuelType fuelType,
-            @RequestParam(required = false) String accessory) {
-        
-        if (fuelType != null) {
-            List<GarageDTO> garages = garageService.findByVehicleFuelType(fuelType);
-            return ResponseEntity.ok(garages);
-        }
-        
-        if (accessory != null && !accessory.isEmpty()) {
-            List<GarageDTO> garages = garageService.findByAccessoryName(accessory);
-            return ResponseEntity.ok(garages);
-        }
-        
-        return ResponseEntity.badRequest().build();
+    public ResponseEntity<GarageSearchResultDTO> searchGarages(
+            @RequestParam(required = false) Set<FuelType> fuelType,
+            @RequestParam(defaultValue = "ANY") FuelTypeMatch match,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) String accessory,
+            @RequestParam(required = false) AccessoryType accessoryType,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean explain) {
+
+        GarageSearchCriteria criteria = GarageSearchCriteria.builder()
+                .fuelTypes(fuelType)
+                .fuelTypeMatch(match)
+                .model(model)
+                .accessoryName(accessory)
+                .accessoryType(accessoryType)
+                .yearFrom(yearFrom)
+                .yearTo(yearTo)
+                .build();
+        return ResponseEntity.ok(garageService.searchGarages(criteria, cursor, size, explain));
     }
 }
@@ -0,0 +1,42 @@
+package com.renault.garage.controller;
+
+import com.renault.garage.dto.SlowRequestDTO;
+import com.renault.garage.metrics.SlowRequestLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Contrôleur REST d'administration des requêtes HTTP lentes capturées.
+ */
+@RestController
+@RequestMapping("/api/admin/slow-requests")
+@ConditionalOnProperty(name = "garage.tracing.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SlowRequestAdminController {
+
+    private final SlowRequestLog slowRequestLog;
+
+    /**
+     * Requêtes les plus lentes, de la plus lente à la plus rapide, avec leurs étapes
+     * (contrôleur, services, requêtes SQL, Kafka, écriture de la réponse).
+     * GET /api/admin/slow-requests
+     */
+    @GetMapping
+    public ResponseEntity<List<SlowRequestDTO>> getSlowRequests() {
+        return ResponseEntity.ok(slowRequestLog.getSlowest());
+    }
+
+    /**
+     * Vide le journal des requêtes lentes.
+     * DELETE /api/admin/slow-requests
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        slowRequestLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
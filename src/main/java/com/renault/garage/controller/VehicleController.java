@@ -1,14 +1,32 @@
 package com.renault.garage.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.dto.ImportResultDTO;
 import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.dto.VehicleImportDTO;
+import com.renault.garage.exception.InvalidImportException;
+import com.renault.garage.pagination.CursorPage;
+import com.renault.garage.service.VehicleExportService;
+import com.renault.garage.service.VehicleImportService;
 import com.renault.garage.service.VehicleService;
+import com.renault.garage.support.ETags;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur REST pour la gestion des véhicules.
@@ -18,7 +36,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class VehicleController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final long EXPORT_TIMEOUT_NONE = -1;
+
     private final VehicleService vehicleService;
+    private final VehicleImportService vehicleImportService;
+    private final VehicleExportService vehicleExportService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${garage.import.max-rows:10000}")
+    private int maxImportRows;
 
     /**
      * Ajoute un véhicule à un garage.
@@ -33,49 +60,133 @@ public class VehicleController {
     }
 
     /**
-     * Récupère un véhicule par son ID.
+     * Importe en masse des véhicules et leurs accessoires (tableau JSON).
+     * POST /api/vehicles/import
+     */
+    @PostMapping(value = "/vehicles/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResultDTO> importVehicles(@RequestBody List<VehicleImportDTO> vehicles) {
+        if (vehicles.size() > maxImportRows) {
+            throw tooManyRows();
+        }
+        ImportResultDTO result = vehicleImportService.importVehicles(vehicles);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    /**
+     * Importe en masse des véhicules et leurs accessoires (NDJSON, un véhicule par ligne).
+     * Les lignes sont toutes lues avant validation (capacité vérifiée par garage) : la lecture
+     * s'arrête au-delà de {@code garage.import.max-rows} lignes, avant d'occuper plus de mémoire.
+     * POST /api/vehicles/import
+     */
+    @PostMapping(value = "/vehicles/import", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResultDTO> importVehiclesNdjson(InputStream body) throws IOException {
+        List<VehicleImportDTO> vehicles = new ArrayList<>();
+        try (MappingIterator<VehicleImportDTO> rows = objectMapper.readerFor(VehicleImportDTO.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                if (vehicles.size() == maxImportRows) {
+                    throw tooManyRows();
+                }
+                vehicles.add(rows.nextValue());
+            }
+        }
+        ImportResultDTO result = vehicleImportService.importVehicles(vehicles);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    /**
+     * Exporte tous les véhicules avec leur garage et leurs accessoires (NDJSON, un véhicule par ligne).
+     * La réponse est écrite au fil de la lecture, sans construire la liste complète en mémoire,
+     * dans une tâche asynchrone sans délai d'expiration : la durée d'un gros export dépend du
+     * volume, le délai par défaut ({@code spring.mvc.async.request-timeout}) reste celui des autres
+     * traitements asynchrones.
+     * GET /api/vehicles/export
+     */
+    @GetMapping(value = "/vehicles/export", produces = APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportVehicles(HttpServletResponse response) {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(EXPORT_TIMEOUT_NONE, () -> {
+            vehicleExportService.exportVehicles(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    /**
+     * Récupère un véhicule par son ID (ETag faible, 304 si If-None-Match correspond).
      * GET /api/vehicles/{id}
      */
     @GetMapping("/vehicles/{id}")
-    public ResponseEntity<VehicleDTO> getVehicleById(@PathVariable Long id) {
+    public ResponseEntity<VehicleDTO> getVehicleById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = vehicleService.getVehicleETag(id);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         VehicleDTO vehicle = vehicleService.getVehicleById(id);
-        return ResponseEntity.ok(vehicle);
+        return ResponseEntity.ok().eTag(ETags.of(vehicle)).body(vehicle);
     }
 
     /**
-     * Récupère tous les véhicules d'un garage.
-     * GET /api/garages/{garageId}/vehicles
+     * Récupère les véhicules d'un garage, page par page. L'ETag faible est celui de la liste
+     * entière du garage (version agrégée) : 304 si If-None-Match correspond.
+     * GET /api/garages/{garageId}/vehicles?size=20&cursor=...
      */
     @GetMapping("/garages/{garageId}/vehicles")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByGarage(@PathVariable Long garageId) {
-        List<VehicleDTO> vehicles = vehicleService.getVehiclesByGarageId(garageId);
-        return ResponseEntity.ok(vehicles);
+    public ResponseEntity<CursorPage<VehicleDTO>> getVehiclesByGarage(
+            @PathVariable Long garageId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = vehicleService.getGarageVehiclesETag(garageId);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        CursorPage<VehicleDTO> vehicles = vehicleService.getVehiclesByGarageId(garageId, cursor, size);
+        return ResponseEntity.ok().eTag(etag).body(vehicles);
     }
 
     /**
-     * Récupère tous les véhicules d'un modèle donné.
-     * GET /api/vehicles?model={model}
+     * Récupère les véhicules d'un modèle donné, page par page.
+     * GET /api/vehicles?model={model}&size=20&cursor=...
      */
     @GetMapping("/vehicles")
-    public ResponseEntity<List<VehicleDTO>> getVehiclesByModel(
-            @RequestParam(required = false) String model) {
+    public ResponseEntity<CursorPage<VehicleDTO>> getVehiclesByModel(
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         if (model != null && !model.isEmpty()) {
-            List<VehicleDTO> vehicles = vehicleService.getVehiclesByModel(model);
+            CursorPage<VehicleDTO> vehicles = vehicleService.getVehiclesByModel(model, cursor, size);
             return ResponseEntity.ok(vehicles);
         }
         return ResponseEntity.badRequest().build();
     }
 
     /**
-     * Met à jour un véhicule.
+     * Met à jour un véhicule (412 si If-Match ne correspond plus).
      * PUT /api/vehicles/{id}
      */
     @PutMapping("/vehicles/{id}")
     public ResponseEntity<VehicleDTO> updateVehicle(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody VehicleDTO vehicleDTO) {
-        VehicleDTO updatedVehicle = vehicleService.updateVehicle(id, vehicleDTO);
-        return ResponseEntity.ok(updatedVehicle);
+        VehicleDTO updatedVehicle = vehicleService.updateVehicle(id, vehicleDTO, ifMatch);
+        return ResponseEntity.ok().eTag(ETags.of(updatedVehicle)).body(updatedVehicle);
+    }
+
+    /**
+     * Transfère un véhicule vers un autre garage.
+     * PUT /api/vehicles/{id}/garage/{garageId}
+     */
+    @PutMapping("/vehicles/{id}/garage/{garageId}")
+    public ResponseEntity<VehicleDTO> transferVehicle(
+            @PathVariable Long id,
+            @PathVariable Long garageId) {
+        VehicleDTO transferredVehicle = vehicleService.transferVehicle(id, garageId);
+        return ResponseEntity.ok(transferredVehicle);
     }
 
     /**
@@ -87,4 +198,9 @@ public class VehicleController {
         vehicleService.deleteVehicle(id);
         return ResponseEntity.noContent().build();
     }
+
+    private InvalidImportException tooManyRows() {
+        return new InvalidImportException(Map.of("[" + maxImportRows + "]",
+                "L'import est limité à " + maxImportRows + " lignes"));
+    }
 }
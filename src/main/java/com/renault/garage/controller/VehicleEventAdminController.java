@@ -0,0 +1,27 @@
+package com.renault.garage.controller;
+
+import com.renault.garage.dto.DeadLetterReplayResultDTO;
+import com.renault.garage.kafka.VehicleDeadLetterReplayer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur REST d'administration des événements de véhicules.
+ */
+@RestController
+@RequestMapping("/api/admin/vehicle-events")
+@RequiredArgsConstructor
+public class VehicleEventAdminController {
+
+    private final VehicleDeadLetterReplayer vehicleDeadLetterReplayer;
+
+    /**
+     * Republie sur le topic principal les événements du DLT non encore rejoués.
+     * POST /api/admin/vehicle-events/dlt/replay
+     */
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<DeadLetterReplayResultDTO> replayDeadLetters() {
+        return ResponseEntity.ok(vehicleDeadLetterReplayer.replay());
+    }
+}
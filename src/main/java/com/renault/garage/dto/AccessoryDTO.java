@@ -1,5 +1,6 @@
 package com.renault.garage.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.renault.garage.enums.AccessoryType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -35,4 +36,10 @@ public class AccessoryDTO {
     private AccessoryType type;
 
     private Long vehicleId;
+
+    /**
+     * Version de l'accessoire (source de l'ETag), ignorée en entrée.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,31 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistiques d'une région du cache de second niveau.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheRegionStatisticsDTO {
+
+    private String region;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    private double hitRatio;
+
+    /**
+     * Nombre d'entrées en mémoire, ou -1 si la région ne l'expose pas.
+     */
+    private long elementCount;
+}
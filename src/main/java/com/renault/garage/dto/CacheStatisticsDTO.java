@@ -0,0 +1,37 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Statistiques du cache de second niveau et du cache de requêtes depuis le démarrage
+ * (ou la dernière remise à zéro).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatisticsDTO {
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    private double hitRatio;
+
+    private long queryCacheHitCount;
+
+    private long queryCacheMissCount;
+
+    private long queryCachePutCount;
+
+    private double queryCacheHitRatio;
+
+    private List<CacheRegionStatisticsDTO> regions;
+}
@@ -0,0 +1,29 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'un rejeu du DLT des événements de véhicules.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeadLetterReplayResultDTO {
+
+    private String deadLetterTopic;
+
+    private String targetTopic;
+
+    private int replayed;
+
+    /**
+     * Faux si le délai du rejeu a été atteint avant la fin du DLT (à relancer).
+     */
+    private boolean complete;
+
+    private long durationMs;
+}
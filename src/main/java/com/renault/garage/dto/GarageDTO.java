@@ -1,5 +1,6 @@
 package com.renault.garage.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -36,4 +37,10 @@ public class GarageDTO {
     private List<OpeningHoursDTO> horairesOuverture;
     
     private Integer vehicleCount;
+
+    /**
+     * Version du garage (source de l'ETag), ignorée en entrée.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
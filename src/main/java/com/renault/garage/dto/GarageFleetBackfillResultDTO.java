@@ -0,0 +1,24 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat du remplissage des agrégats de flotte depuis la base.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageFleetBackfillResultDTO {
+
+    private String topic;
+
+    private int garages;
+
+    private long vehicles;
+
+    private long durationMs;
+}
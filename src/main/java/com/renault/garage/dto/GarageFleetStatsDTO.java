@@ -0,0 +1,34 @@
+package com.renault.garage.dto;
+
+import com.renault.garage.enums.FuelType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Agrégats de flotte d'un garage, servis par le store Kafka Streams (sans requête SQL).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageFleetStatsDTO {
+
+    private Long garageId;
+
+    private int vehicleCount;
+
+    private int maxVehicles;
+
+    private int remainingCapacity;
+
+    private Map<FuelType, Long> vehiclesByFuelType;
+
+    /**
+     * Nombre de véhicules par tranche d'années de fabrication, clé = "2020-2024".
+     */
+    private Map<String, Long> vehiclesByYearBucket;
+}
@@ -0,0 +1,26 @@
+package com.renault.garage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.renault.garage.pagination.CursorPage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'une recherche multicritère : la page de garages (mêmes champs qu'une
+ * {@link CursorPage}) et, sur demande, le plan d'exécution.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageSearchResultDTO {
+
+    @JsonUnwrapped
+    private CursorPage<GarageDTO> page;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SearchPlanDTO plan;
+}
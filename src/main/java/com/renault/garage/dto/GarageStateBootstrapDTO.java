@@ -0,0 +1,48 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Résultat du remplissage des caches d'une instance depuis le topic de l'état des garages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageStateBootstrapDTO {
+
+    private String topic;
+
+    /**
+     * Enregistrements lus (états, tombstones et illisibles).
+     */
+    private long records;
+
+    /**
+     * Garages dont l'état a été chargé (dernier état de chaque clé, hors tombstones).
+     */
+    private int garages;
+
+    private long unreadable;
+
+    /**
+     * Vrai si l'index des garages par carburant a été chargé depuis le topic (faux : construit
+     * depuis la base, topic incomplet).
+     */
+    private boolean fuelTypeIndexLoaded;
+
+    /**
+     * Faux si le remplissage a été abandonné (délai dépassé, broker indisponible) : les caches
+     * se remplissent alors à la lecture et l'index est construit depuis la base.
+     */
+    private boolean complete;
+
+    private Instant startedAt;
+
+    private long durationMs;
+}
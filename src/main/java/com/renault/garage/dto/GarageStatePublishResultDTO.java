@@ -0,0 +1,22 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat de la republication de l'état de tous les garages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageStatePublishResultDTO {
+
+    private String topic;
+
+    private int garages;
+
+    private long durationMs;
+}
@@ -0,0 +1,26 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'un import en masse de véhicules.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportResultDTO {
+
+    private int garageCount;
+
+    private int vehicleCount;
+
+    private int accessoryCount;
+
+    private long durationMs;
+
+    private double rowsPerSecond;
+}
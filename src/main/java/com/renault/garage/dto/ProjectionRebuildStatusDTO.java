@@ -0,0 +1,55 @@
+package com.renault.garage.dto;
+
+import com.renault.garage.enums.RebuildState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Avancement d'une reconstruction de projection depuis le journal d'événements.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectionRebuildStatusDTO {
+
+    private String projection;
+
+    private RebuildState state;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private int partitions;
+
+    /**
+     * Offsets à relire (du premier offset de chaque partition à la cible courante).
+     */
+    private long targetOffsets;
+
+    private long offsetsRead;
+
+    private double progressPercent;
+
+    private long eventsRead;
+
+    private double eventsPerSecond;
+
+    private long duplicatesSkipped;
+
+    private long unreadableSkipped;
+
+    private int garages;
+
+    /**
+     * Durée d'arrêt du listener principal pendant la bascule.
+     */
+    private long cutoverMs;
+
+    private String error;
+}
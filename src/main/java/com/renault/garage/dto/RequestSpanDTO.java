@@ -0,0 +1,36 @@
+package com.renault.garage.dto;
+
+import com.renault.garage.enums.SpanType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Étape d'une requête HTTP lente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RequestSpanDTO {
+
+    private SpanType type;
+
+    /**
+     * Classe et méthode, ou texte de la requête SQL (paramètres non renseignés).
+     */
+    private String name;
+
+    /**
+     * Profondeur d'imbrication : 0 pour le contrôleur et l'écriture de la réponse.
+     */
+    private int depth;
+
+    /**
+     * Début de l'étape depuis le début de la requête.
+     */
+    private double offsetMs;
+
+    private double durationMs;
+}
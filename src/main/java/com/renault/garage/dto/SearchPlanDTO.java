@@ -0,0 +1,33 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Plan choisi pour une recherche multicritère (paramètre {@code explain=true}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchPlanDTO {
+
+    /**
+     * Nombre total de garages selon les statistiques.
+     */
+    private long garageCount;
+
+    /**
+     * Vrai si un critère ne correspond à aucun garage : la base n'a pas été interrogée.
+     */
+    private boolean shortCircuited;
+
+    /**
+     * Critères dans l'ordre d'évaluation ; le premier pilote la recherche.
+     */
+    private List<SearchPlanStepDTO> steps;
+}
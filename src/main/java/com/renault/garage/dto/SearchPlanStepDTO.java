@@ -0,0 +1,28 @@
+package com.renault.garage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Étape d'un plan de recherche : un critère, son estimation et son rôle.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchPlanStepDTO {
+
+    private String predicate;
+
+    private String criterion;
+
+    private String role;
+
+    private String accessPath;
+
+    private long estimatedGarages;
+
+    private double selectivity;
+}
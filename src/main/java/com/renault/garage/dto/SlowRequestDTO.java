@@ -0,0 +1,59 @@
+package com.renault.garage.dto;
+
+import com.renault.garage.enums.SpanType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requête HTTP lente capturée, avec le détail de ses étapes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowRequestDTO {
+
+    private String method;
+
+    /**
+     * Motif de l'endpoint, {@code UNKNOWN} hors contrôleur.
+     */
+    private String uri;
+
+    private String path;
+
+    private String query;
+
+    private int status;
+
+    private Instant startedAt;
+
+    private double durationMs;
+
+    /**
+     * Durée cumulée des étapes par type, sans recompter une étape imbriquée dans une étape du
+     * même type ; une étape compte aussi dans ses parentes d'autres types.
+     */
+    private Map<SpanType, Double> durationMsByType;
+
+    /**
+     * Requêtes SQL parmi les étapes conservées.
+     */
+    private int sqlStatements;
+
+    /**
+     * Étapes dans l'ordre de leur début.
+     */
+    private List<RequestSpanDTO> spans;
+
+    /**
+     * Étapes non conservées au-delà de {@code garage.tracing.max-spans}.
+     */
+    private int droppedSpans;
+}
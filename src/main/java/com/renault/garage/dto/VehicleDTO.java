@@ -1,5 +1,6 @@
 package com.renault.garage.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.renault.garage.enums.FuelType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -36,4 +37,10 @@ public class VehicleDTO {
     private String garageName;
     
     private Integer accessoryCount;
+
+    /**
+     * Version du véhicule (source de l'ETag), ignorée en entrée.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,35 @@
+package com.renault.garage.dto;
+
+import com.renault.garage.enums.FuelType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO d'une ligne de l'export NDJSON : un véhicule avec son garage et ses accessoires.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VehicleExportDTO {
+
+    private Long id;
+
+    private String brand;
+
+    private String model;
+
+    private Integer anneeFabrication;
+
+    private FuelType typeCarburant;
+
+    private Long garageId;
+
+    private String garageName;
+
+    private List<AccessoryDTO> accessories;
+}
@@ -0,0 +1,42 @@
+package com.renault.garage.dto;
+
+import com.renault.garage.enums.FuelType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO d'une ligne d'import en masse : un véhicule, son garage et ses accessoires.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VehicleImportDTO {
+
+    @NotNull(message = "Le garage est obligatoire")
+    private Long garageId;
+
+    @NotBlank(message = "La marque est obligatoire")
+    private String brand;
+
+    @NotBlank(message = "Le modèle est obligatoire")
+    private String model;
+
+    @NotNull(message = "L'année de fabrication est obligatoire")
+    private Integer anneeFabrication;
+
+    @NotNull(message = "Le type de carburant est obligatoire")
+    private FuelType typeCarburant;
+
+    @Valid
+    @Builder.Default
+    private List<AccessoryDTO> accessories = new ArrayList<>();
+}
@@ -1,6 +1,7 @@
 package com.renault.garage.entity;
 
 import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.search.SearchText;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +10,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
@@ -16,7 +19,9 @@ import java.math.BigDecimal;
  * Entité représentant un accessoire associé à un véhicule.
  */
 @Entity
-@Table(name = "accessories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "accessory")
+@Table(name = "accessories", indexes = @Index(name = "idx_accessories_nom_search_vehicle_id", columnList = "nom_search, vehicle_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,13 +29,27 @@ import java.math.BigDecimal;
 public class Accessory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accessory_seq")
+    @SequenceGenerator(name = "accessory_seq", sequenceName = "accessory_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Version pour le verrouillage optimiste, source des ETags de l'API.
+     */
+    @Version
+    private Long version;
+
     @NotBlank(message = "Le nom de l'accessoire est obligatoire")
     @Column(nullable = false)
     private String nom;
 
+    /**
+     * Nom normalisé (voir {@link SearchText#normalize}), maintenu avec {@link #nom}
+     * pour la recherche par sous-chaîne sans LOWER() ligne à ligne.
+     */
+    @Column(name = "nom_search", nullable = false)
+    private String nomSearch;
+
     @Column(length = 1000)
     private String description;
 
@@ -47,4 +66,14 @@ public class Accessory {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     private Vehicle vehicle;
+
+    public void setNom(String nom) {
+        this.nom = nom;
+        this.nomSearch = SearchText.normalize(nom);
+    }
+
+    @PrePersist
+    void normalizeSearchKeys() {
+        nomSearch = SearchText.normalize(nom);
+    }
 }
@@ -7,6 +7,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,7 +18,10 @@ import java.util.List;
  * Entité représentant un garage du réseau Renault.
  */
 @Entity
-@Table(name = "garages")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "garage")
+@DynamicUpdate
+@Table(name = "garages", indexes = @Index(name = "idx_garages_name_id", columnList = "name, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,9 +31,17 @@ public class Garage {
     public static final int MAX_VEHICLES = 50;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "garage_seq")
+    @SequenceGenerator(name = "garage_seq", sequenceName = "garage_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Version pour le verrouillage optimiste, incrémentée à chaque modification du garage
+     * (y compris son compteur de véhicules et ses horaires). Source des ETags de l'API.
+     */
+    @Version
+    private Long version;
+
     @NotBlank(message = "Le nom du garage est obligatoire")
     @Column(nullable = false)
     private String name;
@@ -46,25 +60,29 @@ public class Garage {
     private String email;
 
     @OneToMany(mappedBy = "garage", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "garage-opening-hours-collection")
     @Builder.Default
     private List<GarageOpeningHours> horairesOuverture = new ArrayList<>();
 
     @OneToMany(mappedBy = "garage", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "garage-vehicles-collection")
     @Builder.Default
     private List<Vehicle> vehicles = new ArrayList<>();
 
     /**
-     * Vérifie si le garage peut accueillir un nouveau véhicule.
+     * Nombre de véhicules actuellement dans le garage.
+     * Maintenu par les méthodes d'ajout, de retrait et de transfert afin de ne jamais
+     * initialiser la collection {@link #vehicles} pour un simple comptage.
      */
-    public boolean canAddVehicle() {
-        return vehicles.size() < MAX_VEHICLES;
-    }
+    @Column(name = "vehicle_count", nullable = false)
+    @Builder.Default
+    private int vehicleCount = 0;
 
     /**
-     * Retourne le nombre de véhicules actuellement dans le garage.
+     * Vérifie si le garage peut accueillir un nouveau véhicule.
      */
-    public int getVehicleCount() {
-        return vehicles.size();
+    public boolean canAddVehicle() {
+        return vehicleCount < MAX_VEHICLES;
     }
 
     /**
@@ -73,6 +91,7 @@ public class Garage {
     public void addVehicle(Vehicle vehicle) {
         vehicles.add(vehicle);
         vehicle.setGarage(this);
+        vehicleCount++;
     }
 
     /**
@@ -81,6 +100,17 @@ public class Garage {
     public void removeVehicle(Vehicle vehicle) {
         vehicles.remove(vehicle);
         vehicle.setGarage(null);
+        vehicleCount = Math.max(0, vehicleCount - 1);
+    }
+
+    /**
+     * Transfère un véhicule de ce garage vers le garage cible.
+     * La collection source n'est volontairement pas modifiée : avec orphanRemoval,
+     * retirer le véhicule de la liste provoquerait sa suppression au flush.
+     */
+    public void transferVehicle(Vehicle vehicle, Garage target) {
+        vehicleCount = Math.max(0, vehicleCount - 1);
+        target.addVehicle(vehicle);
     }
 
     /**
@@ -0,0 +1,73 @@
+package com.renault.garage.entity;
+
+import com.renault.garage.event.VehicleCreatedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Projection alimentée par les événements Kafka : activité de création de véhicules d'un garage.
+ * Mise à jour par lots, une ligne par garage présent dans le lot, par le seul processeur de la
+ * partition du garage.
+ */
+@Entity
+@Table(name = "garage_activity")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageActivity {
+
+    @Id
+    @Column(name = "garage_id")
+    private Long garageId;
+
+    /**
+     * Version pour le verrouillage optimiste ; null tant que la ligne n'est pas persistée,
+     * ce qui permet l'insertion directe (sans SELECT préalable) malgré l'ID attribué.
+     */
+    @Version
+    private Long version;
+
+    @Column(name = "garage_name")
+    private String garageName;
+
+    @Column(name = "vehicles_created", nullable = false)
+    private long vehiclesCreated;
+
+    @Column(name = "last_vehicle_created_at")
+    private Instant lastVehicleCreatedAt;
+
+    /**
+     * Applique les créations de véhicules du garage, dans l'ordre de réception.
+     */
+    public void recordVehiclesCreated(List<VehicleCreatedEvent> events) {
+        garageName = events.get(events.size() - 1).garageName();
+        vehiclesCreated += events.size();
+        events.stream()
+                .map(VehicleCreatedEvent::createdAt)
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .filter(createdAt -> lastVehicleCreatedAt == null || createdAt.isAfter(lastVehicleCreatedAt))
+                .ifPresent(createdAt -> lastVehicleCreatedAt = createdAt);
+    }
+
+    /**
+     * Ajoute l'activité du même garage reconstruite depuis une autre partition (événements
+     * antérieurs à la clé par garage) ; le nom retenu est celui de la création la plus récente.
+     */
+    public void combine(GarageActivity other) {
+        vehiclesCreated += other.vehiclesCreated;
+        if (other.lastVehicleCreatedAt != null
+                && (lastVehicleCreatedAt == null || other.lastVehicleCreatedAt.isAfter(lastVehicleCreatedAt))) {
+            lastVehicleCreatedAt = other.lastVehicleCreatedAt;
+            garageName = other.garageName;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.renault.garage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dernier offset appliqué à la projection d'activité pour une partition Kafka (topic principal
+ * ou topic de reprise). Écrit dans la même transaction que la projection : un lot relivré par
+ * Kafka (offsets non validés avant un rééquilibrage ou un arrêt) n'est pas compté deux fois.
+ */
+@Entity
+@Table(name = "garage_activity_offsets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageActivityOffset {
+
+    /**
+     * Partition, sous la forme {@code topic-partition}.
+     */
+    @Id
+    @Column(name = "topic_partition")
+    private String topicPartition;
+
+    /**
+     * Version pour le verrouillage optimiste : deux propriétaires successifs de la partition ne
+     * valident pas le même lot.
+     */
+    @Version
+    private Long version;
+
+    @Column(name = "last_offset", nullable = false)
+    private long lastOffset;
+}
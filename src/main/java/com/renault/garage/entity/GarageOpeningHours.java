@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
@@ -13,6 +15,8 @@ import java.time.LocalTime;
  * Entité représentant les horaires d'ouverture d'un garage pour un jour donné.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "garage-opening-hours")
 @Table(name = "garage_opening_hours")
 @Data
 @NoArgsConstructor
@@ -21,7 +25,8 @@ import java.time.LocalTime;
 public class GarageOpeningHours {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "garage_opening_hours_seq")
+    @SequenceGenerator(name = "garage_opening_hours_seq", sequenceName = "garage_opening_hours_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,70 @@
+package com.renault.garage.entity;
+
+import com.renault.garage.enums.EventFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Message Kafka en attente d'envoi (outbox transactionnelle). Écrit dans la même transaction
+ * que la modification qu'il décrit, puis envoyé et supprimé par le relais : un rollback
+ * n'émet rien, et l'envoi ne pèse plus sur le temps de réponse des requêtes.
+ * L'ordre des IDs (séquence) est l'ordre d'envoi.
+ *
+ * <p>Garantie d'ordre : pour une même clé (ID du garage), l'ordre des IDs est l'ordre des
+ * commits. Chaque transaction qui écrit un message pour un garage tient le verrou de la ligne
+ * du garage avant d'écrire et jusqu'à son commit (voir {@code VehicleLocks}), et chaque ID est
+ * tiré de la séquence en base au moment de l'écriture, sans bloc pré-alloué par instance : une
+ * transaction concurrente sur le même garage tire donc un ID plus grand et valide après. Entre
+ * clés différentes, l'ordre des IDs n'est pas celui des commits.</p>
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    /**
+     * Clé du message, qui détermine la partition (et donc l'ordre de livraison).
+     */
+    @Column(name = "message_key", nullable = false)
+    private String messageKey;
+
+    /**
+     * Classe de l'événement, envoyée dans l'en-tête de type lu par le JsonDeserializer
+     * (messages JSON uniquement : le format binaire porte son propre type).
+     */
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payload_format", nullable = false, length = 10)
+    private EventFormat format;
+
+    @Column(nullable = false, length = 65_535)
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Fin du bail du relais qui envoie le message ({@code null} : message libre). Un bail expiré
+     * (relais arrêté pendant l'envoi) rend le message à un passage suivant.
+     */
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+}
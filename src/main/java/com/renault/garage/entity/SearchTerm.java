@@ -0,0 +1,57 @@
+package com.renault.garage.entity;
+
+import com.renault.garage.enums.SearchField;
+import com.renault.garage.search.SearchText;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entrée du dictionnaire de recherche : une valeur normalisée distincte d'un champ indexé
+ * (modèle de véhicule, nom d'accessoire) avec ses trigrammes. Les recherches par sous-chaîne
+ * retrouvent d'abord les valeurs candidates par trigrammes, puis les lignes par égalité
+ * sur la colonne normalisée indexée.
+ */
+@Entity
+@Table(name = "search_terms", indexes = @Index(name = "idx_search_terms_field_value", columnList = "field, term_value"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchTerm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "search_term_seq")
+    @SequenceGenerator(name = "search_term_seq", sequenceName = "search_term_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private SearchField field;
+
+    @Column(name = "term_value", nullable = false)
+    private String value;
+
+    @ElementCollection
+    @CollectionTable(name = "search_term_trigrams", joinColumns = @JoinColumn(name = "term_id"),
+            indexes = @Index(name = "idx_search_term_trigrams_trigram", columnList = "trigram, term_id"))
+    @Column(name = "trigram", nullable = false, length = SearchText.GRAM_LENGTH)
+    @Builder.Default
+    private Set<String> trigrams = new HashSet<>();
+
+    /**
+     * Crée l'entrée d'une valeur déjà normalisée, avec ses trigrammes.
+     */
+    public static SearchTerm of(SearchField field, String normalizedValue) {
+        return SearchTerm.builder()
+                .field(field)
+                .value(normalizedValue)
+                .trigrams(new HashSet<>(SearchText.trigrams(normalizedValue)))
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.renault.garage.entity;
 
 import com.renault.garage.enums.FuelType;
+import com.renault.garage.search.SearchText;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +9,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,7 +20,13 @@ import java.util.List;
  * Entité représentant un véhicule stocké dans un garage.
  */
 @Entity
-@Table(name = "vehicles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicle")
+@DynamicUpdate
+@Table(name = "vehicles", indexes = {
+        @Index(name = "idx_vehicles_garage_id_id", columnList = "garage_id, id"),
+        @Index(name = "idx_vehicles_model_search_id", columnList = "model_search, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,9 +34,17 @@ import java.util.List;
 public class Vehicle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicle_seq")
+    @SequenceGenerator(name = "vehicle_seq", sequenceName = "vehicle_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Version pour le verrouillage optimiste, incrémentée à chaque modification du véhicule
+     * (y compris son garage et son compteur d'accessoires). Source des ETags de l'API.
+     */
+    @Version
+    private Long version;
+
     @NotBlank(message = "La marque est obligatoire")
     @Column(nullable = false)
     private String brand;
@@ -35,6 +53,13 @@ public class Vehicle {
     @Column(nullable = false)
     private String model;
 
+    /**
+     * Modèle normalisé (voir {@link SearchText#normalize}), maintenu avec {@link #model}
+     * pour la recherche par sous-chaîne sans LOWER() ligne à ligne.
+     */
+    @Column(name = "model_search", nullable = false)
+    private String modelSearch;
+
     @NotNull(message = "L'année de fabrication est obligatoire")
     @Column(name = "annee_fabrication", nullable = false)
     private Integer anneeFabrication;
@@ -49,15 +74,35 @@ public class Vehicle {
     private Garage garage;
 
     @OneToMany(mappedBy = "vehicle", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicle-accessories-collection")
     @Builder.Default
     private List<Accessory> accessories = new ArrayList<>();
 
+    /**
+     * Nombre d'accessoires du véhicule, maintenu par {@link #addAccessory}
+     * et {@link #removeAccessory} pour éviter de charger la collection.
+     */
+    @Column(name = "accessory_count", nullable = false)
+    @Builder.Default
+    private int accessoryCount = 0;
+
+    public void setModel(String model) {
+        this.model = model;
+        this.modelSearch = SearchText.normalize(model);
+    }
+
+    @PrePersist
+    void normalizeSearchKeys() {
+        modelSearch = SearchText.normalize(model);
+    }
+
     /**
      * Ajoute un accessoire au véhicule.
      */
     public void addAccessory(Accessory accessory) {
         accessories.add(accessory);
         accessory.setVehicle(this);
+        accessoryCount++;
     }
 
     /**
@@ -66,5 +111,6 @@ public class Vehicle {
     public void removeAccessory(Accessory accessory) {
         accessories.remove(accessory);
         accessory.setVehicle(null);
+        accessoryCount = Math.max(0, accessoryCount - 1);
     }
 }
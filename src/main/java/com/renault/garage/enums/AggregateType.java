@@ -0,0 +1,10 @@
+package com.renault.garage.enums;
+
+/**
+ * Agrégat décrit par un événement de changement, dont il porte la version.
+ */
+public enum AggregateType {
+    GARAGE,
+    VEHICLE,
+    ACCESSORY
+}
@@ -0,0 +1,19 @@
+package com.renault.garage.enums;
+
+/**
+ * Format de sérialisation des messages Kafka.
+ */
+public enum EventFormat {
+    /**
+     * JSON (JsonSerializer), type de l'événement dans l'en-tête __TypeId__.
+     */
+    JSON,
+    /**
+     * Format binaire versionné des {@link com.renault.garage.codec.EventCodec}, sans en-tête.
+     */
+    BINARY,
+    /**
+     * Tombstone d'un topic compacté : message sans valeur ni en-tête, qui efface la clé.
+     */
+    TOMBSTONE
+}
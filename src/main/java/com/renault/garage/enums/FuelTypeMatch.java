@@ -0,0 +1,11 @@
+package com.renault.garage.enums;
+
+/**
+ * Combinaison de plusieurs types de carburant dans une recherche de garages.
+ */
+public enum FuelTypeMatch {
+    /** Au moins un des types demandés (OU). */
+    ANY,
+    /** Tous les types demandés (ET). */
+    ALL
+}
@@ -0,0 +1,9 @@
+package com.renault.garage.enums;
+
+/**
+ * Régions du cache local des réponses (near-cache), invalidées entre les instances.
+ */
+public enum NearCacheRegion {
+    GARAGE,
+    VEHICLE
+}
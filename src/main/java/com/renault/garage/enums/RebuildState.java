@@ -0,0 +1,23 @@
+package com.renault.garage.enums;
+
+/**
+ * État d'une reconstruction de projection depuis le journal d'événements.
+ */
+public enum RebuildState {
+    /**
+     * Relecture des partitions depuis leur premier offset, le listener principal tourne.
+     */
+    RUNNING,
+    /**
+     * Listener principal arrêté : lecture des derniers événements puis bascule de la projection.
+     */
+    CUTOVER,
+    /**
+     * Nouvelle projection en place, listener principal relancé à la position de la reconstruction.
+     */
+    COMPLETED,
+    /**
+     * Échec : l'ancienne projection est conservée.
+     */
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.renault.garage.enums;
+
+/**
+ * Champs couverts par l'index de recherche par sous-chaîne.
+ */
+public enum SearchField {
+    VEHICLE_MODEL,
+    ACCESSORY_NAME
+}
@@ -0,0 +1,28 @@
+package com.renault.garage.enums;
+
+/**
+ * Étape d'une requête HTTP tracée (capture des requêtes lentes).
+ */
+public enum SpanType {
+    /**
+     * Méthode du contrôleur REST, hors écriture de la réponse.
+     */
+    CONTROLLER,
+    /**
+     * Méthode publique d'un service, transaction comprise.
+     */
+    SERVICE,
+    /**
+     * Requête SQL, de sa préparation à la fin de son exécution JDBC (lecture des lignes non comprise).
+     */
+    SQL,
+    /**
+     * Méthode d'un publisher Kafka, envoi ou mise en tampon du message comprise.
+     */
+    KAFKA,
+    /**
+     * Écriture de la réponse après le contrôleur : sérialisation Jackson et chargements paresseux
+     * qu'elle déclenche.
+     */
+    RESPONSE
+}
@@ -0,0 +1,27 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lors de la suppression d'un accessoire.
+ */
+public record AccessoryDeletedEvent(
+        Long garageId,
+        Long vehicleId,
+        Long accessoryId,
+        Long version,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.ACCESSORY;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return accessoryId;
+    }
+}
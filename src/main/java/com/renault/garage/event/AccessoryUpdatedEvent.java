@@ -0,0 +1,32 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Événement publié lors de la modification d'un accessoire.
+ */
+public record AccessoryUpdatedEvent(
+        Long garageId,
+        Long vehicleId,
+        Long accessoryId,
+        Long version,
+        String nom,
+        String description,
+        BigDecimal prix,
+        String type,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.ACCESSORY;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return accessoryId;
+    }
+}
@@ -0,0 +1,26 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.NearCacheRegion;
+
+import java.time.Instant;
+
+/**
+ * Événement diffusé à toutes les instances lorsqu'une réponse en cache devient obsolète.
+ */
+public record CacheInvalidationEvent(
+        NearCacheRegion region,
+        Long id,
+        String originNode,
+        Instant emittedAt
+) {
+    public static CacheInvalidationEvent of(NearCacheRegion region, Long id, String originNode) {
+        return new CacheInvalidationEvent(region, id, originNode, Instant.now());
+    }
+
+    /**
+     * Clé Kafka : la compaction ne garde que la dernière invalidation de chaque entité.
+     */
+    public String key() {
+        return region + ":" + id;
+    }
+}
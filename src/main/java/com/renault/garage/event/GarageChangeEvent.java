@@ -0,0 +1,39 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+
+/**
+ * Événement de changement du réseau de garages (garages, horaires, véhicules, accessoires),
+ * publié sur le topic des changements par chaque méthode de modification des services.
+ *
+ * <p>Tous les événements d'un garage ont la même clé ({@link #partitionKey()}) et arrivent donc
+ * sur la même partition, dans l'ordre. {@link #version()} est la version de l'agrégat décrit
+ * ({@link #aggregateType()}, {@link #aggregateId()}) après la modification : croissante pour un
+ * même agrégat, elle permet d'écarter un doublon ou un événement déjà appliqué. Les événements
+ * d'une même modification partagent la version ; une suppression porte la version qui suit la
+ * dernière version connue.</p>
+ */
+public sealed interface GarageChangeEvent permits GarageCreatedEvent, GarageUpdatedEvent, GarageDeletedEvent,
+        OpeningHoursChangedEvent, VehicleCreatedEvent, VehicleUpdatedEvent, VehicleTransferredEvent,
+        VehicleDeletedEvent, AccessoryAddedEvent, AccessoryUpdatedEvent, AccessoryDeletedEvent,
+        GarageFleetSnapshotEvent {
+
+    /**
+     * Garage concerné, clé de partitionnement.
+     */
+    Long garageId();
+
+    AggregateType aggregateType();
+
+    Long aggregateId();
+
+    Long version();
+
+    Instant occurredAt();
+
+    default String partitionKey() {
+        return String.valueOf(garageId());
+    }
+}
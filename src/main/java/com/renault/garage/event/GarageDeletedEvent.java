@@ -0,0 +1,26 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lors de la suppression d'un garage, avec ses véhicules et leurs accessoires
+ * (aucun événement de suppression n'est publié pour eux).
+ */
+public record GarageDeletedEvent(
+        Long garageId,
+        Long version,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.GARAGE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return garageId;
+    }
+}
@@ -0,0 +1,36 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Véhicules d'un garage à un instant donné, publiés sur le topic des changements par le
+ * remplissage des agrégats de flotte ({@code GarageFleetBackfill}) : un garage sans changement
+ * depuis le démarrage du flux y trouve son état. Ne décrit pas une modification :
+ * {@link #version()} est la version courante du garage.
+ */
+public record GarageFleetSnapshotEvent(
+        Long garageId,
+        Long version,
+        List<FleetVehicle> vehicles,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    /**
+     * Véhicule présent dans le garage, avec sa version.
+     */
+    public record FleetVehicle(Long vehicleId, Long version, Integer anneeFabrication, String typeCarburant) {
+    }
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.GARAGE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return garageId;
+    }
+}
@@ -0,0 +1,39 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.FuelType;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * État courant complet d'un garage, publié sur le topic compacté de l'état des garages (clé =
+ * ID du garage) après chaque modification qui le concerne : seul le dernier état de chaque garage
+ * est conservé, et une nouvelle instance peut remplir ses caches en lisant le topic depuis le
+ * début (voir {@code GarageStateBootstrap}). La suppression d'un garage est publiée en tombstone.
+ */
+public record GarageStateSnapshot(
+        Long garageId,
+        Long version,
+        String name,
+        String address,
+        String telephone,
+        String email,
+        List<OpeningHours> openingHours,
+        int vehicleCount,
+        Map<FuelType, Integer> vehiclesByFuelType,
+        Instant snapshotAt
+) {
+
+    /**
+     * Plage d'ouverture d'un jour, avec son ID (repris tel quel dans la réponse du garage).
+     */
+    public record OpeningHours(Long id, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+    }
+
+    public String partitionKey() {
+        return String.valueOf(garageId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lors de la modification des coordonnées d'un garage (un changement
+ * d'horaires est publié dans un {@link OpeningHoursChangedEvent}).
+ */
+public record GarageUpdatedEvent(
+        Long garageId,
+        Long version,
+        String name,
+        String address,
+        String telephone,
+        String email,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.GARAGE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return garageId;
+    }
+}
@@ -0,0 +1,36 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Événement publié quand les horaires d'un garage sont définis ou remplacés : porte l'ensemble
+ * des horaires (et non la différence), de sorte que seul le dernier événement compte.
+ */
+public record OpeningHoursChangedEvent(
+        Long garageId,
+        Long version,
+        List<OpeningHours> openingHours,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    /**
+     * Plage d'ouverture d'un jour.
+     */
+    public record OpeningHours(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+    }
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.GARAGE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return garageId;
+    }
+}
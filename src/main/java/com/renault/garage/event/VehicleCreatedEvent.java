@@ -1,9 +1,12 @@
 package com.renault.garage.event;
 
+import com.renault.garage.enums.AggregateType;
+
 import java.time.Instant;
 
 /**
  * Événement publié lors de la création d'un véhicule.
+ * Publié sur le topic historique des créations et sur le topic des changements.
  */
 public record VehicleCreatedEvent(
         Long vehicleId,
@@ -13,14 +16,30 @@ public record VehicleCreatedEvent(
         String typeCarburant,
         Long garageId,
         String garageName,
-        Instant createdAt
-) {
+        Instant createdAt,
+        Long version
+) implements GarageChangeEvent {
     public static VehicleCreatedEvent of(Long vehicleId, String brand, String model, 
                                          Integer anneeFabrication, String typeCarburant,
-                                         Long garageId, String garageName) {
+                                         Long garageId, String garageName, Long version) {
         return new VehicleCreatedEvent(
                 vehicleId, brand, model, anneeFabrication, typeCarburant,
-                garageId, garageName, Instant.now()
+                garageId, garageName, Instant.now(), version
         );
     }
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.VEHICLE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return vehicleId;
+    }
+
+    @Override
+    public Instant occurredAt() {
+        return createdAt;
+    }
 }
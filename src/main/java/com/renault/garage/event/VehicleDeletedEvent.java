@@ -0,0 +1,28 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lors de la suppression d'un véhicule (et de ses accessoires).
+ */
+public record VehicleDeletedEvent(
+        Long garageId,
+        Long vehicleId,
+        Long version,
+        Integer anneeFabrication,
+        String typeCarburant,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.VEHICLE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return vehicleId;
+    }
+}
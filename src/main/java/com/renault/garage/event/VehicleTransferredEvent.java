@@ -0,0 +1,39 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lors du transfert d'un véhicule, une fois pour chacun des deux garages :
+ * {@link #garageId()} (la clé) vaut {@link #fromGarageId()} pour le départ et
+ * {@link #toGarageId()} pour l'arrivée, afin que chaque garage le reçoive sur sa partition.
+ */
+public record VehicleTransferredEvent(
+        Long garageId,
+        Long vehicleId,
+        Long version,
+        Long fromGarageId,
+        Long toGarageId,
+        Integer anneeFabrication,
+        String typeCarburant,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    /**
+     * Indique si cet exemplaire décrit le départ du véhicule du garage {@link #garageId()}.
+     */
+    public boolean isDeparture() {
+        return garageId != null && garageId.equals(fromGarageId);
+    }
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.VEHICLE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return vehicleId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.renault.garage.event;
+
+import com.renault.garage.enums.AggregateType;
+
+import java.time.Instant;
+
+/**
+ * Événement publié lors de la modification d'un véhicule. Les valeurs précédentes du carburant
+ * et de l'année permettent de tenir des agrégats par garage sans relire le véhicule.
+ */
+public record VehicleUpdatedEvent(
+        Long garageId,
+        Long vehicleId,
+        Long version,
+        String brand,
+        String model,
+        Integer anneeFabrication,
+        String typeCarburant,
+        Integer previousAnneeFabrication,
+        String previousTypeCarburant,
+        Instant occurredAt
+) implements GarageChangeEvent {
+
+    @Override
+    public AggregateType aggregateType() {
+        return AggregateType.VEHICLE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return vehicleId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.renault.garage.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception levée lorsque le store des agrégats de flotte n'est pas interrogeable
+ * (démarrage ou rééquilibrage de la topologie Kafka Streams en cours).
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class FleetStatsUnavailableException extends RuntimeException {
+
+    public FleetStatsUnavailableException(String message) {
+        super(message);
+    }
+
+    public FleetStatsUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
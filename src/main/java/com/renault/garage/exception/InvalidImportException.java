@@ -0,0 +1,24 @@
+package com.renault.garage.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Map;
+
+/**
+ * Exception levée lorsqu'une ou plusieurs lignes d'un import en masse sont invalides.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportException extends RuntimeException {
+
+    private final Map<String, String> errors;
+
+    public InvalidImportException(Map<String, String> errors) {
+        super("L'import contient " + errors.size() + " erreur(s) de validation");
+        this.errors = errors;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,15 @@
+package com.renault.garage.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception levée lorsqu'un curseur de pagination ou un tri demandé est invalide.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
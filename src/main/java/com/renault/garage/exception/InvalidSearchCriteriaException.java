@@ -0,0 +1,15 @@
+package com.renault.garage.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception levée lorsque les critères d'une recherche sont absents ou incohérents.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchCriteriaException extends RuntimeException {
+
+    public InvalidSearchCriteriaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.renault.garage.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception levée lorsque l'ETag fourni dans If-Match ne correspond plus à la ressource.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String ifMatch, String currentETag) {
+        super("La ressource a été modifiée : If-Match " + ifMatch + " ne correspond pas à l'ETag actuel " + currentETag);
+    }
+}
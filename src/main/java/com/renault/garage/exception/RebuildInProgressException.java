@@ -0,0 +1,16 @@
+package com.renault.garage.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception levée lorsqu'une reconstruction de projection est demandée alors qu'une autre
+ * est en cours.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class RebuildInProgressException extends RuntimeException {
+
+    public RebuildInProgressException(String message) {
+        super(message);
+    }
+}
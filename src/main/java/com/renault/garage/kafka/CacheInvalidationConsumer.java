@@ -0,0 +1,29 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.event.CacheInvalidationEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumer Kafka des invalidations du near-cache. Chaque instance a son propre groupe de
+ * consommateurs pour recevoir toutes les invalidations, à partir de la fin du topic : au
+ * démarrage le cache est vide, l'historique est inutile.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationConsumer {
+
+    private final ResponseNearCache responseNearCache;
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.cache-invalidation:garage-cache-invalidation}",
+            groupId = "#{'garage-near-cache-' + @responseNearCache.nodeId}",
+            properties = "auto.offset.reset=latest",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handleInvalidation(CacheInvalidationEvent event) {
+        responseNearCache.onRemoteInvalidation(event);
+    }
+}
@@ -0,0 +1,48 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.event.CacheInvalidationEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publisher Kafka des invalidations du near-cache vers les autres instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.topics.cache-invalidation:garage-cache-invalidation}")
+    private String cacheInvalidationTopic;
+
+    /**
+     * Désactivable pour une instance isolée (sans broker), le cache local restant invalidé.
+     */
+    @Value("${garage.near-cache.broadcast.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Publie une invalidation ; un échec est journalisé, la durée de vie du cache borne
+     * alors l'obsolescence sur les autres instances.
+     */
+    public void publish(CacheInvalidationEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            kafkaTemplate.send(cacheInvalidationTopic, event.key(), event)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("Erreur lors de la publication de l'invalidation {}", event.key(), ex);
+                        }
+                    });
+        } catch (Exception e) {
+            log.error("Erreur lors de la création de l'invalidation {}: {}", event.key(), e.getMessage(), e);
+        }
+    }
+}
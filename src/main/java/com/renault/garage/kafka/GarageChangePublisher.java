@@ -0,0 +1,204 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.entity.Accessory;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.AggregateType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.AccessoryAddedEvent;
+import com.renault.garage.event.AccessoryDeletedEvent;
+import com.renault.garage.event.AccessoryUpdatedEvent;
+import com.renault.garage.event.GarageChangeEvent;
+import com.renault.garage.event.GarageCreatedEvent;
+import com.renault.garage.event.GarageDeletedEvent;
+import com.renault.garage.event.GarageFleetSnapshotEvent;
+import com.renault.garage.event.GarageUpdatedEvent;
+import com.renault.garage.event.OpeningHoursChangedEvent;
+import com.renault.garage.event.VehicleDeletedEvent;
+import com.renault.garage.event.VehicleTransferredEvent;
+import com.renault.garage.event.VehicleUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publisher des événements de changement ({@link GarageChangeEvent}) sur le topic des changements,
+ * via l'outbox transactionnelle. La clé est l'ID du garage : tous les événements d'un garage
+ * partagent une partition, dans l'ordre des modifications.
+ *
+ * <p>Les versions sont lues sur les entités après écriture : l'appelant vide le contexte de
+ * persistance (saveAndFlush) avant de publier une modification d'entité existante.</p>
+ *
+ * <p>Chaque changement d'un garage ou de ses véhicules republie aussi l'état complet du garage
+ * sur le topic compacté de l'état des garages ({@link GarageStatePublisher}), une fois par
+ * transaction ; les accessoires n'en font pas partie.</p>
+ *
+ * <p>Un changement sans garage (véhicule hors garage et ses accessoires) n'a pas de clé de
+ * partition : il n'est pas publié.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GarageChangePublisher {
+
+    private final OutboxPublisher outboxPublisher;
+    private final GarageStatePublisher garageStatePublisher;
+
+    @Value("${app.kafka.topics.garage-changes:garage-changes}")
+    private String garageChangesTopic;
+
+    /**
+     * Publie un événement de changement, dans la transaction de la modification.
+     */
+    public void publish(GarageChangeEvent event) {
+        if (event.garageId() == null) {
+            log.debug("Événement {} sans garage non publié: {} {}", event.getClass().getSimpleName(),
+                    event.aggregateType(), event.aggregateId());
+            return;
+        }
+        outboxPublisher.enqueue(garageChangesTopic, event.partitionKey(), event);
+        stateChanged(event);
+        log.debug("Événement {} enregistré dans l'outbox: garageId={}, {} {} v{}", event.getClass().getSimpleName(),
+                event.garageId(), event.aggregateType(), event.aggregateId(), event.version());
+    }
+
+    /**
+     * Publie une série d'événements de changement en une écriture groupée, dans la transaction
+     * des modifications.
+     */
+    public void publishAll(List<? extends GarageChangeEvent> events) {
+        List<? extends GarageChangeEvent> keyed = events.stream()
+                .filter(event -> event.garageId() != null)
+                .toList();
+        outboxPublisher.enqueueAll(garageChangesTopic, keyed, GarageChangeEvent::partitionKey);
+        keyed.forEach(this::stateChanged);
+        log.debug("{} événement(s) de changement enregistré(s) dans l'outbox", keyed.size());
+    }
+
+    public void publishGarageCreated(Garage garage) {
+        publish(new GarageCreatedEvent(garage.getId(), garage.getVersion(), garage.getName(), garage.getAddress(),
+                garage.getTelephone(), garage.getEmail(), Instant.now()));
+        if (!garage.getHorairesOuverture().isEmpty()) {
+            publishOpeningHoursChanged(garage);
+        }
+    }
+
+    /**
+     * Publie la modification d'un garage, et celle de ses horaires s'ils diffèrent de
+     * {@code previousOpeningHours} (relevés avant la modification avec {@link #openingHours}).
+     */
+    public void publishGarageUpdated(Garage garage, List<OpeningHoursChangedEvent.OpeningHours> previousOpeningHours) {
+        publish(new GarageUpdatedEvent(garage.getId(), garage.getVersion(), garage.getName(), garage.getAddress(),
+                garage.getTelephone(), garage.getEmail(), Instant.now()));
+        if (!previousOpeningHours.equals(openingHours(garage))) {
+            publishOpeningHoursChanged(garage);
+        }
+    }
+
+    public void publishOpeningHoursChanged(Garage garage) {
+        publish(new OpeningHoursChangedEvent(garage.getId(), garage.getVersion(), openingHours(garage), Instant.now()));
+    }
+
+    /**
+     * Horaires d'un garage tels que publiés dans les événements.
+     */
+    public List<OpeningHoursChangedEvent.OpeningHours> openingHours(Garage garage) {
+        return garage.getHorairesOuverture().stream()
+                .map(hours -> new OpeningHoursChangedEvent.OpeningHours(
+                        hours.getDayOfWeek(), hours.getStartTime(), hours.getEndTime()))
+                .toList();
+    }
+
+    /**
+     * Publie la suppression d'un garage, précédée de celle de ses véhicules et de leurs accessoires
+     * (supprimés en cascade avec lui), en une écriture groupée : chaque agrégat reçoit son événement
+     * de suppression, sur la partition du garage.
+     */
+    public void publishGarageDeleted(Garage garage) {
+        Instant now = Instant.now();
+        List<GarageChangeEvent> events = new ArrayList<>();
+        for (Vehicle vehicle : garage.getVehicles()) {
+            for (Accessory accessory : vehicle.getAccessories()) {
+                events.add(accessoryDeleted(accessory, vehicle.getId(), garage.getId(), now));
+            }
+            events.add(vehicleDeleted(vehicle, garage.getId(), now));
+        }
+        events.add(new GarageDeletedEvent(garage.getId(), nextVersion(garage.getVersion()), now));
+        publishAll(events);
+    }
+
+    public void publishVehicleUpdated(Vehicle vehicle, Integer previousAnneeFabrication, FuelType previousTypeCarburant) {
+        publish(new VehicleUpdatedEvent(garageId(vehicle), vehicle.getId(), vehicle.getVersion(), vehicle.getBrand(),
+                vehicle.getModel(), vehicle.getAnneeFabrication(), vehicle.getTypeCarburant().name(),
+                previousAnneeFabrication, previousTypeCarburant.name(), Instant.now()));
+    }
+
+    /**
+     * Publie le transfert pour le garage de départ (s'il existe) puis pour le garage d'arrivée.
+     */
+    public void publishVehicleTransferred(Vehicle vehicle, Long fromGarageId, Long toGarageId) {
+        Instant now = Instant.now();
+        if (fromGarageId != null) {
+            publish(transferred(fromGarageId, vehicle, fromGarageId, toGarageId, now));
+        }
+        publish(transferred(toGarageId, vehicle, fromGarageId, toGarageId, now));
+    }
+
+    public void publishVehicleDeleted(Vehicle vehicle, Long garageId) {
+        publish(vehicleDeleted(vehicle, garageId, Instant.now()));
+    }
+
+    public void publishAccessoryAdded(Accessory accessory) {
+        Vehicle vehicle = accessory.getVehicle();
+        publish(new AccessoryAddedEvent(garageId(vehicle), vehicle.getId(), accessory.getId(), accessory.getVersion(),
+                accessory.getNom(), accessory.getDescription(), accessory.getPrix(), accessory.getType().name(),
+                Instant.now()));
+    }
+
+    public void publishAccessoryUpdated(Accessory accessory) {
+        Vehicle vehicle = accessory.getVehicle();
+        publish(new AccessoryUpdatedEvent(garageId(vehicle), vehicle != null ? vehicle.getId() : null,
+                accessory.getId(), accessory.getVersion(), accessory.getNom(), accessory.getDescription(),
+                accessory.getPrix(), accessory.getType().name(), Instant.now()));
+    }
+
+    public void publishAccessoryDeleted(Accessory accessory, Long vehicleId, Long garageId) {
+        publish(accessoryDeleted(accessory, vehicleId, garageId, Instant.now()));
+    }
+
+    private void stateChanged(GarageChangeEvent event) {
+        if (event.aggregateType() != AggregateType.ACCESSORY && !(event instanceof GarageFleetSnapshotEvent)) {
+            garageStatePublisher.garageChanged(event.garageId());
+        }
+    }
+
+    private VehicleTransferredEvent transferred(Long garageId, Vehicle vehicle, Long fromGarageId, Long toGarageId,
+                                                Instant now) {
+        return new VehicleTransferredEvent(garageId, vehicle.getId(), vehicle.getVersion(), fromGarageId, toGarageId,
+                vehicle.getAnneeFabrication(), vehicle.getTypeCarburant().name(), now);
+    }
+
+    private static VehicleDeletedEvent vehicleDeleted(Vehicle vehicle, Long garageId, Instant now) {
+        return new VehicleDeletedEvent(garageId, vehicle.getId(), nextVersion(vehicle.getVersion()),
+                vehicle.getAnneeFabrication(), vehicle.getTypeCarburant().name(), now);
+    }
+
+    private static AccessoryDeletedEvent accessoryDeleted(Accessory accessory, Long vehicleId, Long garageId,
+                                                          Instant now) {
+        return new AccessoryDeletedEvent(garageId, vehicleId, accessory.getId(), nextVersion(accessory.getVersion()),
+                now);
+    }
+
+    private static Long garageId(Vehicle vehicle) {
+        return vehicle != null && vehicle.getGarage() != null ? vehicle.getGarage().getId() : null;
+    }
+
+    private static Long nextVersion(Long version) {
+        return version != null ? version + 1 : null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.dto.GarageFleetBackfillResultDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.GarageFleetSnapshotEvent;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remplissage des agrégats de flotte ({@link GarageFleetTopology}) depuis la base : la topologie
+ * ne connaît que les garages modifiés depuis le démarrage du flux des changements. Un instantané
+ * des véhicules de chaque garage ({@link GarageFleetSnapshotEvent}) est publié sur ce flux, à la
+ * suite des changements du garage.
+ *
+ * <p>Par lots de {@value #BATCH_SIZE} garages (une transaction par lot). Les garages du lot sont
+ * verrouillés pendant la lecture de leurs véhicules, comme pour une modification : l'instantané
+ * prend sa place dans l'ordre des changements du garage. Rejouer le remplissage est sans effet
+ * sur des agrégats à jour (contrôle de version).</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GarageFleetBackfill {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final GarageRepository garageRepository;
+    private final VehicleRepository vehicleRepository;
+    private final GarageChangePublisher garageChangePublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.kafka.topics.garage-changes:garage-changes}")
+    private String garageChangesTopic;
+
+    /**
+     * Publie l'instantané des véhicules de tous les garages.
+     */
+    public GarageFleetBackfillResultDTO backfill() {
+        Instant start = Instant.now();
+        int garages = 0;
+        long vehicles = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> garageIds = garageRepository.findIdsAfter(afterId, Limit.of(BATCH_SIZE));
+            if (garageIds.isEmpty()) {
+                break;
+            }
+            Integer published = transactionTemplate.execute(status -> publishSnapshots(garageIds));
+            garages += garageIds.size();
+            vehicles += published != null ? published : 0;
+            afterId = garageIds.get(garageIds.size() - 1);
+        }
+        log.info("Agrégats de flotte remplis: {} garage(s), {} véhicule(s) publiés sur {}",
+                garages, vehicles, garageChangesTopic);
+        return GarageFleetBackfillResultDTO.builder()
+                .topic(garageChangesTopic)
+                .garages(garages)
+                .vehicles(vehicles)
+                .durationMs(Duration.between(start, Instant.now()).toMillis())
+                .build();
+    }
+
+    /**
+     * Verrouille les garages, lit leurs véhicules en une requête et publie un instantané par
+     * garage. Retourne le nombre de véhicules publiés.
+     */
+    private int publishSnapshots(List<Long> garageIds) {
+        List<Garage> garages = garageRepository.findAllByIdForUpdate(garageIds);
+        Map<Long, List<GarageFleetSnapshotEvent.FleetVehicle>> vehiclesByGarage = new HashMap<>();
+        List<Object[]> rows = vehicleRepository.findFleetRowsForGarages(garageIds);
+        for (Object[] row : rows) {
+            FuelType typeCarburant = (FuelType) row[4];
+            vehiclesByGarage.computeIfAbsent((Long) row[0], garageId -> new ArrayList<>())
+                    .add(new GarageFleetSnapshotEvent.FleetVehicle((Long) row[1], (Long) row[2], (Integer) row[3],
+                            typeCarburant != null ? typeCarburant.name() : null));
+        }
+        Instant now = Instant.now();
+        garageChangePublisher.publishAll(garages.stream()
+                .map(garage -> new GarageFleetSnapshotEvent(garage.getId(), garage.getVersion(),
+                        vehiclesByGarage.getOrDefault(garage.getId(), List.of()), now))
+                .toList());
+        return rows.size();
+    }
+}
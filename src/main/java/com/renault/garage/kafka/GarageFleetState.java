@@ -0,0 +1,130 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.GarageChangeEvent;
+import com.renault.garage.event.GarageDeletedEvent;
+import com.renault.garage.event.GarageFleetSnapshotEvent;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.event.VehicleDeletedEvent;
+import com.renault.garage.event.VehicleTransferredEvent;
+import com.renault.garage.event.VehicleUpdatedEvent;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * État d'un garage dans le store des agrégats de flotte ({@link GarageFleetTopology}) : les
+ * véhicules présents avec leur version, au plus {@link Garage#MAX_VEHICLES} entrées. Garder les
+ * véhicules plutôt que des compteurs rend l'agrégation idempotente (l'outbox livre au moins une
+ * fois) ; les compteurs sont calculés à la lecture.
+ */
+@Data
+@NoArgsConstructor
+public class GarageFleetState {
+
+    private Map<Long, FleetVehicle> vehicles = new HashMap<>();
+
+    /**
+     * Applique un événement de changement du garage. Retourne {@code null} pour une suppression du
+     * garage, ce qui supprime l'entrée du store.
+     */
+    public GarageFleetState apply(GarageChangeEvent event) {
+        if (event instanceof GarageDeletedEvent) {
+            return null;
+        }
+        if (event instanceof VehicleCreatedEvent created) {
+            put(created.vehicleId(), created.version(), created.anneeFabrication(), created.typeCarburant());
+        } else if (event instanceof VehicleUpdatedEvent updated) {
+            put(updated.vehicleId(), updated.version(), updated.anneeFabrication(), updated.typeCarburant());
+        } else if (event instanceof VehicleTransferredEvent transferred) {
+            if (transferred.isDeparture()) {
+                remove(transferred.vehicleId(), transferred.version());
+            } else {
+                put(transferred.vehicleId(), transferred.version(), transferred.anneeFabrication(),
+                        transferred.typeCarburant());
+            }
+        } else if (event instanceof VehicleDeletedEvent deleted) {
+            remove(deleted.vehicleId(), deleted.version());
+        } else if (event instanceof GarageFleetSnapshotEvent snapshot) {
+            replace(snapshot.vehicles());
+        }
+        return this;
+    }
+
+    public int vehicleCount() {
+        return vehicles.size();
+    }
+
+    public int remainingCapacity() {
+        return Math.max(Garage.MAX_VEHICLES - vehicles.size(), 0);
+    }
+
+    public Map<FuelType, Long> vehiclesByFuelType() {
+        Map<FuelType, Long> counts = new EnumMap<>(FuelType.class);
+        vehicles.values().stream()
+                .filter(vehicle -> vehicle.typeCarburant() != null)
+                .forEach(vehicle -> counts.merge(FuelType.valueOf(vehicle.typeCarburant()), 1L, Long::sum));
+        return counts;
+    }
+
+    /**
+     * Nombre de véhicules par tranche d'années de fabrication, clé = première année de la tranche.
+     */
+    public Map<Integer, Long> vehiclesByYearBucket(int bucketSize) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        vehicles.values().stream()
+                .filter(vehicle -> vehicle.anneeFabrication() != null)
+                .forEach(vehicle -> counts.merge(Math.floorDiv(vehicle.anneeFabrication(), bucketSize) * bucketSize,
+                        1L, Long::sum));
+        return counts;
+    }
+
+    /**
+     * Un événement déjà appliqué (doublon, version inférieure ou égale) est ignoré ; les événements
+     * sans version (anciens messages) sont toujours appliqués.
+     */
+    private void put(Long vehicleId, Long version, Integer anneeFabrication, String typeCarburant) {
+        FleetVehicle current = vehicles.get(vehicleId);
+        if (current == null || isNewer(version, current)) {
+            vehicles.put(vehicleId, new FleetVehicle(version, anneeFabrication, typeCarburant));
+        }
+    }
+
+    /**
+     * Remplace les véhicules par ceux d'un instantané : les véhicules absents de l'instantané ont
+     * quitté le garage, les autres restent soumis au contrôle de version.
+     */
+    private void replace(List<GarageFleetSnapshotEvent.FleetVehicle> snapshot) {
+        Set<Long> vehicleIds = new HashSet<>();
+        for (GarageFleetSnapshotEvent.FleetVehicle vehicle : snapshot) {
+            vehicleIds.add(vehicle.vehicleId());
+            put(vehicle.vehicleId(), vehicle.version(), vehicle.anneeFabrication(), vehicle.typeCarburant());
+        }
+        vehicles.keySet().retainAll(vehicleIds);
+    }
+
+    private void remove(Long vehicleId, Long version) {
+        FleetVehicle current = vehicles.get(vehicleId);
+        if (current != null && isNewer(version, current)) {
+            vehicles.remove(vehicleId);
+        }
+    }
+
+    private static boolean isNewer(Long version, FleetVehicle current) {
+        return version == null || current.version() == null || version > current.version();
+    }
+
+    /**
+     * Véhicule présent dans le garage, réduit aux champs agrégés.
+     */
+    public record FleetVehicle(Long version, Integer anneeFabrication, String typeCarburant) {
+    }
+}
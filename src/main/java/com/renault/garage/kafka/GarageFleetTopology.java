@@ -0,0 +1,67 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.codec.EventCodecs;
+import com.renault.garage.codec.EventDeserializer;
+import com.renault.garage.event.GarageChangeEvent;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Topologie Kafka Streams des agrégats de flotte par garage : le topic des changements (clé = ID
+ * du garage) est agrégé dans le store {@link #STORE_NAME}, interrogé par
+ * {@link com.renault.garage.service.GarageFleetStatsService}. Le topic étant déjà partitionné par
+ * garage, l'agrégation se fait sans repartitionnement.
+ */
+@Component
+@ConditionalOnProperty(name = "garage.fleet-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class GarageFleetTopology {
+
+    public static final String STORE_NAME = "garage-fleet-stats";
+
+    private final EventCodecs eventCodecs;
+    private final String garageChangesTopic;
+
+    public GarageFleetTopology(EventCodecs eventCodecs,
+                               @Value("${app.kafka.topics.garage-changes:garage-changes}") String garageChangesTopic) {
+        this.eventCodecs = eventCodecs;
+        this.garageChangesTopic = garageChangesTopic;
+    }
+
+    @Autowired
+    public void addTo(StreamsBuilder builder) {
+        Serde<Object> eventSerde = eventSerde();
+        builder.stream(garageChangesTopic, Consumed.with(Serdes.String(), eventSerde))
+                .filter((garageId, event) -> garageId != null && event instanceof GarageChangeEvent)
+                .groupByKey(Grouped.with(Serdes.String(), eventSerde))
+                .aggregate(GarageFleetState::new,
+                        (garageId, event, state) -> state.apply((GarageChangeEvent) event),
+                        Materialized.<String, GarageFleetState, KeyValueStore<Bytes, byte[]>>as(STORE_NAME)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(new JsonSerde<>(GarageFleetState.class).noTypeInfo()));
+    }
+
+    /**
+     * Serde des événements lus : binaire ou JSON selon le message, comme pour les listeners.
+     * Les serdes passés explicitement ne sont pas configurés par Kafka Streams.
+     */
+    private Serde<Object> eventSerde() {
+        EventDeserializer deserializer = new EventDeserializer(eventCodecs);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.renault.garage.event"), false);
+        return Serdes.serdeFrom(new JsonSerializer<>(), deserializer);
+    }
+}
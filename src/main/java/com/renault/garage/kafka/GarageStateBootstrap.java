@@ -0,0 +1,245 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.dto.GarageStateBootstrapDTO;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.event.GarageStateSnapshot;
+import com.renault.garage.mapper.GarageMapper;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.OutboxEventRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Remplissage des caches locaux d'une instance au démarrage, depuis le topic compacté de l'état
+ * des garages ({@link GarageStatePublisher}) plutôt que depuis la base : le near-cache des
+ * réponses {@code GarageDTO} et l'index des garages par carburant.
+ *
+ * <p>Le topic est lu depuis le début jusqu'aux positions de fin relevées au départ, sans groupe
+ * de consommateurs ; seul le dernier état de chaque garage est gardé, un tombstone l'efface.
+ * Le remplissage s'exécute sur {@link ApplicationReadyEvent}, avant l'index (qui ne se construit
+ * depuis la base que s'il n'a pas été chargé) et avant que l'instance ne se déclare prête
+ * à recevoir du trafic ({@code ReadinessState.ACCEPTING_TRAFFIC}).</p>
+ *
+ * <p>Le topic n'est lu qu'une fois les états en attente dans l'outbox envoyés : il est alors au
+ * moins aussi récent que la base au moment de la lecture, et les modifications suivantes sont
+ * invalidées par le topic des invalidations. L'index n'est chargé que si le topic contient
+ * autant de garages que la base (topic complet, voir {@link GarageStatePublisher#republishAll}).
+ * En cas d'échec ou de délai dépassé, l'instance démarre à froid.</p>
+ */
+@Component
+@Slf4j
+public class GarageStateBootstrap {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final OutboxEventRepository outboxEventRepository;
+    private final GarageRepository garageRepository;
+    private final ResponseNearCache responseNearCache;
+    private final GarageFuelTypeIndex garageFuelTypeIndex;
+    private final GarageMapper garageMapper;
+    private final String garageStateTopic;
+    private final boolean enabled;
+    private final Duration timeout;
+
+    private volatile GarageStateBootstrapDTO lastResult;
+
+    public GarageStateBootstrap(ConsumerFactory<String, Object> consumerFactory,
+                                OutboxEventRepository outboxEventRepository,
+                                GarageRepository garageRepository,
+                                ResponseNearCache responseNearCache,
+                                GarageFuelTypeIndex garageFuelTypeIndex,
+                                GarageMapper garageMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.kafka.topics.garage-state:garage-state}") String garageStateTopic,
+                                @Value("${garage.state-bootstrap.enabled:true}") boolean enabled,
+                                @Value("${garage.state-bootstrap.timeout:PT30S}") Duration timeout) {
+        this.consumerFactory = consumerFactory;
+        this.outboxEventRepository = outboxEventRepository;
+        this.garageRepository = garageRepository;
+        this.responseNearCache = responseNearCache;
+        this.garageFuelTypeIndex = garageFuelTypeIndex;
+        this.garageMapper = garageMapper;
+        this.garageStateTopic = garageStateTopic;
+        this.enabled = enabled;
+        this.timeout = timeout;
+        Gauge.builder("garage.state-bootstrap.records", this,
+                        bootstrap -> bootstrap.lastResultValue(GarageStateBootstrapDTO::getRecords))
+                .description("Enregistrements lus sur le topic de l'état des garages au démarrage")
+                .register(meterRegistry);
+        Gauge.builder("garage.state-bootstrap.garages", this,
+                        bootstrap -> bootstrap.lastResultValue(GarageStateBootstrapDTO::getGarages))
+                .description("Garages chargés dans les caches au démarrage")
+                .register(meterRegistry);
+        TimeGauge.builder("garage.state-bootstrap.duration", this, TimeUnit.MILLISECONDS,
+                        bootstrap -> bootstrap.lastResultValue(GarageStateBootstrapDTO::getDurationMs))
+                .description("Durée du remplissage des caches au démarrage")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onApplicationReady() {
+        if (enabled) {
+            bootstrap();
+        }
+    }
+
+    /**
+     * Résultat du dernier remplissage (vide s'il est désactivé).
+     */
+    public Optional<GarageStateBootstrapDTO> getLastResult() {
+        return Optional.ofNullable(lastResult);
+    }
+
+    /**
+     * Lit le topic et remplit les caches. Une erreur (broker indisponible, délai dépassé) est
+     * journalisée et laisse les caches vides : le démarrage n'est pas bloqué.
+     */
+    public GarageStateBootstrapDTO bootstrap() {
+        Instant start = Instant.now();
+        Instant deadline = start.plus(timeout);
+        GarageStateBootstrapDTO.GarageStateBootstrapDTOBuilder result = GarageStateBootstrapDTO.builder()
+                .topic(garageStateTopic)
+                .startedAt(start);
+        try {
+            awaitOutboxDrained(deadline);
+            Map<Long, GarageStateSnapshot> states = new HashMap<>();
+            ReadCounts counts = read(states, deadline);
+            states.forEach((garageId, state) ->
+                    responseNearCache.put(NearCacheRegion.GARAGE, garageId, garageMapper.toDTO(state)));
+            boolean indexLoaded = loadFuelTypeIndex(states);
+            result.records(counts.records()).unreadable(counts.unreadable()).garages(states.size())
+                    .fuelTypeIndexLoaded(indexLoaded).complete(true);
+        } catch (RuntimeException e) {
+            log.warn("Remplissage des caches depuis {} abandonné, démarrage à froid: {}", garageStateTopic,
+                    e.getMessage());
+            result.complete(false);
+        }
+        lastResult = result.durationMs(Duration.between(start, Instant.now()).toMillis()).build();
+        log.info("Caches remplis depuis {} en {} ms : {} enregistrement(s) lu(s), {} garage(s) chargé(s), "
+                        + "{} illisible(s), index des carburants {}", garageStateTopic, lastResult.getDurationMs(),
+                lastResult.getRecords(), lastResult.getGarages(), lastResult.getUnreadable(),
+                lastResult.isFuelTypeIndexLoaded() ? "chargé" : "construit depuis la base");
+        return lastResult;
+    }
+
+    /**
+     * Attend que les états en attente dans l'outbox soient envoyés (par le relais de n'importe
+     * quelle instance).
+     */
+    private void awaitOutboxDrained(Instant deadline) {
+        while (outboxEventRepository.countByTopic(garageStateTopic) > 0) {
+            if (Instant.now().isAfter(deadline)) {
+                throw new IllegalStateException("états des garages toujours en attente dans l'outbox");
+            }
+            try {
+                Thread.sleep(POLL_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("attente de l'outbox interrompue", e);
+            }
+        }
+    }
+
+    /**
+     * Lit le topic jusqu'aux positions de fin et garde le dernier état de chaque garage.
+     */
+    private ReadCounts read(Map<Long, GarageStateSnapshot> states, Instant deadline) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "5000");
+        long records = 0;
+        long unreadable = 0;
+        try (Consumer<String, Object> consumer =
+                     consumerFactory.createConsumer(null, null, "-state-bootstrap", overrides)) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(garageStateTopic, timeout);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return new ReadCounts(0, 0);
+            }
+            List<TopicPartition> partitions = partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions, timeout);
+
+            while (!reachedEnd(consumer, endOffsets)) {
+                if (Instant.now().isAfter(deadline)) {
+                    throw new IllegalStateException("délai dépassé après " + records + " enregistrement(s)");
+                }
+                for (ConsumerRecord<String, Object> record : consumer.poll(POLL_TIMEOUT)) {
+                    records++;
+                    Long garageId = Long.valueOf(record.key());
+                    if (record.value() instanceof GarageStateSnapshot state) {
+                        states.put(garageId, state);
+                    } else if (record.value() == null && record.headers()
+                            .lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) == null) {
+                        states.remove(garageId);
+                    } else {
+                        unreadable++;
+                    }
+                }
+            }
+        }
+        return new ReadCounts(records, unreadable);
+    }
+
+    private boolean reachedEnd(Consumer<String, Object> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    /**
+     * Charge l'index depuis les états lus si le topic contient tous les garages de la base ;
+     * sinon l'index sera construit depuis la base.
+     */
+    private boolean loadFuelTypeIndex(Map<Long, GarageStateSnapshot> states) {
+        long garages = garageRepository.count();
+        if (states.size() != garages) {
+            log.warn("Topic {} incomplet ({} garage(s) sur {}), index des carburants construit depuis la base",
+                    garageStateTopic, states.size(), garages);
+            return false;
+        }
+        Map<Long, Map<FuelType, Integer>> vehiclesByFuelType = new HashMap<>();
+        states.forEach((garageId, state) -> vehiclesByFuelType.put(garageId, state.vehiclesByFuelType()));
+        garageFuelTypeIndex.load(vehiclesByFuelType);
+        return true;
+    }
+
+    private double lastResultValue(ToLongFunction<GarageStateBootstrapDTO> value) {
+        GarageStateBootstrapDTO result = lastResult;
+        return result != null ? value.applyAsLong(result) : 0;
+    }
+
+    private record ReadCounts(long records, long unreadable) {
+    }
+}
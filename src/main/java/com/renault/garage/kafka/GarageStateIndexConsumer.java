@@ -0,0 +1,47 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.event.GarageStateSnapshot;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumer Kafka du topic de l'état des garages qui tient à jour l'index des garages par
+ * carburant de l'instance ({@link GarageFuelTypeIndex}) avec les modifications de toutes les
+ * instances. Comme pour les invalidations du near-cache, chaque instance a son propre groupe de
+ * consommateurs et commence à la fin du topic : l'état antérieur vient du remplissage au
+ * démarrage ({@link GarageStateBootstrap}) ou de la base.
+ *
+ * <p>Chaque état porte les nombres complets du garage : appliquer deux fois le même état, ou
+ * l'état déjà appliqué localement après le commit, ne change rien. Un tombstone retire le garage.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GarageStateIndexConsumer {
+
+    private final GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.garage-state:garage-state}",
+            groupId = "#{'garage-fuel-type-index-' + @responseNearCache.nodeId}",
+            properties = "auto.offset.reset=latest",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handleGarageState(ConsumerRecord<String, Object> record) {
+        Long garageId = Long.valueOf(record.key());
+        if (record.value() instanceof GarageStateSnapshot state) {
+            garageFuelTypeIndex.garageStateChanged(garageId, state.vehiclesByFuelType());
+        } else if (record.value() == null && record.headers()
+                .lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) == null) {
+            garageFuelTypeIndex.garageRemoved(garageId);
+        } else {
+            log.warn("État illisible du garage {} ignoré (offset {}), index des carburants inchangé",
+                    garageId, record.offset());
+        }
+    }
+}
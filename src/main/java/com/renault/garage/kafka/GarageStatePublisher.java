@@ -0,0 +1,173 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.dto.GarageStatePublishResultDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.GarageStateSnapshot;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publisher de l'état des garages ({@link GarageStateSnapshot}) sur le topic compacté de l'état
+ * des garages, via l'outbox transactionnelle, clé = ID du garage.
+ *
+ * <p>Les garages modifiés sont relevés pendant la transaction, et leur état est lu et publié une
+ * seule fois, juste avant le commit : une transaction qui touche plusieurs fois un garage (import
+ * en masse) ne publie qu'un état, le dernier. Un garage supprimé est publié en tombstone.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GarageStatePublisher {
+
+    private static final int REPUBLISH_BATCH_SIZE = 500;
+
+    private final OutboxPublisher outboxPublisher;
+    private final GarageRepository garageRepository;
+    private final VehicleRepository vehicleRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.kafka.topics.garage-state:garage-state}")
+    private String garageStateTopic;
+
+    /**
+     * Relève un garage modifié dans la transaction courante ; son état sera publié avant le
+     * commit. Hors transaction, l'état est publié immédiatement.
+     */
+    public void garageChanged(Long garageId) {
+        if (garageId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishStates(List.of(garageId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> changedGarageIds = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changedGarageIds == null) {
+            changedGarageIds = registerTransaction();
+        }
+        changedGarageIds.add(garageId);
+    }
+
+    /**
+     * Republie l'état de tous les garages, par lots de {@value #REPUBLISH_BATCH_SIZE} (une
+     * transaction par lot) : premier remplissage du topic, ou après une perte du topic. Les
+     * garages du lot sont verrouillés pendant la lecture de leur état, comme pour une
+     * modification : un état republié ne peut pas passer après l'état d'une modification
+     * concurrente.
+     */
+    public GarageStatePublishResultDTO republishAll() {
+        Instant start = Instant.now();
+        int published = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> garageIds = garageRepository.findIdsAfter(afterId, Limit.of(REPUBLISH_BATCH_SIZE));
+            if (garageIds.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                garageRepository.findAllByIdForUpdate(garageIds);
+                publishStates(garageIds);
+            });
+            published += garageIds.size();
+            afterId = garageIds.get(garageIds.size() - 1);
+        }
+        log.info("État de {} garage(s) republié sur {}", published, garageStateTopic);
+        return GarageStatePublishResultDTO.builder()
+                .topic(garageStateTopic)
+                .garages(published)
+                .durationMs(Duration.between(start, Instant.now()).toMillis())
+                .build();
+    }
+
+    /**
+     * Lit l'état des garages (modifications en attente écrites au préalable) et l'enregistre
+     * dans l'outbox, tombstone pour les garages qui n'existent plus.
+     */
+    void publishStates(Collection<Long> garageIds) {
+        garageRepository.flush();
+        Map<Long, Garage> garages = garageRepository.findAllById(garageIds).stream()
+                .collect(Collectors.toMap(Garage::getId, Function.identity()));
+        Map<Long, Map<FuelType, Integer>> fuelCounts = garages.isEmpty()
+                ? Map.of()
+                : countByFuelType(vehicleRepository.countByFuelTypeForGarages(garages.keySet()));
+
+        Instant now = Instant.now();
+        List<GarageStateSnapshot> snapshots = new ArrayList<>(garages.size());
+        for (Long garageId : garageIds) {
+            Garage garage = garages.get(garageId);
+            if (garage == null) {
+                outboxPublisher.enqueueTombstone(garageStateTopic, String.valueOf(garageId), GarageStateSnapshot.class);
+            } else {
+                snapshots.add(snapshot(garage, fuelCounts.getOrDefault(garageId, Map.of()), now));
+            }
+        }
+        if (!snapshots.isEmpty()) {
+            outboxPublisher.enqueueAll(garageStateTopic, snapshots, GarageStateSnapshot::partitionKey);
+        }
+        log.debug("État de {} garage(s) enregistré dans l'outbox ({} supprimé(s))",
+                garageIds.size(), garageIds.size() - snapshots.size());
+    }
+
+    private Set<Long> registerTransaction() {
+        Set<Long> changedGarageIds = new LinkedHashSet<>();
+        TransactionSynchronizationManager.bindResource(this, changedGarageIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                publishStates(changedGarageIds);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(GarageStatePublisher.this);
+            }
+        });
+        return changedGarageIds;
+    }
+
+    private static GarageStateSnapshot snapshot(Garage garage, Map<FuelType, Integer> vehiclesByFuelType,
+                                                Instant now) {
+        List<GarageStateSnapshot.OpeningHours> openingHours = garage.getHorairesOuverture().stream()
+                .map(hours -> new GarageStateSnapshot.OpeningHours(hours.getId(), hours.getDayOfWeek(),
+                        hours.getStartTime(), hours.getEndTime()))
+                .toList();
+        return new GarageStateSnapshot(garage.getId(), garage.getVersion(), garage.getName(), garage.getAddress(),
+                garage.getTelephone(), garage.getEmail(), openingHours, garage.getVehicleCount(),
+                vehiclesByFuelType, now);
+    }
+
+    /**
+     * Lignes [garageId, FuelType, count] regroupées par garage.
+     */
+    private static Map<Long, Map<FuelType, Integer>> countByFuelType(List<Object[]> rows) {
+        Map<Long, Map<FuelType, Integer>> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.computeIfAbsent((Long) row[0], id -> new EnumMap<>(FuelType.class))
+                    .put((FuelType) row[1], ((Long) row[2]).intValue());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,92 @@
+package com.renault.garage.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.codec.EventCodecs;
+import com.renault.garage.entity.OutboxEvent;
+import com.renault.garage.enums.EventFormat;
+import com.renault.garage.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Écriture des messages Kafka dans l'outbox, dans la transaction de l'appelant.
+ * Les événements dotés d'un codec sont écrits au format binaire, les autres en JSON.
+ * L'envoi effectif est assuré par {@link OutboxRelay}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final EventCodecs eventCodecs;
+
+    /**
+     * Enregistre un événement à publier sur le topic avec la clé donnée. Exige une transaction
+     * en cours : le message n'existe que si la modification qu'il décrit est validée.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, Object event) {
+        outboxEventRepository.save(toOutboxEvent(topic, key, event, Instant.now()));
+    }
+
+    /**
+     * Enregistre une série d'événements à publier sur un même topic, en une écriture groupée
+     * (inserts JDBC par lots, dans l'ordre de la série). Exige une transaction en cours.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void enqueueAll(String topic, Collection<T> events, Function<T, String> key) {
+        Instant now = Instant.now();
+        List<OutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        for (T event : events) {
+            outboxEvents.add(toOutboxEvent(topic, key.apply(event), event, now));
+        }
+        outboxEventRepository.saveAll(outboxEvents);
+    }
+
+    /**
+     * Enregistre un tombstone (message sans valeur) pour la clé d'un topic compacté : le relais
+     * l'envoie sans valeur, et la compaction efface la clé. {@code eventType} est le type des
+     * messages effacés, pour le diagnostic. Exige une transaction en cours.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueTombstone(String topic, String key, Class<?> eventType) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .eventType(eventType.getName())
+                .format(EventFormat.TOMBSTONE)
+                .payload(new byte[0])
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    private OutboxEvent toOutboxEvent(String topic, String key, Object event, Instant createdAt) {
+        EventFormat format = eventCodecs.formatFor(event.getClass());
+        return OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .eventType(event.getClass().getName())
+                .format(format)
+                .payload(format == EventFormat.BINARY ? eventCodecs.encode(event) : serialize(event))
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private byte[] serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation impossible de l'événement " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.entity.OutboxEvent;
+import com.renault.garage.enums.EventFormat;
+import com.renault.garage.repository.OutboxBacklog;
+import com.renault.garage.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relais de l'outbox vers Kafka : à chaque intervalle, envoie les messages en attente par lots,
+ * dans l'ordre d'écriture, et supprime ceux acquittés par le broker.
+ *
+ * <p>Livraison « au moins une fois » : à la première erreur d'un lot, seuls les messages qui la
+ * précèdent sont supprimés et le reste est renvoyé au passage suivant, en conservant l'ordre
+ * par clé (producteur idempotent). Un broker indisponible fait grossir l'outbox, visible dans
+ * les métriques, sans ralentir les requêtes.</p>
+ *
+ * <p>Pendant l'envoi, le lot est réservé par un bail ({@code garage.outbox.relay.lease}) plutôt
+ * que par des verrous : les transactions restent courtes et aucune ne reste ouverte pendant
+ * l'attente du broker. Un relais arrêté en plein envoi libère son lot à l'expiration
+ * du bail, et ces messages sont renvoyés.</p>
+ *
+ * <p>Le premier lot d'un passage part avec le producteur à faible latence ; les lots suivants
+ * (arriéré, import en masse) sont plus grands et partent avec le profil « bulk » du producteur,
+ * qui regroupe davantage : moins d'allers-retours vers la base et le broker par message. Chaque
+ * lot étant acquitté avant le suivant, changer de producteur ne change pas l'ordre par clé.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "garage.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+    private final KafkaTemplate<String, byte[]> bulkOutboxKafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int bulkBatchSize;
+    private final Duration sendTimeout;
+    private final Duration lease;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> sendTimers = new ConcurrentHashMap<>();
+    private final Timer lagTimer;
+    private final Counter sentCounter;
+    private final Counter failureCounter;
+    private final AtomicLong pending = new AtomicLong();
+    private volatile Instant oldestCreatedAt;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       @Qualifier("outboxKafkaTemplate") KafkaTemplate<String, byte[]> outboxKafkaTemplate,
+                       @Qualifier("bulkOutboxKafkaTemplate") KafkaTemplate<String, byte[]> bulkOutboxKafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${garage.outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${garage.outbox.relay.bulk-batch-size:2000}") int bulkBatchSize,
+                       @Value("${garage.outbox.relay.send-timeout:PT10S}") Duration sendTimeout,
+                       @Value("${garage.outbox.relay.lease:PT1M}") Duration lease) {
+        // Un envoi commencé juste avant le délai du lot peut encore bloquer jusqu'à sendTimeout
+        if (lease.compareTo(sendTimeout.multipliedBy(2)) <= 0) {
+            throw new IllegalArgumentException(
+                    "garage.outbox.relay.lease doit dépasser deux fois garage.outbox.relay.send-timeout");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxKafkaTemplate = outboxKafkaTemplate;
+        this.bulkOutboxKafkaTemplate = bulkOutboxKafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.bulkBatchSize = bulkBatchSize;
+        this.sendTimeout = sendTimeout;
+        this.lease = lease;
+        this.meterRegistry = meterRegistry;
+        this.lagTimer = Timer.builder("garage.outbox.relay.lag")
+                .description("Délai entre l'écriture d'un message dans l'outbox et son acquittement par Kafka")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("garage.outbox.relay.sent")
+                .description("Messages de l'outbox envoyés à Kafka")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("garage.outbox.relay.failures")
+                .description("Lots de l'outbox interrompus par une erreur d'envoi")
+                .register(meterRegistry);
+        Gauge.builder("garage.outbox.pending", pending, AtomicLong::get)
+                .description("Messages en attente dans l'outbox")
+                .register(meterRegistry);
+        Gauge.builder("garage.outbox.oldest.age", this, OutboxRelay::oldestAgeSeconds)
+                .description("Âge en secondes du plus ancien message en attente")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vide l'outbox tant que les lots sont pleins, puis met à jour les métriques d'attente.
+     */
+    @Scheduled(fixedDelayString = "${garage.outbox.relay.poll-interval:PT0.2S}")
+    public void relay() {
+        boolean full = relayBatch(outboxKafkaTemplate, batchSize) == batchSize;
+        while (full) {
+            full = relayBatch(bulkOutboxKafkaTemplate, bulkBatchSize) == bulkBatchSize;
+        }
+        refreshBacklog();
+    }
+
+    /**
+     * Envoie un lot et supprime les messages acquittés. Le lot est réservé (bail) dans une courte
+     * transaction, envoyé hors transaction, puis les messages acquittés sont supprimés et les
+     * autres libérés dans une seconde transaction : aucun verrou n'est tenu pendant l'attente du
+     * broker, elle-même bornée à {@code sendTimeout} par lot. Retourne le nombre de messages livrés.
+     */
+    int relayBatch(KafkaTemplate<String, byte[]> kafkaTemplate, int size) {
+        List<OutboxEvent> batch = claimBatch(size);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> deliveredIds = awaitInOrder(batch, send(kafkaTemplate, batch, deadline), deadline);
+        List<Long> undeliveredIds = batch.subList(deliveredIds.size(), batch.size()).stream()
+                .map(OutboxEvent::getId)
+                .toList();
+        transactionTemplate.execute(status -> {
+            if (!deliveredIds.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(deliveredIds);
+            }
+            if (!undeliveredIds.isEmpty()) {
+                outboxEventRepository.release(undeliveredIds);
+            }
+            return null;
+        });
+        return deliveredIds.size();
+    }
+
+    /**
+     * Réserve les plus anciens messages jusqu'à la fin du bail. Si la tête de l'outbox est déjà
+     * réservée, un autre relais l'envoie : rien n'est réservé, pour ne pas doubler ses messages
+     * par des messages plus récents de mêmes clés.
+     */
+    private List<OutboxEvent> claimBatch(int size) {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<OutboxEvent> head = outboxEventRepository.findNextBatchForUpdate(Limit.of(size));
+            Instant now = Instant.now();
+            if (head.isEmpty() || head.stream().anyMatch(event -> isClaimed(event, now))) {
+                return List.<OutboxEvent>of();
+            }
+            outboxEventRepository.claim(head.stream().map(OutboxEvent::getId).toList(), now.plus(lease));
+            return head;
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private static boolean isClaimed(OutboxEvent event, Instant now) {
+        return event.getClaimedUntil() != null && event.getClaimedUntil().isAfter(now);
+    }
+
+    /**
+     * Envoie les messages du lot sans attendre (le producteur les regroupe), en s'arrêtant au
+     * premier échec immédiat (métadonnées indisponibles, tampon plein) ou une fois le délai du
+     * lot écoulé.
+     */
+    private List<CompletableFuture<SendResult<String, byte[]>>> send(KafkaTemplate<String, byte[]> kafkaTemplate,
+                                                                     List<OutboxEvent> batch, long deadline) {
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            if (System.nanoTime() - deadline > 0) {
+                log.warn("Délai d'envoi du lot dépassé, {} message(s) de l'outbox renvoyé(s) au prochain passage",
+                        batch.size() - futures.size());
+                break;
+            }
+            try {
+                long start = System.nanoTime();
+                CompletableFuture<SendResult<String, byte[]>> future = kafkaTemplate.send(toRecord(event));
+                future.whenComplete((result, e) -> {
+                    if (e == null) {
+                        sendTimer(event.getTopic()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                });
+                futures.add(future);
+            } catch (RuntimeException e) {
+                log.warn("Envoi du message {} de l'outbox impossible: {}", event.getId(), e.getMessage());
+                futures.add(CompletableFuture.failedFuture(e));
+                break;
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Attend les acquittements dans l'ordre du lot, jusqu'au délai du lot, et retourne les IDs
+     * livrés avant le premier échec.
+     */
+    private List<Long> awaitInOrder(List<OutboxEvent> batch, List<CompletableFuture<SendResult<String, byte[]>>> futures,
+                                    long deadline) {
+        List<Long> deliveredIds = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                failureCounter.increment();
+                log.error("Échec de l'envoi du message {} de l'outbox (topic={}), {} message(s) renvoyé(s) au prochain passage",
+                        event.getId(), event.getTopic(), batch.size() - i, e);
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            deliveredIds.add(event.getId());
+            lagTimer.record(Duration.between(event.getCreatedAt(), Instant.now()));
+        }
+        sentCounter.increment(deliveredIds.size());
+        return deliveredIds;
+    }
+
+    /**
+     * Latence d'envoi par topic : de l'appel au producteur jusqu'à l'acquittement du broker.
+     */
+    private Timer sendTimer(String topic) {
+        return sendTimers.computeIfAbsent(topic, t -> Timer.builder("garage.outbox.relay.send")
+                .description("Délai entre l'envoi d'un message de l'outbox et son acquittement par Kafka")
+                .tag("topic", t)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        byte[] value = event.getFormat() == EventFormat.TOMBSTONE ? null : event.getPayload();
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), event.getMessageKey(), value);
+        if (event.getFormat() == EventFormat.JSON) {
+            record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                    event.getEventType().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    private void refreshBacklog() {
+        OutboxBacklog backlog = outboxEventRepository.findBacklog();
+        pending.set(backlog.pending());
+        oldestCreatedAt = backlog.oldestCreatedAt();
+    }
+
+    private double oldestAgeSeconds() {
+        Instant oldest = oldestCreatedAt;
+        return oldest != null ? Duration.between(oldest, Instant.now()).toMillis() / 1_000.0 : 0;
+    }
+}
@@ -0,0 +1,153 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.dto.DeadLetterReplayResultDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Rejeu du DLT des créations de véhicules vers le topic principal, une fois la cause corrigée.
+ * Les messages sont republiés tels quels (clé, octets, en-tête de type), sans les en-têtes
+ * d'erreur et de reprise. Seuls les messages présents au début du rejeu sont concernés ; la
+ * position atteinte est validée pour un groupe dédié, de sorte qu'un message n'est rejoué
+ * qu'une fois. Un message qui échoue encore refait le parcours des reprises.
+ */
+@Component
+@Slf4j
+public class VehicleDeadLetterReplayer {
+
+    private static final String REPLAY_GROUP_SUFFIX = "-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final List<String> RECOVERY_HEADER_PREFIXES = List.of(
+            KafkaHeaders.PREFIX + "dlt-", "retry_topic-", SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX);
+
+    private final ConsumerFactory<String, byte[]> deadLetterConsumerFactory;
+    private final KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+    private final String deadLetterTopic;
+    private final String vehicleCreatedTopic;
+    private final String replayGroupId;
+    private final Duration timeout;
+    private final Counter replayedCounter;
+
+    public VehicleDeadLetterReplayer(ConsumerFactory<String, byte[]> deadLetterConsumerFactory,
+                                     @Qualifier("outboxKafkaTemplate") KafkaTemplate<String, byte[]> outboxKafkaTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.kafka.topics.vehicle-created-failed:vehicle-created-failed}") String failedTopic,
+                                     @Value("${app.kafka.topics.vehicle-created:vehicle-created}") String vehicleCreatedTopic,
+                                     @Value("${spring.kafka.consumer.group-id:garage-management-group}") String groupId,
+                                     @Value("${garage.kafka.vehicle-created.dlt.replay-timeout:PT30S}") Duration timeout) {
+        this.deadLetterConsumerFactory = deadLetterConsumerFactory;
+        this.outboxKafkaTemplate = outboxKafkaTemplate;
+        this.deadLetterTopic = failedTopic + VehicleEventRetryConsumer.DLT_SUFFIX;
+        this.vehicleCreatedTopic = vehicleCreatedTopic;
+        this.replayGroupId = groupId + REPLAY_GROUP_SUFFIX;
+        this.timeout = timeout;
+        this.replayedCounter = Counter.builder("garage.vehicle-events.dlt.replayed")
+                .description("Messages du DLT republiés sur le topic des créations de véhicules")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Republie les messages du DLT non encore rejoués. Les positions ne sont validées qu'après
+     * l'acquittement des envois : un rejeu interrompu reprend au même point.
+     */
+    public synchronized DeadLetterReplayResultDTO replay() {
+        Instant start = Instant.now();
+        Instant deadline = start.plus(timeout);
+        try (Consumer<String, byte[]> consumer = deadLetterConsumerFactory.createConsumer(replayGroupId, null)) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return result(0, true, start);
+            }
+            List<TopicPartition> partitions = partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            Map<TopicPartition, OffsetAndMetadata> replayedOffsets = new HashMap<>();
+            List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>();
+            while (!reachedEnd(consumer, endOffsets) && Instant.now().isBefore(deadline)) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() < endOffsets.get(partition)) {
+                        sends.add(outboxKafkaTemplate.send(toVehicleCreated(record)));
+                        replayedOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    }
+                }
+            }
+            awaitSends(sends);
+            if (!replayedOffsets.isEmpty()) {
+                consumer.commitSync(replayedOffsets);
+            }
+            replayedCounter.increment(sends.size());
+            boolean complete = reachedEnd(consumer, endOffsets);
+            log.info("Rejeu du DLT {}: {} message(s) republié(s) sur {}{}", deadLetterTopic, sends.size(),
+                    vehicleCreatedTopic, complete ? "" : " (délai dépassé, rejeu partiel)");
+            return result(sends.size(), complete, start);
+        }
+    }
+
+    private boolean reachedEnd(Consumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+    }
+
+    private ProducerRecord<String, byte[]> toVehicleCreated(ConsumerRecord<String, byte[]> record) {
+        List<Header> headers = new ArrayList<>();
+        for (Header header : record.headers()) {
+            if (RECOVERY_HEADER_PREFIXES.stream().noneMatch(header.key()::startsWith)) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(vehicleCreatedTopic, null, record.key(), record.value(), headers);
+    }
+
+    private void awaitSends(List<CompletableFuture<SendResult<String, byte[]>>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rejeu du DLT interrompu", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Échec de la republication du DLT " + deadLetterTopic, e);
+        }
+    }
+
+    private DeadLetterReplayResultDTO result(int replayed, boolean complete, Instant start) {
+        return DeadLetterReplayResultDTO.builder()
+                .deadLetterTopic(deadLetterTopic)
+                .targetTopic(vehicleCreatedTopic)
+                .replayed(replayed)
+                .complete(complete)
+                .durationMs(Duration.between(start, Instant.now()).toMillis())
+                .build();
+    }
+}
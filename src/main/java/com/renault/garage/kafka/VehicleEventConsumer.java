@@ -1,42 +1,173 @@
 package com.renault.garage.kafka;
 
 import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.service.GarageActivityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.RecordBatch;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Consumer Kafka pour les événements de véhicules.
+ * Les événements sont clés par garage et reçus par lot (un lot par poll) ; une instance du
+ * listener par partition (concurrence = nombre de partitions), chacune seule à écrire les
+ * garages de sa partition. Les offsets ne sont validés qu'après le traitement du lot.
+ * Un événement illisible ou en échec est écarté vers les topics de reprise ou le DLT
+ * (voir {@link VehicleEventRetryConsumer}) sans bloquer les autres garages de sa partition.
  */
 @Component
 @Slf4j
-public class VehicleEventConsumer {
+public class VehicleEventConsumer implements ConsumerSeekAware {
+
+    private static final LogAccessor HEADER_LOGGER = new LogAccessor(VehicleEventConsumer.class);
+
+    private final GarageActivityService garageActivityService;
+    private final Counter consumedCounter;
+    private final Counter failedCounter;
+    private final Counter unreadableCounter;
+    private final DistributionSummary batchSize;
+    private final Timer processingTimer;
+    private final Timer lagTimer;
+
+    public VehicleEventConsumer(GarageActivityService garageActivityService, MeterRegistry meterRegistry) {
+        this.garageActivityService = garageActivityService;
+        this.consumedCounter = Counter.builder("garage.vehicle-events.consumed")
+                .description("Événements de création de véhicules traités")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("garage.vehicle-events.failed")
+                .description("Événements en échec écartés du topic principal vers les reprises")
+                .register(meterRegistry);
+        this.unreadableCounter = Counter.builder("garage.vehicle-events.dead-lettered")
+                .description("Événements de création de véhicules publiés sur le DLT")
+                .tag("reason", "unreadable")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("garage.vehicle-events.batch.size")
+                .description("Nombre d'événements par lot reçu")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("garage.vehicle-events.processing")
+                .description("Durée du traitement d'un lot d'événements de création de véhicules")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("garage.vehicle-events.lag")
+                .description("Délai entre l'écriture d'un événement sur le topic et le début de son traitement")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     /**
-     * Consomme les événements de création de véhicules.
-     * Dans un cas réel, on pourrait envoyer des notifications, mettre à jour des caches, etc.
+     * Consomme un lot d'événements de création de véhicules : la projection d'activité de chaque
+     * partition du lot est mise à jour en une transaction. En cas d'erreur, l'exception désigne
+     * l'enregistrement en cause : ceux qui le précèdent sont validés, il est écarté par le
+     * gestionnaire d'erreurs et le lot reprend juste après lui.
      */
     @KafkaListener(
             topics = "${app.kafka.topics.vehicle-created:vehicle-created}",
             groupId = "${spring.kafka.consumer.group-id}",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "batchKafkaListenerContainerFactory",
+            concurrency = "${garage.kafka.vehicle-created.partitions:3}"
     )
-    public void handleVehicleCreated(VehicleCreatedEvent event) {
-        log.info("=== Événement véhicule créé reçu ===");
-        log.info("Vehicle ID: {}", event.vehicleId());
-        log.info("Marque: {}", event.brand());
-        log.info("Modèle: {}", event.model());
-        log.info("Année: {}", event.anneeFabrication());
-        log.info("Type carburant: {}", event.typeCarburant());
-        log.info("Garage ID: {}", event.garageId());
-        log.info("Garage: {}", event.garageName());
-        log.info("Créé à: {}", event.createdAt());
-        log.info("=====================================");
-        
-        // Ici on pourrait ajouter de la logique métier:
-        // - Envoyer une notification par email
-        // - Mettre à jour un cache
-        // - Synchroniser avec un système externe
-        // - Générer des statistiques
+    public void handleVehiclesCreated(List<ConsumerRecord<String, VehicleCreatedEvent>> records) {
+        long start = System.nanoTime();
+        recordLag(records);
+        try {
+            applyAll(records);
+        } finally {
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void applyAll(List<ConsumerRecord<String, VehicleCreatedEvent>> records) {
+        // Les enregistrements d'un poll sont regroupés par partition, dans l'ordre des offsets
+        Map<TopicPartition, List<ConsumerRecord<String, VehicleCreatedEvent>>> recordsByPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, VehicleCreatedEvent> record : records) {
+            recordsByPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                    partition -> new ArrayList<>()).add(record);
+        }
+        recordsByPartition.forEach(this::apply);
+        consumedCounter.increment(records.size());
+        batchSize.record(records.size());
+        log.debug("Lot de {} événement(s) véhicule créé traité ({} partition(s))", records.size(), recordsByPartition.size());
+    }
+
+    /**
+     * Retard de chaque enregistrement sur son horodatage Kafka (écriture par le producteur ou
+     * ajout au journal par le broker) : retard du consommateur, exprimé en temps.
+     */
+    private void recordLag(List<ConsumerRecord<String, VehicleCreatedEvent>> records) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, VehicleCreatedEvent> record : records) {
+            if (record.timestamp() != RecordBatch.NO_TIMESTAMP) {
+                lagTimer.record(Math.max(now - record.timestamp(), 0), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Applique les enregistrements d'une partition en une transaction. Si elle échoue, ou si un
+     * enregistrement est illisible, ils sont appliqués un à un pour isoler l'enregistrement en
+     * cause : ceux qui le précèdent restent appliqués et l'exception lancée le désigne.
+     */
+    private void apply(TopicPartition partition, List<ConsumerRecord<String, VehicleCreatedEvent>> records) {
+        if (records.stream().allMatch(record -> record.value() != null)) {
+            try {
+                garageActivityService.applyVehiclesCreated(partition, records);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Échec du lot de la partition {} ({} événement(s)), traitement unitaire pour isoler l'événement en cause",
+                        partition, records.size(), e);
+            }
+        }
+        for (ConsumerRecord<String, VehicleCreatedEvent> record : records) {
+            if (record.value() == null) {
+                DeserializationException cause = SerializationUtils.getExceptionFromHeader(record,
+                        SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, HEADER_LOGGER);
+                unreadableCounter.increment();
+                throw reject(record, cause != null ? cause : new IllegalStateException("Événement vide"));
+            }
+            try {
+                garageActivityService.applyVehiclesCreated(partition, List.of(record));
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                throw reject(record, e);
+            }
+        }
+    }
+
+    private BatchListenerFailedException reject(ConsumerRecord<String, VehicleCreatedEvent> record, Exception cause) {
+        log.error("Événement véhicule créé écarté: {}-{}@{}", record.topic(), record.partition(), record.offset(), cause);
+        return new BatchListenerFailedException("Échec de l'événement " + record.topic() + "-" + record.partition()
+                + "@" + record.offset(), cause, record);
+    }
+
+    /**
+     * Traite un enregistrement isolé, comme un lot d'un seul élément.
+     */
+    public void handleVehicleCreated(ConsumerRecord<String, VehicleCreatedEvent> record) {
+        handleVehiclesCreated(List.of(record));
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        garageActivityService.releasePartitions(partitions);
     }
 }
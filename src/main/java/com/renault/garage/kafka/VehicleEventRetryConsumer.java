@@ -0,0 +1,89 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.service.GarageActivityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reprises non bloquantes des événements de véhicules écartés par {@link VehicleEventConsumer}.
+ * Un événement en échec est d'abord retenté une fois sur le topic des échecs, puis sur des topics
+ * de reprise à délai croissant (backoff exponentiel, un topic par palier), enfin publié sur le
+ * DLT. Chaque palier attend son délai en suspendant sa seule partition : le topic principal
+ * continue d'avancer pendant ce temps.
+ * <p>
+ * Les reprises ne s'appliquent pas à l'état d'une partition du topic principal : l'ordre relatif
+ * aux autres événements du garage est perdu, sans effet sur les compteurs de la projection.
+ */
+@Component
+@Slf4j
+public class VehicleEventRetryConsumer {
+
+    /**
+     * Suffixe du DLT, ajouté au nom du topic des échecs.
+     */
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private final GarageActivityService garageActivityService;
+    private final MeterRegistry meterRegistry;
+    private final Counter deadLetterCounter;
+
+    public VehicleEventRetryConsumer(GarageActivityService garageActivityService, MeterRegistry meterRegistry) {
+        this.garageActivityService = garageActivityService;
+        this.meterRegistry = meterRegistry;
+        this.deadLetterCounter = Counter.builder("garage.vehicle-events.dead-lettered")
+                .description("Événements de création de véhicules publiés sur le DLT")
+                .tag("reason", "retries-exhausted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retente un événement écarté. Une nouvelle erreur le fait passer au palier suivant ;
+     * un événement illisible part directement sur le DLT.
+     */
+    @RetryableTopic(
+            attempts = "${garage.kafka.vehicle-created.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${garage.kafka.vehicle-created.retry.delay-ms:1000}",
+                    multiplierExpression = "${garage.kafka.vehicle-created.retry.multiplier:2}",
+                    maxDelayExpression = "${garage.kafka.vehicle-created.retry.max-delay-ms:30000}"),
+            kafkaTemplate = "kafkaTemplate",
+            listenerContainerFactory = "kafkaListenerContainerFactory",
+            numPartitions = "${garage.kafka.vehicle-created.partitions:3}",
+            replicationFactor = "1",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = DLT_SUFFIX
+    )
+    @KafkaListener(
+            topics = "${app.kafka.topics.vehicle-created-failed:vehicle-created-failed}",
+            groupId = "${spring.kafka.consumer.group-id}"
+    )
+    public void retryVehicleCreated(ConsumerRecord<String, VehicleCreatedEvent> record,
+                                    @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        meterRegistry.counter("garage.vehicle-events.retried", "topic", topic).increment();
+        garageActivityService.applyVehicleCreated(record);
+        log.info("Événement véhicule créé repris avec succès: véhicule {}, topic {}", record.value().vehicleId(), topic);
+    }
+
+    /**
+     * Dernier palier : l'événement reste sur le DLT jusqu'à son rejeu
+     * (voir {@link VehicleDeadLetterReplayer}). Les événements illisibles, publiés sur le DLT
+     * dès le topic principal, n'arrivent pas jusqu'ici : ils sont comptés par le consumer principal.
+     */
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, Object> record) {
+        deadLetterCounter.increment();
+        log.error("Événement véhicule créé sur le DLT: {}-{}@{}, clé {}",
+                record.topic(), record.partition(), record.offset(), record.key());
+    }
+}
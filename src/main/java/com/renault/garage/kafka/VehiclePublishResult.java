@@ -0,0 +1,21 @@
+package com.renault.garage.kafka;
+
+import java.util.List;
+
+/**
+ * Résultat d'une publication groupée de créations de véhicules : nombre d'événements écrits dans
+ * l'outbox et véhicules dont l'événement n'a pu être construit.
+ */
+public record VehiclePublishResult(int published, List<Failure> failures) {
+
+    /**
+     * Véhicule écarté de la publication, identifié par sa position dans la série publiée
+     * (l'ID peut manquer).
+     */
+    public record Failure(int index, Long vehicleId, String error) {
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
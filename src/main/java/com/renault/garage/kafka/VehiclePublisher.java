@@ -5,51 +5,79 @@ import com.renault.garage.event.VehicleCreatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Publisher Kafka pour les événements de véhicules.
+ * Les événements passent par l'outbox transactionnelle : aucun appel au broker pendant la requête.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class VehiclePublisher {
 
-    private final KafkaTemplate<String, VehicleCreatedEvent> kafkaTemplate;
+    private final OutboxPublisher outboxPublisher;
+    private final GarageChangePublisher garageChangePublisher;
 
     @Value("${app.kafka.topics.vehicle-created:vehicle-created}")
     private String vehicleCreatedTopic;
 
     /**
-     * Publie un événement lors de la création d'un véhicule.
+     * Publie un événement lors de la création d'un véhicule, dans la transaction de création
+     * (annulé avec elle en cas de rollback), sur le topic des créations et sur celui des changements.
      */
     public void publishVehicleCreated(Vehicle vehicle) {
-        try {
-            VehicleCreatedEvent event = VehicleCreatedEvent.of(
-                    vehicle.getId(),
-                    vehicle.getBrand(),
-                    vehicle.getModel(),
-                    vehicle.getAnneeFabrication(),
-                    vehicle.getTypeCarburant().name(),
-                    vehicle.getGarage() != null ? vehicle.getGarage().getId() : null,
-                    vehicle.getGarage() != null ? vehicle.getGarage().getName() : null
-            );
-
-            kafkaTemplate.send(vehicleCreatedTopic, String.valueOf(vehicle.getId()), event)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            log.info("Événement véhicule créé publié avec succès: vehicleId={}, topic={}, partition={}", 
-                                    vehicle.getId(), 
-                                    result.getRecordMetadata().topic(),
-                                    result.getRecordMetadata().partition());
-                        } else {
-                            log.error("Erreur lors de la publication de l'événement véhicule créé: vehicleId={}", 
-                                    vehicle.getId(), ex);
-                        }
-                    });
-        } catch (Exception e) {
-            log.error("Erreur lors de la création de l'événement véhicule: {}", e.getMessage(), e);
+        VehicleCreatedEvent event = toEvent(vehicle);
+        // Clé = ID du garage : les événements d'un garage restent sur une partition, dans l'ordre
+        outboxPublisher.enqueue(vehicleCreatedTopic, event.partitionKey(), event);
+        garageChangePublisher.publish(event);
+        log.debug("Événement véhicule créé enregistré dans l'outbox: vehicleId={}", vehicle.getId());
+    }
+
+    /**
+     * Publie la création d'une série de véhicules (import en masse), dans la transaction de
+     * création : chaque événement est construit une fois, puis tous sont écrits dans l'outbox en
+     * une écriture groupée par topic. Un véhicule dont l'événement ne peut être construit est
+     * écarté et signalé dans le résultat ; à l'appelant d'annuler sa transaction s'il le faut.
+     */
+    public VehiclePublishResult publishVehiclesCreated(Collection<Vehicle> vehicles) {
+        List<VehicleCreatedEvent> events = new ArrayList<>(vehicles.size());
+        List<VehiclePublishResult.Failure> failures = new ArrayList<>();
+        int index = 0;
+        for (Vehicle vehicle : vehicles) {
+            try {
+                events.add(toEvent(vehicle));
+            } catch (RuntimeException e) {
+                failures.add(new VehiclePublishResult.Failure(index, vehicle.getId(), e.getMessage()));
+            }
+            index++;
+        }
+        if (!events.isEmpty()) {
+            outboxPublisher.enqueueAll(vehicleCreatedTopic, events, VehicleCreatedEvent::partitionKey);
+            garageChangePublisher.publishAll(events);
+        }
+        log.debug("{} événement(s) véhicule créé enregistré(s) dans l'outbox, {} véhicule(s) écarté(s)",
+                events.size(), failures.size());
+        return new VehiclePublishResult(events.size(), failures);
+    }
+
+    private static VehicleCreatedEvent toEvent(Vehicle vehicle) {
+        if (vehicle.getId() == null) {
+            throw new IllegalArgumentException("Véhicule non persisté : ID absent");
         }
+        return VehicleCreatedEvent.of(
+                vehicle.getId(),
+                vehicle.getBrand(),
+                vehicle.getModel(),
+                vehicle.getAnneeFabrication(),
+                vehicle.getTypeCarburant().name(),
+                vehicle.getGarage() != null ? vehicle.getGarage().getId() : null,
+                vehicle.getGarage() != null ? vehicle.getGarage().getName() : null,
+                vehicle.getVersion()
+        );
     }
 }
@@ -22,6 +22,7 @@ public class AccessoryMapper {
                 .prix(accessory.getPrix())
                 .type(accessory.getType())
                 .vehicleId(accessory.getVehicle() != null ? accessory.getVehicle().getId() : null)
+                .version(accessory.getVersion())
                 .build();
     }
 
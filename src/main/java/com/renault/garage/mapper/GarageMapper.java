@@ -4,6 +4,7 @@ import com.renault.garage.dto.GarageDTO;
 import com.renault.garage.dto.OpeningHoursDTO;
 import com.renault.garage.entity.Garage;
 import com.renault.garage.entity.GarageOpeningHours;
+import com.renault.garage.event.GarageStateSnapshot;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -29,6 +30,31 @@ public class GarageMapper {
                 .email(garage.getEmail())
                 .horairesOuverture(toOpeningHoursDTOList(garage.getHorairesOuverture()))
                 .vehicleCount(garage.getVehicleCount())
+                .version(garage.getVersion())
+                .build();
+    }
+
+    /**
+     * Réponse d'un garage reconstruite depuis son état publié, identique à celle construite
+     * depuis l'entité.
+     */
+    public GarageDTO toDTO(GarageStateSnapshot snapshot) {
+        return GarageDTO.builder()
+                .id(snapshot.garageId())
+                .name(snapshot.name())
+                .address(snapshot.address())
+                .telephone(snapshot.telephone())
+                .email(snapshot.email())
+                .horairesOuverture(snapshot.openingHours().stream()
+                        .map(hours -> OpeningHoursDTO.builder()
+                                .id(hours.id())
+                                .dayOfWeek(hours.dayOfWeek())
+                                .startTime(hours.startTime())
+                                .endTime(hours.endTime())
+                                .build())
+                        .collect(Collectors.toList()))
+                .vehicleCount(snapshot.vehicleCount())
+                .version(snapshot.version())
                 .build();
     }
 
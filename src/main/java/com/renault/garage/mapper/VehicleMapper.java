@@ -1,6 +1,7 @@
 package com.renault.garage.mapper;
 
 import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.dto.VehicleImportDTO;
 import com.renault.garage.entity.Vehicle;
 import org.springframework.stereotype.Component;
 
@@ -23,7 +24,8 @@ public class VehicleMapper {
                 .typeCarburant(vehicle.getTypeCarburant())
                 .garageId(vehicle.getGarage() != null ? vehicle.getGarage().getId() : null)
                 .garageName(vehicle.getGarage() != null ? vehicle.getGarage().getName() : null)
-                .accessoryCount(vehicle.getAccessories() != null ? vehicle.getAccessories().size() : 0)
+                .accessoryCount(vehicle.getAccessoryCount())
+                .version(vehicle.getVersion())
                 .build();
     }
 
@@ -41,6 +43,19 @@ public class VehicleMapper {
                 .build();
     }
 
+    public Vehicle toEntity(VehicleImportDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        
+        return Vehicle.builder()
+                .brand(dto.getBrand())
+                .model(dto.getModel())
+                .anneeFabrication(dto.getAnneeFabrication())
+                .typeCarburant(dto.getTypeCarburant())
+                .build();
+    }
+
     public void updateEntityFromDTO(VehicleDTO dto, Vehicle vehicle) {
         vehicle.setBrand(dto.getBrand());
         vehicle.setModel(dto.getModel());
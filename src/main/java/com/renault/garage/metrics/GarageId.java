@@ -0,0 +1,18 @@
+package com.renault.garage.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Désigne le paramètre qui porte l'ID du garage concerné par l'appel : les métriques de la
+ * méthode ({@link MethodMetricsAspect}) sont alors ventilées par tranche de garages
+ * (tag {@code garage.bucket}), jamais par ID.
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GarageId {
+}
@@ -0,0 +1,142 @@
+package com.renault.garage.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la durée de chaque appel des méthodes publiques des services ({@code @Service} du
+ * package {@code service}) et des publishers Kafka ({@code kafka.*Publisher}) : un timer
+ * {@value #METRIC} par méthode, avec percentiles, dont le nombre d'appels par {@code outcome}
+ * ({@code success} / {@code error}) tient lieu de compteur de succès et d'erreurs.
+ *
+ * <p>Les tags restent en nombre borné : couche, classe, méthode, issue, classe de l'exception
+ * et tranche de garages ({@code garage.bucket}, ID du paramètre {@link GarageId} modulo
+ * {@code garage.metrics.garage-id-buckets}, {@code none} sans garage ou avec 0 tranche). Chaque
+ * série porte ses percentiles, et son histogramme si
+ * {@code garage.metrics.methods.percentile-histogram} est actif : les timers sont créés une fois
+ * par combinaison de tags puis gardés avec la méthode. L'aspect est placé autour de la
+ * transaction : la durée mesurée comprend le commit, comme la voit l'appelant.</p>
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "garage.metrics.methods.enabled", havingValue = "true", matchIfMissing = true)
+public class MethodMetricsAspect {
+
+    static final String METRIC = "garage.method";
+    static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final String[] garageBuckets;
+    private final boolean percentileHistogram;
+    private final Map<Method, MethodInfo> methods = new ConcurrentHashMap<>();
+
+    public MethodMetricsAspect(MeterRegistry meterRegistry,
+                               @Value("${garage.metrics.garage-id-buckets:16}") int garageIdBuckets,
+                               @Value("${garage.metrics.methods.percentile-histogram:false}") boolean percentileHistogram) {
+        if (garageIdBuckets < 0) {
+            throw new IllegalArgumentException("garage.metrics.garage-id-buckets ne peut pas être négatif");
+        }
+        this.meterRegistry = meterRegistry;
+        this.percentileHistogram = percentileHistogram;
+        this.garageBuckets = new String[garageIdBuckets];
+        for (int i = 0; i < garageIdBuckets; i++) {
+            garageBuckets[i] = String.valueOf(i);
+        }
+    }
+
+    @Around("execution(public * com.renault.garage.service..*(..)) && @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("execution(public * com.renault.garage.kafka.*Publisher.*(..))")
+    public Object timePublisher(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "publisher");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodInfo method = methods.computeIfAbsent(signature.getMethod(), m -> describe(m, layer));
+        String garageBucket = garageBucket(method, joinPoint.getArgs());
+        String exception = NONE;
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(method, garageBucket, exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(MethodInfo method, String garageBucket, String exception) {
+        return method.timers().computeIfAbsent(new TimerKey(garageBucket, exception),
+                key -> register(method, garageBucket, exception));
+    }
+
+    private Timer register(MethodInfo method, String garageBucket, String exception) {
+        return Timer.builder(METRIC)
+                .description("Durée des appels des méthodes des services et des publishers Kafka")
+                .tags(method.tags())
+                .tag("garage.bucket", garageBucket)
+                .tag("outcome", NONE.equals(exception) ? "success" : "error")
+                .tag("exception", exception)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram(percentileHistogram)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    private String garageBucket(MethodInfo method, Object[] args) {
+        if (method.garageIdIndex() < 0 || garageBuckets.length == 0 || !(args[method.garageIdIndex()] instanceof Long garageId)) {
+            return NONE;
+        }
+        return garageBuckets[(int) Math.floorMod(garageId, (long) garageBuckets.length)];
+    }
+
+    private static MethodInfo describe(Method method, String layer) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        int garageIdIndex = -1;
+        for (int i = 0; i < parameterAnnotations.length && garageIdIndex < 0; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof GarageId) {
+                    garageIdIndex = i;
+                }
+            }
+        }
+        Tags tags = Tags.of("layer", layer,
+                "class", method.getDeclaringClass().getSimpleName(),
+                "method", method.getName());
+        return new MethodInfo(tags, garageIdIndex, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Tags fixes d'une méthode, position de son paramètre {@link GarageId} (-1 sans garage) et
+     * timers déjà enregistrés, par tranche de garages et exception.
+     */
+    private record MethodInfo(Tags tags, int garageIdIndex, Map<TimerKey, Timer> timers) {
+    }
+
+    private record TimerKey(String garageBucket, String exception) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.renault.garage.metrics;
+
+import com.renault.garage.enums.SpanType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Trace d'une requête HTTP échantillonnée, rattachée au thread qui la traite : étapes
+ * ({@link SpanType}) horodatées en nanosecondes, avec leur profondeur d'imbrication.
+ *
+ * <p>Ouverte et fermée par {@link RequestTraceFilter} ; alimentée par {@link RequestTraceAspect}
+ * (contrôleur, services, publishers Kafka), {@link SqlStatementInspector} (texte de la requête
+ * SQL préparée) et {@link SqlTraceSessionListener} (fin de son exécution JDBC). Sans trace sur le
+ * thread, ces points d'entrée ne font qu'une lecture de {@link ThreadLocal}. Au-delà de
+ * {@code maxSpans} étapes, les suivantes sont seulement comptées.</p>
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private static final String UNKNOWN_SQL = "?";
+
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final int maxSpans;
+    private final List<Span> spans = new ArrayList<>();
+    private int droppedSpans;
+    private int depth;
+    private long endNanos;
+    private long controllerEndNanos;
+    private String preparedSql;
+    private long preparedSqlNanos;
+    private long batchStartNanos;
+
+    private RequestTrace(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * Ouvre une trace sur le thread courant.
+     */
+    static RequestTrace start(int maxSpans) {
+        RequestTrace trace = new RequestTrace(maxSpans);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Trace ouverte sur le thread courant, {@code null} sans requête échantillonnée.
+     */
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Ferme la trace et la détache du thread ; le temps écoulé depuis la fin du contrôleur
+     * devient l'étape {@link SpanType#RESPONSE}.
+     */
+    void finish() {
+        CURRENT.remove();
+        endNanos = System.nanoTime();
+        if (controllerEndNanos > 0) {
+            add(SpanType.RESPONSE, "Écriture de la réponse", controllerEndNanos, endNanos, 0);
+        }
+    }
+
+    /**
+     * Début d'une étape imbriquée, à fermer par {@link #exit}.
+     */
+    long enter() {
+        depth++;
+        return System.nanoTime();
+    }
+
+    void exit(SpanType type, String name, long startNanos) {
+        long now = System.nanoTime();
+        depth--;
+        add(type, name, startNanos, now, depth);
+        if (type == SpanType.CONTROLLER && depth == 0) {
+            controllerEndNanos = now;
+        }
+    }
+
+    static void sqlPrepared(String sql) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.preparedSql = sql;
+            trace.preparedSqlNanos = System.nanoTime();
+        }
+    }
+
+    static void sqlExecuted() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            long now = System.nanoTime();
+            if (trace.preparedSql != null) {
+                trace.add(SpanType.SQL, trace.preparedSql, trace.preparedSqlNanos, now, trace.depth);
+                trace.preparedSql = null;
+            } else {
+                trace.add(SpanType.SQL, UNKNOWN_SQL, now, now, trace.depth);
+            }
+        }
+    }
+
+    static void batchStarted() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.batchStartNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Fin de l'exécution d'un lot JDBC, nommé d'après la dernière requête préparée du lot.
+     */
+    static void batchExecuted() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null && trace.batchStartNanos > 0) {
+            String sql = trace.preparedSql != null ? trace.preparedSql : UNKNOWN_SQL;
+            trace.add(SpanType.SQL, "[lot] " + sql, trace.batchStartNanos, System.nanoTime(), trace.depth);
+            trace.preparedSql = null;
+            trace.batchStartNanos = 0;
+        }
+    }
+
+    private void add(SpanType type, String name, long start, long end, int spanDepth) {
+        if (spans.size() < maxSpans) {
+            spans.add(new Span(type, name, spanDepth, start, end));
+        } else {
+            droppedSpans++;
+        }
+    }
+
+    Instant startedAt() {
+        return startedAt;
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    long durationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * Étapes dans l'ordre de leur fin.
+     */
+    List<Span> spans() {
+        return Collections.unmodifiableList(spans);
+    }
+
+    int droppedSpans() {
+        return droppedSpans;
+    }
+
+    record Span(SpanType type, String name, int depth, long startNanos, long endNanos) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.renault.garage.metrics;
+
+import com.renault.garage.enums.SpanType;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Étapes contrôleur, service et Kafka de la trace des requêtes HTTP échantillonnées
+ * ({@link RequestTrace}) : méthodes des contrôleurs REST, méthodes publiques des services
+ * ({@code @Service} du package {@code service}) et des publishers Kafka ({@code kafka.*Publisher}).
+ * Hors requête échantillonnée, l'appel n'est pas mesuré. Placé juste à l'intérieur de
+ * {@link MethodMetricsAspect}, autour de la transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "garage.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTraceAspect {
+
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.renault.garage.controller..*(..)) "
+            + "&& @within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanType.CONTROLLER);
+    }
+
+    @Around("execution(public * com.renault.garage.service..*(..)) && @within(org.springframework.stereotype.Service)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanType.SERVICE);
+    }
+
+    @Around("execution(public * com.renault.garage.kafka.*Publisher.*(..))")
+    public Object tracePublisher(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanType.KAFKA);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, SpanType type) throws Throwable {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+        String name = names.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                method -> method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        long start = trace.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            trace.exit(type, name, start);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.renault.garage.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trace une fraction ({@code garage.tracing.sample-rate}) des requêtes HTTP : ouvre une
+ * {@link RequestTrace} sur le thread pendant la requête, puis la propose au journal des
+ * requêtes les plus lentes ({@link SlowRequestLog}). Les requêtes non échantillonnées ne
+ * paient qu'un tirage aléatoire.
+ */
+@Component
+@ConditionalOnProperty(name = "garage.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final SlowRequestLog slowRequestLog;
+    private final double sampleRate;
+    private final int maxSpans;
+
+    public RequestTraceFilter(SlowRequestLog slowRequestLog,
+                              @Value("${garage.tracing.sample-rate:0.1}") double sampleRate,
+                              @Value("${garage.tracing.max-spans:500}") int maxSpans) {
+        this.slowRequestLog = slowRequestLog;
+        this.sampleRate = sampleRate;
+        this.maxSpans = maxSpans;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!sampled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestTrace trace = RequestTrace.start(maxSpans);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            trace.finish();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            slowRequestLog.offer(request.getMethod(), pattern != null ? pattern.toString() : UNKNOWN_URI,
+                    request.getRequestURI(), request.getQueryString(), response.getStatus(), trace);
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
@@ -0,0 +1,146 @@
+package com.renault.garage.metrics;
+
+import com.renault.garage.dto.RequestSpanDTO;
+import com.renault.garage.dto.SlowRequestDTO;
+import com.renault.garage.enums.SpanType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Les {@code garage.tracing.slow-requests.capacity} requêtes HTTP tracées les plus lentes depuis
+ * le démarrage (ou le dernier {@link #clear()}), au-delà de {@code garage.tracing.slow-requests.min-duration}.
+ *
+ * <p>Tas borné dont la plus rapide sort quand une plus lente arrive ; une fois plein, la durée
+ * de cette plus rapide sert de seuil d'admission lu sans verrou, pour ne construire le détail
+ * que des requêtes retenues.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "garage.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowRequestLog {
+
+    private static final Comparator<SlowRequestDTO> BY_DURATION = Comparator.comparingDouble(SlowRequestDTO::getDurationMs);
+
+    private final int capacity;
+    private final long minDurationNanos;
+    private final PriorityQueue<SlowRequestDTO> slowest;
+    private volatile long admissionNanos;
+
+    public SlowRequestLog(@Value("${garage.tracing.slow-requests.capacity:20}") int capacity,
+                          @Value("${garage.tracing.slow-requests.min-duration:PT0.05S}") Duration minDuration) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("garage.tracing.slow-requests.capacity doit être positif");
+        }
+        this.capacity = capacity;
+        this.minDurationNanos = minDuration.toNanos();
+        this.slowest = new PriorityQueue<>(capacity + 1, BY_DURATION);
+        this.admissionNanos = minDurationNanos;
+    }
+
+    /**
+     * Indique si une requête de cette durée entrerait parmi les plus lentes.
+     */
+    public boolean accepts(long durationNanos) {
+        return durationNanos >= admissionNanos;
+    }
+
+    /**
+     * Retient la requête tracée si elle fait partie des plus lentes.
+     */
+    public void offer(String method, String uri, String path, String query, int status, RequestTrace trace) {
+        if (!accepts(trace.durationNanos())) {
+            return;
+        }
+        SlowRequestDTO request = describe(method, uri, path, query, status, trace);
+        synchronized (slowest) {
+            if (slowest.size() == capacity && BY_DURATION.compare(request, slowest.peek()) <= 0) {
+                return;
+            }
+            slowest.add(request);
+            if (slowest.size() > capacity) {
+                slowest.poll();
+            }
+            if (slowest.size() == capacity) {
+                admissionNanos = Math.max(minDurationNanos, Math.round(slowest.peek().getDurationMs() * 1_000_000));
+            }
+        }
+    }
+
+    /**
+     * Requêtes retenues, de la plus lente à la plus rapide.
+     */
+    public List<SlowRequestDTO> getSlowest() {
+        List<SlowRequestDTO> requests;
+        synchronized (slowest) {
+            requests = new ArrayList<>(slowest);
+        }
+        requests.sort(BY_DURATION.reversed());
+        return requests;
+    }
+
+    public void clear() {
+        synchronized (slowest) {
+            slowest.clear();
+            admissionNanos = minDurationNanos;
+        }
+    }
+
+    private static SlowRequestDTO describe(String method, String uri, String path, String query, int status,
+                                           RequestTrace trace) {
+        List<RequestTrace.Span> spans = new ArrayList<>(trace.spans());
+        spans.sort(Comparator.comparingLong(RequestTrace.Span::startNanos).thenComparingInt(RequestTrace.Span::depth));
+        Map<SpanType, Double> durationMsByType = new EnumMap<>(SpanType.class);
+        // Fin de la dernière étape comptée par type : une étape qui y commence est imbriquée
+        // dans une étape du même type (service appelé par un service), déjà comptée
+        Map<SpanType, Long> countedUntil = new EnumMap<>(SpanType.class);
+        List<RequestSpanDTO> spanDTOs = new ArrayList<>(spans.size());
+        int sqlStatements = 0;
+        for (RequestTrace.Span span : spans) {
+            double durationMs = millis(span.endNanos() - span.startNanos());
+            Long outerEnd = countedUntil.get(span.type());
+            if (outerEnd == null || span.startNanos() >= outerEnd) {
+                durationMsByType.merge(span.type(), durationMs, Double::sum);
+                countedUntil.put(span.type(), span.endNanos());
+            }
+            if (span.type() == SpanType.SQL) {
+                sqlStatements++;
+            }
+            spanDTOs.add(RequestSpanDTO.builder()
+                    .type(span.type())
+                    .name(span.name())
+                    .depth(span.depth())
+                    .offsetMs(millis(span.startNanos() - trace.startNanos()))
+                    .durationMs(durationMs)
+                    .build());
+        }
+        durationMsByType.replaceAll((type, durationMs) -> Math.round(durationMs * 1_000) / 1_000.0);
+        return SlowRequestDTO.builder()
+                .method(method)
+                .uri(uri)
+                .path(path)
+                .query(query)
+                .status(status)
+                .startedAt(trace.startedAt())
+                .durationMs(millis(trace.durationNanos()))
+                .durationMsByType(durationMsByType)
+                .sqlStatements(sqlStatements)
+                .spans(spanDTOs)
+                .droppedSpans(trace.droppedSpans())
+                .build();
+    }
+
+    /**
+     * Millisecondes à la microseconde près.
+     */
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.renault.garage.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Budget de requêtes SQL par requête HTTP : compte les requêtes SQL exécutées pendant la requête
+ * ({@link SqlStatementRecorder}), les publie par endpoint ({@code garage.sql.statements}, tags
+ * {@code method} et {@code uri} = motif de l'endpoint) et journalise un avertissement quand la
+ * requête dépasse le budget ({@code garage.sql-budget.max-statements}) ou qu'une même forme de
+ * requête est répétée au-delà de {@code garage.sql-budget.max-repeated} (N+1 probable).
+ *
+ * <p>Hors production ({@code garage.sql-budget.headers.enabled}), le décompte est aussi renvoyé
+ * en en-têtes de la réponse : avant l'écriture du corps par {@link SqlStatementHeadersAdvice},
+ * à la fin de la requête pour une réponse sans corps.</p>
+ *
+ * <p>Une réponse asynchrone (export en flux) est comptée jusqu'à la fin de son traitement :
+ * la portée quitte le thread de la requête et le décompte est publié à la fin de l'exécution
+ * asynchrone.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "garage.sql-budget.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String SHAPES_HEADER = "X-SQL-Statement-Shapes";
+    public static final String MAX_REPEATED_HEADER = "X-SQL-Max-Repeated";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final int maxRepeated;
+    private final boolean headersEnabled;
+
+    public SqlStatementBudgetFilter(MeterRegistry meterRegistry,
+                                    @Value("${garage.sql-budget.max-statements:10}") int maxStatements,
+                                    @Value("${garage.sql-budget.max-repeated:5}") int maxRepeated,
+                                    @Value("${garage.sql-budget.headers.enabled:false}") boolean headersEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxRepeated = maxRepeated;
+        this.headersEnabled = headersEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatements statements = SqlStatementRecorder.start();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                SqlStatementRecorder.detach(statements);
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finish(request, response, statements);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                finish(request, response, statements);
+            }
+        }
+    }
+
+    private void finish(HttpServletRequest request, HttpServletResponse response, SqlStatements statements) {
+        statements.close();
+        if (headersEnabled && !response.isCommitted()) {
+            writeHeaders(statements, response::setHeader);
+        }
+        report(request, statements);
+    }
+
+    static void writeHeaders(SqlStatements statements, BiConsumer<String, String> header) {
+        header.accept(STATEMENTS_HEADER, String.valueOf(statements.count()));
+        header.accept(SHAPES_HEADER, String.valueOf(statements.shapes()));
+        header.accept(MAX_REPEATED_HEADER, String.valueOf(statements.maxRepeated()));
+    }
+
+    private void report(HttpServletRequest request, SqlStatements statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        String method = request.getMethod();
+        DistributionSummary.builder("garage.sql.statements")
+                .description("Requêtes SQL exécutées par requête HTTP")
+                .baseUnit("statements")
+                .tags("method", method, "uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(statements.count());
+
+        if (statements.count() > maxStatements) {
+            exceeded(method, uri, "statements");
+            log.warn("Budget SQL dépassé pour {} {} : {} requête(s) SQL (budget {}), formes les plus exécutées : {}",
+                    method, uri, statements.count(), maxStatements, statements.describe(3));
+        }
+        if (statements.maxRepeated() > maxRepeated) {
+            exceeded(method, uri, "repeated");
+            log.warn("N+1 probable sur {} {} : même requête exécutée {} fois (seuil {}) : {}",
+                    method, uri, statements.maxRepeated(), maxRepeated,
+                    statements.mostRepeated().map(Map.Entry::getKey).orElse(""));
+        }
+    }
+
+    private void exceeded(String method, String uri, String reason) {
+        Counter.builder("garage.sql.budget.exceeded")
+                .description("Requêtes HTTP au-delà du budget de requêtes SQL")
+                .tags("method", method, "uri", uri, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
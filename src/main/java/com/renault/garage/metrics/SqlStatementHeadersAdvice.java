@@ -0,0 +1,34 @@
+package com.renault.garage.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * En-têtes de diagnostic SQL ({@link SqlStatementBudgetFilter}) ajoutés juste avant l'écriture
+ * du corps de la réponse, tant qu'ils peuvent encore l'être : les requêtes exécutées pendant la
+ * sérialisation ne sont pas comptées dans ces en-têtes.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "garage.sql-budget.headers.enabled", havingValue = "true")
+public class SqlStatementHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementRecorder.current().ifPresent(statements ->
+                SqlStatementBudgetFilter.writeHeaders(statements, response.getHeaders()::set));
+        return body;
+    }
+}
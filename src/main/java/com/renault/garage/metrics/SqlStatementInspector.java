@@ -0,0 +1,32 @@
+package com.renault.garage.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Inspecteur Hibernate de chaque requête SQL préparée : la retient pour son décompte à
+ * l'exécution ({@link SqlStatementRecorder}) et ouvre son étape dans la trace de la requête
+ * HTTP échantillonnée ({@link RequestTrace}), sans la modifier. Enregistré auprès de la
+ * SessionFactory par Spring Boot ({@link HibernatePropertiesCustomizer}), avec le listener de
+ * session qui compte les exécutions et ferme ces étapes ({@link SqlTraceSessionListener}).
+ */
+@Component
+public class SqlStatementInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementRecorder.prepared(sql);
+        RequestTrace.sqlPrepared(sql);
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTraceSessionListener.class.getName());
+    }
+}
@@ -0,0 +1,102 @@
+package com.renault.garage.metrics;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Portées de comptage des requêtes SQL, par thread : une requête HTTP
+ * ({@link SqlStatementBudgetFilter}), un appel mesuré par un test. Les portées s'imbriquent,
+ * une requête est comptée dans toutes les portées ouvertes du thread.
+ *
+ * <p>Une requête est comptée à son exécution JDBC ({@link SqlTraceSessionListener}), sous la
+ * forme de la dernière requête préparée par le thread ({@link SqlStatementInspector}) : une
+ * requête préparée une fois et exécutée plusieurs fois compte plusieurs fois, un lot JDBC compte
+ * une fois par envoi. Un thread sans portée (réponse asynchrone, session ouverte pour la requête
+ * HTTP) compte dans la portée où la session Hibernate a été ouverte. Sans portée, une requête ne
+ * coûte que deux accès à des ThreadLocal.</p>
+ */
+public final class SqlStatementRecorder {
+
+    static final String UNKNOWN_SHAPE = "?";
+
+    private static final ThreadLocal<SqlStatements> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<String> PREPARED = new ThreadLocal<>();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+    private SqlStatementRecorder() {
+    }
+
+    /**
+     * Ouvre une portée sur le thread courant, à fermer ({@link SqlStatements#close()}) sur ce thread.
+     */
+    public static SqlStatements start() {
+        SqlStatements statements = new SqlStatements(CURRENT.get());
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    /**
+     * Portée la plus récente du thread courant.
+     */
+    public static Optional<SqlStatements> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    static void stop(SqlStatements statements) {
+        statements.markClosed();
+        detach(statements);
+    }
+
+    /**
+     * Retire la portée du thread courant sans la fermer : elle reste alimentée par les sessions
+     * ouvertes pendant la portée, jusqu'à sa fermeture sur un autre thread.
+     */
+    static void detach(SqlStatements statements) {
+        if (CURRENT.get() == statements) {
+            SqlStatements parent = statements.parent();
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static void prepared(String sql) {
+        PREPARED.set(sql);
+    }
+
+    /**
+     * Exécution JDBC de la dernière requête préparée par le thread : une requête, ou un envoi de
+     * lot (la requête reste alors associée au lot pour ses envois suivants).
+     *
+     * @param sessionStatements portée où la session a été ouverte, à défaut de portée sur le thread
+     */
+    static void executed(SqlStatements sessionStatements, boolean batch) {
+        String sql = PREPARED.get();
+        if (!batch) {
+            PREPARED.remove();
+        }
+        SqlStatements statements = CURRENT.get();
+        if (statements == null) {
+            statements = sessionStatements;
+        }
+        if (statements == null) {
+            return;
+        }
+        String shape = sql != null ? shape(sql) : UNKNOWN_SHAPE;
+        for (; statements != null; statements = statements.parent()) {
+            statements.add(shape);
+        }
+    }
+
+    /**
+     * Forme d'une requête : espaces normalisés, listes de paramètres réduites à {@code (?)}
+     * (les chargements groupés varient en taille d'une requête à l'autre).
+     */
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+    }
+}
@@ -0,0 +1,92 @@
+package com.renault.garage.metrics;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Requêtes SQL exécutées pendant une portée ({@link SqlStatementRecorder#start()}), regroupées
+ * par forme : texte normalisé, listes {@code IN (?, ?, ...)} réduites à {@code (?)}. Une même
+ * forme répétée dans une requête HTTP est le signe d'un N+1.
+ *
+ * <p>Alimentée par le thread qui l'a ouverte et par les sessions Hibernate ouvertes pendant la
+ * portée, éventuellement sur un autre thread : les accès sont synchronisés.</p>
+ */
+public final class SqlStatements implements AutoCloseable {
+
+    private final SqlStatements parent;
+    private final Map<String, Integer> countsByShape = new LinkedHashMap<>();
+    private int count;
+    private boolean closed;
+
+    SqlStatements(SqlStatements parent) {
+        this.parent = parent;
+    }
+
+    SqlStatements parent() {
+        return parent;
+    }
+
+    synchronized void add(String shape) {
+        if (!closed) {
+            count++;
+            countsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Nombre d'exécutions de requêtes SQL (un lot JDBC compte une fois par envoi).
+     */
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Nombre d'exécutions par forme de requête, dans l'ordre de première exécution.
+     */
+    public synchronized Map<String, Integer> countsByShape() {
+        return Map.copyOf(countsByShape);
+    }
+
+    public synchronized int shapes() {
+        return countsByShape.size();
+    }
+
+    /**
+     * Nombre d'exécutions de la forme la plus répétée (0 sans requête).
+     */
+    public int maxRepeated() {
+        return mostRepeated().map(Map.Entry::getValue).orElse(0);
+    }
+
+    public synchronized Optional<Map.Entry<String, Integer>> mostRepeated() {
+        return countsByShape.entrySet().stream().max(Map.Entry.comparingByValue())
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Les formes les plus exécutées, par nombre d'exécutions décroissant, pour les journaux et
+     * les messages d'assertion.
+     */
+    public synchronized List<String> describe(int limit) {
+        return countsByShape.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> entry.getValue() + " x " + entry.getKey())
+                .toList();
+    }
+
+    /**
+     * Termine la portée : les requêtes suivantes ne sont plus comptées, les compteurs restent lisibles.
+     */
+    @Override
+    public void close() {
+        SqlStatementRecorder.stop(this);
+    }
+
+    synchronized void markClosed() {
+        closed = true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.renault.garage.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Listener des sessions Hibernate qui compte chaque exécution JDBC, requête ou envoi de lot
+ * ({@link SqlStatementRecorder}), et ferme l'étape SQL de la trace courante ({@link RequestTrace}).
+ * Instancié par Hibernate à l'ouverture de chaque session ({@code hibernate.session.events.auto},
+ * enregistré par {@link SqlStatementInspector}) : il retient la portée de comptage ouverte à ce
+ * moment, pour les exécutions de la session sur un autre thread.
+ */
+public class SqlTraceSessionListener implements SessionEventListener {
+
+    private final SqlStatements statements = SqlStatementRecorder.current().orElse(null);
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementRecorder.executed(statements, false);
+        RequestTrace.sqlExecuted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        RequestTrace.batchStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementRecorder.executed(statements, true);
+        RequestTrace.batchExecuted();
+    }
+}
@@ -0,0 +1,62 @@
+package com.renault.garage.pagination;
+
+import com.renault.garage.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position d'une pagination par curseur (keyset) : clé de tri, valeur de tri et ID
+ * du dernier élément renvoyé. Encodée en jeton opaque (Base64 URL) pour les clients.
+ */
+public record Cursor(String sortKey, String value, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Curseur pour un tri sur l'ID seul.
+     */
+    public static Cursor ofId(String sortKey, long id) {
+        return new Cursor(sortKey, "", id);
+    }
+
+    /**
+     * ID du dernier élément lu pour un tri sur l'ID seul ; 0 pour la première page
+     * (les IDs de séquence commencent à 1).
+     */
+    public static long afterId(String token, String expectedSortKey) {
+        Cursor cursor = decode(token, expectedSortKey);
+        return cursor == null ? 0L : cursor.id();
+    }
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un jeton et vérifie qu'il a été émis pour la même clé de tri.
+     * Un jeton absent correspond à la première page.
+     */
+    public static Cursor decode(String token, String expectedSortKey) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0) {
+                throw new InvalidPageRequestException("Curseur invalide");
+            }
+            String sortKey = raw.substring(0, first);
+            if (!sortKey.equals(expectedSortKey)) {
+                throw new InvalidPageRequestException("Le curseur a été émis pour un autre tri: " + sortKey);
+            }
+            long id = Long.parseLong(raw.substring(first + 1, second));
+            return new Cursor(sortKey, raw.substring(second + 1), id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Curseur invalide");
+        }
+    }
+}
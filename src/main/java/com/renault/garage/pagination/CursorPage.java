@@ -0,0 +1,54 @@
+package com.renault.garage.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une pagination par curseur : aucun comptage total n'est effectué,
+ * le client suit {@code nextCursor} tant que {@code hasNext} vaut true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+
+    /**
+     * Construit une page à partir de {@code size + 1} lignes lues : la ligne supplémentaire
+     * indique seulement qu'une page suivante existe et n'est pas renvoyée.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, T> mapper, Function<E, Cursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return CursorPage.<T>builder()
+                .content(pageRows.stream().map(mapper).toList())
+                .size(pageRows.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Borne la taille de page demandée entre 1 et {@link #MAX_SIZE}.
+     */
+    public static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+}
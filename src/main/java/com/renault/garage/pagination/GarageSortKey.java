@@ -0,0 +1,33 @@
+package com.renault.garage.pagination;
+
+import com.renault.garage.exception.InvalidPageRequestException;
+
+import java.util.Locale;
+
+/**
+ * Clés de tri supportées par la pagination par curseur des garages.
+ * Chaque clé est complétée par l'ID pour garantir un ordre total.
+ */
+public enum GarageSortKey {
+    NAME,
+    ID;
+
+    /**
+     * Interprète le paramètre {@code sort} (ex. "name" ou "name,asc").
+     */
+    public static GarageSortKey fromParameter(String sort) {
+        String[] parts = sort.split(",");
+        if (parts.length > 1 && !parts[1].trim().equalsIgnoreCase("asc")) {
+            throw new InvalidPageRequestException("Seul le tri ascendant est supporté: " + sort);
+        }
+        try {
+            return valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Tri non supporté: " + sort);
+        }
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
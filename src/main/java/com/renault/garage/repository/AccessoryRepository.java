@@ -1,9 +1,14 @@
 package com.renault.garage.repository;
 
 import com.renault.garage.entity.Accessory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,5 +20,31 @@ public interface AccessoryRepository extends JpaRepository<Accessory, Long> {
     /**
      * Trouve tous les accessoires d'un véhicule.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Accessory> findByVehicleId(Long vehicleId);
+
+    /**
+     * Trouve en une requête les accessoires d'un lot de véhicules.
+     */
+    List<Accessory> findByVehicleIdInOrderByIdAsc(Collection<Long> vehicleIds);
+
+    /**
+     * Noms d'accessoires normalisés distincts (reconstruction de l'index de recherche).
+     */
+    @Query("SELECT DISTINCT a.nomSearch FROM Accessory a")
+    List<String> findDistinctNomSearch();
+
+    /**
+     * Nombre de garages distincts par nom d'accessoire normalisé (statistiques du planificateur de recherche).
+     */
+    @Query("SELECT a.nomSearch, COUNT(DISTINCT a.vehicle.garage.id) FROM Accessory a " +
+           "WHERE a.vehicle.garage IS NOT NULL GROUP BY a.nomSearch")
+    List<Object[]> countGaragesByNomSearch();
+
+    /**
+     * Nombre de garages distincts par type d'accessoire (statistiques du planificateur de recherche).
+     */
+    @Query("SELECT a.type, COUNT(DISTINCT a.vehicle.garage.id) FROM Accessory a " +
+           "WHERE a.vehicle.garage IS NOT NULL GROUP BY a.type")
+    List<Object[]> countGaragesByType();
 }
@@ -0,0 +1,12 @@
+package com.renault.garage.repository;
+
+import com.renault.garage.entity.GarageActivityOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository des derniers offsets appliqués à la projection d'activité des garages.
+ */
+@Repository
+public interface GarageActivityOffsetRepository extends JpaRepository<GarageActivityOffset, String> {
+}
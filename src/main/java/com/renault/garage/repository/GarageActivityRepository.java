@@ -0,0 +1,12 @@
+package com.renault.garage.repository;
+
+import com.renault.garage.entity.GarageActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository de la projection d'activité des garages.
+ */
+@Repository
+public interface GarageActivityRepository extends JpaRepository<GarageActivity, Long> {
+}
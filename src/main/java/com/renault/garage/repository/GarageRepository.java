@@ -1,21 +1,55 @@
 package com.renault.garage.repository;
 
 import com.renault.garage.entity.Garage;
-import com.renault.garage.enums.FuelType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour les opérations sur les garages.
  */
 @Repository
-public interface GarageRepository extends JpaRepository<Garage, Long> {
+public interface GarageRepository extends JpaRepository<Garage, Long>, JpaSpecificationExecutor<Garage> {
+
+    /**
+     * Récupère un garage en verrouillant sa ligne (SELECT ... FOR UPDATE) jusqu'à la fin
+     * de la transaction. Sérialise les mises à jour du compteur de véhicules d'un même
+     * garage sans bloquer les autres garages.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Garage g WHERE g.id = :id")
+    Optional<Garage> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Récupère des garages en verrouillant leurs lignes, dans l'ordre des IDs (celui des
+     * transferts) pour éviter les interblocages.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Garage g WHERE g.id IN :ids ORDER BY g.id")
+    List<Garage> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Version agrégée de la liste des véhicules d'un garage (ETag de la liste), vide si
+     * le garage n'existe pas.
+     */
+    @Query("SELECT new com.renault.garage.repository.GarageVehiclesVersion(g.version, COUNT(v), " +
+           "COALESCE(SUM(v.version), 0)) FROM Garage g LEFT JOIN g.vehicles v " +
+           "WHERE g.id = :garageId GROUP BY g.id, g.version")
+    Optional<GarageVehiclesVersion> findVehiclesVersionById(@Param("garageId") Long garageId);
 
     /**
      * Recherche les garages par nom (contient, insensible à la casse).
@@ -23,14 +57,29 @@ public interface GarageRepository extends JpaRepository<Garage, Long> {
     Page<Garage> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
     /**
-     * Recherche les garages qui contiennent des véhicules d'un type de carburant donné.
+     * Première page des garages triés par (nom, ID).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT g FROM Garage g ORDER BY g.name ASC, g.id ASC")
+    List<Garage> findFirstPageOrderByName(Limit limit);
+
+    /**
+     * Page suivante des garages triés par (nom, ID), à partir du dernier élément lu (keyset).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT g FROM Garage g WHERE g.name >= :name AND (g.name > :name OR g.id > :id) " +
+           "ORDER BY g.name ASC, g.id ASC")
+    List<Garage> findNextPageOrderByName(@Param("name") String name, @Param("id") Long id, Limit limit);
+
+    /**
+     * Page des garages triés par ID, à partir du dernier ID lu (keyset).
      */
-    @Query("SELECT DISTINCT g FROM Garage g JOIN g.vehicles v WHERE v.typeCarburant = :fuelType")
-    List<Garage> findByVehicleFuelType(@Param("fuelType") FuelType fuelType);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Garage> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
     /**
-     * Recherche les garages qui contiennent au moins un véhicule avec un accessoire donné.
+     * Page des IDs de garage à partir du dernier ID lu (keyset), pour les traitements par lots.
      */
-    @Query("SELECT DISTINCT g FROM Garage g JOIN g.vehicles v JOIN v.accessories a WHERE LOWER(a.nom) LIKE LOWER(CONCAT('%', :accessoryName, '%'))")
-    List<Garage> findByAccessoryName(@Param("accessoryName") String accessoryName);
+    @Query("SELECT g.id FROM Garage g WHERE g.id > :afterId ORDER BY g.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
 }
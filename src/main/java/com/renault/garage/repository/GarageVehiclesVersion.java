@@ -0,0 +1,11 @@
+package com.renault.garage.repository;
+
+/**
+ * Version agrégée de la liste des véhicules d'un garage.
+ *
+ * <p>La somme des versions change à chaque modification d'un véhicule (contrairement au maximum,
+ * qui ne bouge pas quand un véhicule moins modifié que les autres est mis à jour) ; un ajout,
+ * un retrait ou un transfert modifie le compteur du garage, donc sa version.</p>
+ */
+public record GarageVehiclesVersion(Long garageVersion, Long vehicleCount, Long vehicleVersionSum) {
+}
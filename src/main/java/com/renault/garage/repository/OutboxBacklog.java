@@ -0,0 +1,9 @@
+package com.renault.garage.repository;
+
+import java.time.Instant;
+
+/**
+ * État de l'outbox : nombre de messages en attente et date du plus ancien (null si vide).
+ */
+public record OutboxBacklog(Long pending, Instant oldestCreatedAt) {
+}
@@ -0,0 +1,57 @@
+package com.renault.garage.repository;
+
+import com.renault.garage.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository de l'outbox transactionnelle des messages Kafka.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Plus anciens messages en attente, dans l'ordre d'écriture, y compris ceux sous bail,
+     * verrouillés jusqu'à la fin de la transaction de réservation : deux relais ne réservent pas
+     * le même lot en même temps. Pour une même clé, l'ordre des IDs est celui des commits
+     * (voir {@code OutboxEvent}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e ORDER BY e.id ASC")
+    List<OutboxEvent> findNextBatchForUpdate(Limit limit);
+
+    /**
+     * Réserve les messages jusqu'à {@code until}.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :until WHERE e.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("until") Instant until);
+
+    /**
+     * Libère les messages réservés, pour un nouvel envoi au passage suivant.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = NULL WHERE e.id IN :ids")
+    int release(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Nombre de messages en attente et date du plus ancien, en une requête.
+     */
+    @Query("SELECT new com.renault.garage.repository.OutboxBacklog(COUNT(e), MIN(e.createdAt)) FROM OutboxEvent e")
+    OutboxBacklog findBacklog();
+
+    /**
+     * Nombre de messages en attente pour un topic.
+     */
+    long countByTopic(String topic);
+}
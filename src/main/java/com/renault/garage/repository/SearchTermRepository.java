@@ -0,0 +1,41 @@
+package com.renault.garage.repository;
+
+import com.renault.garage.entity.SearchTerm;
+import com.renault.garage.enums.SearchField;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository du dictionnaire de recherche par trigrammes.
+ */
+@Repository
+public interface SearchTermRepository extends JpaRepository<SearchTerm, Long> {
+
+    /**
+     * Parmi les valeurs données, celles déjà présentes dans le dictionnaire.
+     */
+    @Query("SELECT DISTINCT t.value FROM SearchTerm t WHERE t.field = :field AND t.value IN :values")
+    List<String> findExistingValues(@Param("field") SearchField field, @Param("values") Collection<String> values);
+
+    /**
+     * Valeurs contenant tous les trigrammes donnés (candidates, à confirmer par sous-chaîne).
+     */
+    @Query("SELECT t.value FROM SearchTerm t JOIN t.trigrams g " +
+           "WHERE t.field = :field AND g IN :trigrams " +
+           "GROUP BY t.id, t.value HAVING COUNT(g) = :trigramCount")
+    List<String> findValuesByTrigrams(@Param("field") SearchField field,
+                                      @Param("trigrams") Collection<String> trigrams,
+                                      @Param("trigramCount") long trigramCount);
+
+    /**
+     * Valeurs du dictionnaire correspondant à un motif LIKE ; pour les textes trop courts
+     * pour avoir un trigramme (le dictionnaire est bien plus petit que les tables indexées).
+     */
+    @Query("SELECT DISTINCT t.value FROM SearchTerm t WHERE t.field = :field AND t.value LIKE :pattern ESCAPE '\\'")
+    List<String> findValuesLike(@Param("field") SearchField field, @Param("pattern") String pattern);
+}
@@ -1,12 +1,21 @@
 package com.renault.garage.repository;
 
 import com.renault.garage.entity.Vehicle;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository pour les opérations sur les véhicules.
@@ -14,24 +23,118 @@ import java.util.List;
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
 
+    /**
+     * Récupère un véhicule en verrouillant sa ligne jusqu'à la fin de la transaction,
+     * pour maintenir le compteur d'accessoires sans perte de mise à jour.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+    Optional<Vehicle> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * ID du garage d'un véhicule, sans charger le véhicule (vide si le véhicule n'existe pas
+     * ou n'a pas de garage).
+     */
+    @Query("SELECT v.garage.id FROM Vehicle v WHERE v.id = :id")
+    Optional<Long> findGarageIdById(@Param("id") Long id);
+
     /**
      * Trouve tous les véhicules d'un garage.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Vehicle> findByGarageId(Long garageId);
 
+    /**
+     * Page des véhicules d'un garage triés par ID, à partir du dernier ID lu (keyset).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Vehicle> findByGarageIdAndIdGreaterThanOrderByIdAsc(Long garageId, Long afterId, Limit limit);
+
     /**
      * Trouve tous les véhicules d'un modèle donné dans tous les garages.
      */
     List<Vehicle> findByModelIgnoreCase(String model);
 
     /**
-     * Trouve tous les véhicules d'un modèle donné (recherche partielle).
+     * Trouve les véhicules dont le modèle normalisé est l'une des valeurs données
+     * (issues de l'index de recherche), triés par ID à partir du dernier ID lu (keyset).
+     */
+    @Query("SELECT v FROM Vehicle v WHERE v.modelSearch IN :models AND v.id > :afterId ORDER BY v.id")
+    List<Vehicle> findByModelSearchIn(@Param("models") Collection<String> models,
+                                      @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Trouve les véhicules dont le modèle normalisé correspond à un motif LIKE, triés par ID
+     * à partir du dernier ID lu. Repli quand le texte recherché correspond à trop de valeurs.
+     */
+    @Query("SELECT v FROM Vehicle v WHERE v.modelSearch LIKE :pattern ESCAPE '\\' AND v.id > :afterId ORDER BY v.id")
+    List<Vehicle> findByModelSearchLike(@Param("pattern") String pattern,
+                                        @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Modèles normalisés distincts (reconstruction de l'index de recherche).
+     */
+    @Query("SELECT DISTINCT v.modelSearch FROM Vehicle v")
+    List<String> findDistinctModelSearch();
+
+    /**
+     * Parcourt tous les véhicules avec leur garage, triés par ID, via un curseur JDBC
+     * en avant seulement : les lignes sont lues par paquets de {@code fetchSize}.
+     * Le flux doit être consommé dans une transaction et fermé par l'appelant.
      */
-    @Query("SELECT v FROM Vehicle v WHERE LOWER(v.model) LIKE LOWER(CONCAT('%', :model, '%'))")
-    List<Vehicle> findByModelContaining(@Param("model") String model);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT v FROM Vehicle v JOIN FETCH v.garage ORDER BY v.id")
+    Stream<Vehicle> streamAllWithGarage();
+
+    /**
+     * Nombre de véhicules par (garage, type de carburant) : lignes [garageId, FuelType, count]
+     * (construction de l'index des garages par carburant).
+     */
+    @Query("SELECT v.garage.id, v.typeCarburant, COUNT(v) FROM Vehicle v " +
+           "WHERE v.garage IS NOT NULL GROUP BY v.garage.id, v.typeCarburant")
+    List<Object[]> countByGarageAndFuelType();
+
+    /**
+     * Même comptage restreint aux garages donnés (état publié des garages modifiés).
+     */
+    @Query("SELECT v.garage.id, v.typeCarburant, COUNT(v) FROM Vehicle v " +
+           "WHERE v.garage.id IN :garageIds GROUP BY v.garage.id, v.typeCarburant")
+    List<Object[]> countByFuelTypeForGarages(@Param("garageIds") Collection<Long> garageIds);
+
+    /**
+     * Véhicules de plusieurs garages réduits aux champs des agrégats de flotte : ID du garage,
+     * ID, version, année de fabrication et carburant.
+     */
+    @Query("SELECT v.garage.id, v.id, v.version, v.anneeFabrication, v.typeCarburant FROM Vehicle v " +
+           "WHERE v.garage.id IN :garageIds ORDER BY v.id")
+    List<Object[]> findFleetRowsForGarages(@Param("garageIds") Collection<Long> garageIds);
 
     /**
      * Compte le nombre de véhicules dans un garage.
      */
     long countByGarageId(Long garageId);
+
+    /**
+     * Nombre de garages distincts par modèle normalisé (statistiques du planificateur de recherche).
+     */
+    @Query("SELECT v.modelSearch, COUNT(DISTINCT v.garage.id) FROM Vehicle v " +
+           "WHERE v.garage IS NOT NULL GROUP BY v.modelSearch")
+    List<Object[]> countGaragesByModelSearch();
+
+    /**
+     * Nombre de garages distincts par année de fabrication (statistiques du planificateur de recherche).
+     */
+    @Query("SELECT v.anneeFabrication, COUNT(DISTINCT v.garage.id) FROM Vehicle v " +
+           "WHERE v.garage IS NOT NULL GROUP BY v.anneeFabrication")
+    List<Object[]> countGaragesByYear();
+
+    /**
+     * IDs des véhicules d'un garage (invalidation du near-cache).
+     */
+    @Query("SELECT v.id FROM Vehicle v WHERE v.garage.id = :garageId")
+    List<Long> findIdsByGarageId(@Param("garageId") Long garageId);
 }
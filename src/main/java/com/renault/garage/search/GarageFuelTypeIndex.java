@@ -0,0 +1,220 @@
+package com.renault.garage.search;
+
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.support.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire des garages par type de carburant : un bitmap d'IDs de garage par
+ * {@link FuelType}, bit positionné si le garage contient au moins un véhicule de ce type.
+ * Le nombre de véhicules par (garage, type) est conservé pour savoir quand effacer un bit.
+ *
+ * <p>L'index est construit au démarrage (depuis l'état publié des garages s'il a été lu, depuis
+ * la base sinon) puis tenu à jour par les services d'écriture de l'instance ;
+ * les modifications ne sont appliquées qu'après le commit de la transaction courante,
+ * pour qu'un rollback ne laisse pas l'index en avance sur la base.</p>
+ *
+ * <p>Les écritures des autres instances arrivent par le topic de l'état des garages
+ * ({@link #garageStateChanged}, voir {@code GarageStateIndexConsumer}) : chaque état remplace
+ * les nombres du garage, y compris ceux appliqués localement. L'index d'une instance est donc
+ * en retard sur la base au plus du délai de ce topic (relais de l'outbox et consommation),
+ * plus longtemps si le broker est indisponible : les résultats de la recherche par carburant
+ * sont cohérents à terme.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GarageFuelTypeIndex {
+
+    private static final FuelType[] FUEL_TYPES = FuelType.values();
+
+    private final VehicleRepository vehicleRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<FuelType, BitSet> garagesByFuelType = emptyBitmaps();
+    private final Map<Long, int[]> vehicleCountsByGarage = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Construit l'index au démarrage, à partir des véhicules en base s'il n'a pas déjà été chargé
+     * depuis l'état publié des garages (voir {@link #load}).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order
+    public void onApplicationReady() {
+        if (!loaded) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Remplace le contenu de l'index par les nombres de véhicules par type de carburant
+     * de chaque garage.
+     */
+    public void load(Map<Long, Map<FuelType, Integer>> vehiclesByFuelType) {
+        lock.writeLock().lock();
+        try {
+            garagesByFuelType.values().forEach(BitSet::clear);
+            vehicleCountsByGarage.clear();
+            vehiclesByFuelType.forEach((garageId, counts) ->
+                    counts.forEach((fuelType, count) -> apply(garageId, fuelType, count)));
+            loaded = true;
+            log.info("Index des garages par carburant chargé : {} garage(s)", vehicleCountsByGarage.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruit l'index à partir des véhicules en base.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            garagesByFuelType.values().forEach(BitSet::clear);
+            vehicleCountsByGarage.clear();
+            List<Object[]> counts = vehicleRepository.countByGarageAndFuelType();
+            for (Object[] row : counts) {
+                apply((Long) row[0], (FuelType) row[1], ((Long) row[2]).intValue());
+            }
+            log.info("Index des garages par carburant construit : {} garage(s)", vehicleCountsByGarage.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Un véhicule du type donné a été ajouté au garage (appliqué après commit).
+     */
+    public void vehicleAdded(Long garageId, FuelType fuelType) {
+        TransactionHooks.afterCommit(() -> update(garageId, fuelType, 1));
+    }
+
+    /**
+     * Un véhicule du type donné a quitté le garage (appliqué après commit).
+     */
+    public void vehicleRemoved(Long garageId, FuelType fuelType) {
+        TransactionHooks.afterCommit(() -> update(garageId, fuelType, -1));
+    }
+
+    /**
+     * Le garage a été supprimé avec ses véhicules (appliqué après commit).
+     */
+    public void garageRemoved(Long garageId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(garageId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Remplace les nombres de véhicules par type de carburant d'un garage par ceux de son état
+     * publié (modification faite par n'importe quelle instance) ; un garage sans véhicule
+     * disparaît de l'index.
+     */
+    public void garageStateChanged(Long garageId, Map<FuelType, Integer> vehiclesByFuelType) {
+        lock.writeLock().lock();
+        try {
+            remove(garageId);
+            vehiclesByFuelType.forEach((fuelType, count) -> apply(garageId, fuelType, count));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs des garages contenant au moins un des types (ANY) ou tous les types (ALL) demandés.
+     * Le résultat est une copie que l'appelant peut parcourir librement.
+     */
+    public BitSet find(Collection<FuelType> fuelTypes, FuelTypeMatch match) {
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (FuelType fuelType : fuelTypes) {
+                BitSet bits = garagesByFuelType.get(fuelType);
+                if (result == null) {
+                    result = (BitSet) bits.clone();
+                } else if (match == FuelTypeMatch.ALL) {
+                    result.and(bits);
+                } else {
+                    result.or(bits);
+                }
+            }
+            return result == null ? new BitSet() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Long garageId, FuelType fuelType, int delta) {
+        lock.writeLock().lock();
+        try {
+            apply(garageId, fuelType, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un garage de l'index (verrou en écriture déjà pris).
+     */
+    private void remove(Long garageId) {
+        vehicleCountsByGarage.remove(garageId);
+        garagesByFuelType.values().forEach(bits -> bits.clear(toIndex(garageId)));
+    }
+
+    /**
+     * Applique une variation du nombre de véhicules (verrou en écriture déjà pris).
+     */
+    private void apply(Long garageId, FuelType fuelType, int delta) {
+        int[] counts = vehicleCountsByGarage.computeIfAbsent(garageId, id -> new int[FUEL_TYPES.length]);
+        int count = Math.max(0, counts[fuelType.ordinal()] + delta);
+        counts[fuelType.ordinal()] = count;
+        garagesByFuelType.get(fuelType).set(toIndex(garageId), count > 0);
+        if (isEmpty(counts)) {
+            vehicleCountsByGarage.remove(garageId);
+        }
+    }
+
+    private static boolean isEmpty(int[] counts) {
+        for (int count : counts) {
+            if (count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toIndex(Long garageId) {
+        return Math.toIntExact(garageId);
+    }
+
+    private static Map<FuelType, BitSet> emptyBitmaps() {
+        Map<FuelType, BitSet> bitmaps = new EnumMap<>(FuelType.class);
+        for (FuelType fuelType : FUEL_TYPES) {
+            bitmaps.put(fuelType, new BitSet());
+        }
+        return bitmaps;
+    }
+}
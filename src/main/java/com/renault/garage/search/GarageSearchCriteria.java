@@ -0,0 +1,63 @@
+package com.renault.garage.search;
+
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Critères de la recherche multicritère des garages, combinés en ET.
+ * Les critères absents (null ou vides) sont ignorés.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageSearchCriteria {
+
+    private Set<FuelType> fuelTypes;
+
+    @Builder.Default
+    private FuelTypeMatch fuelTypeMatch = FuelTypeMatch.ANY;
+
+    /**
+     * Sous-chaîne du modèle d'un véhicule (insensible à la casse).
+     */
+    private String model;
+
+    /**
+     * Sous-chaîne du nom d'un accessoire (insensible à la casse).
+     */
+    private String accessoryName;
+
+    private AccessoryType accessoryType;
+
+    private Integer yearFrom;
+
+    private Integer yearTo;
+
+    public boolean hasFuelTypes() {
+        return fuelTypes != null && !fuelTypes.isEmpty();
+    }
+
+    public boolean hasModel() {
+        return model != null && !model.isBlank();
+    }
+
+    public boolean hasAccessoryName() {
+        return accessoryName != null && !accessoryName.isBlank();
+    }
+
+    public boolean hasYearRange() {
+        return yearFrom != null || yearTo != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasFuelTypes() && !hasModel() && !hasAccessoryName() && accessoryType == null && !hasYearRange();
+    }
+}
@@ -0,0 +1,38 @@
+package com.renault.garage.search;
+
+import com.renault.garage.entity.Garage;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Plan d'une recherche multicritère : critères triés du plus sélectif au moins sélectif.
+ * Le premier critère pilote la recherche, les suivants filtrent ses résultats.
+ *
+ * @param predicates   critères, du plus sélectif au moins sélectif
+ * @param garageCount  nombre total de garages selon les statistiques
+ */
+public record GarageSearchPlan(List<GarageSearchPredicate> predicates, long garageCount) {
+
+    public GarageSearchPredicate driving() {
+        return predicates.get(0);
+    }
+
+    public List<GarageSearchPredicate> filters() {
+        return predicates.subList(1, predicates.size());
+    }
+
+    /**
+     * Un critère ne correspond à aucun garage : inutile d'interroger la base.
+     */
+    public boolean isKnownEmpty() {
+        return predicates.stream().anyMatch(GarageSearchPredicate::isKnownEmpty);
+    }
+
+    /**
+     * Conjonction des critères de filtrage, dans l'ordre du plan.
+     */
+    public Specification<Garage> filterSpecification() {
+        return Specification.allOf(filters().stream().map(GarageSearchPredicate::specification).toList());
+    }
+}
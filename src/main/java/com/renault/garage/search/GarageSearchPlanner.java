@@ -0,0 +1,101 @@
+package com.renault.garage.search;
+
+import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.SearchField;
+import com.renault.garage.search.GarageSearchPredicate.AccessPath;
+import com.renault.garage.service.SearchIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Planificateur de la recherche multicritère des garages : estime le nombre de garages
+ * correspondant à chaque critère et les ordonne du plus sélectif au moins sélectif.
+ *
+ * <p>Les estimations viennent de l'index en mémoire pour les carburants (exact), de l'index
+ * de recherche et des {@link GarageSearchStatistics} pour les autres critères. À estimation
+ * égale, le bitmap passe en premier : il fournit les IDs sans requête.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class GarageSearchPlanner {
+
+    private final GarageSearchStatistics statistics;
+    private final GarageFuelTypeIndex garageFuelTypeIndex;
+    private final SearchIndexService searchIndexService;
+
+    public GarageSearchPlan plan(GarageSearchCriteria criteria) {
+        GarageSearchStatistics.Snapshot stats = statistics.current();
+        List<GarageSearchPredicate> predicates = new ArrayList<>();
+
+        if (criteria.hasFuelTypes()) {
+            BitSet garageIds = garageFuelTypeIndex.find(criteria.getFuelTypes(), criteria.getFuelTypeMatch());
+            predicates.add(new GarageSearchPredicate("fuelType",
+                    criteria.getFuelTypes().stream().map(Enum::name).sorted().collect(Collectors.joining(","))
+                            + " (" + criteria.getFuelTypeMatch() + ")",
+                    garageIds.cardinality(), AccessPath.BITMAP_INDEX,
+                    GarageSpecifications.hasFuelTypes(criteria.getFuelTypes(), criteria.getFuelTypeMatch()),
+                    garageIds));
+        }
+        if (criteria.hasModel()) {
+            predicates.add(textPredicate("model", criteria.getModel(), SearchField.VEHICLE_MODEL,
+                    stats, stats.garagesByModel(),
+                    GarageSpecifications::hasModelIn, GarageSpecifications::hasModelLike));
+        }
+        if (criteria.hasAccessoryName()) {
+            predicates.add(textPredicate("accessory", criteria.getAccessoryName(), SearchField.ACCESSORY_NAME,
+                    stats, stats.garagesByAccessoryName(),
+                    GarageSpecifications::hasAccessoryNameIn, GarageSpecifications::hasAccessoryNameLike));
+        }
+        if (criteria.getAccessoryType() != null) {
+            predicates.add(new GarageSearchPredicate("accessoryType", criteria.getAccessoryType().name(),
+                    stats.estimateAccessoryType(criteria.getAccessoryType()), AccessPath.COLUMN,
+                    GarageSpecifications.hasAccessoryType(criteria.getAccessoryType()), null));
+        }
+        if (criteria.hasYearRange()) {
+            predicates.add(new GarageSearchPredicate("year",
+                    bound(criteria.getYearFrom()) + ".." + bound(criteria.getYearTo()),
+                    stats.estimateYearRange(criteria.getYearFrom(), criteria.getYearTo()), AccessPath.COLUMN,
+                    GarageSpecifications.hasVehicleYearBetween(criteria.getYearFrom(), criteria.getYearTo()), null));
+        }
+
+        predicates.sort(Comparator.comparingLong(GarageSearchPredicate::estimatedGarages)
+                .thenComparing(predicate -> predicate.accessPath() != AccessPath.BITMAP_INDEX));
+        return new GarageSearchPlan(List.copyOf(predicates), stats.garageCount());
+    }
+
+    /**
+     * Critère de sous-chaîne : liste IN des valeurs trouvées dans l'index de recherche (estimation
+     * par les statistiques de ces valeurs), ou LIKE si le texte est trop courant (estimation
+     * pessimiste : tous les garages).
+     */
+    private GarageSearchPredicate textPredicate(String name, String rawText, SearchField field,
+                                                GarageSearchStatistics.Snapshot stats, Map<String, Long> counts,
+                                                Function<Collection<String>, Specification<Garage>> inSpecification,
+                                                Function<String, Specification<Garage>> likeSpecification) {
+        String text = SearchText.normalize(rawText);
+        Optional<List<String>> values = searchIndexService.findMatchingValues(field, text);
+        if (values.isEmpty()) {
+            return new GarageSearchPredicate(name, text, Math.max(1, stats.garageCount()), AccessPath.LIKE_SCAN,
+                    likeSpecification.apply(SearchText.containsPattern(text)), null);
+        }
+        List<String> matched = values.get();
+        return new GarageSearchPredicate(name, text + " (" + matched.size() + " valeur(s))",
+                matched.isEmpty() ? 0 : stats.estimate(counts, matched), AccessPath.SEARCH_INDEX,
+                inSpecification.apply(matched), null);
+    }
+
+    private static String bound(Integer year) {
+        return year == null ? "" : year.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.renault.garage.search;
+
+import com.renault.garage.entity.Garage;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.BitSet;
+
+/**
+ * Critère de recherche préparé par le {@link GarageSearchPlanner}.
+ *
+ * @param name             nom du critère (paramètre de requête)
+ * @param criterion        valeur demandée, telle qu'affichée dans le plan
+ * @param estimatedGarages nombre de garages estimé ; 0 uniquement si aucun garage ne peut correspondre
+ * @param accessPath       manière dont le critère est évalué
+ * @param specification    prédicat JPA équivalent
+ * @param garageIds        IDs exacts des garages correspondants, si un index en mémoire les fournit
+ */
+public record GarageSearchPredicate(String name, String criterion, long estimatedGarages, AccessPath accessPath,
+                                    Specification<Garage> specification, BitSet garageIds) {
+
+    public enum AccessPath {
+        /** IDs lus dans le bitmap en mémoire ({@link GarageFuelTypeIndex}). */
+        BITMAP_INDEX,
+        /** Liste IN des valeurs trouvées dans l'index de recherche par trigrammes. */
+        SEARCH_INDEX,
+        /** Parcours LIKE de la colonne normalisée (texte trop courant pour l'index). */
+        LIKE_SCAN,
+        /** Comparaison sur une colonne (égalité ou intervalle). */
+        COLUMN
+    }
+
+    public boolean isKnownEmpty() {
+        return estimatedGarages == 0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.renault.garage.search;
+
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.repository.AccessoryRepository;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Statistiques de cardinalité utilisées par le {@link GarageSearchPlanner} : nombre de garages
+ * distincts par modèle, par nom et type d'accessoire et par année de fabrication.
+ *
+ * <p>Comme les statistiques d'un SGBD, elles sont approximatives : calculées au démarrage puis
+ * recalculées en tâche planifiée toutes les {@code garage.search.statistics.max-age}, elles ne
+ * servent qu'à ordonner les critères, jamais à décider d'un résultat. Le recalcul parcourt les
+ * tables des véhicules et des accessoires : il ne se fait jamais sur le thread d'une recherche,
+ * qui lit la dernière photographie sans attendre.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GarageSearchStatistics {
+
+    private final GarageRepository garageRepository;
+    private final VehicleRepository vehicleRepository;
+    private final AccessoryRepository accessoryRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Calcule les statistiques au démarrage, avant la première recherche.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (snapshot == null) {
+            refresh();
+        }
+    }
+
+    /**
+     * Recalcule les statistiques hors des requêtes ; en cas d'échec, la photographie précédente
+     * reste servie jusqu'au recalcul suivant.
+     */
+    @Scheduled(fixedDelayString = "${garage.search.statistics.max-age:PT5M}",
+            initialDelayString = "${garage.search.statistics.max-age:PT5M}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Échec du recalcul des statistiques de recherche, les précédentes restent utilisées", e);
+        }
+    }
+
+    /**
+     * Statistiques courantes, sans attendre un recalcul en cours. Seule une recherche arrivée
+     * avant le calcul de démarrage les calcule elle-même.
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = refresh();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Recalcule les statistiques.
+     */
+    public synchronized Snapshot refresh() {
+        long start = System.nanoTime();
+        Map<AccessoryType, Long> garagesByAccessoryType = new EnumMap<>(AccessoryType.class);
+        accessoryRepository.countGaragesByType()
+                .forEach(row -> garagesByAccessoryType.put((AccessoryType) row[0], (Long) row[1]));
+        NavigableMap<Integer, Long> garagesByYear = new TreeMap<>();
+        vehicleRepository.countGaragesByYear().forEach(row -> garagesByYear.put((Integer) row[0], (Long) row[1]));
+
+        snapshot = new Snapshot(garageRepository.count(),
+                toMap(vehicleRepository.countGaragesByModelSearch()),
+                toMap(accessoryRepository.countGaragesByNomSearch()),
+                garagesByAccessoryType, garagesByYear, Instant.now());
+        log.debug("Statistiques de recherche recalculées en {} ms : {} garage(s), {} modèle(s), {} accessoire(s)",
+                (System.nanoTime() - start) / 1_000_000, snapshot.garageCount(),
+                snapshot.garagesByModel().size(), snapshot.garagesByAccessoryName().size());
+        return snapshot;
+    }
+
+    private static Map<String, Long> toMap(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> counts.put((String) row[0], (Long) row[1]));
+        return counts;
+    }
+
+    /**
+     * Photographie des statistiques à un instant donné.
+     */
+    public record Snapshot(long garageCount,
+                           Map<String, Long> garagesByModel,
+                           Map<String, Long> garagesByAccessoryName,
+                           Map<AccessoryType, Long> garagesByAccessoryType,
+                           NavigableMap<Integer, Long> garagesByYear,
+                           Instant computedAt) {
+
+        /**
+         * Estimation du nombre de garages ayant au moins une des valeurs : somme des cardinalités,
+         * plafonnée au nombre de garages. Une valeur absente des statistiques (plus récente
+         * qu'elles) compte pour un garage.
+         */
+        public long estimate(Map<String, Long> counts, Collection<String> values) {
+            long sum = 0;
+            for (String value : values) {
+                sum += counts.getOrDefault(value, 1L);
+            }
+            return cap(sum);
+        }
+
+        public long estimateAccessoryType(AccessoryType type) {
+            return cap(garagesByAccessoryType.getOrDefault(type, 1L));
+        }
+
+        public long estimateYearRange(Integer yearFrom, Integer yearTo) {
+            NavigableMap<Integer, Long> years = garagesByYear
+                    .subMap(yearFrom == null ? Integer.MIN_VALUE : yearFrom, true,
+                            yearTo == null ? Integer.MAX_VALUE : yearTo, true);
+            return cap(Math.max(1, years.values().stream().mapToLong(Long::longValue).sum()));
+        }
+
+        private long cap(long estimate) {
+            return Math.max(1, Math.min(estimate, garageCount));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.renault.garage.search;
+
+import com.renault.garage.entity.Accessory;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Prédicats de la recherche multicritère des garages. Chaque critère portant sur les véhicules
+ * ou les accessoires est un EXISTS indépendant : « le garage contient au moins un véhicule
+ * (ou un accessoire) qui ... ».
+ */
+public final class GarageSpecifications {
+
+    private GarageSpecifications() {
+    }
+
+    public static Specification<Garage> idGreaterThan(long afterId) {
+        return (garage, query, cb) -> cb.greaterThan(garage.get("id"), afterId);
+    }
+
+    public static Specification<Garage> idIn(Collection<Long> ids) {
+        return (garage, query, cb) -> garage.get("id").in(ids);
+    }
+
+    /**
+     * Au moins un véhicule d'un des types (ANY), ou au moins un véhicule de chaque type (ALL).
+     */
+    public static Specification<Garage> hasFuelTypes(Collection<FuelType> fuelTypes, FuelTypeMatch match) {
+        if (match == FuelTypeMatch.ANY) {
+            return hasVehicle((vehicle, cb) -> vehicle.get("typeCarburant").in(fuelTypes));
+        }
+        return (garage, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            for (FuelType fuelType : fuelTypes) {
+                predicates.add(hasVehicle((vehicle, builder) -> builder.equal(vehicle.get("typeCarburant"), fuelType))
+                        .toPredicate(garage, query, cb));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Garage> hasModelIn(Collection<String> normalizedModels) {
+        return hasVehicle((vehicle, cb) -> in(cb, vehicle.get("modelSearch"), normalizedModels));
+    }
+
+    public static Specification<Garage> hasModelLike(String pattern) {
+        return hasVehicle((vehicle, cb) -> cb.like(vehicle.get("modelSearch"), pattern, '\\'));
+    }
+
+    /**
+     * Au moins un véhicule fabriqué entre les deux années (incluses) ; une borne nulle est ouverte.
+     */
+    public static Specification<Garage> hasVehicleYearBetween(Integer yearFrom, Integer yearTo) {
+        return hasVehicle((vehicle, cb) -> {
+            if (yearFrom == null) {
+                return cb.lessThanOrEqualTo(vehicle.get("anneeFabrication"), yearTo);
+            }
+            if (yearTo == null) {
+                return cb.greaterThanOrEqualTo(vehicle.get("anneeFabrication"), yearFrom);
+            }
+            return cb.between(vehicle.get("anneeFabrication"), yearFrom, yearTo);
+        });
+    }
+
+    public static Specification<Garage> hasAccessoryNameIn(Collection<String> normalizedNames) {
+        return hasAccessory((accessory, cb) -> in(cb, accessory.get("nomSearch"), normalizedNames));
+    }
+
+    public static Specification<Garage> hasAccessoryNameLike(String pattern) {
+        return hasAccessory((accessory, cb) -> cb.like(accessory.get("nomSearch"), pattern, '\\'));
+    }
+
+    public static Specification<Garage> hasAccessoryType(AccessoryType type) {
+        return hasAccessory((accessory, cb) -> cb.equal(accessory.get("type"), type));
+    }
+
+    private static Specification<Garage> hasVehicle(BiFunction<Root<Vehicle>, CriteriaBuilder, Predicate> condition) {
+        return (garage, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Vehicle> vehicle = subquery.from(Vehicle.class);
+            subquery.select(vehicle.get("id"))
+                    .where(cb.equal(vehicle.get("garage"), garage), condition.apply(vehicle, cb));
+            return cb.exists(subquery);
+        };
+    }
+
+    private static Specification<Garage> hasAccessory(BiFunction<Root<Accessory>, CriteriaBuilder, Predicate> condition) {
+        return (garage, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Accessory> accessory = subquery.from(Accessory.class);
+            subquery.select(accessory.get("id"))
+                    .where(cb.equal(accessory.get("vehicle").get("garage"), garage), condition.apply(accessory, cb));
+            return cb.exists(subquery);
+        };
+    }
+
+    private static Predicate in(CriteriaBuilder cb, Path<String> path,
+                                Collection<String> values) {
+        return values.isEmpty() ? cb.disjunction() : path.in(values);
+    }
+}
@@ -0,0 +1,43 @@
+package com.renault.garage.search;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Normalisation et découpage en trigrammes des textes indexés pour la recherche par sous-chaîne.
+ */
+public final class SearchText {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private SearchText() {
+    }
+
+    /**
+     * Forme normalisée d'un texte : sans espaces en bordure et en minuscules.
+     */
+    public static String normalize(String text) {
+        return text == null ? null : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigrammes distincts d'un texte normalisé (vide si le texte fait moins de 3 caractères).
+     */
+    public static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            trigrams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Motif LIKE "contient" pour un texte normalisé, les jokers de l'utilisateur étant échappés
+     * (à utiliser avec {@code ESCAPE '\'}).
+     */
+    public static String containsPattern(String normalized) {
+        String escaped = normalized.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
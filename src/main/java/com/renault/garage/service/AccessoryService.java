@@ -1,13 +1,18 @@
 package com.renault.garage.service;
 
+import com.renault.garage.cache.ResponseNearCache;
 import com.renault.garage.dto.AccessoryDTO;
 import com.renault.garage.entity.Accessory;
 import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.enums.SearchField;
 import com.renault.garage.exception.AccessoryNotFoundException;
 import com.renault.garage.exception.VehicleNotFoundException;
+import com.renault.garage.kafka.GarageChangePublisher;
 import com.renault.garage.mapper.AccessoryMapper;
 import com.renault.garage.repository.AccessoryRepository;
 import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.support.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,6 +33,10 @@ public class AccessoryService {
     private final AccessoryRepository accessoryRepository;
     private final VehicleRepository vehicleRepository;
     private final AccessoryMapper accessoryMapper;
+    private final SearchIndexService searchIndexService;
+    private final ResponseNearCache responseNearCache;
+    private final GarageChangePublisher garageChangePublisher;
+    private final VehicleLocks vehicleLocks;
 
     /**
      * Ajoute un accessoire à un véhicule.
@@ -35,13 +44,17 @@ public class AccessoryService {
     public AccessoryDTO addAccessoryToVehicle(Long vehicleId, AccessoryDTO accessoryDTO) {
         log.info("Ajout d'un accessoire au véhicule {}: {}", vehicleId, accessoryDTO.getNom());
         
-        Vehicle vehicle = vehicleRepository.findById(vehicleId)
-                .orElseThrow(() -> new VehicleNotFoundException(vehicleId));
+        // Verrou sur la ligne du véhicule pour maintenir son compteur d'accessoires
+        Vehicle vehicle = vehicleLocks.lockVehicle(vehicleId);
         
         Accessory accessory = accessoryMapper.toEntity(accessoryDTO);
         vehicle.addAccessory(accessory);
         
         Accessory savedAccessory = accessoryRepository.save(accessory);
+        searchIndexService.index(SearchField.ACCESSORY_NAME, List.of(savedAccessory.getNom()));
+        // Le nombre d'accessoires fait partie de la réponse du véhicule
+        responseNearCache.invalidate(NearCacheRegion.VEHICLE, vehicleId);
+        garageChangePublisher.publishAccessoryAdded(savedAccessory);
         return accessoryMapper.toDTO(savedAccessory);
     }
 
@@ -56,6 +69,16 @@ public class AccessoryService {
         return accessoryMapper.toDTO(accessory);
     }
 
+    /**
+     * ETag actuel d'un accessoire, lu depuis l'entité sans construire la réponse.
+     */
+    @Transactional(readOnly = true)
+    public String getAccessoryETag(Long id) {
+        return accessoryRepository.findById(id)
+                .map(ETags::of)
+                .orElseThrow(() -> new AccessoryNotFoundException(id));
+    }
+
     /**
      * Récupère tous les accessoires d'un véhicule.
      */
@@ -72,15 +95,25 @@ public class AccessoryService {
     }
 
     /**
-     * Met à jour un accessoire.
+     * Met à jour un accessoire, si son ETag correspond à {@code ifMatch} (quand fourni).
+     * Une modification concurrente entre la lecture et l'écriture est détectée par la version.
+     * Le garage et le véhicule sont verrouillés pour ordonner l'événement avec les autres
+     * modifications du garage.
      */
-    public AccessoryDTO updateAccessory(Long id, AccessoryDTO accessoryDTO) {
+    public AccessoryDTO updateAccessory(Long id, AccessoryDTO accessoryDTO, String ifMatch) {
         log.info("Mise à jour de l'accessoire avec l'ID: {}", id);
         Accessory accessory = accessoryRepository.findById(id)
                 .orElseThrow(() -> new AccessoryNotFoundException(id));
+        if (accessory.getVehicle() != null) {
+            vehicleLocks.lockVehicle(accessory.getVehicle().getId());
+        }
+        ETags.requireMatch(ifMatch, ETags.of(accessory));
         
         accessoryMapper.updateEntityFromDTO(accessoryDTO, accessory);
-        Accessory updatedAccessory = accessoryRepository.save(accessory);
+        // Flush immédiat : la réponse porte la nouvelle version
+        Accessory updatedAccessory = accessoryRepository.saveAndFlush(accessory);
+        searchIndexService.index(SearchField.ACCESSORY_NAME, List.of(updatedAccessory.getNom()));
+        garageChangePublisher.publishAccessoryUpdated(updatedAccessory);
         return accessoryMapper.toDTO(updatedAccessory);
     }
 
@@ -92,9 +125,15 @@ public class AccessoryService {
         Accessory accessory = accessoryRepository.findById(id)
                 .orElseThrow(() -> new AccessoryNotFoundException(id));
         
-        if (accessory.getVehicle() != null) {
-            accessory.getVehicle().removeAccessory(accessory);
+        Long vehicleId = accessory.getVehicle() != null ? accessory.getVehicle().getId() : null;
+        Long garageId = null;
+        if (vehicleId != null) {
+            Vehicle vehicle = vehicleLocks.lockVehicle(vehicleId);
+            garageId = vehicle.getGarage() != null ? vehicle.getGarage().getId() : null;
+            vehicle.removeAccessory(accessory);
+            responseNearCache.invalidate(NearCacheRegion.VEHICLE, vehicleId);
         }
+        garageChangePublisher.publishAccessoryDeleted(accessory, vehicleId, garageId);
         accessoryRepository.delete(accessory);
     }
 }
@@ -0,0 +1,132 @@
+package com.renault.garage.service;
+
+import com.renault.garage.entity.GarageActivity;
+import com.renault.garage.entity.GarageActivityOffset;
+import com.renault.garage.event.VehicleCreatedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * État en mémoire de la projection d'activité pour une partition du topic des créations de
+ * véhicules. Les événements étant clés par garage, le thread propriétaire de la partition est le
+ * seul à écrire ces garages : leurs projections restent gérées dans une session Hibernate propre
+ * à la partition, d'un lot à l'autre, et un lot se résume à une transaction d'UPDATE groupés,
+ * sans relecture ni verrou. Un garage n'est lu en base qu'à sa première apparition.
+ *
+ * <p>Le dernier offset appliqué est écrit dans la même transaction ({@link GarageActivityOffset}) :
+ * les enregistrements relivrés par Kafka (offsets non validés après un lot appliqué) sont ignorés.</p>
+ *
+ * <p>Non thread-safe : confiné au thread du consumer qui possède la partition.</p>
+ */
+class GarageActivityPartition implements AutoCloseable {
+
+    private final Session session;
+    private final String topicPartition;
+    private final Map<Long, GarageActivity> activities = new HashMap<>();
+    private GarageActivityOffset position;
+
+    GarageActivityPartition(SessionFactory sessionFactory, TopicPartition partition) {
+        this.topicPartition = partition.toString();
+        // Connexion rendue au pool entre deux lots : la session vit aussi longtemps que la partition
+        this.session = sessionFactory.withOptions()
+                .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                .openSession();
+    }
+
+    /**
+     * Applique un lot en une transaction, à partir du premier enregistrement pas encore appliqué.
+     * En cas d'échec (dont un conflit de version si la base a été modifiée par un autre writer),
+     * l'état en mémoire est abandonné et relu au lot suivant. Retourne le nombre d'enregistrements
+     * ignorés car déjà appliqués.
+     */
+    int apply(List<ConsumerRecord<String, VehicleCreatedEvent>> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        Transaction transaction = session.beginTransaction();
+        try {
+            GarageActivityOffset applied = position();
+            List<VehicleCreatedEvent> events = records.stream()
+                    .filter(record -> record.offset() > applied.getLastOffset())
+                    .map(ConsumerRecord::value)
+                    .toList();
+            Map<Long, List<VehicleCreatedEvent>> eventsByGarage = events.stream()
+                    .filter(event -> event.garageId() != null)
+                    .collect(Collectors.groupingBy(VehicleCreatedEvent::garageId, LinkedHashMap::new, Collectors.toList()));
+            load(eventsByGarage.keySet());
+            eventsByGarage.forEach((garageId, garageEvents) ->
+                    activities.get(garageId).recordVehiclesCreated(garageEvents));
+            if (!events.isEmpty()) {
+                applied.setLastOffset(records.get(records.size() - 1).offset());
+            }
+            transaction.commit();
+            return records.size() - events.size();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            session.clear();
+            activities.clear();
+            position = null;
+            throw e;
+        }
+    }
+
+    int garageCount() {
+        return activities.size();
+    }
+
+    @Override
+    public void close() {
+        session.close();
+    }
+
+    /**
+     * Dernier offset appliqué pour la partition, lu en base à la première utilisation.
+     */
+    private GarageActivityOffset position() {
+        if (position == null) {
+            position = session.find(GarageActivityOffset.class, topicPartition);
+            if (position == null) {
+                position = GarageActivityOffset.builder().topicPartition(topicPartition).lastOffset(-1).build();
+                session.persist(position);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Charge en une requête les garages encore inconnus de la partition, et crée ceux qui n'ont
+     * pas encore de projection.
+     */
+    private void load(Set<Long> garageIds) {
+        List<Long> unknownIds = garageIds.stream()
+                .filter(garageId -> !activities.containsKey(garageId))
+                .toList();
+        if (unknownIds.isEmpty()) {
+            return;
+        }
+        session.createQuery("SELECT a FROM GarageActivity a WHERE a.garageId IN :garageIds", GarageActivity.class)
+                .setParameter("garageIds", unknownIds)
+                .getResultList()
+                .forEach(activity -> activities.put(activity.getGarageId(), activity));
+        for (Long garageId : unknownIds) {
+            activities.computeIfAbsent(garageId, id -> {
+                GarageActivity activity = GarageActivity.builder().garageId(id).build();
+                session.persist(activity);
+                return activity;
+            });
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.renault.garage.service;
+
+import com.renault.garage.dto.ProjectionRebuildStatusDTO;
+import com.renault.garage.entity.GarageActivity;
+import com.renault.garage.entity.GarageActivityOffset;
+import com.renault.garage.enums.RebuildState;
+import com.renault.garage.exception.RebuildInProgressException;
+import com.renault.garage.repository.GarageActivityOffsetRepository;
+import com.renault.garage.repository.GarageActivityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reconstruction de la projection d'activité des garages depuis le journal d'événements
+ * (topic des créations de véhicules relu depuis l'offset zéro), sans relire la base.
+ *
+ * <p>Chaque partition est relue en parallèle par son propre consommateur, dans un groupe dédié,
+ * et la nouvelle projection est construite en mémoire à côté de l'ancienne, qui reste servie et
+ * alimentée par le listener principal. Une fois les partitions rattrapées, les listeners du groupe
+ * principal (listener principal et topics de reprise) sont arrêtés le temps de lire les derniers
+ * événements, de valider la position atteinte pour ce groupe et de remplacer le contenu de la table
+ * en une transaction ; le listener principal repart ensuite de cette position sur la nouvelle
+ * projection. Si une autre instance consomme encore dans ce groupe, la validation de la position
+ * est refusée et l'ancienne projection conservée.</p>
+ */
+@Service
+@Slf4j
+public class GarageActivityRebuildService {
+
+    public static final String PROJECTION = "garage-activity";
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry;
+    private final GarageActivityRepository garageActivityRepository;
+    private final GarageActivityOffsetRepository garageActivityOffsetRepository;
+    private final GarageActivityService garageActivityService;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final String liveGroupId;
+    private final String rebuildGroupId;
+    private final Duration progressInterval;
+    private final AtomicReference<Rebuild> current = new AtomicReference<>();
+
+    public GarageActivityRebuildService(@Qualifier("consumerFactory") ConsumerFactory<String, Object> consumerFactory,
+                                        ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry,
+                                        GarageActivityRepository garageActivityRepository,
+                                        GarageActivityOffsetRepository garageActivityOffsetRepository,
+                                        GarageActivityService garageActivityService,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${app.kafka.topics.vehicle-created:vehicle-created}") String topic,
+                                        @Value("${spring.kafka.consumer.group-id:garage-management-group}") String liveGroupId,
+                                        @Value("${garage.projections.rebuild.progress-interval:PT5S}") Duration progressInterval) {
+        this.consumerFactory = consumerFactory;
+        this.listenerRegistry = listenerRegistry;
+        this.garageActivityRepository = garageActivityRepository;
+        this.garageActivityOffsetRepository = garageActivityOffsetRepository;
+        this.garageActivityService = garageActivityService;
+        this.transactionTemplate = transactionTemplate;
+        this.topic = topic;
+        this.liveGroupId = liveGroupId;
+        this.rebuildGroupId = liveGroupId + "-rebuild";
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Lance une reconstruction en arrière-plan et renvoie son état initial.
+     */
+    public synchronized ProjectionRebuildStatusDTO start() {
+        Rebuild previous = current.get();
+        if (previous != null && previous.isActive()) {
+            throw new RebuildInProgressException("Reconstruction de la projection " + PROJECTION + " déjà en cours");
+        }
+        Rebuild rebuild = new Rebuild();
+        current.set(rebuild);
+        Thread thread = new Thread(() -> run(rebuild), PROJECTION + "-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return rebuild.status();
+    }
+
+    /**
+     * État de la reconstruction en cours ou de la dernière terminée.
+     */
+    public Optional<ProjectionRebuildStatusDTO> getStatus() {
+        return Optional.ofNullable(current.get()).map(Rebuild::status);
+    }
+
+    private void run(Rebuild rebuild) {
+        ExecutorService executor = null;
+        try (Consumer<String, Object> metadata = createConsumer(rebuildGroupId, "-rebuild-metadata")) {
+            List<TopicPartition> partitions = metadata.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            Map<TopicPartition, Long> beginningOffsets = metadata.beginningOffsets(partitions);
+            for (TopicPartition partition : partitions) {
+                rebuild.workers.add(new GarageActivityRebuildWorker(
+                        createConsumer(rebuildGroupId, "-rebuild-" + partition.partition()),
+                        partition, beginningOffsets.get(partition)));
+            }
+            executor = Executors.newFixedThreadPool(partitions.size(), workerThreadFactory());
+
+            rebuild.targets = metadata.endOffsets(partitions);
+            log.info("Reconstruction de la projection {}: {} partition(s), {} offset(s) à relire",
+                    PROJECTION, partitions.size(), rebuild.targetOffsets());
+            catchUp(rebuild, executor);
+
+            rebuild.state = RebuildState.CUTOVER;
+            long cutoverStart = System.nanoTime();
+            // Groupe vide : seul un groupe sans membre accepte la validation d'une position externe
+            List<MessageListenerContainer> liveContainers = liveContainers();
+            liveContainers.forEach(MessageListenerContainer::stop);
+            try {
+                rebuild.targets = metadata.endOffsets(partitions);
+                catchUp(rebuild, executor);
+                swap(rebuild, partitions, beginningOffsets);
+            } finally {
+                // États de partition du listener principal relus sur la nouvelle projection
+                garageActivityService.releaseAll();
+                liveContainers.forEach(MessageListenerContainer::start);
+                rebuild.cutoverMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cutoverStart);
+            }
+            rebuild.finish(RebuildState.COMPLETED, null);
+            ProjectionRebuildStatusDTO status = rebuild.status();
+            log.info("Projection {} reconstruite: {} garage(s), {} événement(s) en {} ms ({} événements/s), "
+                            + "{} doublon(s) et {} message(s) illisible(s) écartés, bascule en {} ms",
+                    PROJECTION, status.getGarages(), status.getEventsRead(),
+                    Duration.between(status.getStartedAt(), status.getFinishedAt()).toMillis(),
+                    Math.round(status.getEventsPerSecond()), status.getDuplicatesSkipped(),
+                    status.getUnreadableSkipped(), status.getCutoverMs());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            rebuild.finish(RebuildState.FAILED, e.getMessage());
+            log.error("Échec de la reconstruction de la projection {}, ancienne projection conservée", PROJECTION, e);
+        } finally {
+            shutdown(executor);
+            rebuild.workers.forEach(GarageActivityRebuildWorker::close);
+        }
+    }
+
+    /**
+     * Fait avancer toutes les partitions jusqu'à leur cible, en parallèle, en journalisant
+     * l'avancement à intervalle régulier.
+     */
+    private void catchUp(Rebuild rebuild, ExecutorService executor) throws InterruptedException, ExecutionException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (GarageActivityRebuildWorker worker : rebuild.workers) {
+            long target = rebuild.targets.get(worker.partition());
+            futures.add(executor.submit(() -> worker.catchUp(target)));
+        }
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(progressInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    ProjectionRebuildStatusDTO status = rebuild.status();
+                    log.info("Reconstruction de la projection {}: {}% ({} / {} offsets), {} événements/s",
+                            PROJECTION, Math.round(status.getProgressPercent()), status.getOffsetsRead(),
+                            status.getTargetOffsets(), Math.round(status.getEventsPerSecond()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Valide la position atteinte pour le groupe du listener principal, puis remplace le contenu
+     * de la table et les derniers offsets appliqués en une transaction. Si la transaction échoue,
+     * l'ancienne position est rétablie.
+     */
+    private void swap(Rebuild rebuild, List<TopicPartition> partitions, Map<TopicPartition, Long> beginningOffsets) {
+        Map<Long, GarageActivity> activities = new HashMap<>();
+        for (GarageActivityRebuildWorker worker : rebuild.workers) {
+            worker.activities().forEach((garageId, activity) -> activities.merge(garageId, activity, (merged, other) -> {
+                merged.combine(other);
+                return merged;
+            }));
+        }
+        rebuild.garages = activities.size();
+
+        Map<TopicPartition, OffsetAndMetadata> cutoverOffsets = new HashMap<>();
+        rebuild.targets.forEach((partition, offset) -> cutoverOffsets.put(partition, new OffsetAndMetadata(offset)));
+        try (Consumer<String, Object> live = createConsumer(liveGroupId, "-rebuild-cutover")) {
+            Map<TopicPartition, OffsetAndMetadata> previousOffsets = new HashMap<>();
+            live.committed(new HashSet<>(partitions)).forEach((partition, offset) -> previousOffsets.put(partition,
+                    offset != null ? offset : new OffsetAndMetadata(beginningOffsets.get(partition))));
+            live.commitSync(cutoverOffsets);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    garageActivityRepository.deleteAllInBatch();
+                    garageActivityRepository.saveAll(activities.values());
+                    replaceOffsets(rebuild.targets);
+                });
+            } catch (RuntimeException e) {
+                live.commitSync(previousOffsets);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Derniers offsets appliqués à la projection reconstruite : tout ce qui précède la position
+     * validée pour le listener principal.
+     */
+    private void replaceOffsets(Map<TopicPartition, Long> targets) {
+        List<GarageActivityOffset> offsets = targets.entrySet().stream()
+                .map(target -> GarageActivityOffset.builder()
+                        .topicPartition(target.getKey().toString())
+                        .lastOffset(target.getValue() - 1)
+                        .build())
+                .toList();
+        garageActivityOffsetRepository.deleteAllByIdInBatch(
+                offsets.stream().map(GarageActivityOffset::getTopicPartition).toList());
+        garageActivityOffsetRepository.saveAll(offsets);
+    }
+
+    private List<MessageListenerContainer> liveContainers() {
+        KafkaListenerEndpointRegistry registry = listenerRegistry.getIfAvailable();
+        if (registry == null) {
+            return List.of();
+        }
+        return registry.getAllListenerContainers().stream()
+                .filter(container -> container.isRunning() && liveGroupId.equals(container.getGroupId()))
+                .toList();
+    }
+
+    private Consumer<String, Object> createConsumer(String groupId, String clientIdSuffix) {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return consumerFactory.createConsumer(groupId, null, clientIdSuffix, properties);
+    }
+
+    private static java.util.concurrent.ThreadFactory workerThreadFactory() {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, PROJECTION + "-rebuild-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reconstruction en cours ou terminée ; l'état est lu par les requêtes de suivi pendant que
+     * les threads de relecture avancent.
+     */
+    private static final class Rebuild {
+
+        private final Instant startedAt = Instant.now();
+        private final List<GarageActivityRebuildWorker> workers = new CopyOnWriteArrayList<>();
+        private volatile Map<TopicPartition, Long> targets = Map.of();
+        private volatile RebuildState state = RebuildState.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile int garages;
+        private volatile long cutoverMs;
+        private volatile String error;
+
+        boolean isActive() {
+            return state == RebuildState.RUNNING || state == RebuildState.CUTOVER;
+        }
+
+        void finish(RebuildState finalState, String failure) {
+            finishedAt = Instant.now();
+            error = failure;
+            state = finalState;
+        }
+
+        long targetOffsets() {
+            Map<TopicPartition, Long> currentTargets = targets;
+            return workers.stream()
+                    .filter(worker -> currentTargets.containsKey(worker.partition()))
+                    .mapToLong(worker -> currentTargets.get(worker.partition()) - worker.beginningOffset())
+                    .sum();
+        }
+
+        ProjectionRebuildStatusDTO status() {
+            long targetOffsets = targetOffsets();
+            long offsetsRead = workers.stream().mapToLong(GarageActivityRebuildWorker::offsetsRead).sum();
+            long eventsRead = workers.stream().mapToLong(GarageActivityRebuildWorker::eventsRead).sum();
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            return ProjectionRebuildStatusDTO.builder()
+                    .projection(PROJECTION)
+                    .state(state)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .partitions(workers.size())
+                    .targetOffsets(targetOffsets)
+                    .offsetsRead(offsetsRead)
+                    .progressPercent(targetOffsets == 0 ? (state == RebuildState.RUNNING ? 0 : 100)
+                            : Math.min(100.0, offsetsRead * 100.0 / targetOffsets))
+                    .eventsRead(eventsRead)
+                    .eventsPerSecond(eventsRead / seconds)
+                    .duplicatesSkipped(workers.stream().mapToLong(GarageActivityRebuildWorker::duplicates).sum())
+                    .unreadableSkipped(workers.stream().mapToLong(GarageActivityRebuildWorker::unreadable).sum())
+                    .garages(garages)
+                    .cutoverMs(cutoverMs)
+                    .error(error)
+                    .build();
+        }
+    }
+}
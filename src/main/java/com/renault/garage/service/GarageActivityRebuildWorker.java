@@ -0,0 +1,127 @@
+package com.renault.garage.service;
+
+import com.renault.garage.entity.GarageActivity;
+import com.renault.garage.event.VehicleCreatedEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reconstruction de la projection d'activité pour une partition du topic des créations de
+ * véhicules, relue depuis son premier offset. Les projections sont tenues en mémoire (une par
+ * garage, pas par événement) et les événements appliqués par lot de poll. Un véhicule déjà vu sur
+ * la partition (renvoi du relais de l'outbox, rejeu du DLT) n'est compté qu'une fois.
+ *
+ * <p>Non thread-safe, sauf les compteurs de progression : un seul thread à la fois fait avancer
+ * la partition.</p>
+ */
+class GarageActivityRebuildWorker implements AutoCloseable {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final Consumer<String, Object> consumer;
+    private final TopicPartition partition;
+    private final long beginningOffset;
+    private final Map<Long, GarageActivity> activities = new HashMap<>();
+    private final Set<Long> vehicleIds = new HashSet<>();
+    private volatile long position;
+    private volatile long eventsRead;
+    private volatile long duplicates;
+    private volatile long unreadable;
+
+    GarageActivityRebuildWorker(Consumer<String, Object> consumer, TopicPartition partition, long beginningOffset) {
+        this.consumer = consumer;
+        this.partition = partition;
+        this.beginningOffset = beginningOffset;
+        this.position = beginningOffset;
+        consumer.assign(List.of(partition));
+        consumer.seek(partition, beginningOffset);
+    }
+
+    /**
+     * Lit la partition jusqu'à l'offset cible (exclu). Les enregistrements reçus au-delà ne sont
+     * pas appliqués : la lecture reprendra à la cible lors de l'appel suivant.
+     */
+    void catchUp(long targetOffset) {
+        while (position < targetOffset) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Reconstruction interrompue: partition " + partition);
+            }
+            List<ConsumerRecord<String, Object>> batch = new ArrayList<>();
+            for (ConsumerRecord<String, Object> record : consumer.poll(POLL_TIMEOUT).records(partition)) {
+                if (record.offset() >= targetOffset) {
+                    consumer.seek(partition, targetOffset);
+                    break;
+                }
+                batch.add(record);
+            }
+            apply(batch);
+            position = Math.min(consumer.position(partition), targetOffset);
+            // Avancement visible pour le groupe dédié (outils de suivi du lag)
+            consumer.commitAsync();
+        }
+    }
+
+    /**
+     * Applique un lot : les créations sont regroupées par garage, les doublons et les messages
+     * illisibles écartés.
+     */
+    private void apply(List<ConsumerRecord<String, Object>> records) {
+        Map<Long, List<VehicleCreatedEvent>> eventsByGarage = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (!(record.value() instanceof VehicleCreatedEvent event)) {
+                unreadable++;
+            } else if (!vehicleIds.add(event.vehicleId())) {
+                duplicates++;
+            } else if (event.garageId() != null) {
+                eventsByGarage.computeIfAbsent(event.garageId(), garageId -> new ArrayList<>()).add(event);
+            }
+        }
+        eventsByGarage.forEach((garageId, events) -> activities
+                .computeIfAbsent(garageId, id -> GarageActivity.builder().garageId(id).build())
+                .recordVehiclesCreated(events));
+        eventsRead += records.size();
+    }
+
+    TopicPartition partition() {
+        return partition;
+    }
+
+    Map<Long, GarageActivity> activities() {
+        return activities;
+    }
+
+    long beginningOffset() {
+        return beginningOffset;
+    }
+
+    long offsetsRead() {
+        return position - beginningOffset;
+    }
+
+    long eventsRead() {
+        return eventsRead;
+    }
+
+    long duplicates() {
+        return duplicates;
+    }
+
+    long unreadable() {
+        return unreadable;
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+    }
+}
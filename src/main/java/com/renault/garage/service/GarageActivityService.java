@@ -0,0 +1,89 @@
+package com.renault.garage.service;
+
+import com.renault.garage.event.VehicleCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service de la projection d'activité des garages, alimentée par les événements de véhicules.
+ * Chaque partition assignée à cette instance a son propre état ({@link GarageActivityPartition}),
+ * écrit par le seul thread qui consomme la partition : les partitions sont traitées en parallèle,
+ * sans verrou ni conflit entre elles puisqu'un garage n'appartient qu'à une partition.
+ * Les enregistrements relivrés (offset déjà appliqué) sont ignorés.
+ */
+@Service
+@Slf4j
+public class GarageActivityService {
+
+    private final SessionFactory sessionFactory;
+    private final Map<TopicPartition, GarageActivityPartition> partitions = new ConcurrentHashMap<>();
+    private final Counter redeliveredCounter;
+
+    public GarageActivityService(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.redeliveredCounter = Counter.builder("garage.vehicle-events.redelivered")
+                .description("Événements de création de véhicules relivrés, déjà appliqués et ignorés")
+                .register(meterRegistry);
+        Gauge.builder("garage.vehicle-events.partitions", partitions, Map::size)
+                .description("Partitions dont l'état de projection est tenu par cette instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applique un lot d'événements d'une partition en une transaction : une lecture pour les seuls
+     * garages jamais vus par la partition, puis une écriture groupée (batchs JDBC).
+     * Doit être appelé par le thread propriétaire de la partition.
+     */
+    public void applyVehiclesCreated(TopicPartition partition, List<ConsumerRecord<String, VehicleCreatedEvent>> records) {
+        int redelivered = partitions.computeIfAbsent(partition, p -> new GarageActivityPartition(sessionFactory, p))
+                .apply(records);
+        redeliveredCounter.increment(redelivered);
+        log.debug("Projection d'activité mise à jour: partition {}, {} événement(s), {} déjà appliqué(s)",
+                partition, records.size(), redelivered);
+    }
+
+    /**
+     * Applique un enregistrement hors du listener principal (topics de reprise), dans une session
+     * ouverte pour l'occasion : un écrivain concurrent est détecté par la version de la projection,
+     * une relivraison par l'offset appliqué de sa partition de reprise.
+     */
+    public void applyVehicleCreated(ConsumerRecord<String, VehicleCreatedEvent> record) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        try (GarageActivityPartition state = new GarageActivityPartition(sessionFactory, partition)) {
+            redeliveredCounter.increment(state.apply(List.of(record)));
+        }
+        log.debug("Projection d'activité mise à jour hors partition: véhicule {}", record.value().vehicleId());
+    }
+
+    /**
+     * Abandonne l'état des partitions retirées à cette instance (rééquilibrage) : le prochain
+     * propriétaire relit les garages en base.
+     */
+    public void releasePartitions(Collection<TopicPartition> revoked) {
+        for (TopicPartition partition : revoked) {
+            GarageActivityPartition state = partitions.remove(partition);
+            if (state != null) {
+                log.debug("État de projection libéré: partition {}, {} garage(s)", partition, state.garageCount());
+                state.close();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        releasePartitions(List.copyOf(partitions.keySet()));
+    }
+}
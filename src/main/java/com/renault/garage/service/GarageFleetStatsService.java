@@ -0,0 +1,102 @@
+package com.renault.garage.service;
+
+import com.renault.garage.dto.GarageFleetStatsDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.exception.FleetStatsUnavailableException;
+import com.renault.garage.exception.GarageNotFoundException;
+import com.renault.garage.kafka.GarageFleetState;
+import com.renault.garage.kafka.GarageFleetTopology;
+import com.renault.garage.metrics.GarageId;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service des agrégats de flotte par garage, lus par requête interactive dans le store local de
+ * la topologie Kafka Streams au lieu d'agrégations SQL. Chaque instance n'héberge que les garages
+ * de ses partitions : {@link #findRemoteOwner(Long)} indique l'instance à interroger sinon.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "garage.fleet-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class GarageFleetStatsService {
+
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Value("${garage.fleet-stats.year-bucket-size:5}")
+    private int yearBucketSize;
+
+    /**
+     * Instance hébergeant la partition du garage, si ce n'est pas cette instance.
+     */
+    public Optional<HostInfo> findRemoteOwner(@GarageId Long garageId) {
+        KeyQueryMetadata metadata = kafkaStreams().queryMetadataForKey(GarageFleetTopology.STORE_NAME,
+                String.valueOf(garageId), Serdes.String().serializer());
+        if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+            throw new FleetStatsUnavailableException("Les agrégats de flotte sont en cours de chargement");
+        }
+        HostInfo owner = metadata.activeHost();
+        return owner.equals(localHost()) ? Optional.empty() : Optional.of(owner);
+    }
+
+    /**
+     * Agrégats d'un garage hébergé par cette instance.
+     */
+    public GarageFleetStatsDTO getFleetStats(@GarageId Long garageId) {
+        GarageFleetState state;
+        try {
+            ReadOnlyKeyValueStore<String, GarageFleetState> store = kafkaStreams().store(
+                    StoreQueryParameters.fromNameAndType(GarageFleetTopology.STORE_NAME,
+                            QueryableStoreTypes.keyValueStore()));
+            state = store.get(String.valueOf(garageId));
+        } catch (InvalidStateStoreException e) {
+            throw new FleetStatsUnavailableException("Les agrégats de flotte sont en cours de chargement", e);
+        }
+        if (state == null) {
+            throw new GarageNotFoundException(garageId);
+        }
+        return toDTO(garageId, state);
+    }
+
+    private GarageFleetStatsDTO toDTO(Long garageId, GarageFleetState state) {
+        Map<String, Long> vehiclesByYearBucket = new LinkedHashMap<>();
+        state.vehiclesByYearBucket(yearBucketSize).forEach((firstYear, count) ->
+                vehiclesByYearBucket.put(firstYear + "-" + (firstYear + yearBucketSize - 1), count));
+        return GarageFleetStatsDTO.builder()
+                .garageId(garageId)
+                .vehicleCount(state.vehicleCount())
+                .maxVehicles(Garage.MAX_VEHICLES)
+                .remainingCapacity(state.remainingCapacity())
+                .vehiclesByFuelType(state.vehiclesByFuelType())
+                .vehiclesByYearBucket(vehiclesByYearBucket)
+                .build();
+    }
+
+    private KafkaStreams kafkaStreams() {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null) {
+            throw new FleetStatsUnavailableException("La topologie des agrégats de flotte n'est pas démarrée");
+        }
+        return kafkaStreams;
+    }
+
+    private HostInfo localHost() {
+        return HostInfo.buildFromEndpoint(streamsBuilderFactoryBean.getStreamsConfiguration()
+                .getProperty(StreamsConfig.APPLICATION_SERVER_CONFIG));
+    }
+}
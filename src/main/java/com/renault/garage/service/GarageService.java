@@ -1,20 +1,44 @@
 package com.renault.garage.service;
 
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.cache.SerializedResponse;
 import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.GarageSearchResultDTO;
+import com.renault.garage.dto.SearchPlanDTO;
+import com.renault.garage.dto.SearchPlanStepDTO;
 import com.renault.garage.entity.Garage;
-import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.event.OpeningHoursChangedEvent;
 import com.renault.garage.exception.GarageNotFoundException;
+import com.renault.garage.exception.InvalidSearchCriteriaException;
+import com.renault.garage.kafka.GarageChangePublisher;
 import com.renault.garage.mapper.GarageMapper;
+import com.renault.garage.metrics.GarageId;
+import com.renault.garage.pagination.Cursor;
+import com.renault.garage.pagination.CursorPage;
+import com.renault.garage.pagination.GarageSortKey;
 import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import com.renault.garage.search.GarageSearchCriteria;
+import com.renault.garage.search.GarageSearchPlan;
+import com.renault.garage.search.GarageSearchPlanner;
+import com.renault.garage.search.GarageSearchPredicate;
+import com.renault.garage.search.GarageSpecifications;
+import com.renault.garage.support.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * Service pour la gestion des garages.
@@ -25,8 +49,20 @@ import java.util.stream.Collectors;
 @Transactional
 public class GarageService {
 
+    private static final String SEARCH_SORT_KEY = "id";
+
+    /**
+     * Nombre d'IDs du bitmap des carburants vérifiés par requête quand d'autres critères filtrent.
+     */
+    private static final int BITMAP_BATCH_SIZE = 500;
+
     private final GarageRepository garageRepository;
     private final GarageMapper garageMapper;
+    private final GarageFuelTypeIndex garageFuelTypeIndex;
+    private final GarageSearchPlanner garageSearchPlanner;
+    private final VehicleRepository vehicleRepository;
+    private final ResponseNearCache responseNearCache;
+    private final GarageChangePublisher garageChangePublisher;
 
     /**
      * Crée un nouveau garage.
@@ -35,84 +71,214 @@ public class GarageService {
         log.info("Création d'un nouveau garage: {}", garageDTO.getName());
         Garage garage = garageMapper.toEntity(garageDTO);
         Garage savedGarage = garageRepository.save(garage);
+        garageChangePublisher.publishGarageCreated(savedGarage);
         return garageMapper.toDTO(savedGarage);
     }
 
     /**
-     * Récupère un garage par son ID.
+     * Récupère un garage par son ID (réponse servie par le near-cache si présente).
      */
     @Transactional(readOnly = true)
-    public GarageDTO getGarageById(Long id) {
+    public GarageDTO getGarageById(@GarageId Long id) {
         log.info("Recherche du garage avec l'ID: {}", id);
-        Garage garage = garageRepository.findById(id)
+        return responseNearCache.get(NearCacheRegion.GARAGE, id, GarageDTO.class, () -> garageMapper.toDTO(
+                garageRepository.findById(id).orElseThrow(() -> new GarageNotFoundException(id))));
+    }
+
+    /**
+     * Récupère un garage par son ID sous forme de JSON déjà sérialisé (et compressé si utile),
+     * gardé dans le near-cache : une lecture en cache n'alloue ni DTO ni tampon de sérialisation.
+     * Sans transaction physique (SUPPORTS) : une lecture en cache n'emprunte pas de connexion ;
+     * en cas d'absence, le garage est chargé dans le contexte de persistance lié à l'appel.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public SerializedResponse getSerializedGarageById(@GarageId Long id) {
+        return responseNearCache.getSerialized(NearCacheRegion.GARAGE, id, () -> {
+            GarageDTO garage = getGarageById(id);
+            return responseNearCache.serialize(garage, ETags.of(garage));
+        });
+    }
+
+    /**
+     * ETag actuel d'un garage, lu depuis l'entité (cache de second niveau) sans construire
+     * la réponse : une requête conditionnelle inchangée n'exécute ni le mapper ni la sérialisation.
+     */
+    @Transactional(readOnly = true)
+    public String getGarageETag(@GarageId Long id) {
+        return garageRepository.findById(id)
+                .map(ETags::of)
                 .orElseThrow(() -> new GarageNotFoundException(id));
-        return garageMapper.toDTO(garage);
     }
 
     /**
-     * Récupère tous les garages avec pagination et tri.
+     * Récupère les garages par pagination par curseur (keyset sur la clé de tri puis l'ID).
+     * Aucun comptage total n'est effectué et le coût reste constant quelle que soit la page.
      */
     @Transactional(readOnly = true)
-    public Page<GarageDTO> getAllGarages(Pageable pageable) {
-        log.info("Récupération de tous les garages - Page: {}, Taille: {}", 
-                pageable.getPageNumber(), pageable.getPageSize());
-        return garageRepository.findAll(pageable)
-                .map(garageMapper::toDTO);
+    public CursorPage<GarageDTO> getAllGarages(GarageSortKey sortKey, String cursorToken, int size) {
+        log.info("Récupération des garages - Tri: {}, Taille: {}", sortKey.key(), size);
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        Cursor cursor = Cursor.decode(cursorToken, sortKey.key());
+
+        List<Garage> garages = switch (sortKey) {
+            case NAME -> cursor == null
+                    ? garageRepository.findFirstPageOrderByName(limit)
+                    : garageRepository.findNextPageOrderByName(cursor.value(), cursor.id(), limit);
+            case ID -> garageRepository.findByIdGreaterThanOrderByIdAsc(cursor == null ? 0L : cursor.id(), limit);
+        };
+        return CursorPage.of(garages, pageSize, garageMapper::toDTO, garage -> sortKey == GarageSortKey.NAME
+                ? new Cursor(sortKey.key(), garage.getName(), garage.getId())
+                : Cursor.ofId(sortKey.key(), garage.getId()));
     }
 
     /**
-     * Met à jour un garage existant.
+     * Met à jour un garage existant, si son ETag correspond à {@code ifMatch} (quand fourni).
+     * Le verrou sur la ligne rend la vérification et l'écriture atomiques, sans faire échouer
+     * la mise à jour quand un ajout concurrent de véhicule incrémente la version du garage.
      */
-    public GarageDTO updateGarage(Long id, GarageDTO garageDTO) {
+    public GarageDTO updateGarage(@GarageId Long id, GarageDTO garageDTO, String ifMatch) {
         log.info("Mise à jour du garage avec l'ID: {}", id);
-        Garage garage = garageRepository.findById(id)
+        Garage garage = garageRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new GarageNotFoundException(id));
+        ETags.requireMatch(ifMatch, ETags.of(garage));
         
+        String previousName = garage.getName();
+        List<OpeningHoursChangedEvent.OpeningHours> previousOpeningHours = garageChangePublisher.openingHours(garage);
         garageMapper.updateEntityFromDTO(garageDTO, garage);
-        Garage updatedGarage = garageRepository.save(garage);
+        // Flush immédiat : la réponse porte la nouvelle version
+        Garage updatedGarage = garageRepository.saveAndFlush(garage);
+        responseNearCache.invalidate(NearCacheRegion.GARAGE, id);
+        // Le nom du garage est recopié dans les réponses de ses véhicules
+        if (!Objects.equals(previousName, updatedGarage.getName())) {
+            responseNearCache.invalidate(NearCacheRegion.VEHICLE, vehicleRepository.findIdsByGarageId(id));
+        }
+        garageChangePublisher.publishGarageUpdated(updatedGarage, previousOpeningHours);
         return garageMapper.toDTO(updatedGarage);
     }
 
     /**
-     * Supprime un garage.
+     * Supprime un garage. Le verrou sur la ligne ordonne la suppression avec les modifications
+     * concurrentes du garage.
      */
-    public void deleteGarage(Long id) {
+    public void deleteGarage(@GarageId Long id) {
         log.info("Suppression du garage avec l'ID: {}", id);
-        if (!garageRepository.existsById(id)) {
-            throw new GarageNotFoundException(id);
-        }
-        garageRepository.deleteById(id);
+        Garage garage = garageRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new GarageNotFoundException(id));
+        List<Long> vehicleIds = vehicleRepository.findIdsByGarageId(id);
+        garageChangePublisher.publishGarageDeleted(garage);
+        garageRepository.delete(garage);
+        garageFuelTypeIndex.garageRemoved(id);
+        responseNearCache.invalidate(NearCacheRegion.GARAGE, id);
+        responseNearCache.invalidate(NearCacheRegion.VEHICLE, vehicleIds);
     }
 
     /**
-     * Recherche les garages par type de carburant des véhicules.
+     * Recherche multicritère des garages (critères combinés en ET), pagination par curseur sur l'ID.
+     * Le planificateur ordonne les critères du plus sélectif au moins sélectif : si le plus sélectif
+     * est le bitmap des carburants, ses IDs sont parcourus par lots et les autres critères filtrent
+     * chaque lot en une requête ; sinon tous les critères sont évalués dans une seule requête.
      */
     @Transactional(readOnly = true)
-    public List<GarageDTO> findByVehicleFuelType(FuelType fuelType) {
-        log.info("Recherche des garages avec véhicules de type: {}", fuelType);
-        return garageRepository.findByVehicleFuelType(fuelType)
-                .stream()
-                .map(garageMapper::toDTO)
-                .collect(Collectors.toList());
+    public GarageSearchResultDTO searchGarages(GarageSearchCriteria criteria, String cursorToken, int size,
+                                               boolean explain) {
+        validate(criteria);
+        int pageSize = CursorPage.clampSize(size);
+        long afterId = Cursor.afterId(cursorToken, SEARCH_SORT_KEY);
+
+        GarageSearchPlan plan = garageSearchPlanner.plan(criteria);
+        log.info("Recherche multicritère des garages - Plan: {}", plan.predicates().stream()
+                .map(predicate -> predicate.name() + "~" + predicate.estimatedGarages())
+                .toList());
+
+        List<Garage> garages;
+        if (plan.isKnownEmpty()) {
+            garages = List.of();
+        } else if (plan.driving().garageIds() != null) {
+            garages = searchFromBitmap(plan, afterId, pageSize + 1);
+        } else {
+            Specification<Garage> specification = GarageSpecifications.idGreaterThan(afterId)
+                    .and(plan.driving().specification())
+                    .and(plan.filterSpecification());
+            garages = findOrderedById(specification, pageSize + 1);
+        }
+
+        CursorPage<GarageDTO> page = CursorPage.of(garages, pageSize, garageMapper::toDTO,
+                garage -> Cursor.ofId(SEARCH_SORT_KEY, garage.getId()));
+        return GarageSearchResultDTO.builder()
+                .page(page)
+                .plan(explain ? toPlanDTO(plan) : null)
+                .build();
     }
 
     /**
-     * Recherche les garages contenant un accessoire spécifique.
+     * Parcourt les IDs du bitmap après le curseur, par lots, et charge en une requête par lot
+     * les garages qui satisfont aussi les autres critères. Un garage supprimé depuis la lecture
+     * de l'index est simplement absent du lot.
      */
-    @Transactional(readOnly = true)
-    public List<GarageDTO> findByAccessoryName(String accessoryName) {
-        log.info("Recherche des garages avec l'accessoire: {}", accessoryName);
-        return garageRepository.findByAccessoryName(accessoryName)
-                .stream()
-                .map(garageMapper::toDTO)
-                .collect(Collectors.toList());
+    private List<Garage> searchFromBitmap(GarageSearchPlan plan, long afterId, int limit) {
+        BitSet garageIds = plan.driving().garageIds();
+        boolean filtered = !plan.filters().isEmpty();
+        Specification<Garage> filters = plan.filterSpecification();
+
+        List<Garage> garages = new ArrayList<>(limit);
+        int next = garageIds.nextSetBit(Math.toIntExact(afterId) + 1);
+        while (garages.size() < limit && next >= 0) {
+            int remaining = limit - garages.size();
+            // Sans filtre chaque ID donne (sauf suppression) un garage : inutile d'en lire plus
+            int batchSize = filtered ? Math.max(remaining, BITMAP_BATCH_SIZE) : remaining;
+            List<Long> ids = new ArrayList<>(batchSize);
+            while (ids.size() < batchSize && next >= 0) {
+                ids.add((long) next);
+                next = garageIds.nextSetBit(next + 1);
+            }
+            garages.addAll(findOrderedById(GarageSpecifications.idIn(ids).and(filters), remaining));
+        }
+        return garages;
+    }
+
+    private List<Garage> findOrderedById(Specification<Garage> specification, int limit) {
+        return garageRepository.findBy(specification,
+                query -> query.sortBy(Sort.by(SEARCH_SORT_KEY)).limit(limit).all());
+    }
+
+    private static void validate(GarageSearchCriteria criteria) {
+        if (criteria.isEmpty()) {
+            throw new InvalidSearchCriteriaException("Au moins un critère de recherche est requis "
+                    + "(fuelType, model, accessory, accessoryType, yearFrom, yearTo)");
+        }
+        if (criteria.getYearFrom() != null && criteria.getYearTo() != null
+                && criteria.getYearFrom() > criteria.getYearTo()) {
+            throw new InvalidSearchCriteriaException("L'année de début (" + criteria.getYearFrom()
+                    + ") est postérieure à l'année de fin (" + criteria.getYearTo() + ")");
+        }
+    }
+
+    private static SearchPlanDTO toPlanDTO(GarageSearchPlan plan) {
+        List<SearchPlanStepDTO> steps = new ArrayList<>();
+        for (GarageSearchPredicate predicate : plan.predicates()) {
+            steps.add(SearchPlanStepDTO.builder()
+                    .predicate(predicate.name())
+                    .criterion(predicate.criterion())
+                    .role(steps.isEmpty() ? "DRIVING" : "FILTER")
+                    .accessPath(predicate.accessPath().name())
+                    .estimatedGarages(predicate.estimatedGarages())
+                    .selectivity(plan.garageCount() == 0 ? 0
+                            : Math.min(1.0, (double) predicate.estimatedGarages() / plan.garageCount()))
+                    .build());
+        }
+        return SearchPlanDTO.builder()
+                .garageCount(plan.garageCount())
+                .shortCircuited(plan.isKnownEmpty())
+                .steps(steps)
+                .build();
     }
 
     /**
      * Récupère l'entité Garage (usage interne).
      */
     @Transactional(readOnly = true)
-    public Garage getGarageEntityById(Long id) {
+    public Garage getGarageEntityById(@GarageId Long id) {
         return garageRepository.findById(id)
                 .orElseThrow(() -> new GarageNotFoundException(id));
     }
@@ -0,0 +1,94 @@
+package com.renault.garage.service;
+
+import com.renault.garage.entity.SearchTerm;
+import com.renault.garage.enums.SearchField;
+import com.renault.garage.repository.AccessoryRepository;
+import com.renault.garage.repository.SearchTermRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.SearchText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service de l'index de recherche par sous-chaîne (dictionnaire de valeurs distinctes + trigrammes).
+ * Les services d'écriture y enregistrent les nouveaux modèles et noms d'accessoires dans la même
+ * transaction que l'écriture ; une valeur qui n'est plus utilisée reste dans le dictionnaire sans
+ * fausser les résultats (elle ne correspond simplement à aucune ligne).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class SearchIndexService {
+
+    /**
+     * Au-delà de ce nombre de valeurs candidates, le texte est courant : un parcours de la
+     * colonne normalisée dans l'ordre des IDs remplit une page plus vite qu'une liste IN
+     * dont il faudrait trier toutes les lignes.
+     */
+    static final int MAX_MATCHED_VALUES = 100;
+
+    private final SearchTermRepository searchTermRepository;
+    private final VehicleRepository vehicleRepository;
+    private final AccessoryRepository accessoryRepository;
+
+    /**
+     * Enregistre dans le dictionnaire les valeurs qui n'y sont pas encore.
+     */
+    public void index(SearchField field, Collection<String> rawValues) {
+        Set<String> values = rawValues.stream()
+                .filter(Objects::nonNull)
+                .map(SearchText::normalize)
+                .collect(Collectors.toSet());
+        if (values.isEmpty()) {
+            return;
+        }
+        searchTermRepository.findExistingValues(field, values).forEach(values::remove);
+        if (!values.isEmpty()) {
+            log.debug("Indexation de {} nouvelle(s) valeur(s) pour {}", values.size(), field);
+            searchTermRepository.saveAll(values.stream().map(value -> SearchTerm.of(field, value)).toList());
+        }
+    }
+
+    /**
+     * Valeurs normalisées indexées qui contiennent le texte recherché, ou vide si elles sont
+     * trop nombreuses pour être utilisées comme filtre (l'appelant se replie alors sur un LIKE).
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<String>> findMatchingValues(SearchField field, String normalizedText) {
+        Set<String> trigrams = SearchText.trigrams(normalizedText);
+        List<String> values = trigrams.isEmpty()
+                ? searchTermRepository.findValuesLike(field, SearchText.containsPattern(normalizedText))
+                : searchTermRepository.findValuesByTrigrams(field, trigrams, trigrams.size()).stream()
+                        // Tous les trigrammes présents ne garantissent pas la sous-chaîne : vérification
+                        .filter(value -> value.contains(normalizedText))
+                        .distinct()
+                        .toList();
+        if (values.size() > MAX_MATCHED_VALUES) {
+            log.debug("{} valeurs correspondent à '{}' pour {} : repli sur un parcours", values.size(),
+                    normalizedText, field);
+            return Optional.empty();
+        }
+        return Optional.of(values);
+    }
+
+    /**
+     * Reconstruit le dictionnaire à partir des données (après un chargement hors services, par exemple).
+     */
+    public void rebuild() {
+        log.info("Reconstruction de l'index de recherche");
+        searchTermRepository.deleteAll();
+        searchTermRepository.flush();
+        index(SearchField.VEHICLE_MODEL, vehicleRepository.findDistinctModelSearch());
+        index(SearchField.ACCESSORY_NAME, accessoryRepository.findDistinctNomSearch());
+    }
+}
@@ -0,0 +1,86 @@
+package com.renault.garage.service;
+
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.dto.CacheRegionStatisticsDTO;
+import com.renault.garage.dto.CacheStatisticsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service d'administration du cache de second niveau Hibernate : statistiques de succès
+ * et d'échecs par région, éviction complète.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SecondLevelCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ResponseNearCache responseNearCache;
+
+    /**
+     * Statistiques globales, du cache de requêtes et de chaque région.
+     */
+    public CacheStatisticsDTO getStatistics() {
+        Statistics statistics = statistics();
+        List<CacheRegionStatisticsDTO> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toDTO(region, statistics.getCacheRegionStatistics(region)))
+                .toList();
+
+        return CacheStatisticsDTO.builder()
+                .hitCount(statistics.getSecondLevelCacheHitCount())
+                .missCount(statistics.getSecondLevelCacheMissCount())
+                .putCount(statistics.getSecondLevelCachePutCount())
+                .hitRatio(ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()))
+                .queryCacheHitCount(statistics.getQueryCacheHitCount())
+                .queryCacheMissCount(statistics.getQueryCacheMissCount())
+                .queryCachePutCount(statistics.getQueryCachePutCount())
+                .queryCacheHitRatio(ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()))
+                .regions(regions)
+                .build();
+    }
+
+    /**
+     * Vide toutes les régions (entités, collections et requêtes), par exemple après une
+     * modification des données faite hors de l'application. Le near-cache des réponses de
+     * cette instance, alimenté par ces entités, est vidé aussi.
+     */
+    public void evictAll() {
+        log.info("Éviction complète du cache de second niveau");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAll();
+        responseNearCache.invalidateAll();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static CacheRegionStatisticsDTO toDTO(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) {
+            return CacheRegionStatisticsDTO.builder().region(region).elementCount(-1).build();
+        }
+        return CacheRegionStatisticsDTO.builder()
+                .region(region)
+                .hitCount(statistics.getHitCount())
+                .missCount(statistics.getMissCount())
+                .putCount(statistics.getPutCount())
+                .hitRatio(ratio(statistics.getHitCount(), statistics.getMissCount()))
+                // JCache n'expose pas la taille : Hibernate renvoie alors une valeur négative
+                .elementCount(Math.max(-1, statistics.getElementCountInMemory()))
+                .build();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,129 @@
+package com.renault.garage.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.renault.garage.dto.AccessoryDTO;
+import com.renault.garage.dto.VehicleExportDTO;
+import com.renault.garage.entity.Accessory;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.mapper.AccessoryMapper;
+import com.renault.garage.repository.AccessoryRepository;
+import com.renault.garage.repository.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Service d'export NDJSON de l'ensemble des véhicules avec leur garage et leurs accessoires.
+ * Les véhicules sont lus par curseur et écrits par lots : la mémoire utilisée dépend de la
+ * taille d'un lot, pas du nombre de véhicules exportés.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleExportService {
+
+    private final VehicleRepository vehicleRepository;
+    private final AccessoryRepository accessoryRepository;
+    private final AccessoryMapper accessoryMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${garage.export.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Écrit un véhicule par ligne (NDJSON) dans le flux fourni et renvoie le nombre de lignes.
+     */
+    @Transactional(readOnly = true)
+    public long exportVehicles(OutputStream out) throws IOException {
+        log.info("Export NDJSON des véhicules (lots de {})", chunkSize);
+        long start = System.nanoTime();
+
+        ObjectWriter writer = objectMapper.writerFor(VehicleExportDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
+        try (Stream<Vehicle> vehicles = vehicleRepository.streamAllWithGarage();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            List<Vehicle> chunk = new ArrayList<>(chunkSize);
+            Iterator<Vehicle> iterator = vehicles.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    exported += writeChunk(chunk, writer, generator);
+                }
+            }
+            exported += writeChunk(chunk, writer, generator);
+        }
+
+        log.info("Export terminé : {} véhicule(s) en {} ms", exported, (System.nanoTime() - start) / 1_000_000);
+        return exported;
+    }
+
+    /**
+     * Écrit un lot de véhicules, puis vide le contexte de persistance pour que les entités
+     * déjà écrites puissent être libérées.
+     */
+    private int writeChunk(List<Vehicle> chunk, ObjectWriter writer, JsonGenerator generator) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<AccessoryDTO>> accessoriesByVehicle = loadAccessories(chunk);
+        for (Vehicle vehicle : chunk) {
+            writer.writeValue(generator, VehicleExportDTO.builder()
+                    .id(vehicle.getId())
+                    .brand(vehicle.getBrand())
+                    .model(vehicle.getModel())
+                    .anneeFabrication(vehicle.getAnneeFabrication())
+                    .typeCarburant(vehicle.getTypeCarburant())
+                    .garageId(vehicle.getGarage().getId())
+                    .garageName(vehicle.getGarage().getName())
+                    .accessories(accessoriesByVehicle.getOrDefault(vehicle.getId(), List.of()))
+                    .build());
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+
+        int written = chunk.size();
+        chunk.clear();
+        entityManager.clear();
+        return written;
+    }
+
+    /**
+     * Charge en une requête les accessoires du lot ; les véhicules sans accessoire
+     * (d'après leur compteur) ne sont pas interrogés.
+     */
+    private Map<Long, List<AccessoryDTO>> loadAccessories(List<Vehicle> chunk) {
+        List<Long> vehicleIds = chunk.stream()
+                .filter(vehicle -> vehicle.getAccessoryCount() > 0)
+                .map(Vehicle::getId)
+                .toList();
+        if (vehicleIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<AccessoryDTO>> accessoriesByVehicle = new HashMap<>();
+        for (Accessory accessory : accessoryRepository.findByVehicleIdInOrderByIdAsc(vehicleIds)) {
+            accessoriesByVehicle.computeIfAbsent(accessory.getVehicle().getId(), id -> new ArrayList<>())
+                    .add(accessoryMapper.toDTO(accessory));
+        }
+        return accessoriesByVehicle;
+    }
+}
@@ -0,0 +1,173 @@
+package com.renault.garage.service;
+
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.dto.AccessoryDTO;
+import com.renault.garage.dto.ImportResultDTO;
+import com.renault.garage.dto.VehicleImportDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.enums.SearchField;
+import com.renault.garage.exception.GarageCapacityExceededException;
+import com.renault.garage.exception.GarageNotFoundException;
+import com.renault.garage.exception.InvalidImportException;
+import com.renault.garage.kafka.VehiclePublishResult;
+import com.renault.garage.kafka.VehiclePublisher;
+import com.renault.garage.mapper.AccessoryMapper;
+import com.renault.garage.mapper.VehicleMapper;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service d'import en masse de véhicules et de leurs accessoires.
+ * Les insertions sont regroupées en batchs JDBC (identifiants issus de séquences).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class VehicleImportService {
+
+    private final GarageRepository garageRepository;
+    private final VehicleMapper vehicleMapper;
+    private final AccessoryMapper accessoryMapper;
+    private final VehiclePublisher vehiclePublisher;
+    private final SearchIndexService searchIndexService;
+    private final GarageFuelTypeIndex garageFuelTypeIndex;
+    private final ResponseNearCache responseNearCache;
+    private final EntityManager entityManager;
+    private final Validator validator;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    /**
+     * Importe une liste de véhicules répartis sur un ou plusieurs garages.
+     * L'import est atomique : une ligne invalide ou un garage plein annule l'ensemble.
+     */
+    public ImportResultDTO importVehicles(List<VehicleImportDTO> rows) {
+        log.info("Import en masse de {} véhicule(s)", rows.size());
+        long start = System.nanoTime();
+
+        validate(rows);
+
+        // Une seule mise à jour de l'index de recherche pour les valeurs distinctes du lot
+        searchIndexService.index(SearchField.VEHICLE_MODEL,
+                rows.stream().map(VehicleImportDTO::getModel).toList());
+        searchIndexService.index(SearchField.ACCESSORY_NAME, rows.stream()
+                .filter(row -> row.getAccessories() != null)
+                .flatMap(row -> row.getAccessories().stream())
+                .map(AccessoryDTO::getNom)
+                .toList());
+
+        // Regroupement par garage : la capacité n'est vérifiée qu'une fois par garage
+        Map<Long, List<VehicleImportDTO>> rowsByGarage = new TreeMap<>();
+        rows.forEach(row -> rowsByGarage.computeIfAbsent(row.getGarageId(), id -> new ArrayList<>()).add(row));
+
+        int vehicleCount = 0;
+        int accessoryCount = 0;
+        int pendingRows = 0;
+        for (Map.Entry<Long, List<VehicleImportDTO>> entry : rowsByGarage.entrySet()) {
+            Long garageId = entry.getKey();
+            List<VehicleImportDTO> garageRows = entry.getValue();
+
+            // Verrous posés dans l'ordre des IDs (TreeMap) pour éviter les interblocages
+            Garage garage = garageRepository.findByIdForUpdate(garageId)
+                    .orElseThrow(() -> new GarageNotFoundException(garageId));
+            if (garage.getVehicleCount() + garageRows.size() > Garage.MAX_VEHICLES) {
+                throw new GarageCapacityExceededException("Le garage avec l'ID " + garageId
+                        + " ne peut pas accueillir " + garageRows.size() + " véhicule(s) supplémentaire(s) : "
+                        + garage.getVehicleCount() + "/" + Garage.MAX_VEHICLES + " véhicules");
+            }
+
+            List<Vehicle> vehicles = new ArrayList<>(garageRows.size());
+            for (VehicleImportDTO row : garageRows) {
+                Vehicle vehicle = vehicleMapper.toEntity(row);
+                if (row.getAccessories() != null) {
+                    for (AccessoryDTO accessoryDTO : row.getAccessories()) {
+                        vehicle.addAccessory(accessoryMapper.toEntity(accessoryDTO));
+                    }
+                }
+                garage.addVehicle(vehicle);
+                entityManager.persist(vehicle);
+                garageFuelTypeIndex.vehicleAdded(garageId, vehicle.getTypeCarburant());
+                vehicles.add(vehicle);
+
+                vehicleCount++;
+                accessoryCount += vehicle.getAccessoryCount();
+                pendingRows += 1 + vehicle.getAccessoryCount();
+            }
+
+            // Les identifiants sont attribués au persist (séquence), les événements peuvent partir,
+            // en une écriture groupée par garage ; un événement manquant annule l'import
+            VehiclePublishResult published = vehiclePublisher.publishVehiclesCreated(vehicles);
+            if (published.hasFailures()) {
+                throw new IllegalStateException("Événements de création non publiés pour le garage " + garageId
+                        + " : " + published.failures());
+            }
+
+            if (pendingRows >= batchSize) {
+                flushAndClear();
+                pendingRows = 0;
+            }
+        }
+        flushAndClear();
+        responseNearCache.invalidate(NearCacheRegion.GARAGE, rowsByGarage.keySet());
+
+        long durationNanos = System.nanoTime() - start;
+        double rowsPerSecond = (vehicleCount + accessoryCount) / Math.max(durationNanos / 1_000_000_000.0, 1e-9);
+        log.info("Import terminé : {} garage(s), {} véhicule(s), {} accessoire(s) en {} ms ({} lignes/s)",
+                rowsByGarage.size(), vehicleCount, accessoryCount, durationNanos / 1_000_000,
+                String.format("%.0f", rowsPerSecond));
+
+        return ImportResultDTO.builder()
+                .garageCount(rowsByGarage.size())
+                .vehicleCount(vehicleCount)
+                .accessoryCount(accessoryCount)
+                .durationMs(durationNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    /**
+     * Valide toutes les lignes avant toute écriture, en indexant les erreurs par ligne.
+     */
+    private void validate(List<VehicleImportDTO> rows) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) == null) {
+                errors.put("[" + i + "]", "La ligne est vide");
+                continue;
+            }
+            for (ConstraintViolation<VehicleImportDTO> violation : validator.validate(rows.get(i))) {
+                errors.put("[" + i + "]." + violation.getPropertyPath(), violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidImportException(errors);
+        }
+    }
+
+    /**
+     * Envoie les insertions en attente (batchs JDBC) et vide le contexte de persistance
+     * pour garder une empreinte mémoire constante sur les gros imports.
+     */
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
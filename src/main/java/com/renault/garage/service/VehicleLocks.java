@@ -0,0 +1,46 @@
+package com.renault.garage.service;
+
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.exception.VehicleNotFoundException;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Verrous d'écriture d'un véhicule et de son garage, pris dans l'ordre garage puis véhicule
+ * comme dans les autres écritures (ajout, transfert, suppression de véhicule).
+ *
+ * <p>La ligne du garage sert de verrou de la clé des messages de l'outbox (ID du garage) : toute
+ * transaction qui publie pour un garage le tient jusqu'à son commit, si bien que les IDs de ses
+ * messages suivent l'ordre des commits pour ce garage (voir {@code OutboxEvent}).</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class VehicleLocks {
+
+    private final GarageRepository garageRepository;
+    private final VehicleRepository vehicleRepository;
+
+    /**
+     * Verrouille le garage du véhicule (s'il en a un) puis le véhicule, jusqu'à la fin de la
+     * transaction. Un transfert validé entre les deux lectures est signalé comme une
+     * modification concurrente.
+     */
+    public Vehicle lockVehicle(Long vehicleId) {
+        Long garageId = vehicleRepository.findGarageIdById(vehicleId).orElse(null);
+        if (garageId != null) {
+            garageRepository.findByIdForUpdate(garageId);
+        }
+        Vehicle vehicle = vehicleRepository.findByIdForUpdate(vehicleId)
+                .orElseThrow(() -> new VehicleNotFoundException(vehicleId));
+        Long lockedGarageId = vehicle.getGarage() != null ? vehicle.getGarage().getId() : null;
+        if (!Objects.equals(garageId, lockedGarageId)) {
+            throw new ObjectOptimisticLockingFailureException(Vehicle.class, vehicleId);
+        }
+        return vehicle;
+    }
+}
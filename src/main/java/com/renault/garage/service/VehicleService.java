@@ -1,22 +1,33 @@
 package com.renault.garage.service;
 
+import com.renault.garage.cache.ResponseNearCache;
 import com.renault.garage.dto.VehicleDTO;
 import com.renault.garage.entity.Garage;
 import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.enums.SearchField;
 import com.renault.garage.exception.GarageCapacityExceededException;
 import com.renault.garage.exception.GarageNotFoundException;
 import com.renault.garage.exception.VehicleNotFoundException;
+import com.renault.garage.kafka.GarageChangePublisher;
 import com.renault.garage.kafka.VehiclePublisher;
 import com.renault.garage.mapper.VehicleMapper;
+import com.renault.garage.metrics.GarageId;
+import com.renault.garage.pagination.Cursor;
+import com.renault.garage.pagination.CursorPage;
 import com.renault.garage.repository.GarageRepository;
 import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import com.renault.garage.search.SearchText;
+import com.renault.garage.support.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service pour la gestion des véhicules.
@@ -27,32 +38,39 @@ import java.util.stream.Collectors;
 @Transactional
 public class VehicleService {
 
+    private static final String SORT_KEY = "id";
+
     private final VehicleRepository vehicleRepository;
     private final GarageRepository garageRepository;
     private final VehicleMapper vehicleMapper;
     private final VehiclePublisher vehiclePublisher;
+    private final GarageChangePublisher garageChangePublisher;
+    private final VehicleLocks vehicleLocks;
+    private final SearchIndexService searchIndexService;
+    private final GarageFuelTypeIndex garageFuelTypeIndex;
+    private final ResponseNearCache responseNearCache;
 
     /**
      * Ajoute un véhicule à un garage.
      * Vérifie la contrainte de 50 véhicules maximum par garage.
      */
-    public VehicleDTO addVehicleToGarage(Long garageId, VehicleDTO vehicleDTO) {
+    public VehicleDTO addVehicleToGarage(@GarageId Long garageId, VehicleDTO vehicleDTO) {
         log.info("Ajout d'un véhicule au garage {}: {} {}", 
                 garageId, vehicleDTO.getBrand(), vehicleDTO.getModel());
         
-        Garage garage = garageRepository.findById(garageId)
-                .orElseThrow(() -> new GarageNotFoundException(garageId));
-        
-        // Vérification de la contrainte de capacité via le repository (plus fiable)
-        long vehicleCount = vehicleRepository.countByGarageId(garageId);
-        if (vehicleCount >= Garage.MAX_VEHICLES) {
+        // Le verrou sur la ligne du garage rend la vérification et l'incrément du compteur atomiques
+        Garage garage = lockGarage(garageId);
+        if (!garage.canAddVehicle()) {
             throw new GarageCapacityExceededException(garageId);
         }
         
         Vehicle vehicle = vehicleMapper.toEntity(vehicleDTO);
-        vehicle.setGarage(garage);
+        garage.addVehicle(vehicle);
         
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        searchIndexService.index(SearchField.VEHICLE_MODEL, List.of(savedVehicle.getModel()));
+        garageFuelTypeIndex.vehicleAdded(garageId, savedVehicle.getTypeCarburant());
+        responseNearCache.invalidate(NearCacheRegion.GARAGE, garageId);
         
         // Publication de l'événement Kafka
         vehiclePublisher.publishVehicleCreated(savedVehicle);
@@ -61,56 +79,147 @@ public class VehicleService {
     }
 
     /**
-     * Récupère un véhicule par son ID.
+     * Récupère un véhicule par son ID (réponse servie par le near-cache si présente).
      */
     @Transactional(readOnly = true)
     public VehicleDTO getVehicleById(Long id) {
         log.info("Recherche du véhicule avec l'ID: {}", id);
-        Vehicle vehicle = vehicleRepository.findById(id)
+        return responseNearCache.get(NearCacheRegion.VEHICLE, id, VehicleDTO.class, () -> vehicleMapper.toDTO(
+                vehicleRepository.findById(id).orElseThrow(() -> new VehicleNotFoundException(id))));
+    }
+
+    /**
+     * ETag actuel d'un véhicule, lu depuis l'entité sans construire la réponse.
+     */
+    @Transactional(readOnly = true)
+    public String getVehicleETag(Long id) {
+        return vehicleRepository.findById(id)
+                .map(ETags::of)
                 .orElseThrow(() -> new VehicleNotFoundException(id));
-        return vehicleMapper.toDTO(vehicle);
     }
 
     /**
-     * Récupère tous les véhicules d'un garage.
+     * ETag de la liste des véhicules d'un garage, calculé par une seule requête d'agrégat
+     * (version du garage, nombre et somme des versions des véhicules).
      */
     @Transactional(readOnly = true)
-    public List<VehicleDTO> getVehiclesByGarageId(Long garageId) {
+    public String getGarageVehiclesETag(@GarageId Long garageId) {
+        return garageRepository.findVehiclesVersionById(garageId)
+                .map(ETags::of)
+                .orElseThrow(() -> new GarageNotFoundException(garageId));
+    }
+
+    /**
+     * Récupère les véhicules d'un garage (pagination par curseur sur l'ID).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<VehicleDTO> getVehiclesByGarageId(@GarageId Long garageId, String cursorToken, int size) {
         log.info("Récupération des véhicules du garage: {}", garageId);
         if (!garageRepository.existsById(garageId)) {
             throw new GarageNotFoundException(garageId);
         }
-        return vehicleRepository.findByGarageId(garageId)
-                .stream()
-                .map(vehicleMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = CursorPage.clampSize(size);
+        List<Vehicle> vehicles = vehicleRepository.findByGarageIdAndIdGreaterThanOrderByIdAsc(
+                garageId, Cursor.afterId(cursorToken, SORT_KEY), Limit.of(pageSize + 1));
+        return CursorPage.of(vehicles, pageSize, vehicleMapper::toDTO,
+                vehicle -> Cursor.ofId(SORT_KEY, vehicle.getId()));
     }
 
     /**
-     * Récupère tous les véhicules d'un modèle donné.
+     * Récupère les véhicules dont le modèle contient le texte donné (pagination par curseur sur l'ID).
+     * Les modèles correspondants sont résolus par l'index de recherche, puis les véhicules
+     * par égalité sur le modèle normalisé.
      */
     @Transactional(readOnly = true)
-    public List<VehicleDTO> getVehiclesByModel(String model) {
+    public CursorPage<VehicleDTO> getVehiclesByModel(String model, String cursorToken, int size) {
         log.info("Recherche des véhicules du modèle: {}", model);
-        return vehicleRepository.findByModelContaining(model)
-                .stream()
-                .map(vehicleMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = CursorPage.clampSize(size);
+        long afterId = Cursor.afterId(cursorToken, SORT_KEY);
+        Limit limit = Limit.of(pageSize + 1);
+        String text = SearchText.normalize(model);
+
+        List<Vehicle> vehicles = searchIndexService.findMatchingValues(SearchField.VEHICLE_MODEL, text)
+                .map(models -> models.isEmpty()
+                        ? List.<Vehicle>of()
+                        : vehicleRepository.findByModelSearchIn(models, afterId, limit))
+                .orElseGet(() -> vehicleRepository.findByModelSearchLike(
+                        SearchText.containsPattern(text), afterId, limit));
+        return CursorPage.of(vehicles, pageSize, vehicleMapper::toDTO,
+                vehicle -> Cursor.ofId(SORT_KEY, vehicle.getId()));
     }
 
     /**
-     * Met à jour un véhicule.
+     * Met à jour un véhicule, si son ETag correspond à {@code ifMatch} (quand fourni).
+     * Le verrou sur la ligne rend la vérification et l'écriture atomiques ; celui sur le garage
+     * ordonne l'événement avec les autres modifications du garage.
      */
-    public VehicleDTO updateVehicle(Long id, VehicleDTO vehicleDTO) {
+    public VehicleDTO updateVehicle(Long id, VehicleDTO vehicleDTO, String ifMatch) {
         log.info("Mise à jour du véhicule avec l'ID: {}", id);
-        Vehicle vehicle = vehicleRepository.findById(id)
-                .orElseThrow(() -> new VehicleNotFoundException(id));
+        Vehicle vehicle = vehicleLocks.lockVehicle(id);
+        ETags.requireMatch(ifMatch, ETags.of(vehicle));
         
+        FuelType previousFuelType = vehicle.getTypeCarburant();
+        Integer previousAnneeFabrication = vehicle.getAnneeFabrication();
         vehicleMapper.updateEntityFromDTO(vehicleDTO, vehicle);
-        Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+        // Flush immédiat : la réponse porte la nouvelle version
+        Vehicle updatedVehicle = vehicleRepository.saveAndFlush(vehicle);
+        searchIndexService.index(SearchField.VEHICLE_MODEL, List.of(updatedVehicle.getModel()));
+        if (updatedVehicle.getGarage() != null && previousFuelType != updatedVehicle.getTypeCarburant()) {
+            garageFuelTypeIndex.vehicleRemoved(updatedVehicle.getGarage().getId(), previousFuelType);
+            garageFuelTypeIndex.vehicleAdded(updatedVehicle.getGarage().getId(), updatedVehicle.getTypeCarburant());
+        }
+        responseNearCache.invalidate(NearCacheRegion.VEHICLE, id);
+        garageChangePublisher.publishVehicleUpdated(updatedVehicle, previousAnneeFabrication, previousFuelType);
         return vehicleMapper.toDTO(updatedVehicle);
     }
 
+    /**
+     * Transfère un véhicule vers un autre garage.
+     * Vérifie la contrainte de 50 véhicules maximum sur le garage de destination.
+     */
+    public VehicleDTO transferVehicle(Long id, @GarageId Long targetGarageId) {
+        log.info("Transfert du véhicule {} vers le garage {}", id, targetGarageId);
+        Vehicle vehicle = vehicleRepository.findById(id)
+                .orElseThrow(() -> new VehicleNotFoundException(id));
+
+        Garage source = vehicle.getGarage();
+        if (source != null && source.getId().equals(targetGarageId)) {
+            return vehicleMapper.toDTO(vehicle);
+        }
+
+        // Verrouillage dans l'ordre des IDs pour éviter les interblocages entre transferts croisés
+        Garage target;
+        if (source != null && source.getId() < targetGarageId) {
+            source = lockGarage(source.getId());
+            target = lockGarage(targetGarageId);
+        } else {
+            target = lockGarage(targetGarageId);
+            if (source != null) {
+                source = lockGarage(source.getId());
+            }
+        }
+
+        if (!target.canAddVehicle()) {
+            throw new GarageCapacityExceededException(targetGarageId);
+        }
+
+        if (source != null) {
+            source.transferVehicle(vehicle, target);
+            garageFuelTypeIndex.vehicleRemoved(source.getId(), vehicle.getTypeCarburant());
+            responseNearCache.invalidate(NearCacheRegion.GARAGE, source.getId());
+        } else {
+            target.addVehicle(vehicle);
+        }
+        garageFuelTypeIndex.vehicleAdded(targetGarageId, vehicle.getTypeCarburant());
+        responseNearCache.invalidate(NearCacheRegion.GARAGE, targetGarageId);
+        responseNearCache.invalidate(NearCacheRegion.VEHICLE, id);
+        // Flush immédiat : l'événement et la réponse portent la nouvelle version
+        Vehicle transferredVehicle = vehicleRepository.saveAndFlush(vehicle);
+        garageChangePublisher.publishVehicleTransferred(transferredVehicle,
+                source != null ? source.getId() : null, targetGarageId);
+        return vehicleMapper.toDTO(transferredVehicle);
+    }
+
     /**
      * Supprime un véhicule.
      */
@@ -119,10 +228,15 @@ public class VehicleService {
         Vehicle vehicle = vehicleRepository.findById(id)
                 .orElseThrow(() -> new VehicleNotFoundException(id));
         
-        if (vehicle.getGarage() != null) {
-            vehicle.getGarage().removeVehicle(vehicle);
+        Long garageId = vehicle.getGarage() != null ? vehicle.getGarage().getId() : null;
+        if (garageId != null) {
+            lockGarage(garageId).removeVehicle(vehicle);
+            garageFuelTypeIndex.vehicleRemoved(garageId, vehicle.getTypeCarburant());
+            responseNearCache.invalidate(NearCacheRegion.GARAGE, garageId);
         }
+        garageChangePublisher.publishVehicleDeleted(vehicle, garageId);
         vehicleRepository.delete(vehicle);
+        responseNearCache.invalidate(NearCacheRegion.VEHICLE, id);
     }
 
     /**
@@ -133,4 +247,13 @@ public class VehicleService {
         return vehicleRepository.findById(id)
                 .orElseThrow(() -> new VehicleNotFoundException(id));
     }
+
+    /**
+     * Verrouille la ligne du garage jusqu'à la fin de la transaction avant toute
+     * modification de son compteur de véhicules.
+     */
+    private Garage lockGarage(Long garageId) {
+        return garageRepository.findByIdForUpdate(garageId)
+                .orElseThrow(() -> new GarageNotFoundException(garageId));
+    }
 }
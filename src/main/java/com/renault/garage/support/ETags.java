@@ -0,0 +1,92 @@
+package com.renault.garage.support;
+
+import com.renault.garage.dto.AccessoryDTO;
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.entity.Accessory;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.exception.PreconditionFailedException;
+import com.renault.garage.repository.GarageVehiclesVersion;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * ETags faibles dérivés des colonnes {@code @Version}.
+ *
+ * <p>Chaque ETag se calcule indifféremment depuis l'entité (requête conditionnelle, sans mapper)
+ * ou depuis le DTO renvoyé (réponse 200), avec le même résultat. La réponse d'un véhicule
+ * recopie le nom de son garage : son ETag inclut donc une empreinte du garage en plus de sa
+ * version.</p>
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Garage garage) {
+        return weak(garage.getVersion());
+    }
+
+    public static String of(GarageDTO garage) {
+        return weak(garage.getVersion());
+    }
+
+    public static String of(Vehicle vehicle) {
+        Garage garage = vehicle.getGarage();
+        return weak(vehicle.getVersion(), garageFingerprint(
+                garage != null ? garage.getId() : null, garage != null ? garage.getName() : null));
+    }
+
+    public static String of(VehicleDTO vehicle) {
+        return weak(vehicle.getVersion(), garageFingerprint(vehicle.getGarageId(), vehicle.getGarageName()));
+    }
+
+    public static String of(Accessory accessory) {
+        return weak(accessory.getVersion());
+    }
+
+    public static String of(AccessoryDTO accessory) {
+        return weak(accessory.getVersion());
+    }
+
+    public static String of(GarageVehiclesVersion version) {
+        return weak(version.garageVersion(), version.vehicleCount(), version.vehicleVersionSum());
+    }
+
+    /**
+     * Indique si un en-tête If-Match / If-None-Match (liste d'ETags ou {@code *}) désigne l'ETag
+     * donné. La comparaison est faible : le préfixe {@code W/} est ignoré.
+     */
+    public static boolean matches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        String current = opaqueTag(etag);
+        return Arrays.stream(header.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || opaqueTag(candidate).equals(current));
+    }
+
+    /**
+     * Vérifie la précondition If-Match d'une écriture ; sans en-tête, l'écriture est inconditionnelle.
+     */
+    public static void requireMatch(String ifMatch, String currentETag) {
+        if (ifMatch != null && !matches(ifMatch, currentETag)) {
+            throw new PreconditionFailedException(ifMatch, currentETag);
+        }
+    }
+
+    private static String weak(Object... parts) {
+        return "W/\"" + String.join("-", Arrays.stream(parts).map(String::valueOf).toList()) + "\"";
+    }
+
+    private static String garageFingerprint(Long garageId, String garageName) {
+        return Integer.toHexString(Objects.hash(garageId, garageName));
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
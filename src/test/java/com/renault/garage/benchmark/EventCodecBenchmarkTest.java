@@ -0,0 +1,157 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.codec.EventCodecs;
+import com.renault.garage.codec.VehicleCreatedEventCodec;
+import com.renault.garage.enums.EventFormat;
+import com.renault.garage.event.VehicleCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.SimpleRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare le format JSON (JsonSerializer + en-tête __TypeId__) et le codec binaire des événements
+ * véhicules : octets par événement (seul et dans un lot compressé) et coût de
+ * sérialisation / désérialisation.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@Slf4j
+class EventCodecBenchmarkTest {
+
+    private static final String TOPIC = "vehicle-created";
+    private static final int EVENTS = 500;
+    private static final int ITERATIONS = 400;
+
+    @Test
+    @DisplayName("Événements véhicules : JSON contre codec binaire")
+    void jsonVersusBinary() {
+        List<VehicleCreatedEvent> events = events();
+        EventCodecs eventCodecs = new EventCodecs(List.of(new VehicleCreatedEventCodec()), EventFormat.BINARY);
+
+        try (JsonSerializer<Object> serializer = new JsonSerializer<>();
+             JsonDeserializer<Object> deserializer = new JsonDeserializer<>()) {
+            // En-têtes de type conservés : chaque message est désérialisé plusieurs fois
+            deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.renault.garage.event",
+                    JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+
+            List<SimpleRecord> jsonRecords = new ArrayList<>(EVENTS);
+            List<SimpleRecord> binaryRecords = new ArrayList<>(EVENTS);
+            for (VehicleCreatedEvent event : events) {
+                RecordHeaders headers = new RecordHeaders();
+                byte[] json = serializer.serialize(TOPIC, headers, event);
+                jsonRecords.add(new SimpleRecord(0L, key(event), json, headers.toArray()));
+                binaryRecords.add(new SimpleRecord(0L, key(event), eventCodecs.encode(event)));
+            }
+            log.info("Octets par événement (valeur + en-têtes) : JSON {}, binaire {}",
+                    perEvent(jsonRecords.stream().mapToLong(EventCodecBenchmarkTest::recordBytes).sum()),
+                    perEvent(binaryRecords.stream().mapToLong(EventCodecBenchmarkTest::recordBytes).sum()));
+            for (CompressionType compression : List.of(CompressionType.NONE, CompressionType.LZ4, CompressionType.ZSTD)) {
+                log.info("Octets par événement dans un lot de {} ({}) : JSON {}, binaire {}", EVENTS, compression.name,
+                        perEvent(batchBytes(compression, jsonRecords)), perEvent(batchBytes(compression, binaryRecords)));
+            }
+
+            List<RecordHeaders> jsonHeaders = new ArrayList<>(EVENTS);
+            List<byte[]> jsonPayloads = new ArrayList<>(EVENTS);
+            List<byte[]> binaryPayloads = new ArrayList<>(EVENTS);
+            for (VehicleCreatedEvent event : events) {
+                RecordHeaders headers = new RecordHeaders();
+                jsonPayloads.add(serializer.serialize(TOPIC, headers, event));
+                jsonHeaders.add(headers);
+                binaryPayloads.add(eventCodecs.encode(event));
+            }
+
+            double jsonSerialize = measure(events, event -> serializer.serialize(TOPIC, new RecordHeaders(), event));
+            double binarySerialize = measure(events, eventCodecs::encode);
+            double jsonDeserialize = measure(indexes(), i -> deserializer.deserialize(TOPIC, jsonHeaders.get(i), jsonPayloads.get(i)));
+            double binaryDeserialize = measure(indexes(), i -> eventCodecs.decode(binaryPayloads.get(i)));
+            log.info("Sérialisation : JSON {} ns/op, binaire {} ns/op", format(jsonSerialize), format(binarySerialize));
+            log.info("Désérialisation : JSON {} ns/op, binaire {} ns/op", format(jsonDeserialize), format(binaryDeserialize));
+
+            for (int i = 0; i < EVENTS; i++) {
+                assertThat(eventCodecs.decode(binaryPayloads.get(i)))
+                        .isEqualTo(deserializer.deserialize(TOPIC, jsonHeaders.get(i), jsonPayloads.get(i)));
+            }
+        }
+    }
+
+    private List<VehicleCreatedEvent> events() {
+        String[] models = {"Clio", "Mégane", "Captur", "Austral", "Scénic E-Tech", "Twingo"};
+        String[] fuels = {"ESSENCE", "DIESEL", "ELECTRIQUE", "HYBRIDE"};
+        Instant now = Instant.now();
+        List<VehicleCreatedEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            long garageId = i % 40 + 1;
+            events.add(new VehicleCreatedEvent(10_000L + i, "Renault", models[i % models.length], 2015 + i % 10,
+                    fuels[i % fuels.length], garageId, "Garage Renault " + garageId, now.plusMillis(i), 0L));
+        }
+        return events;
+    }
+
+    private List<Integer> indexes() {
+        List<Integer> indexes = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private static byte[] key(VehicleCreatedEvent event) {
+        return String.valueOf(event.vehicleId()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long recordBytes(SimpleRecord record) {
+        long bytes = record.value().remaining();
+        for (Header header : record.headers()) {
+            bytes += header.key().length() + header.value().length;
+        }
+        return bytes;
+    }
+
+    private static long batchBytes(CompressionType compression, List<SimpleRecord> records) {
+        return MemoryRecords.withRecords(compression, records.toArray(SimpleRecord[]::new)).sizeInBytes();
+    }
+
+    private <T> double measure(List<T> inputs, Function<T, Object> operation) {
+        Object sink = null;
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            for (T input : inputs) {
+                sink = operation.apply(input);
+            }
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (T input : inputs) {
+                sink = operation.apply(input);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        assertThat(sink).isNotNull();
+        return elapsedNanos / (double) (ITERATIONS * inputs.size());
+    }
+
+    private static String perEvent(long bytes) {
+        return String.format(Locale.ROOT, "%.1f", bytes / (double) EVENTS);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.0f", value);
+    }
+}
@@ -0,0 +1,108 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.entity.Garage;
+import com.renault.garage.repository.GarageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare la pagination par curseur (keyset) et la pagination par offset sur 100 000 garages.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class GaragePaginationBenchmarkTest {
+
+    private static final int GARAGES = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int ITERATIONS = 50;
+    private static final long FIRST_ID = 10_000_000L;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(GARAGES);
+        for (int i = 0; i < GARAGES; i++) {
+            rows.add(new Object[]{FIRST_ID + i, "Garage " + String.format("%06d", random.nextInt(GARAGES / 2)),
+                    "Adresse " + i, "0100000000", "bench" + i + "@renault.fr"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO garages (id, name, address, telephone, email, vehicle_count, version) "
+                + "VALUES (?, ?, ?, ?, ?, 0, 0)", rows);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM garages WHERE id >= ?", FIRST_ID);
+    }
+
+    @Test
+    @DisplayName("Keyset à coût constant, offset proportionnel à la profondeur de page")
+    void keysetVersusOffset() {
+        // Ordre de référence (nom, ID) pour positionner les curseurs à n'importe quelle profondeur
+        List<Object[]> ordered = jdbcTemplate.query("SELECT name, id FROM garages ORDER BY name, id",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getLong(2)});
+
+        for (int page : new int[]{1, 100, 1000, 4000}) {
+            // Position décalée à chaque itération : H2 réutilise le résultat d'une requête identique
+            double keysetMs = measure(i -> {
+                Object[] anchor = ordered.get((page - 1) * PAGE_SIZE + i);
+                return jdbcTemplate.queryForList("SELECT id FROM garages WHERE name >= ? "
+                                + "AND (name > ? OR id > ?) ORDER BY name, id FETCH FIRST ? ROWS ONLY",
+                        Long.class, anchor[0], anchor[0], anchor[1], PAGE_SIZE + 1);
+            });
+            double offsetMs = measure(i -> jdbcTemplate.queryForList(
+                    "SELECT id FROM garages ORDER BY name, id OFFSET ? ROWS FETCH FIRST ? ROWS ONLY",
+                    Long.class, (page - 1) * PAGE_SIZE + i + 1, PAGE_SIZE));
+            log.info("Page {} : keyset {} ms, offset {} ms (moyenne sur {} itérations)", page,
+                    String.format("%.3f", keysetMs), String.format("%.3f", offsetMs), ITERATIONS);
+        }
+
+        // Les deux stratégies renvoient exactement les mêmes lignes
+        int deepPage = 4000;
+        Object[] anchor = ordered.get(deepPage * PAGE_SIZE - 1);
+        List<Garage> keysetPage = garageRepository.findNextPageOrderByName(
+                (String) anchor[0], (Long) anchor[1], Limit.of(PAGE_SIZE + 1));
+        List<Garage> offsetPage = garageRepository
+                .findAll(PageRequest.of(deepPage, PAGE_SIZE, Sort.by("name", "id"))).getContent();
+        assertThat(keysetPage).hasSize(PAGE_SIZE + 1);
+        assertThat(keysetPage.subList(0, PAGE_SIZE)).extracting(Garage::getId)
+                .containsExactlyElementsOf(offsetPage.stream().map(Garage::getId).toList());
+    }
+
+    private double measure(IntFunction<List<Long>> query) {
+        query.apply(ITERATIONS); // échauffement
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertThat(query.apply(i)).isNotEmpty();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+}
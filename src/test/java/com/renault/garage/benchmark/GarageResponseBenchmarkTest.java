@@ -0,0 +1,129 @@
+package com.renault.garage.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.cache.SerializedResponse;
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.GarageOpeningHours;
+import com.renault.garage.mapper.GarageMapper;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.service.GarageService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare le coût (temps et allocations) d'une lecture de garage déjà en cache :
+ * entité du cache de second niveau remappée et resérialisée, DTO du near-cache resérialisé,
+ * et JSON pré-sérialisé du near-cache.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class GarageResponseBenchmarkTest {
+
+    private static final int WARM_UP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    @Autowired
+    private GarageService garageService;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private GarageMapper garageMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long garageId;
+
+    @BeforeAll
+    void seed() {
+        Garage garage = Garage.builder()
+                .name("Garage Benchmark")
+                .address("1 Avenue du Cache")
+                .telephone("0100000000")
+                .email("bench@renault.fr")
+                .build();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            garage.addOpeningHours(GarageOpeningHours.builder()
+                    .dayOfWeek(day).startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(12, 0)).build());
+            garage.addOpeningHours(GarageOpeningHours.builder()
+                    .dayOfWeek(day).startTime(LocalTime.of(14, 0)).endTime(LocalTime.of(19, 0)).build());
+        }
+        garageId = garageRepository.save(garage).getId();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        garageRepository.deleteById(garageId);
+    }
+
+    @Test
+    @DisplayName("Lecture en cache : mapper + Jackson, Jackson seul, octets pré-sérialisés")
+    void cachedGarageRead() throws Exception {
+        byte[] rebuilt = measure("Entité L2 + mapper + Jackson", () -> transactionTemplate.execute(status -> {
+            Garage garage = garageRepository.findById(garageId).orElseThrow();
+            return write(garageMapper.toDTO(garage));
+        }));
+        byte[] reserialized = measure("DTO near-cache + Jackson", () -> write(garageService.getGarageById(garageId)));
+        byte[] preSerialized = measure("JSON pré-sérialisé",
+                () -> garageService.getSerializedGarageById(garageId).json());
+
+        assertThat(objectMapper.readTree(preSerialized)).isEqualTo(objectMapper.readTree(rebuilt));
+        assertThat(objectMapper.readTree(reserialized)).isEqualTo(objectMapper.readTree(rebuilt));
+        SerializedResponse response = garageService.getSerializedGarageById(garageId);
+        log.info("Réponse : {} octets, {} octets en gzip", response.json().length,
+                response.gzip() != null ? response.gzip().length : "-");
+    }
+
+    private byte[] write(GarageDTO garage) {
+        try {
+            return objectMapper.writeValueAsBytes(garage);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] measure(String label, Supplier<byte[]> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        byte[] result = null;
+        for (int i = 0; i < WARM_UP; i++) {
+            result = read.get();
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            result = read.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        log.info("{} : {} µs/lecture, {} octets alloués/lecture", label,
+                String.format(Locale.ROOT, "%.2f", elapsedNanos / 1_000.0 / ITERATIONS), allocated / ITERATIONS);
+        return result;
+    }
+}
@@ -0,0 +1,198 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.dto.GarageStateBootstrapDTO;
+import com.renault.garage.dto.GarageStatePublishResultDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.GarageOpeningHours;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.kafka.GarageStateBootstrap;
+import com.renault.garage.kafka.GarageStatePublisher;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.OutboxEventRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import com.renault.garage.service.GarageService;
+import com.renault.garage.service.SecondLevelCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Démarrage d'une instance sur un broker embarqué : remplissage du near-cache des garages et de
+ * l'index des carburants depuis la base (cache de second niveau vidé), contre remplissage depuis
+ * le topic compacté de l'état des garages.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=",
+        "spring.kafka.consumer.group-id=garage-state-bootstrap-benchmark",
+        "garage.outbox.relay.enabled=true",
+        "garage.state-bootstrap.timeout=PT2M",
+        "spring.jpa.properties.hibernate.javax.cache.uri=application.conf"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 3, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@DirtiesContext
+@Slf4j
+class GarageStateBootstrapBenchmarkTest {
+
+    private static final int GARAGES = 10_000;
+    private static final int VEHICLES_PER_GARAGE = 3;
+    private static final int BATCH = 500;
+    private static final FuelType[] FUEL_TYPES = FuelType.values();
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private GarageService garageService;
+
+    @Autowired
+    private GarageStatePublisher garageStatePublisher;
+
+    @Autowired
+    private GarageStateBootstrap garageStateBootstrap;
+
+    @Autowired
+    private ResponseNearCache responseNearCache;
+
+    @Autowired
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        vehicleRepository.deleteAllInBatch();
+        transactionTemplate.executeWithoutResult(status -> garageRepository.deleteAll());
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Démarrage : caches remplis depuis la base contre depuis le topic de l'état des garages")
+    void bootstrapFromTopicVersusDatabase() {
+        List<Long> garageIds = seed();
+        GarageStatePublishResultDTO published = garageStatePublisher.republishAll();
+        await().atMost(Duration.ofMinutes(2)).until(() -> outboxEventRepository.count() == 0);
+        log.info("État de {} garages republié en {} ms", published.getGarages(), published.getDurationMs());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Tour de chauffe de chaque chemin, puis mesure
+        fromDatabase(garageIds, statistics);
+        fromTopic(statistics);
+        long[] database = fromDatabase(garageIds, statistics);
+        long[] topic = fromTopic(statistics);
+
+        log.info("Démarrage avec {} garages : base {} ms ({} requêtes SQL), topic {} ms ({} requêtes SQL), x{}",
+                GARAGES, database[0], database[1], topic[0], topic[1],
+                String.format(Locale.ROOT, "%.1f", database[0] / (double) Math.max(topic[0], 1)));
+    }
+
+    /**
+     * Remplissage à froid depuis la base : index reconstruit, puis chaque garage lu une fois.
+     * Retourne [durée en ms, requêtes SQL].
+     */
+    private long[] fromDatabase(List<Long> garageIds, Statistics statistics) {
+        coldCaches();
+        long queries = statistics.getPrepareStatementCount();
+        long start = System.nanoTime();
+        garageFuelTypeIndex.rebuild();
+        for (Long garageId : garageIds) {
+            garageService.getGarageById(garageId);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new long[]{elapsed, statistics.getPrepareStatementCount() - queries};
+    }
+
+    private long[] fromTopic(Statistics statistics) {
+        coldCaches();
+        long queries = statistics.getPrepareStatementCount();
+        GarageStateBootstrapDTO result = garageStateBootstrap.bootstrap();
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getGarages()).isEqualTo(GARAGES);
+        assertThat(result.isFuelTypeIndexLoaded()).isTrue();
+        log.info("Topic : {} enregistrements lus, {} garages chargés en {} ms",
+                result.getRecords(), result.getGarages(), result.getDurationMs());
+        return new long[]{result.getDurationMs(), statistics.getPrepareStatementCount() - queries};
+    }
+
+    private void coldCaches() {
+        responseNearCache.invalidateAll();
+        secondLevelCacheService.evictAll();
+    }
+
+    private List<Long> seed() {
+        List<Long> garageIds = new ArrayList<>(GARAGES);
+        for (int offset = 0; offset < GARAGES; offset += BATCH) {
+            int first = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Garage> garages = new ArrayList<>(BATCH);
+                List<Vehicle> vehicles = new ArrayList<>(BATCH * VEHICLES_PER_GARAGE);
+                for (int i = first; i < first + BATCH; i++) {
+                    Garage garage = Garage.builder()
+                            .name("Garage " + i)
+                            .address(i + " Avenue du Démarrage")
+                            .telephone("0100000000")
+                            .email("garage" + i + "@renault.fr")
+                            .vehicleCount(VEHICLES_PER_GARAGE)
+                            .build();
+                    for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.SATURDAY)) {
+                        garage.addOpeningHours(GarageOpeningHours.builder()
+                                .dayOfWeek(day).startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(18, 0)).build());
+                    }
+                    garages.add(garage);
+                    for (int v = 0; v < VEHICLES_PER_GARAGE; v++) {
+                        vehicles.add(Vehicle.builder()
+                                .brand("Renault")
+                                .model("Clio")
+                                .anneeFabrication(2024)
+                                .typeCarburant(FUEL_TYPES[(i + v) % FUEL_TYPES.length])
+                                .garage(garage)
+                                .build());
+                    }
+                }
+                garageRepository.saveAll(garages).forEach(garage -> garageIds.add(garage.getId()));
+                vehicleRepository.saveAll(vehicles);
+            });
+        }
+        return garageIds;
+    }
+}
@@ -0,0 +1,151 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.metrics.RequestTraceFilter;
+import com.renault.garage.metrics.SlowRequestLog;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import com.renault.garage.search.GarageSearchStatistics;
+import com.renault.garage.service.SearchIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Surcoût de la trace des requêtes HTTP sur une recherche multicritère (20 garages par page) :
+ * sans échantillonnage, au taux par défaut (10 %) et avec toutes les requêtes tracées.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class RequestTraceBenchmarkTest {
+
+    private static final int GARAGES = 200;
+    private static final int WARM_UP = 5_000;
+    private static final int ITERATIONS = 500;
+    private static final int ROUNDS = 30;
+    private static final double[] SAMPLE_RATES = {0, 0.1, 1.0};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestTraceFilter requestTraceFilter;
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @Autowired
+    private GarageSearchStatistics garageSearchStatistics;
+
+    private final List<Long> garageIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < GARAGES; i++) {
+            Garage garage = garageRepository.save(Garage.builder()
+                    .name("Garage Trace " + i)
+                    .address(i + " Rue de la Trace")
+                    .telephone("0100000000")
+                    .email("trace" + i + "@renault.fr")
+                    .build());
+            Vehicle vehicle = Vehicle.builder()
+                    .brand("Renault")
+                    .model(i % 2 == 0 ? "Zoe" : "Clio")
+                    .anneeFabrication(2015 + i % 10)
+                    .typeCarburant(i % 2 == 0 ? FuelType.ELECTRIQUE : FuelType.ESSENCE)
+                    .build();
+            garage.addVehicle(vehicle);
+            vehicleRepository.save(vehicle);
+            garageIds.add(garage.getId());
+        }
+        searchIndexService.rebuild();
+        garageFuelTypeIndex.rebuild();
+        garageSearchStatistics.refresh();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        ReflectionTestUtils.setField(requestTraceFilter, "sampleRate", 1.0);
+        vehicleRepository.deleteAll(vehicleRepository.findAll().stream()
+                .filter(vehicle -> garageIds.contains(vehicle.getGarage().getId()))
+                .toList());
+        garageRepository.deleteAllById(garageIds);
+    }
+
+    @Test
+    @DisplayName("Recherche : surcoût de la trace selon le taux d'échantillonnage")
+    void tracingOverhead() throws Exception {
+        for (double sampleRate : SAMPLE_RATES) {
+            measure(sampleRate, WARM_UP);
+        }
+        // Tours alternés : la dérive de la JVM se répartit entre les taux
+        double[] totalNanos = new double[SAMPLE_RATES.length];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < SAMPLE_RATES.length; i++) {
+                totalNanos[i] += measure(SAMPLE_RATES[i], ITERATIONS);
+            }
+        }
+
+        double baseline = totalNanos[0] / (ROUNDS * ITERATIONS);
+        for (int i = 0; i < SAMPLE_RATES.length; i++) {
+            double perRequest = totalNanos[i] / (ROUNDS * ITERATIONS);
+            log.info("Échantillonnage {} % : {} µs/requête, surcoût {} %",
+                    String.format(Locale.ROOT, "%.0f", SAMPLE_RATES[i] * 100),
+                    String.format(Locale.ROOT, "%.1f", perRequest / 1_000),
+                    String.format(Locale.ROOT, "%+.2f", (perRequest - baseline) * 100 / baseline));
+        }
+        assertThat(slowRequestLog.getSlowest()).isNotEmpty()
+                .allSatisfy(slow -> assertThat(slow.getSpans()).isNotEmpty());
+        slowRequestLog.getSlowest().stream().limit(3).forEach(slow ->
+                log.info("Requête lente : {} ms, {} requête(s) SQL, {} ms par type d'étape", slow.getDurationMs(),
+                        slow.getSqlStatements(), slow.getDurationMsByType()));
+    }
+
+    private long measure(double sampleRate, int iterations) throws Exception {
+        ReflectionTestUtils.setField(requestTraceFilter, "sampleRate", sampleRate);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mockMvc.perform(get("/api/search/garages?fuelType=ELECTRIQUE&size=20"))
+                    .andExpect(status().isOk());
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,150 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.SearchField;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.SearchText;
+import com.renault.garage.service.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare la recherche de véhicules par sous-chaîne du modèle sur 1 000 000 de lignes :
+ * LOWER(model) LIKE '%x%' (ancienne requête) contre l'index de trigrammes.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class SubstringSearchBenchmarkTest {
+
+    private static final int VEHICLES = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int ITERATIONS = 20;
+    private static final long FIRST_ID = 10_000_000L;
+    private static final String[] MODELS = {"Clio", "Megane", "Captur", "Austral", "Arkana", "Zoe",
+            "Twingo", "Kangoo", "Scenic", "Espace", "Trafic", "Master"};
+    private static final String[] VARIANTS = {"E-Tech", "RS", "Intens", "Zen", "Life", "Techno",
+            "Iconic", "Evolution"};
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        int garages = VEHICLES / 50;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < garages; i++) {
+            rows.add(new Object[]{FIRST_ID + i, "Garage " + i, "Adresse", "0100000000", "bench@renault.fr"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO garages (id, name, address, telephone, email, vehicle_count, version) "
+                + "VALUES (?, ?, ?, ?, ?, 50, 0)", rows);
+
+        // 12 modèles x 8 finitions x 100 séries = 9 600 modèles distincts
+        rows.clear();
+        for (int i = 0; i < VEHICLES; i++) {
+            String model = MODELS[i % MODELS.length] + " " + VARIANTS[(i / MODELS.length) % VARIANTS.length]
+                    + " Série " + (i / (MODELS.length * VARIANTS.length)) % 100;
+            rows.add(new Object[]{FIRST_ID + i, "Renault", model, SearchText.normalize(model), 2023, "ESSENCE",
+                    FIRST_ID + i / 50});
+            if (rows.size() == 10_000) {
+                insertVehicles(rows);
+                rows.clear();
+            }
+        }
+        insertVehicles(rows);
+        transactionTemplate.executeWithoutResult(status -> searchIndexService.rebuild());
+        log.info("Jeu de données : {} véhicules chargés en {} s", VEHICLES, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM vehicles WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM garages WHERE id >= ?", FIRST_ID);
+        transactionTemplate.executeWithoutResult(status -> searchIndexService.rebuild());
+    }
+
+    @Test
+    @DisplayName("LIKE '%x%' contre index de trigrammes sur 1M véhicules")
+    void likeVersusTrigramIndex() {
+        // Sélectif (1 modèle), moyen (100 modèles), large (800 modèles), court (< 3 caractères), absent
+        for (String text : new String[]{"austral iconic série 42", "clio rs", "megane", "zo", "alpine"}) {
+            List<Vehicle> like = measure("LIKE    '" + text + "'", () -> legacyLike(text));
+            List<Vehicle> indexed = measure("trigram '" + text + "'", () -> indexed(text));
+            assertThat(indexed).extracting(Vehicle::getId)
+                    .containsExactlyElementsOf(like.stream().map(Vehicle::getId).toList());
+        }
+    }
+
+    private List<Vehicle> legacyLike(String text) {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                        "SELECT v FROM Vehicle v WHERE LOWER(v.model) LIKE LOWER(CONCAT('%', :model, '%')) "
+                                + "AND v.id > :afterId ORDER BY v.id", Vehicle.class)
+                .setParameter("model", text)
+                .setParameter("afterId", 0L)
+                .setMaxResults(PAGE_SIZE + 1)
+                .getResultList());
+    }
+
+    private List<Vehicle> indexed(String text) {
+        String normalized = SearchText.normalize(text);
+        return transactionTemplate.execute(status -> searchIndexService
+                .findMatchingValues(SearchField.VEHICLE_MODEL, normalized)
+                .map(models -> models.isEmpty()
+                        ? List.<Vehicle>of()
+                        : vehicleRepository.findByModelSearchIn(models, 0L, Limit.of(PAGE_SIZE + 1)))
+                .orElseGet(() -> vehicleRepository.findByModelSearchLike(
+                        SearchText.containsPattern(normalized), 0L, Limit.of(PAGE_SIZE + 1))));
+    }
+
+    private List<Vehicle> measure(String label, Supplier<List<Vehicle>> query) {
+        List<Vehicle> result = query.get(); // échauffement
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            result = query.get();
+        }
+        double averageMs = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        log.info("{} : {} ms en moyenne ({} résultat(s))", label, String.format(Locale.ROOT, "%.2f", averageMs),
+                result.size());
+        return result;
+    }
+
+    private void insertVehicles(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO vehicles (id, brand, model, model_search, annee_fabrication, "
+                + "type_carburant, garage_id, accessory_count, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)", rows);
+    }
+}
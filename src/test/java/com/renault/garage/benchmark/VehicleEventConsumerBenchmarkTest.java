@@ -0,0 +1,189 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.kafka.VehicleEventConsumer;
+import com.renault.garage.repository.GarageActivityRepository;
+import com.renault.garage.service.GarageActivityService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Débit du consumer des événements véhicules sur un broker embarqué : un enregistrement par
+ * appel (une transaction de projection par événement) contre un lot par poll, puis montée en
+ * charge avec le nombre de partitions (un thread de listener par partition).
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 3, topics = VehicleEventConsumerBenchmarkTest.TOPIC,
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class VehicleEventConsumerBenchmarkTest {
+
+    static final String TOPIC = "vehicle-created-benchmark";
+    private static final int EVENTS = 20_000;
+    private static final int GARAGES = 200;
+    private static final int[] PARTITION_COUNTS = {1, 2, 4};
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory;
+
+    @Autowired
+    private ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory;
+
+    @Autowired
+    private VehicleEventConsumer vehicleEventConsumer;
+
+    @Autowired
+    private GarageActivityService garageActivityService;
+
+    @Autowired
+    private GarageActivityRepository garageActivityRepository;
+
+    @BeforeAll
+    void produce() {
+        for (int partitions : PARTITION_COUNTS) {
+            embeddedKafka.addTopics(new NewTopic(scalingTopic(partitions), partitions, (short) 1));
+        }
+        produce(TOPIC);
+        for (int partitions : PARTITION_COUNTS) {
+            produce(scalingTopic(partitions));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        garageActivityService.releaseAll();
+        garageActivityRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Débit du consumer : enregistrement par enregistrement contre lot par poll")
+    void consumerThroughput() throws Exception {
+        double single = consume("single", TOPIC, 1, kafkaListenerContainerFactory,
+                latch -> (MessageListener<String, VehicleCreatedEvent>) record -> {
+                    vehicleEventConsumer.handleVehicleCreated(record);
+                    latch.countDown();
+                });
+        cleanUp();
+        double batch = consume("batch", TOPIC, 1, batchKafkaListenerContainerFactory, this::batchListener);
+
+        log.info("Consumer véhicules ({} événements, {} garages) : {} evt/s unitaire, {} evt/s par lot (x{})",
+                EVENTS, GARAGES, String.format(Locale.ROOT, "%.0f", single), String.format(Locale.ROOT, "%.0f", batch),
+                String.format(Locale.ROOT, "%.1f", batch / single));
+        assertProjection();
+    }
+
+    @Test
+    @DisplayName("Débit du consumer par lot selon le nombre de partitions (un thread par partition)")
+    void partitionScaling() throws Exception {
+        double baseline = 0;
+        for (int partitions : PARTITION_COUNTS) {
+            double throughput = consume("partitions-" + partitions, scalingTopic(partitions), partitions,
+                    batchKafkaListenerContainerFactory, this::batchListener);
+            assertProjection();
+            cleanUp();
+            baseline = baseline == 0 ? throughput : baseline;
+            log.info("Consumer véhicules, {} partition(s) / {} thread(s) : {} evt/s (x{} ; {} CPU)",
+                    partitions, partitions, String.format(Locale.ROOT, "%.0f", throughput),
+                    String.format(Locale.ROOT, "%.2f", throughput / baseline),
+                    Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    private BatchMessageListener<String, VehicleCreatedEvent> batchListener(CountDownLatch latch) {
+        return records -> {
+            vehicleEventConsumer.handleVehiclesCreated(records);
+            records.forEach(record -> latch.countDown());
+        };
+    }
+
+    private void produce(String topic) {
+        Instant now = Instant.now();
+        List<CompletableFuture<?>> sends = new ArrayList<>(EVENTS);
+        for (long i = 1; i <= EVENTS; i++) {
+            long garageId = i % GARAGES + 1;
+            sends.add(kafkaTemplate.send(topic, String.valueOf(garageId), new VehicleCreatedEvent(i, "Renault",
+                    "Clio " + i, 2024, "ESSENCE", garageId, "Garage " + garageId, now, 0L)));
+        }
+        kafkaTemplate.flush();
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void assertProjection() {
+        assertThat(garageActivityRepository.findAll())
+                .hasSize(GARAGES)
+                .allSatisfy(activity -> assertThat(activity.getVehiclesCreated()).isEqualTo(EVENTS / GARAGES));
+    }
+
+    private double consume(String mode, String topic, int concurrency,
+                           ConcurrentKafkaListenerContainerFactory<String, Object> factory,
+                           Function<CountDownLatch, Object> listener) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(EVENTS);
+        ConcurrentMessageListenerContainer<String, Object> container = factory.createContainer(topic);
+        container.setConcurrency(concurrency);
+        container.getContainerProperties().setGroupId("vehicle-events-benchmark-" + mode);
+        // Comme le listener de l'application : l'état d'une partition retirée est abandonné
+        container.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                vehicleEventConsumer.onPartitionsRevoked(partitions);
+            }
+        });
+        container.setupMessageListener(listener.apply(latch));
+
+        long start = System.nanoTime();
+        container.start();
+        boolean completed = latch.await(5, TimeUnit.MINUTES);
+        long elapsedNanos = System.nanoTime() - start;
+        container.stop();
+
+        assertThat(completed).as("Tous les événements consommés en mode %s", mode).isTrue();
+        double throughput = EVENTS / (elapsedNanos / 1_000_000_000.0);
+        log.info("Mode {} : {} événements en {} ms", mode, EVENTS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return throughput;
+    }
+
+    private static String scalingTopic(int partitions) {
+        return TOPIC + "-" + partitions + "p";
+    }
+}
@@ -0,0 +1,116 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.service.VehicleExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mesure le débit et l'empreinte mémoire de l'export NDJSON pour des volumes croissants :
+ * le heap vivant doit rester du même ordre quel que soit le nombre de véhicules.
+ * Avec H2 embarqué, le résultat de la requête est matérialisé par la base dans la même JVM
+ * (une requête JDBC brute équivalente retient autant) : seul le côté application est constant.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class VehicleExportBenchmarkTest {
+
+    private static final long FIRST_ID = 10_000_000L;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Autowired
+    private VehicleExportService vehicleExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM vehicles WHERE id >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM garages WHERE id >= ?", FIRST_ID);
+    }
+
+    @Test
+    @DisplayName("Export de 10 000 puis 200 000 véhicules à mémoire constante")
+    void exportAtConstantHeap() throws Exception {
+        int exported = 0;
+        for (int vehicles : new int[]{10_000, 200_000}) {
+            seed(exported, vehicles - exported);
+            exported = vehicles;
+
+            System.gc();
+            long baseline = MEMORY.getHeapMemoryUsage().getUsed();
+            SamplingOutputStream out = new SamplingOutputStream();
+
+            long start = System.nanoTime();
+            long lines = vehicleExportService.exportVehicles(out);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            log.info("{} véhicules exportés en {} s ({} lignes/s, {} Mo écrits), heap vivant max +{} Mo",
+                    lines, String.format("%.2f", seconds), String.format("%.0f", lines / seconds),
+                    out.bytes / (1024 * 1024), Math.max(0, out.peakLiveHeap - baseline) / (1024 * 1024));
+            assertThat(lines).isEqualTo(vehicles);
+        }
+    }
+
+    private void seed(int from, int count) {
+        List<Object[]> garages = new ArrayList<>();
+        List<Object[]> vehicles = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            long garageId = FIRST_ID + i / 50;
+            if (i % 50 == 0) {
+                garages.add(new Object[]{garageId, "Garage " + garageId, "Adresse", "0100000000", "bench@renault.fr"});
+            }
+            vehicles.add(new Object[]{FIRST_ID + i, "Renault", "Clio " + i, "clio " + i, 2023, "ESSENCE", garageId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO garages (id, name, address, telephone, email, vehicle_count, version) "
+                + "VALUES (?, ?, ?, ?, ?, 50, 0)", garages);
+        jdbcTemplate.batchUpdate("INSERT INTO vehicles (id, brand, model, model_search, annee_fabrication, "
+                + "type_carburant, garage_id, accessory_count, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)", vehicles);
+    }
+
+    /**
+     * Flux qui compte les octets et mesure le heap vivant (après GC) à chaque mégaoctet écrit,
+     * pour observer ce que l'export retient réellement en mémoire.
+     */
+    private static final class SamplingOutputStream extends OutputStream {
+
+        private static final long SAMPLE_EVERY_BYTES = 1024 * 1024;
+
+        private long bytes;
+        private long nextSample = SAMPLE_EVERY_BYTES;
+        private long peakLiveHeap;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            if (bytes >= nextSample) {
+                nextSample += SAMPLE_EVERY_BYTES;
+                System.gc();
+                peakLiveHeap = Math.max(peakLiveHeap, MEMORY.getHeapMemoryUsage().getUsed());
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.renault.garage.benchmark;
+
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.kafka.OutboxRelay;
+import com.renault.garage.kafka.VehiclePublisher;
+import com.renault.garage.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Débit de publication des créations de véhicules sur un broker embarqué, de l'écriture dans
+ * l'outbox à l'acquittement par Kafka : publication véhicule par véhicule et relais avec le
+ * producteur à faible latence, contre publication groupée par garage et relais avec le profil
+ * « bulk » du producteur pour les lots suivants.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 3, topics = {"vehicle-created", "garage-changes"},
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@Slf4j
+class VehiclePublishBenchmarkTest {
+
+    private static final int VEHICLES = 20_000;
+    private static final int GARAGES = 400;
+    private static final int WARMUP_VEHICLES = 2_000;
+
+    @Autowired
+    private VehiclePublisher vehiclePublisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("outboxKafkaTemplate")
+    private KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+
+    @Autowired
+    @Qualifier("bulkOutboxKafkaTemplate")
+    private KafkaTemplate<String, byte[]> bulkOutboxKafkaTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Débit de publication : véhicule par véhicule contre publication groupée et profil bulk")
+    void publishThroughput() {
+        OutboxRelay singleRelay = relay(outboxKafkaTemplate, 200);
+        OutboxRelay bulkRelay = relay(bulkOutboxKafkaTemplate, 2_000);
+        run("warmup-single", vehicles(WARMUP_VEHICLES), this::publishOneByOne, singleRelay);
+        run("warmup-batch", vehicles(WARMUP_VEHICLES), this::publishByGarage, bulkRelay);
+
+        double single = run("single", vehicles(VEHICLES), this::publishOneByOne, singleRelay);
+        double batch = run("batch", vehicles(VEHICLES), this::publishByGarage, bulkRelay);
+
+        log.info("Publication de {} véhicules ({} messages Kafka) : {} véhicules/s unitaire, {} véhicules/s groupée (x{})",
+                VEHICLES, VEHICLES * 2, String.format(Locale.ROOT, "%.0f", single),
+                String.format(Locale.ROOT, "%.0f", batch), String.format(Locale.ROOT, "%.2f", batch / single));
+    }
+
+    private void publishOneByOne(List<List<Vehicle>> vehiclesByGarage) {
+        vehiclesByGarage.forEach(vehicles -> vehicles.forEach(vehiclePublisher::publishVehicleCreated));
+    }
+
+    private void publishByGarage(List<List<Vehicle>> vehiclesByGarage) {
+        // Comme l'import en masse : une publication groupée par garage
+        vehiclesByGarage.forEach(vehicles ->
+                assertThat(vehiclePublisher.publishVehiclesCreated(vehicles).hasFailures()).isFalse());
+    }
+
+    /**
+     * Écrit les événements dans l'outbox (une transaction), puis vide l'outbox vers Kafka.
+     * Retourne le débit de bout en bout en véhicules par seconde.
+     */
+    private double run(String mode, List<List<Vehicle>> vehiclesByGarage, Consumer<List<List<Vehicle>>> publish,
+                       OutboxRelay relay) {
+        int vehicles = vehiclesByGarage.stream().mapToInt(List::size).sum();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> publish.accept(vehiclesByGarage));
+        long enqueuedNanos = System.nanoTime() - start;
+        while (outboxEventRepository.count() > 0) {
+            relay.relay();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        log.info("Mode {} : {} véhicules, outbox en {} ms ({} véhicules/s), relais en {} ms ({} messages/s), total {} ms",
+                mode, vehicles, TimeUnit.NANOSECONDS.toMillis(enqueuedNanos), perSecond(vehicles, enqueuedNanos),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos - enqueuedNanos),
+                perSecond(vehicles * 2L, elapsedNanos - enqueuedNanos), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return vehicles / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private OutboxRelay relay(KafkaTemplate<String, byte[]> followingBatchesTemplate, int bulkBatchSize) {
+        return new OutboxRelay(outboxEventRepository, outboxKafkaTemplate, followingBatchesTemplate,
+                transactionTemplate, new SimpleMeterRegistry(), 200, bulkBatchSize, Duration.ofSeconds(30),
+                Duration.ofMinutes(2));
+    }
+
+    /**
+     * Véhicules détachés, déjà identifiés, répartis par garage : seule la publication est mesurée.
+     */
+    private static List<List<Vehicle>> vehicles(int count) {
+        List<List<Vehicle>> vehiclesByGarage = new ArrayList<>(GARAGES);
+        for (long garageId = 1; garageId <= GARAGES; garageId++) {
+            vehiclesByGarage.add(new ArrayList<>());
+        }
+        for (long id = 1; id <= count; id++) {
+            int garageIndex = (int) (id % GARAGES);
+            Garage garage = Garage.builder().id(garageIndex + 1L).name("Garage " + (garageIndex + 1)).build();
+            vehiclesByGarage.get(garageIndex).add(Vehicle.builder()
+                    .id(id)
+                    .version(0L)
+                    .brand("Renault")
+                    .model("Clio " + id)
+                    .anneeFabrication(2024)
+                    .typeCarburant(FuelType.ESSENCE)
+                    .garage(garage)
+                    .build());
+        }
+        return vehiclesByGarage;
+    }
+
+    private static String perSecond(long count, long nanos) {
+        return String.format(Locale.ROOT, "%.0f", count / Math.max(nanos / 1_000_000_000.0, 1e-9));
+    }
+}
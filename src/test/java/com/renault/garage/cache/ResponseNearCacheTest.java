@@ -0,0 +1,167 @@
+package com.renault.garage.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.event.CacheInvalidationEvent;
+import com.renault.garage.kafka.CacheInvalidationPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires du near-cache des réponses et de ses invalidations.
+ */
+class ResponseNearCacheTest {
+
+    private CacheInvalidationPublisher publisher;
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseNearCache nearCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        publisher = mock(CacheInvalidationPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        nearCache = new ResponseNearCache(publisher, meterRegistry, new ObjectMapper(), 100, Duration.ofMinutes(5),
+                true, true, "node-a");
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("La réponse est chargée une seule fois puis servie par le cache")
+    void get_LoadsOnce() {
+        assertThat(load(1L).getName()).isEqualTo("Garage 1");
+        assertThat(load(1L).getName()).isEqualTo("Garage 1");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "near-cache-garage").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Hors transaction, l'invalidation évince et diffuse immédiatement")
+    void invalidate_WithoutTransaction() {
+        load(1L);
+
+        nearCache.invalidate(NearCacheRegion.GARAGE, 1L);
+        load(1L);
+
+        assertThat(loads.get()).isEqualTo(2);
+        verify(publisher).publish(argThat(event -> event.region() == NearCacheRegion.GARAGE
+                && event.id() == 1L && event.originNode().equals("node-a")));
+    }
+
+    @Test
+    @DisplayName("En transaction, l'invalidation n'est diffusée qu'après commit et l'éviction est rejouée")
+    void invalidate_InTransaction_BroadcastAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        nearCache.invalidate(NearCacheRegion.GARAGE, List.of(1L, 2L));
+        // Lecture concurrente de l'état précédent avant le commit
+        load(1L);
+        verify(publisher, never()).publish(any());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        load(1L);
+
+        assertThat(loads.get()).isEqualTo(2);
+        verify(publisher, times(2)).publish(any());
+    }
+
+    @Test
+    @DisplayName("Une transaction annulée n'est pas diffusée")
+    void invalidate_RolledBack_NotBroadcast() {
+        TransactionSynchronizationManager.initSynchronization();
+        nearCache.invalidate(NearCacheRegion.VEHICLE, 3L);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    @DisplayName("Une invalidation reçue évince l'entrée et mesure le délai depuis l'écriture")
+    void onRemoteInvalidation_RecordsLag() {
+        load(1L);
+
+        nearCache.onRemoteInvalidation(new CacheInvalidationEvent(NearCacheRegion.GARAGE, 1L, "node-b",
+                Instant.now().minusMillis(250)));
+        load(1L);
+
+        assertThat(loads.get()).isEqualTo(2);
+        var lag = meterRegistry.get("garage.near-cache.invalidation.lag").timer();
+        assertThat(lag.count()).isEqualTo(1);
+        assertThat(lag.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(250);
+    }
+
+    @Test
+    @DisplayName("Le JSON sérialisé est mis en cache et invalidé avec le DTO")
+    void getSerialized_CachedAndInvalidatedTogether() {
+        SerializedResponse first = loadSerialized(1L, "Garage 1");
+        SerializedResponse second = loadSerialized(1L, "Garage 1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.json(), StandardCharsets.UTF_8)).contains("\"name\":\"Garage 1\"");
+        assertThat(first.gzip()).isNull();
+
+        nearCache.onRemoteInvalidation(CacheInvalidationEvent.of(NearCacheRegion.GARAGE, 1L, "node-b"));
+
+        assertThat(loadSerialized(1L, "Garage 1")).isNotSameAs(first);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Une réponse volumineuse est aussi gardée compressée en gzip")
+    void getSerialized_GzipForLargeResponses() throws Exception {
+        SerializedResponse response = loadSerialized(2L, "G".repeat(4 * SerializedResponse.GZIP_MIN_SIZE));
+
+        assertThat(response.gzip()).isNotNull().hasSizeLessThan(response.json().length);
+        assertThat(response.servesGzip("gzip, deflate, br")).isTrue();
+        assertThat(response.servesGzip("identity")).isFalse();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(response.json());
+        }
+    }
+
+    private SerializedResponse loadSerialized(Long id, String name) {
+        return nearCache.getSerialized(NearCacheRegion.GARAGE, id, () -> {
+            loads.incrementAndGet();
+            return nearCache.serialize(GarageDTO.builder().id(id).name(name).build(), "W/\"0\"");
+        });
+    }
+
+    private GarageDTO load(Long id) {
+        return nearCache.get(NearCacheRegion.GARAGE, id, GarageDTO.class, () -> {
+            loads.incrementAndGet();
+            return GarageDTO.builder().id(id).name("Garage " + id).build();
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.renault.garage.codec;
+
+import com.renault.garage.enums.EventFormat;
+import com.renault.garage.event.CacheInvalidationEvent;
+import com.renault.garage.event.VehicleCreatedEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests unitaires des codecs binaires des événements et de leur compatibilité.
+ */
+class EventCodecsTest {
+
+    private EventCodecs eventCodecs;
+
+    @BeforeEach
+    void setUp() {
+        eventCodecs = new EventCodecs(List.of(new VehicleCreatedEventCodec()), EventFormat.BINARY);
+    }
+
+    @Test
+    @DisplayName("Un événement complet est restitué à l'identique")
+    void encodeDecode_RoundTrip() {
+        VehicleCreatedEvent event = new VehicleCreatedEvent(123_456L, "Renault", "Mégane E-Tech", 2024,
+                "ELECTRIQUE", 42L, "Garage Île-de-France", Instant.parse("2024-05-01T10:15:30.123456789Z"), 3L);
+
+        byte[] data = eventCodecs.encode(event);
+
+        assertThat(BinaryEventReader.isBinary(data)).isTrue();
+        assertThat(eventCodecs.decode(data)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Les champs nuls n'occupent aucun octet et restent nuls")
+    void encodeDecode_NullFields() {
+        VehicleCreatedEvent full = new VehicleCreatedEvent(1L, "Renault", "Clio", 2020, "ESSENCE", 7L, "Garage", Instant.EPOCH, 0L);
+        VehicleCreatedEvent partial = new VehicleCreatedEvent(1L, "Renault", "Clio", 2020, "ESSENCE", null, null, null, null);
+
+        byte[] data = eventCodecs.encode(partial);
+
+        assertThat(eventCodecs.decode(data)).isEqualTo(partial);
+        assertThat(data.length).isLessThan(eventCodecs.encode(full).length);
+    }
+
+    @Test
+    @DisplayName("Les champs ajoutés par une version plus récente du schéma sont ignorés")
+    void decode_IgnoresTrailingFieldsOfNewerSchema() {
+        VehicleCreatedEvent event = VehicleCreatedEvent.of(1L, "Renault", "Clio", 2020, "ESSENCE", 7L, "Garage", 0L);
+        byte[] current = eventCodecs.encode(event);
+        byte[] newer = Arrays.copyOf(current, current.length + 3);
+        newer[2] = VehicleCreatedEventCodec.SCHEMA_VERSION + 1;
+        newer[current.length] = 4;
+
+        assertThat(eventCodecs.decode(newer)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Un message du schéma v1 (sans version) reste lisible")
+    void decode_ReadsOlderSchema() {
+        Instant createdAt = Instant.parse("2024-05-01T10:15:30Z");
+        byte[] v1 = BinaryEventWriter.start(VehicleCreatedEventCodec.TYPE_TAG, 1,
+                        1L, "Renault", "Clio", 2020, "ESSENCE", 7L, "Garage", createdAt)
+                .writeLong(1L).writeString("Renault").writeString("Clio").writeInt(2020)
+                .writeString("ESSENCE").writeLong(7L).writeString("Garage").writeInstant(createdAt)
+                .toByteArray();
+
+        assertThat(eventCodecs.decode(v1))
+                .isEqualTo(new VehicleCreatedEvent(1L, "Renault", "Clio", 2020, "ESSENCE", 7L, "Garage", createdAt, null));
+    }
+
+    @Test
+    @DisplayName("Un message tronqué ou d'un type inconnu est rejeté")
+    void decode_RejectsInvalidMessages() {
+        byte[] data = eventCodecs.encode(VehicleCreatedEvent.of(1L, "Renault", "Clio", 2020, "ESSENCE", 7L, "Garage", 0L));
+        byte[] unknownType = data.clone();
+        unknownType[1] = 99;
+
+        assertThatThrownBy(() -> eventCodecs.decode(Arrays.copyOf(data, data.length - 5)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> eventCodecs.decode(unknownType))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    @DisplayName("Les événements sans codec, ou en format JSON configuré, restent en JSON")
+    void formatFor() {
+        assertThat(eventCodecs.formatFor(VehicleCreatedEvent.class)).isEqualTo(EventFormat.BINARY);
+        assertThat(eventCodecs.formatFor(CacheInvalidationEvent.class)).isEqualTo(EventFormat.JSON);
+        assertThat(new EventCodecs(List.of(new VehicleCreatedEventCodec()), EventFormat.JSON)
+                .formatFor(VehicleCreatedEvent.class)).isEqualTo(EventFormat.JSON);
+    }
+
+    @Test
+    @DisplayName("Le deserializer Kafka lit les messages binaires et JSON")
+    void eventDeserializer_ReadsBothFormats() {
+        VehicleCreatedEvent event = VehicleCreatedEvent.of(1L, "Renault", "Clio", 2020, "ESSENCE", 7L, "Garage", 0L);
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        byte[] json;
+        try (JsonSerializer<Object> serializer = new JsonSerializer<>()) {
+            json = serializer.serialize("vehicle-created", jsonHeaders, event);
+        }
+
+        try (EventDeserializer deserializer = new EventDeserializer(eventCodecs)) {
+            deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.renault.garage.event"), false);
+
+            assertThat(deserializer.deserialize("vehicle-created", new RecordHeaders(), eventCodecs.encode(event)))
+                    .isEqualTo(event);
+            assertThat(deserializer.deserialize("vehicle-created", jsonHeaders, json)).isEqualTo(event);
+        }
+    }
+}
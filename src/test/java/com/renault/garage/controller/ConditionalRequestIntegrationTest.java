@@ -0,0 +1,218 @@
+package com.renault.garage.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.dto.AccessoryDTO;
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.kafka.VehiclePublisher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests d'intégration des ETags : GET conditionnels (If-None-Match) et PUT conditionnels (If-Match).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ConditionalRequestIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private VehiclePublisher vehiclePublisher;
+
+    @Test
+    @DisplayName("GET /api/garages/{id} - 304 tant que le garage ne change pas, 200 après mise à jour")
+    void getGarage_NotModifiedUntilUpdated() throws Exception {
+        long garageId = createGarage("Garage ETag");
+        String etag = mockMvc.perform(get("/api/garages/{id}", garageId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""))
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/garages/{id}", garageId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        String updatedETag = mockMvc.perform(put("/api/garages/{id}", garageId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(garageDTO("Garage ETag Renommé"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updatedETag).isNotEqualTo(etag);
+
+        mockMvc.perform(get("/api/garages/{id}", garageId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, updatedETag))
+                .andExpect(jsonPath("$.name").value("Garage ETag Renommé"));
+    }
+
+    @Test
+    @DisplayName("PUT /api/garages/{id} - If-Match obsolète : 412 et garage inchangé")
+    void updateGarage_StaleIfMatch() throws Exception {
+        long garageId = createGarage("Garage Concurrent");
+
+        mockMvc.perform(put("/api/garages/{id}", garageId)
+                        .header(HttpHeaders.IF_MATCH, "W/\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(garageDTO("Écrasement"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        mockMvc.perform(get("/api/garages/{id}", garageId))
+                .andExpect(jsonPath("$.name").value("Garage Concurrent"));
+    }
+
+    @Test
+    @DisplayName("GET /api/garages/{id}/vehicles - ETag de la liste modifié par un ajout et par une mise à jour")
+    void getGarageVehicles_AggregateETag() throws Exception {
+        long garageId = createGarage("Garage Liste");
+        long vehicleId = createVehicle(garageId, "Clio");
+        String etag = listETag(garageId);
+
+        mockMvc.perform(get("/api/garages/{id}/vehicles", garageId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        createVehicle(garageId, "Megane");
+        String afterAdd = listETag(garageId);
+        assertThat(afterAdd).isNotEqualTo(etag);
+
+        mockMvc.perform(put("/api/vehicles/{id}", vehicleId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(vehicleDTO("Clio V"))))
+                .andExpect(status().isOk());
+        assertThat(listETag(garageId)).isNotEqualTo(afterAdd);
+
+        mockMvc.perform(get("/api/garages/{id}/vehicles", 999_999L).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/vehicles/{id} - ETag modifié par le renommage du garage (nom recopié dans la réponse)")
+    void getVehicle_ETagFollowsGarageName() throws Exception {
+        long garageId = createGarage("Garage Nom");
+        long vehicleId = createVehicle(garageId, "Zoe");
+        String etag = mockMvc.perform(get("/api/vehicles/{id}", vehicleId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/vehicles/{id}", vehicleId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/garages/{id}", garageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(garageDTO("Garage Nom Modifié"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/vehicles/{id}", vehicleId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.garageName").value("Garage Nom Modifié"));
+    }
+
+    @Test
+    @DisplayName("PUT /api/accessories/{id} - If-Match courant accepté, puis obsolète refusé")
+    void updateAccessory_IfMatch() throws Exception {
+        long vehicleId = createVehicle(createGarage("Garage Accessoire"), "Captur");
+        MvcResult created = mockMvc.perform(post("/api/vehicles/{id}/accessories", vehicleId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(accessoryDTO("GPS"))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long accessoryId = idOf(created);
+        String etag = mockMvc.perform(get("/api/accessories/{id}", accessoryId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/accessories/{id}", accessoryId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(accessoryDTO("GPS Premium"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/api/accessories/{id}", accessoryId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(accessoryDTO("GPS Écrasé"))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    private String listETag(long garageId) throws Exception {
+        return mockMvc.perform(get("/api/garages/{id}/vehicles", garageId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private long createGarage(String name) throws Exception {
+        return idOf(mockMvc.perform(post("/api/garages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(garageDTO(name))))
+                .andExpect(status().isCreated())
+                .andReturn());
+    }
+
+    private long createVehicle(long garageId, String model) throws Exception {
+        return idOf(mockMvc.perform(post("/api/garages/{id}/vehicles", garageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(vehicleDTO(model))))
+                .andExpect(status().isCreated())
+                .andReturn());
+    }
+
+    private long idOf(MvcResult result) throws Exception {
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        return body.get("id").asLong();
+    }
+
+    private static GarageDTO garageDTO(String name) {
+        return GarageDTO.builder()
+                .name(name)
+                .address("1 Rue des ETags")
+                .telephone("0100000000")
+                .email("etag@renault.fr")
+                .build();
+    }
+
+    private static VehicleDTO vehicleDTO(String model) {
+        return VehicleDTO.builder()
+                .brand("Renault")
+                .model(model)
+                .anneeFabrication(2023)
+                .typeCarburant(FuelType.ELECTRIQUE)
+                .build();
+    }
+
+    private static AccessoryDTO accessoryDTO(String nom) {
+        return AccessoryDTO.builder()
+                .nom(nom)
+                .prix(new BigDecimal("499.00"))
+                .type(AccessoryType.MULTIMEDIA)
+                .build();
+    }
+}
@@ -5,22 +5,37 @@ import com.renault.garage.dto.GarageDTO;
 import com.renault.garage.dto.OpeningHoursDTO;
 import com.renault.garage.entity.Garage;
 import com.renault.garage.entity.GarageOpeningHours;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.metrics.SqlStatementBudgetFilter;
+import com.renault.garage.metrics.SqlStatementCountExtension;
 import com.renault.garage.repository.GarageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +49,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Transactional
 class GarageControllerIntegrationTest {
 
+    @RegisterExtension
+    final SqlStatementCountExtension sqlStatements = new SqlStatementCountExtension();
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -43,6 +61,12 @@ class GarageControllerIntegrationTest {
     @Autowired
     private GarageRepository garageRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Garage testGarage;
 
     @BeforeEach
@@ -109,6 +133,53 @@ class GarageControllerIntegrationTest {
                 .andExpect(jsonPath("$.vehicleCount").value(0));
     }
 
+    @Test
+    @DisplayName("GET /api/garages/{id} - Nombre exact de requêtes SQL, aucune une fois la réponse en cache")
+    void getGarageById_SqlStatements() throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+
+        // Le garage, puis ses horaires
+        sqlStatements.assertCount(2, () -> mockMvc.perform(get("/api/garages/{id}", testGarage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementBudgetFilter.STATEMENTS_HEADER, "2"))
+                .andExpect(jsonPath("$.horairesOuverture", hasSize(1))));
+        sqlStatements.assertCount(0, () -> mockMvc.perform(get("/api/garages/{id}", testGarage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementBudgetFilter.STATEMENTS_HEADER, "0")));
+    }
+
+    @Test
+    @DisplayName("GET /api/garages/{id} - JSON pré-sérialisé servi en gzip si le client l'accepte")
+    void getGarageById_GzipWhenAccepted() throws Exception {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            testGarage.addOpeningHours(GarageOpeningHours.builder()
+                    .dayOfWeek(day).startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(12, 30)).build());
+            testGarage.addOpeningHours(GarageOpeningHours.builder()
+                    .dayOfWeek(day).startTime(LocalTime.of(13, 30)).endTime(LocalTime.of(19, 0)).build());
+        }
+        entityManager.flush();
+
+        byte[] json = mockMvc.perform(get("/api/garages/{id}", testGarage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(jsonPath("$.horairesOuverture", hasSize(15)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] gzip = mockMvc.perform(get("/api/garages/{id}", testGarage.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gzip.length).isLessThan(json.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(in.readAllBytes()).isEqualTo(json);
+        }
+    }
+
     @Test
     @DisplayName("GET /api/garages/{id} - Garage non trouvé")
     void getGarageById_NotFound() throws Exception {
@@ -120,10 +191,10 @@ class GarageControllerIntegrationTest {
     @Test
     @DisplayName("GET /api/garages - Liste paginée des garages")
     void getAllGarages_Paginated() throws Exception {
-        // Ajouter plus de garages pour tester la pagination
+        // Ajouter plus de garages pour tester la pagination (noms en double : départage par ID)
         for (int i = 1; i <= 15; i++) {
             garageRepository.save(Garage.builder()
-                    .name("Garage " + i)
+                    .name("Garage " + (i % 5))
                     .address("Adresse " + i)
                     .telephone("01234567" + String.format("%02d", i))
                     .email("garage" + i + "@renault.fr")
@@ -131,13 +202,105 @@ class GarageControllerIntegrationTest {
         }
 
         mockMvc.perform(get("/api/garages")
-                        .param("page", "0")
                         .param("size", "5")
                         .param("sort", "name,asc"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(5)))
-                .andExpect(jsonPath("$.totalElements").value(16)) // 1 de setUp + 15 ajoutés
-                .andExpect(jsonPath("$.totalPages").value(4));
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/garages - Parcours complet par curseur sans doublon ni oubli")
+    void getAllGarages_WalkAllPagesWithCursor() throws Exception {
+        for (int i = 1; i <= 15; i++) {
+            garageRepository.save(Garage.builder()
+                    .name("Garage " + (i % 5))
+                    .address("Adresse " + i)
+                    .telephone("01234567" + String.format("%02d", i))
+                    .email("garage" + i + "@renault.fr")
+                    .build());
+        }
+
+        List<Long> expectedIds = garageRepository.findAll().stream()
+                .sorted(Comparator.comparing(Garage::getName).thenComparing(Garage::getId))
+                .map(Garage::getId)
+                .toList();
+
+        List<Long> seenIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String body = mockMvc.perform(get("/api/garages")
+                            .param("size", "4")
+                            .param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            var page = objectMapper.readTree(body);
+            page.get("content").forEach(garage -> seenIds.add(garage.get("id").asLong()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(4); // 16 garages par pages de 4
+        assertThat(seenIds).containsExactlyElementsOf(expectedIds);
+    }
+
+    @Test
+    @DisplayName("GET /api/garages - Curseur invalide ou émis pour un autre tri")
+    void getAllGarages_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/garages").param("cursor", "pas-un-curseur"))
+                .andExpect(status().isBadRequest());
+
+        String body = mockMvc.perform(get("/api/garages").param("size", "1").param("sort", "id"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String idCursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/garages").param("sort", "name").param("cursor", idCursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/garages").param("sort", "name,desc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/garages - Le nombre de véhicules ne charge pas les collections")
+    void getAllGarages_VehicleCountWithoutLoadingVehicles() throws Exception {
+        for (int i = 1; i <= 10; i++) {
+            Garage garage = Garage.builder()
+                    .name("Garage " + i)
+                    .address("Adresse " + i)
+                    .telephone("01234567" + String.format("%02d", i))
+                    .email("garage" + i + "@renault.fr")
+                    .build();
+            for (int j = 0; j < 3; j++) {
+                garage.addVehicle(Vehicle.builder()
+                        .brand("Renault")
+                        .model("Clio")
+                        .anneeFabrication(2023)
+                        .typeCarburant(FuelType.ESSENCE)
+                        .build());
+            }
+            garageRepository.save(garage);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        sqlStatements.assertCount(2, () -> mockMvc.perform(get("/api/garages")
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(11)))
+                .andExpect(jsonPath("$.content[?(@.name == 'Garage 1')].vehicleCount").value(3)));
+
+        // 1 requête pour la page + 1 requête groupée pour les horaires, aucune sur les véhicules
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isEqualTo(11);
+        assertThat(statistics.getCollectionStatistics(Garage.class.getName() + ".vehicles").getLoadCount())
+                .isZero();
     }
 
     @Test
@@ -0,0 +1,228 @@
+package com.renault.garage.controller;
+
+import com.renault.garage.entity.Accessory;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.kafka.VehiclePublisher;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import com.renault.garage.search.GarageSearchStatistics;
+import com.renault.garage.service.SearchIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests d'intégration pour SearchController.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class SearchControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @Autowired
+    private GarageSearchStatistics garageSearchStatistics;
+
+    @MockBean
+    private VehiclePublisher vehiclePublisher;
+
+    private Garage lyon;
+    private Garage paris;
+    private Garage nantes;
+
+    @BeforeEach
+    void setUp() {
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+
+        lyon = createGarage("Garage Lyon");
+        paris = createGarage("Garage Paris");
+        nantes = createGarage("Garage Nantes");
+
+        addVehicle(lyon, "Zoe", 2022, FuelType.ELECTRIQUE, "GPS Premium", AccessoryType.MULTIMEDIA);
+        addVehicle(paris, "Clio", 2015, FuelType.ESSENCE, "GPS", AccessoryType.MULTIMEDIA);
+        addVehicle(paris, "Megane", 2023, FuelType.ELECTRIQUE, null, null);
+        addVehicle(nantes, "Clio", 2019, FuelType.DIESEL, "Attelage", AccessoryType.EXTERIEUR);
+
+        // Données écrites par les repositories : index et statistiques reconstruits
+        searchIndexService.rebuild();
+        garageFuelTypeIndex.rebuild();
+        garageSearchStatistics.refresh();
+    }
+
+    @Test
+    @DisplayName("GET /api/search/garages - Carburant et accessoire combinés")
+    void searchGarages_FuelTypeAndAccessory() throws Exception {
+        mockMvc.perform(get("/api/search/garages")
+                        .param("fuelType", "ELECTRIQUE")
+                        .param("accessory", "gps"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[*].name", containsInAnyOrder("Garage Lyon", "Garage Paris")))
+                .andExpect(jsonPath("$.plan").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/search/garages - Modèle, intervalle d'années et carburant")
+    void searchGarages_ModelYearRangeAndFuelType() throws Exception {
+        mockMvc.perform(get("/api/search/garages")
+                        .param("model", "CLIO")
+                        .param("yearTo", "2016")
+                        .param("fuelType", "ESSENCE", "DIESEL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value("Garage Paris"));
+    }
+
+    @Test
+    @DisplayName("GET /api/search/garages - Type d'accessoire, pagination par curseur")
+    void searchGarages_AccessoryTypeWithCursor() throws Exception {
+        mockMvc.perform(get("/api/search/garages")
+                        .param("accessoryType", "MULTIMEDIA")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value("Garage Lyon"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("GET /api/search/garages?explain=true - Le critère le plus sélectif pilote la recherche")
+    void searchGarages_ExplainShowsPlan() throws Exception {
+        mockMvc.perform(get("/api/search/garages")
+                        .param("fuelType", "ELECTRIQUE", "ESSENCE", "DIESEL")
+                        .param("model", "zoe")
+                        .param("explain", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value("Garage Lyon"))
+                .andExpect(jsonPath("$.plan.garageCount").value(3))
+                .andExpect(jsonPath("$.plan.shortCircuited").value(false))
+                .andExpect(jsonPath("$.plan.steps", hasSize(2)))
+                .andExpect(jsonPath("$.plan.steps[0].predicate").value("model"))
+                .andExpect(jsonPath("$.plan.steps[0].role").value("DRIVING"))
+                .andExpect(jsonPath("$.plan.steps[0].accessPath").value("SEARCH_INDEX"))
+                .andExpect(jsonPath("$.plan.steps[0].estimatedGarages").value(1))
+                .andExpect(jsonPath("$.plan.steps[1].predicate").value("fuelType"))
+                .andExpect(jsonPath("$.plan.steps[1].role").value("FILTER"))
+                .andExpect(jsonPath("$.plan.steps[1].estimatedGarages").value(3));
+    }
+
+    @Test
+    @DisplayName("GET /api/search/garages?explain=true - Critère sans correspondance : aucune requête")
+    void searchGarages_UnknownAccessoryShortCircuits() throws Exception {
+        mockMvc.perform(get("/api/search/garages")
+                        .param("fuelType", "ELECTRIQUE")
+                        .param("accessory", "Radar")
+                        .param("explain", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)))
+                .andExpect(jsonPath("$.plan.shortCircuited").value(true))
+                .andExpect(jsonPath("$.plan.steps[0].predicate").value("accessory"))
+                .andExpect(jsonPath("$.plan.steps[0].estimatedGarages").value(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/search/garages - Erreur sans critère")
+    void searchGarages_NoCriteria() throws Exception {
+        mockMvc.perform(get("/api/search/garages"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("critère")));
+    }
+
+    @Test
+    @DisplayName("GET /api/search/garages - Erreur intervalle d'années inversé")
+    void searchGarages_InvertedYearRange() throws Exception {
+        mockMvc.perform(get("/api/search/garages")
+                        .param("yearFrom", "2024")
+                        .param("yearTo", "2020"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/slow-requests - Étapes de la recherche : contrôleur, service, SQL, réponse")
+    void searchGarages_SlowRequestBreakdown() throws Exception {
+        mockMvc.perform(delete("/api/admin/slow-requests"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/search/garages?fuelType=ELECTRIQUE&accessory=gps"))
+                .andExpect(status().isOk());
+
+        // Échantillonnage complet et sans durée minimale dans le profil de test
+        mockMvc.perform(get("/api/admin/slow-requests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].uri", hasItem("/api/search/garages")))
+                .andExpect(jsonPath("$[?(@.uri == '/api/search/garages')].query",
+                        contains("fuelType=ELECTRIQUE&accessory=gps")))
+                .andExpect(jsonPath("$[?(@.uri == '/api/search/garages')].spans[0].name",
+                        contains("SearchController.searchGarages")))
+                .andExpect(jsonPath("$[?(@.uri == '/api/search/garages')].spans[1].name",
+                        contains("GarageService.searchGarages")))
+                .andExpect(jsonPath("$[?(@.uri == '/api/search/garages')].spans[*].type",
+                        hasItems("SQL", "RESPONSE")))
+                .andExpect(jsonPath("$[?(@.uri == '/api/search/garages')].spans[?(@.type == 'SQL')].name",
+                        hasItem(startsWith("select"))))
+                .andExpect(jsonPath("$[?(@.uri == '/api/search/garages')].sqlStatements", contains(greaterThan(0))));
+    }
+
+    private Garage createGarage(String name) {
+        return garageRepository.save(Garage.builder()
+                .name(name)
+                .address("1 Rue de la Recherche")
+                .telephone("0100000000")
+                .email("recherche@renault.fr")
+                .build());
+    }
+
+    private void addVehicle(Garage garage, String model, int year, FuelType fuelType,
+                            String accessoryName, AccessoryType accessoryType) {
+        Vehicle vehicle = Vehicle.builder()
+                .brand("Renault")
+                .model(model)
+                .anneeFabrication(year)
+                .typeCarburant(fuelType)
+                .build();
+        if (accessoryName != null) {
+            vehicle.addAccessory(Accessory.builder()
+                    .nom(accessoryName)
+                    .prix(new BigDecimal("199.00"))
+                    .type(accessoryType)
+                    .build());
+        }
+        garage.addVehicle(vehicle);
+        vehicleRepository.save(vehicle);
+    }
+}
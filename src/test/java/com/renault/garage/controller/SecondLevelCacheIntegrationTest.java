@@ -0,0 +1,243 @@
+package com.renault.garage.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.OpeningHoursDTO;
+import com.renault.garage.entity.Accessory;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.kafka.VehiclePublisher;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.service.SecondLevelCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests d'intégration du cache de second niveau. Sans transaction englobante : les entrées
+ * ne sont mises en cache qu'au commit, comme en production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResponseNearCache responseNearCache;
+
+    @MockBean
+    private VehiclePublisher vehiclePublisher;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+        secondLevelCacheService.evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+        secondLevelCacheService.evictAll();
+    }
+
+    @Test
+    @DisplayName("GET /api/garages/{id} - Garage et horaires servis par le cache sans requête SQL")
+    void getGarageById_ServedFromCache() throws Exception {
+        Long garageId = createGarage("Garage Cache", DayOfWeek.MONDAY, DayOfWeek.TUESDAY);
+
+        mockMvc.perform(get("/api/garages/{id}", garageId)).andExpect(status().isOk());
+        // La réponse est aussi dans le near-cache, devant le cache de second niveau
+        responseNearCache.invalidateAll();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/garages/{id}", garageId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.horairesOuverture", hasSize(2)));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getCacheRegionStatistics("garage").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getCacheRegionStatistics("garage-opening-hours-collection").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getCacheRegionStatistics("garage-opening-hours").getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("PUT /api/garages/{id} - Horaires remplacés (orphanRemoval) : le cache est invalidé")
+    void updateGarage_OpeningHoursReplacedInCache() throws Exception {
+        Long garageId = createGarage("Garage Horaires", DayOfWeek.MONDAY, DayOfWeek.TUESDAY);
+        mockMvc.perform(get("/api/garages/{id}", garageId)).andExpect(status().isOk());
+
+        GarageDTO update = garageDTO("Garage Horaires Renommé", DayOfWeek.SATURDAY);
+        mockMvc.perform(put("/api/garages/{id}", garageId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/garages/{id}", garageId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Garage Horaires Renommé"))
+                .andExpect(jsonPath("$.horairesOuverture", hasSize(1)))
+                .andExpect(jsonPath("$.horairesOuverture[0].dayOfWeek").value("SATURDAY"));
+    }
+
+    @Test
+    @DisplayName("PUT /api/vehicles/{id}/garage/{garageId} - Collections en cache des deux garages invalidées")
+    void transferVehicle_EvictsCachedCollections() throws Exception {
+        Long sourceId = createGarage("Garage Source");
+        Long targetId = createGarage("Garage Cible");
+        Long vehicleId = createVehicle(sourceId, null);
+        // Collections des deux garages chargées puis mises en cache
+        assertThat(vehicleIdsOf(sourceId)).containsExactly(vehicleId);
+        assertThat(vehicleIdsOf(targetId)).isEmpty();
+
+        mockMvc.perform(put("/api/vehicles/{id}/garage/{garageId}", vehicleId, targetId))
+                .andExpect(status().isOk());
+
+        assertThat(vehicleIdsOf(sourceId)).isEmpty();
+        assertThat(vehicleIdsOf(targetId)).containsExactly(vehicleId);
+    }
+
+    @Test
+    @DisplayName("DELETE /api/accessories/{id} - Collection d'accessoires en cache invalidée")
+    void deleteAccessory_EvictsCachedCollection() throws Exception {
+        Long garageId = createGarage("Garage Accessoires");
+        Long vehicleId = createVehicle(garageId, "GPS");
+        Long accessoryId = accessoryIdsOf(vehicleId).get(0);
+
+        mockMvc.perform(delete("/api/accessories/{id}", accessoryId))
+                .andExpect(status().isNoContent());
+
+        assertThat(accessoryIdsOf(vehicleId)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/cache - Statistiques par région, DELETE vide le cache")
+    void cacheStatistics_ExposedAndEvictable() throws Exception {
+        Long garageId = createGarage("Garage Statistiques", DayOfWeek.FRIDAY);
+        mockMvc.perform(get("/api/garages/{id}", garageId)).andExpect(status().isOk());
+        // La réponse est aussi dans le near-cache, devant le cache de second niveau
+        responseNearCache.invalidateAll();
+        statistics.clear();
+        mockMvc.perform(get("/api/garages/{id}", garageId)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/admin/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount").value(greaterThan(0)))
+                .andExpect(jsonPath("$.regions[*].region", hasItems("garage", "garage-opening-hours",
+                        "garage-vehicles-collection", "vehicle", "accessory", "vehicle-accessories-collection")))
+                .andExpect(jsonPath("$.regions[?(@.region == 'garage')].hitCount", contains(1)))
+                .andExpect(jsonPath("$.regions[?(@.region == 'garage')].hitRatio", contains(1.0)));
+
+        mockMvc.perform(delete("/api/admin/cache")).andExpect(status().isNoContent());
+
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .containsEntity(Garage.class, garageId)).isFalse();
+    }
+
+    private Long createGarage(String name, DayOfWeek... openDays) throws Exception {
+        String response = mockMvc.perform(post("/api/garages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(garageDTO(name, openDays))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, GarageDTO.class).getId();
+    }
+
+    private GarageDTO garageDTO(String name, DayOfWeek... openDays) {
+        return GarageDTO.builder()
+                .name(name)
+                .address("1 Rue du Cache")
+                .telephone("0100000000")
+                .email("cache@renault.fr")
+                .horairesOuverture(List.of(openDays).stream()
+                        .map(day -> OpeningHoursDTO.builder()
+                                .dayOfWeek(day)
+                                .startTime(LocalTime.of(8, 0))
+                                .endTime(LocalTime.of(18, 0))
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private Long createVehicle(Long garageId, String accessoryName) {
+        return transactionTemplate.execute(status -> {
+            Garage garage = garageRepository.findById(garageId).orElseThrow();
+            Vehicle vehicle = Vehicle.builder()
+                    .brand("Renault")
+                    .model("Clio")
+                    .anneeFabrication(2023)
+                    .typeCarburant(FuelType.ESSENCE)
+                    .build();
+            if (accessoryName != null) {
+                vehicle.addAccessory(Accessory.builder()
+                        .nom(accessoryName)
+                        .prix(new BigDecimal("299.99"))
+                        .type(AccessoryType.MULTIMEDIA)
+                        .build());
+            }
+            garage.addVehicle(vehicle);
+            return vehicleRepository.save(vehicle).getId();
+        });
+    }
+
+    private List<Long> vehicleIdsOf(Long garageId) {
+        return transactionTemplate.execute(status -> garageRepository.findById(garageId).orElseThrow()
+                .getVehicles().stream().map(Vehicle::getId).toList());
+    }
+
+    private List<Long> accessoryIdsOf(Long vehicleId) {
+        return transactionTemplate.execute(status -> vehicleRepository.findById(vehicleId).orElseThrow()
+                .getAccessories().stream().map(Accessory::getId).toList());
+    }
+}
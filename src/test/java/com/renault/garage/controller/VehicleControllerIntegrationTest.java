@@ -1,24 +1,47 @@
 package com.renault.garage.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.dto.AccessoryDTO;
 import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.dto.VehicleImportDTO;
+import com.renault.garage.entity.Accessory;
 import com.renault.garage.entity.Garage;
 import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.AccessoryType;
 import com.renault.garage.enums.FuelType;
+import com.renault.garage.kafka.VehiclePublishResult;
+import com.renault.garage.kafka.VehiclePublisher;
 import com.renault.garage.repository.GarageRepository;
 import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.service.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -43,11 +66,28 @@ class VehicleControllerIntegrationTest {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private VehicleController vehicleController;
+
+    @MockBean
+    private VehiclePublisher vehiclePublisher;
+
     private Garage testGarage;
     private Vehicle testVehicle;
 
     @BeforeEach
     void setUp() {
+        when(vehiclePublisher.publishVehiclesCreated(anyCollection())).thenAnswer(invocation ->
+                new VehiclePublishResult(invocation.<Collection<Vehicle>>getArgument(0).size(), List.of()));
         vehicleRepository.deleteAll();
         garageRepository.deleteAll();
 
@@ -64,8 +104,8 @@ class VehicleControllerIntegrationTest {
                 .model("Clio")
                 .anneeFabrication(2023)
                 .typeCarburant(FuelType.ESSENCE)
-                .garage(testGarage)
                 .build();
+        testGarage.addVehicle(testVehicle);
         testVehicle = vehicleRepository.save(testVehicle);
     }
 
@@ -88,18 +128,45 @@ class VehicleControllerIntegrationTest {
                 .andExpect(jsonPath("$.garageId").value(testGarage.getId()));
     }
 
+    @Test
+    @DisplayName("GET /api/garages/{id} - Réponse en cache invalidée par l'ajout et la suppression d'un véhicule")
+    void getGarage_CachedResponseFollowsVehicleCount() throws Exception {
+        mockMvc.perform(get("/api/garages/{id}", testGarage.getId()))
+                .andExpect(jsonPath("$.vehicleCount").value(1));
+        VehicleDTO vehicleDTO = VehicleDTO.builder()
+                .brand("Renault")
+                .model("Austral")
+                .anneeFabrication(2024)
+                .typeCarburant(FuelType.HYBRIDE)
+                .build();
+
+        String created = mockMvc.perform(post("/api/garages/{garageId}/vehicles", testGarage.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(vehicleDTO)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/garages/{id}", testGarage.getId()))
+                .andExpect(jsonPath("$.vehicleCount").value(2));
+
+        mockMvc.perform(delete("/api/vehicles/{id}", objectMapper.readTree(created).get("id").asLong()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/garages/{id}", testGarage.getId()))
+                .andExpect(jsonPath("$.vehicleCount").value(1));
+    }
+
     @Test
     @DisplayName("POST /api/garages/{garageId}/vehicles - Erreur garage plein (50 véhicules)")
     void addVehicleToGarage_CapacityExceeded() throws Exception {
         // Ajouter 49 véhicules (il y en a déjà 1 de setUp)
         for (int i = 0; i < 49; i++) {
-            vehicleRepository.save(Vehicle.builder()
+            Vehicle vehicle = Vehicle.builder()
                     .brand("Renault")
                     .model("Model" + i)
                     .anneeFabrication(2020)
                     .typeCarburant(FuelType.DIESEL)
-                    .garage(testGarage)
-                    .build());
+                    .build();
+            testGarage.addVehicle(vehicle);
+            vehicleRepository.save(vehicle);
         }
 
         VehicleDTO extraVehicle = VehicleDTO.builder()
@@ -116,6 +183,105 @@ class VehicleControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").value(containsString("50 véhicules")));
     }
 
+    @Test
+    @DisplayName("POST /api/vehicles/import - Import en masse par batchs JDBC")
+    void importVehicles_Success() throws Exception {
+        Garage secondGarage = garageRepository.save(Garage.builder()
+                .name("Second Garage")
+                .address("456 Avenue")
+                .telephone("0987654321")
+                .email("second@renault.fr")
+                .build());
+
+        List<VehicleImportDTO> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rows.add(importRow(i % 2 == 0 ? testGarage.getId() : secondGarage.getId(), "Megane " + i));
+        }
+        entityManager.flush();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/api/vehicles/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rows)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.garageCount").value(2))
+                .andExpect(jsonPath("$.vehicleCount").value(40))
+                .andExpect(jsonPath("$.accessoryCount").value(80))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+
+        // 120 lignes insérées en quelques batchs JDBC plutôt qu'une requête par ligne
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+        assertThat(vehicleRepository.countByGarageId(testGarage.getId())).isEqualTo(21);
+        assertThat(garageRepository.findById(testGarage.getId()).orElseThrow().getVehicleCount()).isEqualTo(21);
+        assertThat(garageRepository.findById(secondGarage.getId()).orElseThrow().getVehicleCount()).isEqualTo(20);
+        // Une publication groupée par garage
+        verify(vehiclePublisher, times(2)).publishVehiclesCreated(anyCollection());
+    }
+
+    @Test
+    @DisplayName("POST /api/vehicles/import - Import NDJSON")
+    void importVehicles_Ndjson() throws Exception {
+        String ndjson = objectMapper.writeValueAsString(importRow(testGarage.getId(), "Scenic")) + "\n"
+                + objectMapper.writeValueAsString(importRow(testGarage.getId(), "Espace")) + "\n";
+
+        mockMvc.perform(post("/api/vehicles/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.vehicleCount").value(2));
+    }
+
+    @Test
+    @DisplayName("POST /api/vehicles/import - Lecture NDJSON interrompue au-delà du nombre maximal de lignes")
+    void importVehicles_NdjsonTooManyRows() throws Exception {
+        long vehicleCount = vehicleRepository.countByGarageId(testGarage.getId());
+        ReflectionTestUtils.setField(vehicleController, "maxImportRows", 2);
+        try {
+            StringBuilder ndjson = new StringBuilder();
+            for (String model : List.of("Scenic", "Espace", "Austral")) {
+                ndjson.append(objectMapper.writeValueAsString(importRow(testGarage.getId(), model))).append('\n');
+            }
+
+            mockMvc.perform(post("/api/vehicles/import")
+                            .contentType("application/x-ndjson")
+                            .content(ndjson.toString()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors['[2]']").value(containsString("2 lignes")));
+        } finally {
+            ReflectionTestUtils.setField(vehicleController, "maxImportRows", 10_000);
+        }
+        assertThat(vehicleRepository.countByGarageId(testGarage.getId())).isEqualTo(vehicleCount);
+    }
+
+    @Test
+    @DisplayName("POST /api/vehicles/import - Capacité vérifiée par garage, rien n'est importé")
+    void importVehicles_CapacityExceeded() throws Exception {
+        List<VehicleImportDTO> rows = new ArrayList<>();
+        for (int i = 0; i < Garage.MAX_VEHICLES; i++) {
+            rows.add(importRow(testGarage.getId(), "Twingo " + i));
+        }
+
+        mockMvc.perform(post("/api/vehicles/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rows)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString(String.valueOf(testGarage.getId()))));
+    }
+
+    @Test
+    @DisplayName("POST /api/vehicles/import - Erreurs de validation indexées par ligne")
+    void importVehicles_ValidationError() throws Exception {
+        VehicleImportDTO invalidRow = importRow(testGarage.getId(), "");
+
+        mockMvc.perform(post("/api/vehicles/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(importRow(testGarage.getId(), "Kangoo"), invalidRow))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['[1].model']").exists());
+    }
+
     @Test
     @DisplayName("GET /api/vehicles/{id} - Récupération d'un véhicule")
     void getVehicleById_Success() throws Exception {
@@ -131,8 +297,9 @@ class VehicleControllerIntegrationTest {
     void getVehiclesByGarage_Success() throws Exception {
         mockMvc.perform(get("/api/garages/{garageId}/vehicles", testGarage.getId()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].model").value("Clio"));
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].model").value("Clio"))
+                .andExpect(jsonPath("$.hasNext").value(false));
     }
 
     @Test
@@ -153,12 +320,124 @@ class VehicleControllerIntegrationTest {
                 .typeCarburant(FuelType.DIESEL)
                 .garage(secondGarage)
                 .build());
+        // Véhicules insérés directement par les repositories : l'index de recherche est reconstruit
+        searchIndexService.rebuild();
 
         mockMvc.perform(get("/api/vehicles")
                         .param("model", "Clio"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[*].model", everyItem(equalTo("Clio"))));
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[*].model", everyItem(equalTo("Clio"))));
+    }
+
+    @Test
+    @DisplayName("GET /api/vehicles?model= - Recherche par sous-chaîne tenue à jour à l'écriture")
+    void getVehiclesByModel_IndexMaintainedOnWrite() throws Exception {
+        VehicleDTO megane = VehicleDTO.builder()
+                .brand("Renault")
+                .model("Megane E-Tech")
+                .anneeFabrication(2024)
+                .typeCarburant(FuelType.ELECTRIQUE)
+                .build();
+        String body = mockMvc.perform(post("/api/garages/{garageId}/vehicles", testGarage.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(megane)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long meganeId = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(get("/api/vehicles").param("model", "e-TECH"))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(meganeId));
+        mockMvc.perform(get("/api/vehicles").param("model", "ga"))
+                .andExpect(jsonPath("$.content", hasSize(1)));
+
+        megane.setModel("Austral");
+        mockMvc.perform(put("/api/vehicles/{id}", meganeId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(megane)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/vehicles").param("model", "e-tech"))
+                .andExpect(jsonPath("$.content", hasSize(0)));
+        mockMvc.perform(get("/api/vehicles").param("model", "stra"))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].model").value("Austral"));
+        // Les jokers SQL saisis par l'utilisateur sont recherchés littéralement
+        mockMvc.perform(get("/api/vehicles").param("model", "%"))
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("GET /api/garages/{garageId}/vehicles - Le nombre d'accessoires ne charge pas les collections")
+    void getVehiclesByGarage_AccessoryCountWithoutLoadingAccessories() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Vehicle vehicle = Vehicle.builder()
+                    .brand("Renault")
+                    .model("Zoe")
+                    .anneeFabrication(2022)
+                    .typeCarburant(FuelType.ELECTRIQUE)
+                    .build();
+            testGarage.addVehicle(vehicle);
+            vehicle.addAccessory(Accessory.builder()
+                    .nom("GPS")
+                    .prix(new BigDecimal("299.99"))
+                    .type(AccessoryType.MULTIMEDIA)
+                    .build());
+            vehicle.addAccessory(Accessory.builder()
+                    .nom("Attelage")
+                    .prix(new BigDecimal("450.00"))
+                    .type(AccessoryType.EXTERIEUR)
+                    .build());
+            vehicleRepository.save(vehicle);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/garages/{garageId}/vehicles", testGarage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(6)))
+                .andExpect(jsonPath("$.content[?(@.model == 'Zoe')].accessoryCount", everyItem(equalTo(2))));
+
+        // Version agrégée (ETag) + existsById + véhicules du garage + chargement du garage pour garageName
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("PUT /api/vehicles/{id}/garage/{garageId} - Transfert d'un véhicule")
+    void transferVehicle_UpdatesCounters() throws Exception {
+        Garage targetGarage = garageRepository.save(Garage.builder()
+                .name("Garage Cible")
+                .address("789 Boulevard")
+                .telephone("0555555555")
+                .email("cible@renault.fr")
+                .build());
+        Vehicle vehicle = Vehicle.builder()
+                .brand("Renault")
+                .model("Austral")
+                .anneeFabrication(2024)
+                .typeCarburant(FuelType.HYBRIDE)
+                .build();
+        testGarage.addVehicle(vehicle);
+        vehicle = vehicleRepository.save(vehicle);
+        int sourceCount = testGarage.getVehicleCount();
+
+        mockMvc.perform(put("/api/vehicles/{id}/garage/{garageId}", vehicle.getId(), targetGarage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.garageId").value(targetGarage.getId()));
+
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(garageRepository.findById(testGarage.getId()).orElseThrow().getVehicleCount())
+                .isEqualTo(sourceCount - 1);
+        assertThat(garageRepository.findById(targetGarage.getId()).orElseThrow().getVehicleCount())
+                .isEqualTo(1);
+        assertThat(vehicleRepository.countByGarageId(targetGarage.getId())).isEqualTo(1);
     }
 
     @Test
@@ -188,4 +467,25 @@ class VehicleControllerIntegrationTest {
         mockMvc.perform(get("/api/vehicles/{id}", testVehicle.getId()))
                 .andExpect(status().isNotFound());
     }
+
+    private VehicleImportDTO importRow(Long garageId, String model) {
+        return VehicleImportDTO.builder()
+                .garageId(garageId)
+                .brand("Renault")
+                .model(model)
+                .anneeFabrication(2024)
+                .typeCarburant(FuelType.ELECTRIQUE)
+                .accessories(List.of(
+                        AccessoryDTO.builder()
+                                .nom("GPS")
+                                .prix(new BigDecimal("299.99"))
+                                .type(AccessoryType.MULTIMEDIA)
+                                .build(),
+                        AccessoryDTO.builder()
+                                .nom("Tapis")
+                                .prix(new BigDecimal("49.90"))
+                                .type(AccessoryType.INTERIEUR)
+                                .build()))
+                .build();
+    }
 }
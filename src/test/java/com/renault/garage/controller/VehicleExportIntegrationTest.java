@@ -0,0 +1,160 @@
+package com.renault.garage.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.dto.VehicleExportDTO;
+import com.renault.garage.entity.Accessory;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.service.VehicleExportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests d'intégration de l'export NDJSON des véhicules.
+ * Non transactionnel : l'export est écrit dans un thread asynchrone qui doit voir les données.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VehicleExportIntegrationTest {
+
+    private static final int CHUNK_SIZE = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private VehicleExportService vehicleExportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private int defaultChunkSize;
+
+    @BeforeEach
+    void setUp() {
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+
+        VehicleExportService target = AopTestUtils.getTargetObject(vehicleExportService);
+        defaultChunkSize = (int) ReflectionTestUtils.getField(target, "chunkSize");
+        ReflectionTestUtils.setField(target, "chunkSize", CHUNK_SIZE);
+
+        for (int g = 0; g < 2; g++) {
+            Garage garage = Garage.builder()
+                    .name("Garage Export " + g)
+                    .address("1 Rue de l'Export")
+                    .telephone("0100000000")
+                    .email("export@renault.fr")
+                    .build();
+            for (int v = 0; v < 10; v++) {
+                Vehicle vehicle = Vehicle.builder()
+                        .brand("Renault")
+                        .model("Clio " + v)
+                        .anneeFabrication(2023)
+                        .typeCarburant(FuelType.ESSENCE)
+                        .build();
+                if (v % 3 == 0) {
+                    vehicle.addAccessory(accessory("GPS"));
+                    vehicle.addAccessory(accessory("Attelage"));
+                }
+                garage.addVehicle(vehicle);
+            }
+            garageRepository.save(garage);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        VehicleExportService target = AopTestUtils.getTargetObject(vehicleExportService);
+        ReflectionTestUtils.setField(target, "chunkSize", defaultChunkSize);
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("GET /api/vehicles/export - Un véhicule par ligne avec garage et accessoires")
+    void exportVehicles_Ndjson() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(get("/api/vehicles/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Délai d'expiration levé pour l'export seulement
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(-1);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+        List<VehicleExportDTO> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readValue(line, VehicleExportDTO.class));
+        }
+
+        assertThat(lines).hasSize(20);
+        assertThat(lines).extracting(VehicleExportDTO::getId).isSorted();
+        assertThat(lines).extracting(VehicleExportDTO::getGarageName).allMatch(name -> name.startsWith("Garage Export"));
+        assertThat(lines).filteredOn(line -> line.getModel().equals("Clio 0"))
+                .allSatisfy(line -> assertThat(line.getAccessories()).extracting("nom")
+                        .containsExactly("GPS", "Attelage"));
+        assertThat(lines).filteredOn(line -> line.getModel().equals("Clio 1"))
+                .allSatisfy(line -> assertThat(line.getAccessories()).isEmpty());
+
+        // 1 curseur sur les véhicules + 1 requête d'accessoires par lot de 7 (3 lots)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        // Requêtes du thread asynchrone comptées pour la requête HTTP, une fois l'export terminé
+        assertThat(meterRegistry.get("garage.sql.statements").tag("uri", "/api/vehicles/export")
+                .summary().totalAmount()).isEqualTo(4);
+    }
+
+    private Accessory accessory(String nom) {
+        return Accessory.builder()
+                .nom(nom)
+                .prix(new BigDecimal("100.00"))
+                .type(AccessoryType.EXTERIEUR)
+                .build();
+    }
+}
@@ -0,0 +1,209 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.codec.EventCodecs;
+import com.renault.garage.codec.VehicleCreatedEventCodec;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.EventFormat;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.GarageChangeEvent;
+import com.renault.garage.event.GarageCreatedEvent;
+import com.renault.garage.event.GarageDeletedEvent;
+import com.renault.garage.event.GarageFleetSnapshotEvent;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.event.VehicleDeletedEvent;
+import com.renault.garage.event.VehicleTransferredEvent;
+import com.renault.garage.event.VehicleUpdatedEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests de la topologie des agrégats de flotte, sur un driver de test (sans broker).
+ * Les messages sont écrits comme par le relais de l'outbox : binaires pour les événements dotés
+ * d'un codec, JSON avec en-tête de type pour les autres.
+ */
+class GarageFleetTopologyTest {
+
+    private static final String TOPIC = "garage-changes";
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Object> changes;
+    private KeyValueStore<String, GarageFleetState> store;
+
+    @TempDir
+    private Path stateDir;
+
+    @BeforeEach
+    void setUp() {
+        EventCodecs eventCodecs = new EventCodecs(List.of(new VehicleCreatedEventCodec()), EventFormat.BINARY);
+        StreamsBuilder builder = new StreamsBuilder();
+        new GarageFleetTopology(eventCodecs, TOPIC).addTo(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "garage-fleet-stats-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props);
+        changes = driver.createInputTopic(TOPIC, new StringSerializer(), new OutboxFormatSerializer(eventCodecs));
+        store = driver.getKeyValueStore(GarageFleetTopology.STORE_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    @DisplayName("Créations, modification et suppression tiennent les compteurs par carburant et par tranche d'années")
+    void aggregate_CountsByFuelTypeAndYearBucket() {
+        pipe(new GarageCreatedEvent(1L, 0L, "Garage Paris", "1 Rue de Paris", "0100000000", "paris@renault.fr", Instant.now()));
+        pipe(created(1L, 10L, 2018, FuelType.DIESEL));
+        pipe(created(1L, 11L, 2021, FuelType.ELECTRIQUE));
+        pipe(created(1L, 12L, 2024, FuelType.DIESEL));
+        pipe(new VehicleUpdatedEvent(1L, 12L, 1L, "Renault", "Clio", 2024, "HYBRIDE", 2024, "DIESEL", Instant.now()));
+        pipe(new VehicleDeletedEvent(1L, 10L, 1L, 2018, "DIESEL", Instant.now()));
+
+        GarageFleetState state = store.get("1");
+        assertThat(state.vehicleCount()).isEqualTo(2);
+        assertThat(state.remainingCapacity()).isEqualTo(Garage.MAX_VEHICLES - 2);
+        assertThat(state.vehiclesByFuelType())
+                .containsOnly(entry(FuelType.ELECTRIQUE, 1L), entry(FuelType.HYBRIDE, 1L));
+        assertThat(state.vehiclesByYearBucket(5)).containsExactly(entry(2020, 2L));
+        assertThat(state.vehiclesByYearBucket(10)).containsExactly(entry(2020, 2L));
+    }
+
+    @Test
+    @DisplayName("Un garage sans véhicule expose toute sa capacité")
+    void aggregate_EmptyGarage() {
+        pipe(new GarageCreatedEvent(2L, 0L, "Garage Lyon", "1 Rue de Lyon", "0400000000", "lyon@renault.fr", Instant.now()));
+
+        assertThat(store.get("2").remainingCapacity()).isEqualTo(Garage.MAX_VEHICLES);
+        assertThat(store.get("2").vehiclesByFuelType()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Les doublons et événements périmés de l'outbox sont ignorés")
+    void aggregate_IgnoresDuplicatesAndStaleEvents() {
+        VehicleCreatedEvent creation = created(1L, 10L, 2020, FuelType.ESSENCE);
+        pipe(creation);
+        pipe(new VehicleUpdatedEvent(1L, 10L, 2L, "Renault", "Clio", 2020, "GPL", 2020, "ESSENCE", Instant.now()));
+        // Renvoi par le relais : la création et une modification plus ancienne arrivent à nouveau
+        pipe(creation);
+        pipe(new VehicleUpdatedEvent(1L, 10L, 1L, "Renault", "Clio", 2020, "DIESEL", 2020, "ESSENCE", Instant.now()));
+
+        GarageFleetState state = store.get("1");
+        assertThat(state.vehicleCount()).isEqualTo(1);
+        assertThat(state.vehiclesByFuelType()).containsOnly(entry(FuelType.GPL, 1L));
+    }
+
+    @Test
+    @DisplayName("Un transfert retire le véhicule du garage d'origine et l'ajoute au garage de destination")
+    void aggregate_TransferMovesVehicle() {
+        pipe(created(1L, 10L, 2022, FuelType.ELECTRIQUE));
+        pipe(new VehicleTransferredEvent(1L, 10L, 1L, 1L, 2L, 2022, "ELECTRIQUE", Instant.now()));
+        pipe(new VehicleTransferredEvent(2L, 10L, 1L, 1L, 2L, 2022, "ELECTRIQUE", Instant.now()));
+
+        assertThat(store.get("1").vehicleCount()).isZero();
+        assertThat(store.get("2").vehiclesByFuelType()).containsOnly(entry(FuelType.ELECTRIQUE, 1L));
+    }
+
+    @Test
+    @DisplayName("La suppression d'un garage retire son entrée du store")
+    void aggregate_GarageDeletedRemovesEntry() {
+        pipe(created(3L, 30L, 2019, FuelType.DIESEL));
+        pipe(new GarageDeletedEvent(3L, 1L, Instant.now()));
+
+        assertThat(store.get("3")).isNull();
+    }
+
+    @Test
+    @DisplayName("Les suppressions des véhicules qui précèdent celle du garage ne recréent pas d'entrée")
+    void aggregate_ChildDeletionsThenGarageDeleted() {
+        pipe(created(3L, 30L, 2019, FuelType.DIESEL));
+        pipe(new VehicleDeletedEvent(3L, 30L, 2L, 2019, FuelType.DIESEL.name(), Instant.now()));
+        pipe(new GarageDeletedEvent(3L, 1L, Instant.now()));
+
+        assertThat(store.get("3")).isNull();
+    }
+
+    @Test
+    @DisplayName("Un instantané du remplissage alimente un garage resté sans changement")
+    void aggregate_SnapshotSeedsUnchangedGarage() {
+        pipe(new GarageFleetSnapshotEvent(4L, 3L, List.of(
+                new GarageFleetSnapshotEvent.FleetVehicle(40L, 0L, 2016, FuelType.DIESEL.name()),
+                new GarageFleetSnapshotEvent.FleetVehicle(41L, 2L, 2023, FuelType.ELECTRIQUE.name())), Instant.now()));
+
+        GarageFleetState state = store.get("4");
+        assertThat(state.vehicleCount()).isEqualTo(2);
+        assertThat(state.vehiclesByFuelType())
+                .containsOnly(entry(FuelType.DIESEL, 1L), entry(FuelType.ELECTRIQUE, 1L));
+        assertThat(state.vehiclesByYearBucket(10)).containsExactly(entry(2010, 1L), entry(2020, 1L));
+    }
+
+    @Test
+    @DisplayName("Un instantané retire les véhicules absents sans écraser une version plus récente")
+    void aggregate_SnapshotReplacesVehicles() {
+        pipe(created(5L, 50L, 2018, FuelType.DIESEL));
+        pipe(created(5L, 51L, 2019, FuelType.ESSENCE));
+        pipe(new VehicleUpdatedEvent(5L, 51L, 2L, "Renault", "Clio", 2019, "GPL", 2019, "ESSENCE", Instant.now()));
+        // Instantané rejoué après la modification : le véhicule 50 a quitté le garage entre-temps
+        pipe(new GarageFleetSnapshotEvent(5L, 1L, List.of(
+                new GarageFleetSnapshotEvent.FleetVehicle(51L, 1L, 2019, FuelType.ESSENCE.name())), Instant.now()));
+
+        GarageFleetState state = store.get("5");
+        assertThat(state.vehicleCount()).isEqualTo(1);
+        assertThat(state.vehiclesByFuelType()).containsOnly(entry(FuelType.GPL, 1L));
+    }
+
+    private void pipe(GarageChangeEvent event) {
+        changes.pipeInput(event.partitionKey(), event);
+    }
+
+    private static VehicleCreatedEvent created(Long garageId, Long vehicleId, int year, FuelType fuelType) {
+        return VehicleCreatedEvent.of(vehicleId, "Renault", "Clio", year, fuelType.name(), garageId, "Garage", 0L);
+    }
+
+    /**
+     * Sérialise les événements comme le relais de l'outbox.
+     */
+    private static final class OutboxFormatSerializer implements Serializer<Object> {
+
+        private final EventCodecs eventCodecs;
+        private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+
+        private OutboxFormatSerializer(EventCodecs eventCodecs) {
+            this.eventCodecs = eventCodecs;
+        }
+
+        @Override
+        public byte[] serialize(String topic, Object data) {
+            throw new UnsupportedOperationException("L'en-tête de type JSON est requis");
+        }
+
+        @Override
+        public byte[] serialize(String topic, Headers headers, Object data) {
+            return eventCodecs.formatFor(data.getClass()) == EventFormat.BINARY
+                    ? eventCodecs.encode(data)
+                    : jsonSerializer.serialize(topic, headers, data);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.GarageStateBootstrapDTO;
+import com.renault.garage.dto.OpeningHoursDTO;
+import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.mapper.GarageMapper;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.OutboxEventRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import com.renault.garage.service.GarageService;
+import com.renault.garage.service.VehicleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Topic compacté de l'état des garages sur un broker embarqué : les écritures publient l'état via
+ * l'outbox et son relais, puis une instance qui démarre remplit ses caches depuis le topic.
+ */
+@SpringBootTest(properties = {
+        // Auto-configuration Kafka active : création des topics, relais de l'outbox
+        "spring.autoconfigure.exclude=",
+        "spring.kafka.consumer.group-id=garage-state-bootstrap-test",
+        "garage.outbox.relay.enabled=true",
+        // Gestionnaire JCache propre au contexte : sa fermeture (@DirtiesContext) ne ferme pas
+        // les caches de second niveau des contextes de test encore en cache
+        "spring.jpa.properties.hibernate.javax.cache.uri=application.conf"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 1, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@DirtiesContext
+class GarageStateBootstrapIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private GarageService garageService;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private GarageMapper garageMapper;
+
+    @Autowired
+    private ResponseNearCache responseNearCache;
+
+    @Autowired
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @Autowired
+    private GarageStateBootstrap garageStateBootstrap;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+        await().atMost(TIMEOUT).until(() -> outboxEventRepository.count() == 0);
+    }
+
+    @Test
+    @DisplayName("Les caches sont remplis depuis le dernier état publié de chaque garage, identique à la base")
+    void bootstrap_HydratesCachesFromPublishedState() {
+        GarageDTO withHours = garageService.createGarage(garage("Garage Horaires", List.of(
+                OpeningHoursDTO.builder().dayOfWeek(DayOfWeek.MONDAY)
+                        .startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(18, 0)).build())));
+        GarageDTO electric = garageService.createGarage(garage("Garage Électrique", List.of()));
+        GarageDTO deleted = garageService.createGarage(garage("Garage Fermé", List.of()));
+        vehicleService.addVehicleToGarage(withHours.getId(), vehicle(FuelType.DIESEL));
+        vehicleService.addVehicleToGarage(electric.getId(), vehicle(FuelType.ELECTRIQUE));
+        vehicleService.addVehicleToGarage(electric.getId(), vehicle(FuelType.ELECTRIQUE));
+        garageService.deleteGarage(deleted.getId());
+        await().atMost(TIMEOUT).until(() -> outboxEventRepository.count() == 0);
+
+        // Instance qui démarre : caches vides
+        responseNearCache.invalidateAll();
+        garageFuelTypeIndex.load(Map.of());
+        GarageStateBootstrapDTO result = garageStateBootstrap.bootstrap();
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getGarages()).isEqualTo(2);
+        // 3 créations, 3 ajouts de véhicule, 1 tombstone
+        assertThat(result.getRecords()).isEqualTo(7);
+        assertThat(result.isFuelTypeIndexLoaded()).isTrue();
+        assertThat(garageStateBootstrap.getLastResult()).contains(result);
+        for (Long garageId : List.of(withHours.getId(), electric.getId())) {
+            GarageDTO fromDatabase = transactionTemplate.execute(status ->
+                    garageMapper.toDTO(garageRepository.findById(garageId).orElseThrow()));
+            GarageDTO fromTopic = responseNearCache.get(NearCacheRegion.GARAGE, garageId, GarageDTO.class, () -> {
+                throw new AssertionError("garage " + garageId + " attendu dans le near-cache");
+            });
+            assertThat(fromTopic).isEqualTo(fromDatabase);
+        }
+        assertThat(garageFuelTypeIndex.find(Set.of(FuelType.ELECTRIQUE), FuelTypeMatch.ANY).stream().boxed().toList())
+                .containsExactly(Math.toIntExact(electric.getId()));
+        assertThat(garageFuelTypeIndex.find(Set.of(FuelType.DIESEL), FuelTypeMatch.ANY).stream().boxed().toList())
+                .containsExactly(Math.toIntExact(withHours.getId()));
+    }
+
+    private static GarageDTO garage(String name, List<OpeningHoursDTO> openingHours) {
+        return GarageDTO.builder()
+                .name(name)
+                .address("1 Rue de l'État")
+                .telephone("0100000000")
+                .email("etat@renault.fr")
+                .horairesOuverture(openingHours)
+                .build();
+    }
+
+    private static VehicleDTO vehicle(FuelType fuelType) {
+        return VehicleDTO.builder()
+                .brand("Renault")
+                .model("Mégane")
+                .anneeFabrication(2024)
+                .typeCarburant(fuelType)
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.renault.garage.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.cache.ResponseNearCache;
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.GarageStateBootstrapDTO;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.NearCacheRegion;
+import com.renault.garage.event.GarageStateSnapshot;
+import com.renault.garage.mapper.GarageMapper;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.OutboxEventRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires du remplissage des caches depuis le topic de l'état des garages.
+ */
+class GarageStateBootstrapTest {
+
+    private static final String TOPIC = "garage-state";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+    private MockConsumer<String, Object> consumer;
+    private ConsumerFactory<String, Object> consumerFactory;
+    private OutboxEventRepository outboxEventRepository;
+    private GarageRepository garageRepository;
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+    private ResponseNearCache nearCache;
+    private SimpleMeterRegistry meterRegistry;
+    private GarageStateBootstrap bootstrap;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer(isNull(), isNull(), eq("-state-bootstrap"), any(Properties.class)))
+                .thenReturn(consumer);
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        garageRepository = mock(GarageRepository.class);
+        garageFuelTypeIndex = mock(GarageFuelTypeIndex.class);
+        nearCache = new ResponseNearCache(mock(CacheInvalidationPublisher.class), new SimpleMeterRegistry(),
+                new ObjectMapper(), 100, Duration.ofMinutes(5), true, true, "node-a");
+        meterRegistry = new SimpleMeterRegistry();
+        bootstrap = new GarageStateBootstrap(consumerFactory, outboxEventRepository, garageRepository, nearCache,
+                garageFuelTypeIndex, new GarageMapper(), meterRegistry, TOPIC, true, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Le dernier état de chaque garage remplit le near-cache et l'index ; un tombstone efface le garage")
+    @SuppressWarnings("unchecked")
+    void bootstrap_LoadsLatestStatePerGarage() {
+        topicWith(Map.of(PARTITION_0, 3L, PARTITION_1, 3L));
+        when(garageRepository.count()).thenReturn(2L);
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, 0, 1L, state(1L, 0L)));
+            consumer.addRecord(record(0, 1, 1L, state(1L, 1L)));
+            consumer.addRecord(record(0, 2, 3L, state(3L, 0L)));
+            consumer.addRecord(record(1, 0, 2L, state(2L, 4L)));
+            consumer.addRecord(record(1, 1, 3L, null));
+            consumer.addRecord(unreadable(1, 2, 4L));
+        });
+
+        GarageStateBootstrapDTO result = bootstrap.bootstrap();
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getRecords()).isEqualTo(6);
+        assertThat(result.getGarages()).isEqualTo(2);
+        assertThat(result.getUnreadable()).isEqualTo(1);
+        assertThat(result.isFuelTypeIndexLoaded()).isTrue();
+        GarageDTO garage = nearCache.get(NearCacheRegion.GARAGE, 1L, GarageDTO.class, () -> {
+            throw new AssertionError("garage 1 attendu dans le near-cache");
+        });
+        assertThat(garage.getVersion()).isEqualTo(1L);
+        assertThat(garage.getVehicleCount()).isEqualTo(2);
+        assertThat(garage.getHorairesOuverture()).singleElement()
+                .satisfies(hours -> assertThat(hours.getId()).isEqualTo(10L));
+        assertThat(nearCache.get(NearCacheRegion.GARAGE, 3L, GarageDTO.class, () -> null)).isNull();
+        ArgumentCaptor<Map<Long, Map<FuelType, Integer>>> counts = ArgumentCaptor.forClass(Map.class);
+        verify(garageFuelTypeIndex).load(counts.capture());
+        assertThat(counts.getValue()).containsOnlyKeys(1L, 2L).containsEntry(1L, Map.of(FuelType.DIESEL, 2));
+        assertThat(meterRegistry.get("garage.state-bootstrap.garages").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Topic incomplet : le near-cache est rempli mais l'index sera construit depuis la base")
+    void bootstrap_IncompleteTopicLeavesIndexToDatabase() {
+        topicWith(Map.of(PARTITION_0, 1L, PARTITION_1, 0L));
+        when(garageRepository.count()).thenReturn(5L);
+        consumer.schedulePollTask(() -> consumer.addRecord(record(0, 0, 1L, state(1L, 0L))));
+
+        GarageStateBootstrapDTO result = bootstrap.bootstrap();
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getGarages()).isEqualTo(1);
+        assertThat(result.isFuelTypeIndexLoaded()).isFalse();
+        verify(garageFuelTypeIndex, never()).load(anyMap());
+    }
+
+    @Test
+    @DisplayName("États en attente dans l'outbox au-delà du délai : démarrage à froid, sans lecture du topic")
+    void bootstrap_PendingOutboxStartsCold() {
+        when(outboxEventRepository.countByTopic(TOPIC)).thenReturn(1L);
+        bootstrap = new GarageStateBootstrap(consumerFactory, outboxEventRepository, garageRepository, nearCache,
+                garageFuelTypeIndex, new GarageMapper(), meterRegistry, TOPIC, true, Duration.ofMillis(300));
+
+        GarageStateBootstrapDTO result = bootstrap.bootstrap();
+
+        assertThat(result.isComplete()).isFalse();
+        assertThat(bootstrap.getLastResult()).contains(result);
+        verifyNoInteractions(consumerFactory, garageFuelTypeIndex);
+    }
+
+    @Test
+    @DisplayName("Désactivé : aucun remplissage au démarrage")
+    void onApplicationReady_Disabled() {
+        bootstrap = new GarageStateBootstrap(consumerFactory, outboxEventRepository, garageRepository, nearCache,
+                garageFuelTypeIndex, new GarageMapper(), new SimpleMeterRegistry(), TOPIC, false, Duration.ofSeconds(5));
+
+        bootstrap.onApplicationReady();
+
+        assertThat(bootstrap.getLastResult()).isEmpty();
+        verifyNoInteractions(consumerFactory);
+    }
+
+    private void topicWith(Map<TopicPartition, Long> endOffsets) {
+        consumer.updatePartitions(TOPIC, List.of(
+                new PartitionInfo(TOPIC, 0, null, null, null),
+                new PartitionInfo(TOPIC, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L, PARTITION_1, 0L));
+        consumer.updateEndOffsets(endOffsets);
+    }
+
+    private static ConsumerRecord<String, Object> record(int partition, long offset, Long garageId, Object value) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, String.valueOf(garageId), value);
+    }
+
+    /**
+     * Valeur illisible : remise sans valeur par l'ErrorHandlingDeserializer, avec l'en-tête d'erreur.
+     */
+    private static ConsumerRecord<String, Object> unreadable(int partition, long offset, Long garageId) {
+        ConsumerRecord<String, Object> record = record(partition, offset, garageId, null);
+        record.headers().add(new RecordHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[0]));
+        return record;
+    }
+
+    private static GarageStateSnapshot state(Long garageId, Long version) {
+        return new GarageStateSnapshot(garageId, version, "Garage " + garageId, "1 Rue du Test", "0100000000",
+                "garage@renault.fr",
+                List.of(new GarageStateSnapshot.OpeningHours(10L, DayOfWeek.MONDAY, LocalTime.of(8, 0),
+                        LocalTime.of(18, 0))),
+                2, Map.of(FuelType.DIESEL, 2), Instant.now());
+    }
+}
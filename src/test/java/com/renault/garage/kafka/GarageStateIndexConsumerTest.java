@@ -0,0 +1,57 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.GarageStateSnapshot;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.never;
+
+/**
+ * Tests unitaires de la mise à jour de l'index des carburants depuis l'état publié des garages.
+ */
+@ExtendWith(MockitoExtension.class)
+class GarageStateIndexConsumerTest {
+
+    @Mock
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @InjectMocks
+    private GarageStateIndexConsumer consumer;
+
+    @Test
+    @DisplayName("Un état publié remplace les nombres de véhicules du garage dans l'index")
+    void handleGarageState_AppliesSnapshot() {
+        Map<FuelType, Integer> vehiclesByFuelType = Map.of(FuelType.ELECTRIQUE, 3);
+        GarageStateSnapshot state = new GarageStateSnapshot(7L, 4L, "Garage Lyon", "1 Rue de Lyon", "0100000000",
+                "lyon@renault.fr", List.of(), 3, vehiclesByFuelType, Instant.now());
+
+        consumer.handleGarageState(new ConsumerRecord<>("garage-state", 0, 0L, "7", state));
+
+        verify(garageFuelTypeIndex).garageStateChanged(7L, vehiclesByFuelType);
+    }
+
+    @Test
+    @DisplayName("Un tombstone retire le garage, un état illisible est ignoré")
+    void handleGarageState_TombstoneAndUnreadable() {
+        consumer.handleGarageState(new ConsumerRecord<>("garage-state", 0, 1L, "7", null));
+        verify(garageFuelTypeIndex).garageRemoved(7L);
+
+        ConsumerRecord<String, Object> unreadable = new ConsumerRecord<>("garage-state", 0, 2L, "8", null);
+        unreadable.headers().add(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[0]);
+        consumer.handleGarageState(unreadable);
+        verify(garageFuelTypeIndex, never()).garageRemoved(8L);
+    }
+}
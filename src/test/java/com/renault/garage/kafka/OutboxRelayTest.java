@@ -0,0 +1,212 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.entity.OutboxEvent;
+import com.renault.garage.enums.EventFormat;
+import com.renault.garage.repository.OutboxBacklog;
+import com.renault.garage.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires du relais de l'outbox vers Kafka.
+ */
+class OutboxRelayTest {
+
+    private OutboxEventRepository repository;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> bulkKafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        bulkKafkaTemplate = mock(KafkaTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(repository.findBacklog()).thenReturn(new OutboxBacklog(0L, null));
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(repository, kafkaTemplate, bulkKafkaTemplate, transactionTemplate, meterRegistry, 3, 5,
+                Duration.ofMillis(200), Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Les messages acquittés sont supprimés et leur délai mesuré")
+    void relay_DeletesDeliveredMessages() {
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(event(1L), event(2L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relay();
+
+        verify(repository).claim(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository, never()).release(any());
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) -> "vehicle-created".equals(record.topic())
+                && "1".equals(record.key())
+                && "com.renault.garage.event.VehicleCreatedEvent".equals(new String(
+                        record.headers().lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME).value(),
+                        StandardCharsets.UTF_8))));
+        assertThat(meterRegistry.get("garage.outbox.relay.sent").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("garage.outbox.relay.lag").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Un message binaire est envoyé sans en-tête de type")
+    void relay_BinaryMessagesWithoutTypeHeader() {
+        OutboxEvent binary = event(1L);
+        binary.setFormat(EventFormat.BINARY);
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(binary));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relay();
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) -> !record.headers().iterator().hasNext()));
+    }
+
+    @Test
+    @DisplayName("Un tombstone est envoyé sans valeur ni en-tête")
+    void relay_TombstoneWithoutValue() {
+        OutboxEvent tombstone = event(1L);
+        tombstone.setFormat(EventFormat.TOMBSTONE);
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(tombstone));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relay();
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) -> record.value() == null
+                && "1".equals(record.key()) && !record.headers().iterator().hasNext()));
+    }
+
+    @Test
+    @DisplayName("Un lot plein est suivi de lots plus grands dans le même passage, envoyés avec le profil bulk")
+    void relay_DrainsWhileBatchesAreFull() {
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(event(1L), event(2L), event(3L)));
+        when(repository.findNextBatchForUpdate(Limit.of(5)))
+                .thenReturn(List.of(event(4L), event(5L), event(6L), event(7L), event(8L)))
+                .thenReturn(List.of(event(9L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(bulkKafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relay();
+
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(repository).deleteAllByIdInBatch(List.of(4L, 5L, 6L, 7L, 8L));
+        verify(repository).deleteAllByIdInBatch(List.of(9L));
+        verify(repository, times(1)).findNextBatchForUpdate(Limit.of(3));
+        verify(repository, times(2)).findNextBatchForUpdate(Limit.of(5));
+        verify(kafkaTemplate, times(3)).send(any(ProducerRecord.class));
+        verify(bulkKafkaTemplate, times(6)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    @DisplayName("Après un échec d'envoi, seuls les messages précédents sont supprimés")
+    void relay_KeepsMessagesFromFirstFailure() {
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(event(1L), event(2L), event(3L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker indisponible")))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(repository.findBacklog()).thenReturn(new OutboxBacklog(2L, Instant.now().minusSeconds(30)));
+
+        relay.relay();
+
+        verify(repository).deleteAllByIdInBatch(List.of(1L));
+        verify(repository).release(List.of(2L, 3L));
+        verify(repository, times(1)).findNextBatchForUpdate(Limit.of(3));
+        assertThat(meterRegistry.get("garage.outbox.relay.failures").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("garage.outbox.pending").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("garage.outbox.oldest.age").gauge().value()).isGreaterThanOrEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("L'attente des acquittements est bornée par lot, le reste du lot est libéré")
+    void relay_BoundsBatchWait() {
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(event(1L), event(2L), event(3L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(new CompletableFuture<>());
+
+        long start = System.nanoTime();
+        relay.relay();
+
+        // Un seul délai d'envoi pour tout le lot, et non un par message
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(400));
+        verify(repository).deleteAllByIdInBatch(List.of(1L));
+        verify(repository).release(List.of(2L, 3L));
+        assertThat(meterRegistry.get("garage.outbox.relay.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Un lot déjà réservé par un autre relais n'est ni réservé ni envoyé")
+    void relay_SkipsBatchClaimedByAnotherRelay() {
+        OutboxEvent claimed = event(1L);
+        claimed.setClaimedUntil(Instant.now().plusSeconds(30));
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(claimed, event(2L)));
+
+        relay.relay();
+
+        verify(repository, never()).claim(any(), any());
+        verifyNoInteractions(kafkaTemplate);
+        verify(repository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("Un bail expiré (relais arrêté pendant l'envoi) est repris")
+    void relay_ReclaimsExpiredLease() {
+        OutboxEvent expired = event(1L);
+        expired.setClaimedUntil(Instant.now().minusSeconds(1));
+        when(repository.findNextBatchForUpdate(Limit.of(3))).thenReturn(List.of(expired));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relay();
+
+        verify(repository).claim(eq(List.of(1L)), any(Instant.class));
+        verify(repository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Un bail plus court que deux délais d'envoi est refusé")
+    void constructor_RejectsLeaseShorterThanSendTimeouts() {
+        assertThatThrownBy(() -> new OutboxRelay(repository, kafkaTemplate, bulkKafkaTemplate, mock(TransactionTemplate.class),
+                new SimpleMeterRegistry(), 3, 5, Duration.ofSeconds(10), Duration.ofSeconds(15)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("vehicle-created")
+                .messageKey(String.valueOf(id))
+                .eventType("com.renault.garage.event.VehicleCreatedEvent")
+                .format(EventFormat.JSON)
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.dto.DeadLetterReplayResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires du rejeu du DLT des créations de véhicules.
+ */
+class VehicleDeadLetterReplayerTest {
+
+    private static final String DLT = "vehicle-created-failed-dlt";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(DLT, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(DLT, 1);
+
+    private MockConsumer<String, byte[]> consumer;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private VehicleDeadLetterReplayer replayer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Consommateur conservé après le rejeu pour en lire les positions validées
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void close(Duration timeout) {
+            }
+        };
+        ConsumerFactory<String, byte[]> consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer("garage-management-group-dlt-replay", null)).thenReturn(consumer);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        meterRegistry = new SimpleMeterRegistry();
+        replayer = new VehicleDeadLetterReplayer(consumerFactory, kafkaTemplate, meterRegistry,
+                "vehicle-created-failed", "vehicle-created", "garage-management-group", Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Les messages du DLT sont republiés sur le topic principal, sans les en-têtes d'erreur, et leur position validée")
+    @SuppressWarnings("unchecked")
+    void replay_RepublishesAndCommits() {
+        dltWith(Map.of(PARTITION_0, 2L, PARTITION_1, 1L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(dltRecord(0, 0, "1"));
+            consumer.addRecord(dltRecord(0, 1, "4"));
+            consumer.addRecord(dltRecord(1, 0, "2"));
+        });
+
+        DeadLetterReplayResultDTO result = replayer.replay();
+
+        assertThat(result.getReplayed()).isEqualTo(3);
+        assertThat(result.isComplete()).isTrue();
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(3)).send(sent.capture());
+        assertThat(sent.getAllValues()).extracting(ProducerRecord::key).containsExactlyInAnyOrder("1", "4", "2");
+        ProducerRecord<String, byte[]> first = sent.getAllValues().get(0);
+        assertThat(first.topic()).isEqualTo("vehicle-created");
+        assertThat(first.partition()).isNull();
+        assertThat(first.headers().lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME)).isNotNull();
+        assertThat(first.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE)).isNull();
+        assertThat(first.headers().lastHeader("retry_topic-attempts")).isNull();
+        assertThat(consumer.committed(Set.of(PARTITION_0, PARTITION_1)))
+                .containsEntry(PARTITION_0, new OffsetAndMetadata(2))
+                .containsEntry(PARTITION_1, new OffsetAndMetadata(1));
+        assertThat(meterRegistry.get("garage.vehicle-events.dlt.replayed").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Seuls les messages présents au début du rejeu sont republiés")
+    void replay_StopsAtInitialEndOffsets() {
+        dltWith(Map.of(PARTITION_0, 1L, PARTITION_1, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(dltRecord(0, 0, "1"));
+            // Arrivé sur le DLT pendant le rejeu : laissé au rejeu suivant
+            consumer.addRecord(dltRecord(0, 1, "1"));
+        });
+
+        DeadLetterReplayResultDTO result = replayer.replay();
+
+        assertThat(result.getReplayed()).isEqualTo(1);
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        assertThat(consumer.committed(Set.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(1));
+    }
+
+    @Test
+    @DisplayName("Sans DLT, le rejeu est vide")
+    void replay_MissingTopic() {
+        assertThat(replayer.replay().getReplayed()).isZero();
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private void dltWith(Map<TopicPartition, Long> endOffsets) {
+        consumer.updatePartitions(DLT, List.of(
+                new PartitionInfo(DLT, 0, null, null, null),
+                new PartitionInfo(DLT, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L, PARTITION_1, 0L));
+        consumer.updateEndOffsets(endOffsets);
+    }
+
+    private static ConsumerRecord<String, byte[]> dltRecord(int partition, long offset, String key) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DLT, partition, offset, key,
+                "{}".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                "com.renault.garage.event.VehicleCreatedEvent".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(new RecordHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "échec".getBytes(StandardCharsets.UTF_8)));
+        record.headers().add(new RecordHeader("retry_topic-attempts", new byte[]{0, 0, 0, 4}));
+        return record;
+    }
+}
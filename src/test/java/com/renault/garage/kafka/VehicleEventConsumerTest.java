@@ -0,0 +1,152 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.service.GarageActivityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires du consumer des événements véhicules, par partition.
+ */
+class VehicleEventConsumerTest {
+
+    private static final String TOPIC = "vehicle-created";
+
+    private GarageActivityService garageActivityService;
+    private SimpleMeterRegistry meterRegistry;
+    private VehicleEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        garageActivityService = mock(GarageActivityService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new VehicleEventConsumer(garageActivityService, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Un lot est appliqué partition par partition, dans l'ordre des offsets")
+    void handleVehiclesCreated_AppliesEachPartition() {
+        ConsumerRecord<String, VehicleCreatedEvent> first = record(0, 0, 1L);
+        ConsumerRecord<String, VehicleCreatedEvent> second = record(0, 1, 4L);
+        ConsumerRecord<String, VehicleCreatedEvent> third = record(1, 0, 2L);
+
+        consumer.handleVehiclesCreated(List.of(first, second, third));
+
+        InOrder inOrder = inOrder(garageActivityService);
+        inOrder.verify(garageActivityService).applyVehiclesCreated(new TopicPartition(TOPIC, 0),
+                List.of(first, second));
+        inOrder.verify(garageActivityService).applyVehiclesCreated(new TopicPartition(TOPIC, 1),
+                List.of(third));
+        assertThat(meterRegistry.get("garage.vehicle-events.consumed").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("L'échec d'un lot isole l'événement en cause : ceux qui le précèdent sont appliqués, il est désigné au gestionnaire d'erreurs")
+    void handleVehiclesCreated_IsolatesFailingRecord() {
+        ConsumerRecord<String, VehicleCreatedEvent> applied = record(0, 0, 1L);
+        ConsumerRecord<String, VehicleCreatedEvent> before = record(1, 0, 2L);
+        ConsumerRecord<String, VehicleCreatedEvent> poison = record(1, 1, 5L);
+        ConsumerRecord<String, VehicleCreatedEvent> after = record(1, 2, 2L);
+        TopicPartition partition1 = new TopicPartition(TOPIC, 1);
+        doThrow(new IllegalStateException("lot en échec"))
+                .when(garageActivityService).applyVehiclesCreated(partition1, List.of(before, poison, after));
+        doThrow(new IllegalStateException("événement invalide"))
+                .when(garageActivityService).applyVehiclesCreated(partition1, List.of(poison));
+
+        assertThatThrownBy(() -> consumer.handleVehiclesCreated(List.of(applied, before, poison, after)))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getRecord()).isSameAs(poison))
+                .hasRootCauseMessage("événement invalide");
+        verify(garageActivityService).applyVehiclesCreated(new TopicPartition(TOPIC, 0), List.of(applied));
+        verify(garageActivityService).applyVehiclesCreated(partition1, List.of(before));
+        verify(garageActivityService, never()).applyVehiclesCreated(partition1, List.of(after));
+        assertThat(meterRegistry.get("garage.vehicle-events.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Un lot qui échoue puis réussit événement par événement n'écarte rien")
+    void handleVehiclesCreated_TransientBatchFailure() {
+        ConsumerRecord<String, VehicleCreatedEvent> first = record(0, 0, 1L);
+        ConsumerRecord<String, VehicleCreatedEvent> second = record(0, 1, 3L);
+        doThrow(new IllegalStateException("état périmé"))
+                .when(garageActivityService).applyVehiclesCreated(any(), eq(List.of(first, second)));
+
+        consumer.handleVehiclesCreated(List.of(first, second));
+
+        verify(garageActivityService).applyVehiclesCreated(new TopicPartition(TOPIC, 0), List.of(first));
+        verify(garageActivityService).applyVehiclesCreated(new TopicPartition(TOPIC, 0), List.of(second));
+        assertThat(meterRegistry.get("garage.vehicle-events.failed").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un événement illisible est désigné avec son erreur de désérialisation, sans appliquer la suite")
+    void handleVehiclesCreated_UnreadableRecord() {
+        ConsumerRecord<String, VehicleCreatedEvent> before = record(0, 0, 1L);
+        ConsumerRecord<String, VehicleCreatedEvent> unreadable = new ConsumerRecord<>(TOPIC, 0, 1, "1", null);
+        SerializationUtils.deserializationException(unreadable.headers(), new byte[]{1, 2, 3},
+                new IllegalArgumentException("version de schéma inconnue"), false);
+
+        assertThatThrownBy(() -> consumer.handleVehiclesCreated(List.of(before, unreadable, record(0, 2, 1L))))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getRecord()).isSameAs(unreadable))
+                .hasCauseInstanceOf(DeserializationException.class);
+        assertThat(meterRegistry.get("garage.vehicle-events.dead-lettered")
+                .tag("reason", "unreadable").counter().count()).isEqualTo(1);
+        verify(garageActivityService).applyVehiclesCreated(new TopicPartition(TOPIC, 0), List.of(before));
+        verifyNoMoreInteractions(garageActivityService);
+    }
+
+    @Test
+    @DisplayName("Chaque lot est mesuré, et le retard de chaque événement sur son horodatage Kafka")
+    void handleVehiclesCreated_RecordsProcessingTimeAndLag() {
+        VehicleCreatedEvent event = record(0, 0, 1L).value();
+        ConsumerRecord<String, VehicleCreatedEvent> late = new ConsumerRecord<>(TOPIC, 0, 0,
+                System.currentTimeMillis() - 5_000, TimestampType.CREATE_TIME, -1, -1, "1", event,
+                new RecordHeaders(), Optional.empty());
+
+        consumer.handleVehiclesCreated(List.of(late, record(0, 1, 1L)));
+
+        assertThat(meterRegistry.get("garage.vehicle-events.processing").timer().count()).isEqualTo(1);
+        // L'enregistrement sans horodatage n'est pas compté
+        assertThat(meterRegistry.get("garage.vehicle-events.lag").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("garage.vehicle-events.lag").timer().max(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(5_000);
+    }
+
+    @Test
+    @DisplayName("Les partitions retirées libèrent leur état")
+    void onPartitionsRevoked_ReleasesState() {
+        List<TopicPartition> revoked = List.of(new TopicPartition(TOPIC, 2));
+
+        consumer.onPartitionsRevoked(revoked);
+
+        verify(garageActivityService).releasePartitions(revoked);
+    }
+
+    private static ConsumerRecord<String, VehicleCreatedEvent> record(int partition, long offset, Long garageId) {
+        VehicleCreatedEvent event = new VehicleCreatedEvent(offset * 10 + partition, "Renault", "Clio", 2024,
+                "ESSENCE", garageId, "Garage " + garageId, Instant.now(), 0L);
+        return new ConsumerRecord<>(TOPIC, partition, offset, String.valueOf(garageId), event);
+    }
+}
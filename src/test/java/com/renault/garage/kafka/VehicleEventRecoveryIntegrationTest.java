@@ -0,0 +1,153 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.entity.GarageActivity;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.repository.GarageActivityOffsetRepository;
+import com.renault.garage.repository.GarageActivityRepository;
+import com.renault.garage.service.GarageActivityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Parcours complet d'un événement en échec sur un broker embarqué : écarté du topic principal
+ * sans bloquer sa partition, repris sur les topics à délai croissant, publié sur le DLT puis
+ * rejoué une fois la cause corrigée.
+ */
+@SpringBootTest(properties = {
+        // Auto-configuration Kafka active : les listeners annotés sont démarrés
+        "spring.autoconfigure.exclude=",
+        "spring.kafka.consumer.group-id=vehicle-events-recovery-test",
+        "garage.kafka.vehicle-created.retry.delay-ms=100",
+        "garage.kafka.vehicle-created.retry.max-delay-ms=400",
+        // Gestionnaire JCache propre au contexte : sa fermeture (@DirtiesContext) ne ferme pas
+        // les caches de second niveau des contextes de test encore en cache
+        "spring.jpa.properties.hibernate.javax.cache.uri=application.conf"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 1, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@DirtiesContext
+class VehicleEventRecoveryIntegrationTest {
+
+    private static final String TOPIC = "vehicle-created";
+    private static final long POISON_VEHICLE_ID = 666L;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+
+    @Autowired
+    private VehicleDeadLetterReplayer vehicleDeadLetterReplayer;
+
+    @Autowired
+    private GarageActivityRepository garageActivityRepository;
+
+    @Autowired
+    private GarageActivityOffsetRepository garageActivityOffsetRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private GarageActivityService garageActivityService;
+
+    private final AtomicBoolean poisoned = new AtomicBoolean(true);
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            failIfPoisoned(invocation.<List<ConsumerRecord<String, VehicleCreatedEvent>>>getArgument(1).stream()
+                    .map(ConsumerRecord::value)
+                    .toList());
+            return invocation.callRealMethod();
+        }).when(garageActivityService).applyVehiclesCreated(any(), any());
+        doAnswer(invocation -> {
+            failIfPoisoned(List.of(invocation.<ConsumerRecord<String, VehicleCreatedEvent>>getArgument(0).value()));
+            return invocation.callRealMethod();
+        }).when(garageActivityService).applyVehicleCreated(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        garageActivityRepository.deleteAllInBatch();
+        garageActivityOffsetRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Un événement en échec passe par les reprises jusqu'au DLT sans bloquer sa partition, puis est rejoué")
+    void poisonEvent_RetriedThenDeadLetteredThenReplayed() {
+        kafkaTemplate.send(TOPIC, "1", event(1L, 1L));
+        kafkaTemplate.send(TOPIC, "1", event(POISON_VEHICLE_ID, 1L));
+        outboxKafkaTemplate.send(new ProducerRecord<>(TOPIC, "2", "pas un événement".getBytes(StandardCharsets.UTF_8)));
+        kafkaTemplate.send(TOPIC, "1", event(2L, 1L));
+        kafkaTemplate.send(TOPIC, "2", event(3L, 2L));
+
+        // Les événements qui suivent l'événement en échec sont appliqués sans attendre ses reprises
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            assertThat(vehiclesCreated(1L)).isEqualTo(2);
+            assertThat(vehiclesCreated(2L)).isEqualTo(1);
+        });
+        // Événement en échec : topic des échecs + 3 paliers, puis DLT ; illisible : DLT directement
+        await().atMost(TIMEOUT).untilAsserted(() ->
+                assertThat(deadLettered("retries-exhausted")).isEqualTo(1));
+        assertThat(deadLettered("unreadable")).isEqualTo(1);
+        assertThat(meterRegistry.get("garage.vehicle-events.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("garage.vehicle-events.retried").counters()).hasSize(4)
+                .allSatisfy(counter -> assertThat(counter.count()).isEqualTo(1));
+
+        poisoned.set(false);
+        assertThat(vehicleDeadLetterReplayer.replay().getReplayed()).isEqualTo(2);
+
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            assertThat(vehiclesCreated(1L)).isEqualTo(3);
+            // L'événement illisible le reste : il retourne sur le DLT
+            assertThat(deadLettered("unreadable")).isEqualTo(2);
+        });
+        assertThat(vehicleDeadLetterReplayer.replay().getReplayed()).isEqualTo(1);
+    }
+
+    private void failIfPoisoned(Collection<VehicleCreatedEvent> events) {
+        if (poisoned.get() && events.stream().anyMatch(event -> event.vehicleId() == POISON_VEHICLE_ID)) {
+            throw new IllegalStateException("Événement refusé: véhicule " + POISON_VEHICLE_ID);
+        }
+    }
+
+    private long vehiclesCreated(Long garageId) {
+        return garageActivityRepository.findById(garageId).map(GarageActivity::getVehiclesCreated).orElse(0L);
+    }
+
+    private double deadLettered(String reason) {
+        return meterRegistry.get("garage.vehicle-events.dead-lettered").tag("reason", reason).counter().count();
+    }
+
+    private static VehicleCreatedEvent event(Long vehicleId, Long garageId) {
+        return new VehicleCreatedEvent(vehicleId, "Renault", "Clio", 2024, "ESSENCE",
+                garageId, "Garage " + garageId, Instant.now(), 0L);
+    }
+}
@@ -0,0 +1,71 @@
+package com.renault.garage.kafka;
+
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.service.GarageActivityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires des reprises des événements véhicules écartés.
+ */
+class VehicleEventRetryConsumerTest {
+
+    private GarageActivityService garageActivityService;
+    private SimpleMeterRegistry meterRegistry;
+    private VehicleEventRetryConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        garageActivityService = mock(GarageActivityService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new VehicleEventRetryConsumer(garageActivityService, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Une reprise applique l'événement hors partition et est comptée par palier")
+    void retryVehicleCreated_AppliesAndCountsPerTopic() {
+        ConsumerRecord<String, VehicleCreatedEvent> record = record("vehicle-created-failed-retry-1");
+
+        consumer.retryVehicleCreated(record, record.topic());
+
+        verify(garageActivityService).applyVehicleCreated(record);
+        assertThat(meterRegistry.get("garage.vehicle-events.retried")
+                .tag("topic", "vehicle-created-failed-retry-1").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Une reprise en échec propage l'erreur pour passer au palier suivant")
+    void retryVehicleCreated_FailurePropagates() {
+        ConsumerRecord<String, VehicleCreatedEvent> record = record("vehicle-created-failed");
+        doThrow(new IllegalStateException("base indisponible")).when(garageActivityService).applyVehicleCreated(record);
+
+        assertThatThrownBy(() -> consumer.retryVehicleCreated(record, record.topic()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get("garage.vehicle-events.retried").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Les événements arrivés sur le DLT sont comptés")
+    void handleDeadLetter_Counts() {
+        consumer.handleDeadLetter(new ConsumerRecord<>("vehicle-created-failed-dlt", 0, 0, "1", null));
+
+        assertThat(meterRegistry.get("garage.vehicle-events.dead-lettered")
+                .tag("reason", "retries-exhausted").counter().count()).isEqualTo(1);
+        verifyNoInteractions(garageActivityService);
+    }
+
+    private static ConsumerRecord<String, VehicleCreatedEvent> record(String topic) {
+        VehicleCreatedEvent event = new VehicleCreatedEvent(10L, "Renault", "Clio", 2024, "ESSENCE",
+                1L, "Garage 1", Instant.now(), 0L);
+        return new ConsumerRecord<>(topic, 0, 0, "1", event);
+    }
+}
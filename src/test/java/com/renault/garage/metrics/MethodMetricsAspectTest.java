@@ -0,0 +1,175 @@
+package com.renault.garage.metrics;
+
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.exception.GarageNotFoundException;
+import com.renault.garage.kafka.GarageChangePublisher;
+import com.renault.garage.kafka.GarageFleetState;
+import com.renault.garage.kafka.OutboxPublisher;
+import com.renault.garage.kafka.VehiclePublisher;
+import com.renault.garage.service.GarageFleetStatsService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires des métriques par méthode : tags, issue, tranche de garages et histogramme.
+ */
+class MethodMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MethodMetricsAspect aspect;
+    private ReadOnlyKeyValueStore<String, GarageFleetState> store;
+    private GarageFleetStatsService fleetStatsTarget;
+    private GarageFleetStatsService fleetStatsService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new MethodMetricsAspect(meterRegistry, 4, false);
+        StreamsBuilderFactoryBean streamsBuilderFactoryBean = mock(StreamsBuilderFactoryBean.class);
+        KafkaStreams kafkaStreams = mock(KafkaStreams.class);
+        store = mock(ReadOnlyKeyValueStore.class);
+        when(streamsBuilderFactoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+        doReturn(store).when(kafkaStreams).store(any(StoreQueryParameters.class));
+        fleetStatsTarget = new GarageFleetStatsService(streamsBuilderFactoryBean);
+        ReflectionTestUtils.setField(fleetStatsTarget, "yearBucketSize", 5);
+        fleetStatsService = proxy(fleetStatsTarget);
+    }
+
+    @Test
+    @DisplayName("Les appels répétés alimentent une seule série, sans histogramme par défaut")
+    void service_RepeatedCallsShareOneSeries() {
+        List<DistributionStatisticConfig> registrations = recordRegistrations();
+        when(store.get("6")).thenReturn(new GarageFleetState());
+
+        for (int i = 0; i < 5; i++) {
+            fleetStatsService.getFleetStats(6L);
+        }
+
+        assertThat(meterRegistry.get(MethodMetricsAspect.METRIC).timer().count()).isEqualTo(5);
+        assertThat(registrations).singleElement()
+                .satisfies(config -> assertThat(config.isPercentileHistogram()).isFalse());
+    }
+
+    @Test
+    @DisplayName("L'histogramme s'active par configuration ; sans tranche, le garage n'apparaît pas dans les tags")
+    void service_HistogramEnabledWithoutGarageBuckets() {
+        List<DistributionStatisticConfig> registrations = recordRegistrations();
+        aspect = new MethodMetricsAspect(meterRegistry, 0, true);
+        fleetStatsService = proxy(fleetStatsTarget);
+        when(store.get("6")).thenReturn(new GarageFleetState());
+
+        fleetStatsService.getFleetStats(6L);
+
+        assertThat(meterRegistry.get(MethodMetricsAspect.METRIC).timer().getId().getTag("garage.bucket"))
+                .isEqualTo("none");
+        assertThat(registrations).singleElement()
+                .satisfies(config -> assertThat(config.isPercentileHistogram()).isTrue());
+    }
+
+    @Test
+    @DisplayName("Un appel réussi est mesuré par méthode, dans la tranche de son garage et non par ID")
+    void service_SuccessTaggedWithGarageBucket() {
+        when(store.get("6")).thenReturn(new GarageFleetState()
+                .apply(VehicleCreatedEvent.of(1L, "Renault", "Clio", 2020, "DIESEL", 6L, "Garage", 0L)));
+
+        fleetStatsService.getFleetStats(6L);
+
+        Timer timer = meterRegistry.get(MethodMetricsAspect.METRIC)
+                .tag("layer", "service")
+                .tag("class", "GarageFleetStatsService")
+                .tag("method", "getFleetStats")
+                .tag("outcome", "success")
+                .tag("exception", "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        // 6 modulo 4 tranches
+        assertThat(timer.getId().getTag("garage.bucket")).isEqualTo("2");
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Un appel en échec est compté en erreur, avec la classe de l'exception, puis l'exception est relancée")
+    void service_ErrorCountedAndRethrown() {
+        assertThatThrownBy(() -> fleetStatsService.getFleetStats(3L)).isInstanceOf(GarageNotFoundException.class);
+        assertThatThrownBy(() -> fleetStatsService.getFleetStats(7L)).isInstanceOf(GarageNotFoundException.class);
+
+        Timer timer = meterRegistry.get(MethodMetricsAspect.METRIC)
+                .tag("outcome", "error")
+                .tag("exception", "GarageNotFoundException")
+                .timer();
+        // 3 et 7 : même tranche, une seule série
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.getId().getTag("garage.bucket")).isEqualTo("3");
+        assertThat(meterRegistry.find(MethodMetricsAspect.METRIC).tag("outcome", "success").timer()).isNull();
+    }
+
+    @Test
+    @DisplayName("Les publishers Kafka sont mesurés ; une méthode sans garage est dans la tranche « none »")
+    void publisher_TimedWithoutGarageBucket() {
+        OutboxPublisher outboxPublisher = mock(OutboxPublisher.class);
+        VehiclePublisher vehiclePublisher = proxy(new VehiclePublisher(outboxPublisher, mock(GarageChangePublisher.class)));
+        Vehicle vehicle = Vehicle.builder().id(1L).brand("Renault").model("Clio").anneeFabrication(2024)
+                .typeCarburant(FuelType.DIESEL).garage(Garage.builder().id(5L).name("Garage").build()).build();
+
+        vehiclePublisher.publishVehicleCreated(vehicle);
+
+        verify(outboxPublisher).enqueue(any(), eq("5"), any());
+        Timer timer = meterRegistry.get(MethodMetricsAspect.METRIC)
+                .tag("layer", "publisher")
+                .tag("class", "VehiclePublisher")
+                .tag("method", "publishVehicleCreated")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.getId().getTag("garage.bucket")).isEqualTo("none");
+    }
+
+    /**
+     * Configuration demandée à chaque enregistrement d'un timer {@value MethodMetricsAspect#METRIC}.
+     */
+    private List<DistributionStatisticConfig> recordRegistrations() {
+        List<DistributionStatisticConfig> registrations = new ArrayList<>();
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals(MethodMetricsAspect.METRIC)) {
+                    registrations.add(config);
+                }
+                return config;
+            }
+        });
+        return registrations;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return (T) factory.getProxy();
+    }
+}
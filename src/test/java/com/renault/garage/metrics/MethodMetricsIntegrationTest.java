@@ -0,0 +1,69 @@
+package com.renault.garage.metrics;
+
+import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.exception.GarageNotFoundException;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.service.GarageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Métriques par méthode dans l'application : services mesurés par l'aspect, requêtes des
+ * repositories par Spring Data.
+ */
+@SpringBootTest(properties = {
+        // Base propre au contexte : le schéma partagé des autres tests est supprimé à la fermeture
+        // des contextes Kafka (@DirtiesContext), quel que soit l'ordre d'exécution des classes
+        "spring.datasource.url=jdbc:h2:mem:method-metrics;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class MethodMetricsIntegrationTest {
+
+    @Autowired
+    private GarageService garageService;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        garageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Les appels des services et les requêtes des repositories sont mesurés, avec leur issue")
+    void servicesAndRepositoriesAreTimed() {
+        GarageDTO garage = garageService.createGarage(GarageDTO.builder()
+                .name("Garage Mesuré")
+                .address("1 Rue des Métriques")
+                .telephone("0100000000")
+                .email("mesure@renault.fr")
+                .build());
+        garageService.getGarageById(garage.getId());
+        assertThatThrownBy(() -> garageService.getGarageById(-1L)).isInstanceOf(GarageNotFoundException.class);
+
+        Timer created = meterRegistry.get(MethodMetricsAspect.METRIC)
+                .tags("class", "GarageService", "method", "createGarage", "outcome", "success")
+                .timer();
+        assertThat(created.count()).isGreaterThanOrEqualTo(1);
+        assertThat(created.getId().getTag("garage.bucket")).isEqualTo(MethodMetricsAspect.NONE);
+        assertThat(meterRegistry.get(MethodMetricsAspect.METRIC)
+                .tags("method", "getGarageById", "outcome", "error", "exception", "GarageNotFoundException")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "GarageRepository", "state", "SUCCESS")
+                .timers()).isNotEmpty();
+    }
+}
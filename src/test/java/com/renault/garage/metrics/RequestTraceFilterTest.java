@@ -0,0 +1,115 @@
+package com.renault.garage.metrics;
+
+import com.renault.garage.dto.RequestSpanDTO;
+import com.renault.garage.dto.SlowRequestDTO;
+import com.renault.garage.enums.SpanType;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests unitaires de la trace des requêtes HTTP échantillonnées.
+ */
+class RequestTraceFilterTest {
+
+    private static final String BY_ID = "select g1_0.id,g1_0.name from garages g1_0 where g1_0.id=?";
+    private static final String INSERT = "insert into vehicles (brand,garage_id,id) values (?,?,default)";
+
+    private SlowRequestLog slowRequestLog;
+    private SqlStatementInspector inspector;
+    private SqlTraceSessionListener listener;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        slowRequestLog = new SlowRequestLog(10, Duration.ZERO);
+        inspector = new SqlStatementInspector();
+        listener = new SqlTraceSessionListener();
+        request = new MockHttpServletRequest("GET", "/api/garages/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/garages/{id}");
+        request.setQueryString("explain=true");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Les étapes imbriquées, les requêtes SQL et l'écriture de la réponse sont tracées")
+    void tracesNestedSpans() throws Exception {
+        new RequestTraceFilter(slowRequestLog, 1.0, 100).doFilter(request, response, (req, res) -> {
+            RequestTrace trace = RequestTrace.current();
+            long controller = trace.enter();
+            long service = trace.enter();
+            inspector.inspect(BY_ID);
+            listener.jdbcExecuteStatementEnd();
+            inspector.inspect(INSERT);
+            listener.jdbcExecuteBatchStart();
+            listener.jdbcExecuteBatchEnd();
+            trace.exit(SpanType.SERVICE, "GarageService.getGarageById", service);
+            trace.exit(SpanType.CONTROLLER, "GarageController.getGarageById", controller);
+        });
+
+        assertThat(RequestTrace.current()).isNull();
+        assertThat(slowRequestLog.getSlowest()).singleElement().satisfies(slow -> {
+            assertThat(slow.getMethod()).isEqualTo("GET");
+            assertThat(slow.getUri()).isEqualTo("/api/garages/{id}");
+            assertThat(slow.getPath()).isEqualTo("/api/garages/1");
+            assertThat(slow.getQuery()).isEqualTo("explain=true");
+            assertThat(slow.getStatus()).isEqualTo(200);
+            assertThat(slow.getSqlStatements()).isEqualTo(2);
+            assertThat(slow.getDurationMsByType()).containsOnlyKeys(SpanType.CONTROLLER, SpanType.SERVICE, SpanType.SQL, SpanType.RESPONSE);
+            assertThat(slow.getSpans())
+                    .extracting(RequestSpanDTO::getType, RequestSpanDTO::getName, RequestSpanDTO::getDepth)
+                    .containsExactly(
+                            tuple(SpanType.CONTROLLER, "GarageController.getGarageById", 0),
+                            tuple(SpanType.SERVICE, "GarageService.getGarageById", 1),
+                            tuple(SpanType.SQL, BY_ID, 2),
+                            tuple(SpanType.SQL, "[lot] " + INSERT, 2),
+                            tuple(SpanType.RESPONSE, "Écriture de la réponse", 0));
+            assertThat(slow.getSpans()).allSatisfy(span ->
+                    // Chaque valeur est arrondie à la microseconde
+                    assertThat(span.getOffsetMs() + span.getDurationMs()).isLessThanOrEqualTo(slow.getDurationMs() + 0.002));
+        });
+    }
+
+    @Test
+    @DisplayName("Au-delà du nombre maximal d'étapes, les suivantes sont seulement comptées")
+    void dropsSpansBeyondLimit() throws Exception {
+        new RequestTraceFilter(slowRequestLog, 1.0, 2).doFilter(request, response, chain(BY_ID, BY_ID, BY_ID));
+
+        SlowRequestDTO slow = slowRequestLog.getSlowest().get(0);
+        assertThat(slow.getSpans()).hasSize(2);
+        assertThat(slow.getDroppedSpans()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Les requêtes non échantillonnées et les requêtes SQL hors requête HTTP ne sont pas tracées")
+    void ignoresUnsampledRequests() throws Exception {
+        inspector.inspect(BY_ID);
+        listener.jdbcExecuteStatementEnd();
+        new RequestTraceFilter(slowRequestLog, 0, 100).doFilter(request, response, (req, res) -> {
+            assertThat(RequestTrace.current()).isNull();
+            inspector.inspect(BY_ID);
+            listener.jdbcExecuteStatementEnd();
+        });
+
+        assertThat(slowRequestLog.getSlowest()).isEmpty();
+    }
+
+    private FilterChain chain(String... statements) {
+        return (request, response) -> {
+            for (String sql : statements) {
+                inspector.inspect(sql);
+                listener.jdbcExecuteStatementEnd();
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.renault.garage.metrics;
+
+import com.renault.garage.dto.RequestSpanDTO;
+import com.renault.garage.dto.SlowRequestDTO;
+import com.renault.garage.enums.SpanType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests unitaires du journal des requêtes HTTP les plus lentes.
+ */
+class SlowRequestLogTest {
+
+    @Test
+    @DisplayName("Seules les requêtes les plus lentes sont retenues, de la plus lente à la plus rapide")
+    void keepsSlowest() {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(2, Duration.ZERO);
+        RequestTrace fast = trace(1);
+        RequestTrace slow = trace(80);
+        RequestTrace medium = trace(40);
+
+        slowRequestLog.offer("GET", "/fast", "/fast", null, 200, fast);
+        slowRequestLog.offer("GET", "/slow", "/slow", null, 200, slow);
+        slowRequestLog.offer("GET", "/medium", "/medium", null, 200, medium);
+
+        assertThat(slowRequestLog.getSlowest()).extracting(SlowRequestDTO::getUri).containsExactly("/slow", "/medium");
+        assertThat(slowRequestLog.accepts(fast.durationNanos())).isFalse();
+        assertThat(slowRequestLog.accepts(slow.durationNanos())).isTrue();
+
+        slowRequestLog.clear();
+        assertThat(slowRequestLog.getSlowest()).isEmpty();
+        assertThat(slowRequestLog.accepts(fast.durationNanos())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Les requêtes sous la durée minimale ne sont pas retenues")
+    void ignoresFastRequests() {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(2, Duration.ofSeconds(5));
+
+        slowRequestLog.offer("GET", "/fast", "/fast", null, 200, trace(1));
+
+        assertThat(slowRequestLog.getSlowest()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("La durée par type ne recompte pas une étape imbriquée dans une étape du même type")
+    void durationByTypeCountsOutermostSpans() {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(2, Duration.ZERO);
+        RequestTrace trace = RequestTrace.start(10);
+        long controller = trace.enter();
+        long outer = trace.enter();
+        long inner = trace.enter();
+        park(2);
+        trace.exit(SpanType.SERVICE, "VehicleService.addVehicleToGarage", inner);
+        trace.exit(SpanType.SERVICE, "GarageService.createGarage", outer);
+        long sibling = trace.enter();
+        park(1);
+        trace.exit(SpanType.SERVICE, "GarageService.getGarageById", sibling);
+        trace.exit(SpanType.CONTROLLER, "GarageController.createGarage", controller);
+        trace.finish();
+
+        slowRequestLog.offer("POST", "/api/garages", "/api/garages", null, 201, trace);
+
+        SlowRequestDTO slow = slowRequestLog.getSlowest().get(0);
+        Map<String, Double> spanDurations = slow.getSpans().stream()
+                .collect(Collectors.toMap(RequestSpanDTO::getName, RequestSpanDTO::getDurationMs));
+        assertThat(slow.getDurationMsByType().get(SpanType.SERVICE)).isCloseTo(
+                spanDurations.get("GarageService.createGarage") + spanDurations.get("GarageService.getGarageById"),
+                within(0.002));
+        assertThat(slow.getDurationMsByType().get(SpanType.CONTROLLER))
+                .isEqualTo(spanDurations.get("GarageController.createGarage"));
+    }
+
+    private static RequestTrace trace(long millis) {
+        RequestTrace trace = RequestTrace.start(10);
+        park(millis);
+        trace.finish();
+        return trace;
+    }
+
+    private static void park(long millis) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,153 @@
+package com.renault.garage.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests unitaires du décompte des requêtes SQL exécutées par requête HTTP.
+ */
+class SqlStatementBudgetFilterTest {
+
+    private static final String BY_ID = "select g1_0.id,g1_0.name from garages g1_0 where g1_0.id=?";
+    private static final String INSERT = "insert into vehicles (brand,garage_id,id) values (?,?,default)";
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementBudgetFilter filter;
+    private SqlStatementInspector inspector;
+    private SqlTraceSessionListener listener;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlStatementBudgetFilter(meterRegistry, 4, 2, true);
+        inspector = new SqlStatementInspector();
+        listener = new SqlTraceSessionListener();
+        request = new MockHttpServletRequest("GET", "/api/garages");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/garages");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Les requêtes SQL sont comptées par forme, publiées par endpoint et renvoyées en en-têtes")
+    void countsStatementsPerRequest() throws Exception {
+        filter.doFilter(request, response, chain(
+                "select g1_0.id from garages g1_0 order by g1_0.name fetch first ? rows only",
+                "select h1_0.garage_id from garage_opening_hours h1_0 where h1_0.garage_id in (?,?,?)",
+                "select h1_0.garage_id from garage_opening_hours h1_0 where h1_0.garage_id in (?, ?)"));
+
+        // Les deux chargements groupés ont la même forme
+        assertThat(response.getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER)).isEqualTo("3");
+        assertThat(response.getHeader(SqlStatementBudgetFilter.SHAPES_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(SqlStatementBudgetFilter.MAX_REPEATED_HEADER)).isEqualTo("2");
+        assertThat(meterRegistry.get("garage.sql.statements").tags("method", "GET", "uri", "/api/garages")
+                .summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.find("garage.sql.budget.exceeded").counter()).isNull();
+        assertThat(SqlStatementRecorder.current()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Une requête au-delà du budget et une forme répétée (N+1) sont signalées")
+    void flagsBudgetAndRepeatedShapes() throws Exception {
+        filter.doFilter(request, response, chain(BY_ID, BY_ID, BY_ID, "select 1", "select 2"));
+
+        assertThat(meterRegistry.get("garage.sql.budget.exceeded").tag("reason", "statements").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("garage.sql.budget.exceeded").tag("reason", "repeated").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Les requêtes hors requête HTTP ne sont pas comptées")
+    void ignoresStatementsOutsideRequest() throws Exception {
+        inspector.inspect(BY_ID);
+        listener.jdbcExecuteStatementEnd();
+        filter.doFilter(request, response, chain());
+
+        assertThat(response.getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER)).isEqualTo("0");
+    }
+
+    @Test
+    @DisplayName("Une portée imbriquée compte aussi dans la portée englobante, jusqu'à sa fermeture")
+    void nestedScopes() {
+        try (SqlStatements outer = SqlStatementRecorder.start()) {
+            try (SqlStatements inner = SqlStatementRecorder.start()) {
+                execute(BY_ID);
+                inner.close();
+                execute(BY_ID);
+                assertThat(inner.count()).isEqualTo(1);
+            }
+            assertThat(outer.count()).isEqualTo(2);
+            assertThat(outer.countsByShape()).containsOnlyKeys(BY_ID);
+        }
+    }
+
+    @Test
+    @DisplayName("Les requêtes sont comptées à l'exécution : un lot compte par envoi, une requête préparée seule ne compte pas")
+    void countsExecutions() {
+        try (SqlStatements statements = SqlStatementRecorder.start()) {
+            inspector.inspect(INSERT);
+            for (int i = 0; i < 2; i++) {
+                listener.jdbcExecuteBatchStart();
+                listener.jdbcExecuteBatchEnd();
+            }
+            inspector.inspect(BY_ID);
+
+            assertThat(statements.count()).isEqualTo(2);
+            assertThat(statements.countsByShape()).containsOnly(entry(INSERT, 2));
+        }
+    }
+
+    @Test
+    @DisplayName("Une réponse asynchrone compte les requêtes de sa session jusqu'à la fin du traitement")
+    void countsAsyncExecutionsUntilCompletion() throws Exception {
+        request.setAsyncSupported(true);
+        AtomicReference<SqlTraceSessionListener> session = new AtomicReference<>();
+        filter.doFilter(request, response, (req, res) -> {
+            // Session ouverte pour la requête HTTP, puis utilisée par le thread de la réponse
+            session.set(new SqlTraceSessionListener());
+            req.startAsync();
+        });
+        assertThat(SqlStatementRecorder.current()).isEmpty();
+
+        CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 3; i++) {
+                inspector.inspect(BY_ID);
+                session.get().jdbcExecuteStatementEnd();
+            }
+        }).get(10, TimeUnit.SECONDS);
+        assertThat(meterRegistry.find("garage.sql.statements").summary()).isNull();
+        request.getAsyncContext().complete();
+
+        assertThat(meterRegistry.get("garage.sql.statements").summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("garage.sql.budget.exceeded").tag("reason", "repeated").counter().count())
+                .isEqualTo(1);
+    }
+
+    private void execute(String sql) {
+        assertThat(inspector.inspect(sql)).isEqualTo(sql);
+        listener.jdbcExecuteStatementEnd();
+    }
+
+    private FilterChain chain(String... statements) {
+        return (request, response) -> {
+            for (String sql : statements) {
+                execute(sql);
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.renault.garage.metrics;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Extension JUnit de comptage des requêtes SQL exécutées par le thread du test (appels MockMvc,
+ * services), sans les requêtes des threads en arrière-plan (relais de l'outbox, listeners) :
+ *
+ * <pre>{@code
+ * @RegisterExtension
+ * final SqlStatementCountExtension sqlStatements = new SqlStatementCountExtension();
+ *
+ * sqlStatements.assertCount(1, () -> mockMvc.perform(get("/api/garages/{id}", id)));
+ * }</pre>
+ *
+ * <p>{@link #total()} compte les requêtes du test entier, {@link #assertCount} celles d'un appel.</p>
+ */
+public class SqlStatementCountExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private SqlStatements total;
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        total = SqlStatementRecorder.start();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        total.close();
+    }
+
+    /**
+     * Requêtes exécutées depuis le début du test.
+     */
+    public SqlStatements total() {
+        return total;
+    }
+
+    /**
+     * Requêtes exécutées par l'appel.
+     */
+    public SqlStatements during(Call call) throws Exception {
+        try (SqlStatements statements = SqlStatementRecorder.start()) {
+            call.run();
+            return statements;
+        }
+    }
+
+    /**
+     * Exécute l'appel et vérifie le nombre exact de requêtes SQL ; en cas d'écart, le message
+     * liste les requêtes par forme.
+     */
+    public SqlStatements assertCount(int expected, Call call) throws Exception {
+        SqlStatements statements = during(call);
+        assertThat(statements.count())
+                .as(() -> "Requêtes SQL exécutées : " + statements.describe(Integer.MAX_VALUE))
+                .isEqualTo(expected);
+        return statements;
+    }
+
+    @FunctionalInterface
+    public interface Call {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,149 @@
+package com.renault.garage.search;
+
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import com.renault.garage.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitaires pour GarageFuelTypeIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+class GarageFuelTypeIndexTest {
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @InjectMocks
+    private GarageFuelTypeIndex index;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Le bit n'est effacé qu'au départ du dernier véhicule du type")
+    void vehicleRemoved_ClearsBitWithLastVehicle() {
+        index.vehicleAdded(1L, FuelType.DIESEL);
+        index.vehicleAdded(1L, FuelType.DIESEL);
+
+        index.vehicleRemoved(1L, FuelType.DIESEL);
+        assertThat(index.find(Set.of(FuelType.DIESEL), FuelTypeMatch.ANY).get(1)).isTrue();
+
+        index.vehicleRemoved(1L, FuelType.DIESEL);
+        assertThat(index.find(Set.of(FuelType.DIESEL), FuelTypeMatch.ANY).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Combinaison ET / OU de plusieurs types de carburant")
+    void find_AndOr() {
+        index.vehicleAdded(1L, FuelType.ELECTRIQUE);
+        index.vehicleAdded(2L, FuelType.ELECTRIQUE);
+        index.vehicleAdded(2L, FuelType.HYBRIDE);
+        index.vehicleAdded(3L, FuelType.HYBRIDE);
+
+        Set<FuelType> fuelTypes = Set.of(FuelType.ELECTRIQUE, FuelType.HYBRIDE);
+        assertThat(index.find(fuelTypes, FuelTypeMatch.ANY).stream().boxed().toList()).containsExactly(1, 2, 3);
+        assertThat(index.find(fuelTypes, FuelTypeMatch.ALL).stream().boxed().toList()).containsExactly(2);
+        assertThat(index.find(Set.of(FuelType.GPL), FuelTypeMatch.ANY).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Le résultat est une copie : le modifier ne touche pas l'index")
+    void find_ReturnsCopy() {
+        index.vehicleAdded(1L, FuelType.ESSENCE);
+
+        index.find(Set.of(FuelType.ESSENCE), FuelTypeMatch.ANY).clear(1);
+
+        assertThat(index.find(Set.of(FuelType.ESSENCE), FuelTypeMatch.ANY).get(1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Suppression d'un garage : retiré de tous les bitmaps")
+    void garageRemoved_ClearsAllFuelTypes() {
+        index.vehicleAdded(5L, FuelType.ESSENCE);
+        index.vehicleAdded(5L, FuelType.GPL);
+
+        index.garageRemoved(5L);
+
+        assertThat(index.find(Set.of(FuelType.values()), FuelTypeMatch.ANY).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Les modifications ne sont appliquées qu'après le commit")
+    void vehicleAdded_AppliedAfterCommitOnly() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.vehicleAdded(1L, FuelType.ESSENCE);
+        assertThat(index.find(Set.of(FuelType.ESSENCE), FuelTypeMatch.ANY).isEmpty()).isTrue();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(index.find(Set.of(FuelType.ESSENCE), FuelTypeMatch.ANY).get(1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Reconstruction à partir des comptages en base")
+    void rebuild_FromDatabaseCounts() {
+        index.vehicleAdded(9L, FuelType.DIESEL);
+        when(vehicleRepository.countByGarageAndFuelType()).thenReturn(List.of(
+                new Object[]{1L, FuelType.DIESEL, 3L},
+                new Object[]{2L, FuelType.ELECTRIQUE, 1L}));
+
+        index.rebuild();
+
+        assertThat(index.find(Set.of(FuelType.DIESEL), FuelTypeMatch.ANY).stream().boxed().toList()).containsExactly(1);
+        assertThat(index.find(Set.of(FuelType.ELECTRIQUE), FuelTypeMatch.ANY).get(2)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Chargement depuis l'état publié des garages : la base n'est pas relue au démarrage")
+    void load_ReplacesContentAndSkipsRebuild() {
+        index.vehicleAdded(9L, FuelType.DIESEL);
+
+        index.load(Map.of(
+                1L, Map.of(FuelType.DIESEL, 2, FuelType.GPL, 0),
+                2L, Map.of(FuelType.HYBRIDE, 1)));
+        index.onApplicationReady();
+
+        assertThat(index.find(Set.of(FuelType.DIESEL), FuelTypeMatch.ANY).stream().boxed().toList()).containsExactly(1);
+        assertThat(index.find(Set.of(FuelType.GPL), FuelTypeMatch.ANY).isEmpty()).isTrue();
+        assertThat(index.find(Set.of(FuelType.HYBRIDE), FuelTypeMatch.ANY).get(2)).isTrue();
+        verifyNoInteractions(vehicleRepository);
+    }
+
+    @Test
+    @DisplayName("État publié par une autre instance : remplace les nombres du garage, idempotent")
+    void garageStateChanged_ReplacesGarageCounts() {
+        index.vehicleAdded(1L, FuelType.DIESEL);
+        index.vehicleAdded(2L, FuelType.DIESEL);
+
+        index.garageStateChanged(1L, Map.of(FuelType.ELECTRIQUE, 2, FuelType.DIESEL, 0));
+        index.garageStateChanged(1L, Map.of(FuelType.ELECTRIQUE, 2, FuelType.DIESEL, 0));
+
+        assertThat(index.find(Set.of(FuelType.DIESEL), FuelTypeMatch.ANY).stream().boxed().toList()).containsExactly(2);
+        assertThat(index.find(Set.of(FuelType.ELECTRIQUE), FuelTypeMatch.ANY).stream().boxed().toList()).containsExactly(1);
+
+        // Les nombres repris de l'état restent la base des variations locales suivantes
+        index.vehicleRemoved(1L, FuelType.ELECTRIQUE);
+        assertThat(index.find(Set.of(FuelType.ELECTRIQUE), FuelTypeMatch.ANY).get(1)).isTrue();
+    }
+}
@@ -0,0 +1,142 @@
+package com.renault.garage.search;
+
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import com.renault.garage.enums.SearchField;
+import com.renault.garage.search.GarageSearchPredicate.AccessPath;
+import com.renault.garage.service.SearchIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitaires pour GarageSearchPlanner.
+ */
+@ExtendWith(MockitoExtension.class)
+class GarageSearchPlannerTest {
+
+    @Mock
+    private GarageSearchStatistics statistics;
+
+    @Mock
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @InjectMocks
+    private GarageSearchPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        when(statistics.current()).thenReturn(new GarageSearchStatistics.Snapshot(100,
+                Map.of("clio", 30L, "clio 5", 4L, "zoe", 12L),
+                Map.of("gps", 60L),
+                Map.of(AccessoryType.MULTIMEDIA, 70L, AccessoryType.SECURITE, 5L),
+                new TreeMap<>(Map.of(2018, 20L, 2019, 25L, 2020, 40L, 2021, 50L)),
+                Instant.now()));
+    }
+
+    @Test
+    @DisplayName("Les critères sont ordonnés du plus sélectif au moins sélectif")
+    void plan_OrdersByEstimatedGarages() {
+        when(garageFuelTypeIndex.find(Set.of(FuelType.ELECTRIQUE), FuelTypeMatch.ANY)).thenReturn(bits(25));
+        when(searchIndexService.findMatchingValues(SearchField.VEHICLE_MODEL, "clio"))
+                .thenReturn(Optional.of(List.of("clio", "clio 5")));
+
+        GarageSearchPlan plan = planner.plan(GarageSearchCriteria.builder()
+                .fuelTypes(Set.of(FuelType.ELECTRIQUE))
+                .model("Clio")
+                .accessoryType(AccessoryType.SECURITE)
+                .yearFrom(2020)
+                .build());
+
+        assertThat(plan.predicates()).extracting(GarageSearchPredicate::name)
+                .containsExactly("accessoryType", "fuelType", "model", "year");
+        assertThat(plan.predicates()).extracting(GarageSearchPredicate::estimatedGarages)
+                .containsExactly(5L, 25L, 34L, 90L);
+        assertThat(plan.driving().accessPath()).isEqualTo(AccessPath.COLUMN);
+        assertThat(plan.isKnownEmpty()).isFalse();
+    }
+
+    @Test
+    @DisplayName("À estimation égale, le bitmap des carburants pilote la recherche")
+    void plan_BitmapWinsTies() {
+        when(garageFuelTypeIndex.find(Set.of(FuelType.GPL), FuelTypeMatch.ANY)).thenReturn(bits(12));
+        when(searchIndexService.findMatchingValues(SearchField.VEHICLE_MODEL, "zoe"))
+                .thenReturn(Optional.of(List.of("zoe")));
+
+        GarageSearchPlan plan = planner.plan(GarageSearchCriteria.builder()
+                .model("zoe")
+                .fuelTypes(Set.of(FuelType.GPL))
+                .build());
+
+        assertThat(plan.driving().accessPath()).isEqualTo(AccessPath.BITMAP_INDEX);
+        assertThat(plan.driving().garageIds().cardinality()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Texte trop courant pour l'index : LIKE estimé sur tous les garages")
+    void plan_LikeScanIsPessimistic() {
+        when(searchIndexService.findMatchingValues(SearchField.ACCESSORY_NAME, "e")).thenReturn(Optional.empty());
+
+        GarageSearchPlan plan = planner.plan(GarageSearchCriteria.builder()
+                .accessoryName("E")
+                .accessoryType(AccessoryType.MULTIMEDIA)
+                .build());
+
+        assertThat(plan.predicates()).extracting(GarageSearchPredicate::name)
+                .containsExactly("accessoryType", "accessory");
+        assertThat(plan.filters().get(0).accessPath()).isEqualTo(AccessPath.LIKE_SCAN);
+        assertThat(plan.filters().get(0).estimatedGarages()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Aucune valeur indexée ne correspond : plan vide sans requête")
+    void plan_NoIndexedValueIsKnownEmpty() {
+        when(searchIndexService.findMatchingValues(SearchField.ACCESSORY_NAME, "radar"))
+                .thenReturn(Optional.of(List.of()));
+
+        GarageSearchPlan plan = planner.plan(GarageSearchCriteria.builder()
+                .accessoryName("Radar")
+                .yearTo(2019)
+                .build());
+
+        assertThat(plan.isKnownEmpty()).isTrue();
+        assertThat(plan.driving().name()).isEqualTo("accessory");
+    }
+
+    @Test
+    @DisplayName("Une valeur absente des statistiques ne rend jamais le plan vide")
+    void plan_ValueMissingFromStatisticsIsNotEmpty() {
+        when(searchIndexService.findMatchingValues(SearchField.VEHICLE_MODEL, "austral"))
+                .thenReturn(Optional.of(List.of("austral")));
+
+        GarageSearchPlan plan = planner.plan(GarageSearchCriteria.builder().model("Austral").build());
+
+        assertThat(plan.driving().estimatedGarages()).isEqualTo(1);
+        assertThat(plan.isKnownEmpty()).isFalse();
+    }
+
+    private static BitSet bits(int count) {
+        BitSet bits = new BitSet();
+        bits.set(1, count + 1);
+        return bits;
+    }
+}
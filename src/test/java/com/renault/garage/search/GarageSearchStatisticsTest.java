@@ -0,0 +1,71 @@
+package com.renault.garage.search;
+
+import com.renault.garage.repository.AccessoryRepository;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour GarageSearchStatistics.
+ */
+@ExtendWith(MockitoExtension.class)
+class GarageSearchStatisticsTest {
+
+    @Mock
+    private GarageRepository garageRepository;
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private AccessoryRepository accessoryRepository;
+
+    @InjectMocks
+    private GarageSearchStatistics statistics;
+
+    @Test
+    @DisplayName("Une recherche lit la photographie courante sans attendre le recalcul planifié")
+    void current_DoesNotWaitForRefresh() throws Exception {
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(garageRepository.count()).thenReturn(10L).thenAnswer(invocation -> {
+            refreshing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return 20L;
+        });
+        statistics.onApplicationReady();
+
+        CompletableFuture<Void> refresh = CompletableFuture.runAsync(statistics::scheduledRefresh);
+        assertThat(refreshing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(CompletableFuture.supplyAsync(statistics::current).get(1, TimeUnit.SECONDS).garageCount())
+                .isEqualTo(10);
+        release.countDown();
+        refresh.get(10, TimeUnit.SECONDS);
+        assertThat(statistics.current().garageCount()).isEqualTo(20);
+        verify(garageRepository, times(2)).count();
+    }
+
+    @Test
+    @DisplayName("Un recalcul en échec laisse servir la photographie précédente")
+    void scheduledRefresh_FailureKeepsSnapshot() {
+        when(garageRepository.count()).thenReturn(10L).thenThrow(new IllegalStateException("base indisponible"));
+        statistics.onApplicationReady();
+
+        statistics.scheduledRefresh();
+
+        assertThat(statistics.current().garageCount()).isEqualTo(10);
+    }
+}
@@ -1,5 +1,7 @@
 package com.renault.garage.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.cache.ResponseNearCache;
 import com.renault.garage.dto.AccessoryDTO;
 import com.renault.garage.entity.Accessory;
 import com.renault.garage.entity.Vehicle;
@@ -7,18 +9,23 @@ import com.renault.garage.enums.AccessoryType;
 import com.renault.garage.enums.FuelType;
 import com.renault.garage.exception.AccessoryNotFoundException;
 import com.renault.garage.exception.VehicleNotFoundException;
+import com.renault.garage.kafka.CacheInvalidationPublisher;
+import com.renault.garage.kafka.GarageChangePublisher;
 import com.renault.garage.mapper.AccessoryMapper;
 import com.renault.garage.repository.AccessoryRepository;
 import com.renault.garage.repository.VehicleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +50,20 @@ class AccessoryServiceTest {
     @Mock
     private AccessoryMapper accessoryMapper;
 
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private GarageChangePublisher garageChangePublisher;
+
+    @Mock
+    private VehicleLocks vehicleLocks;
+
+    @Spy
+    private ResponseNearCache responseNearCache = new ResponseNearCache(
+            mock(CacheInvalidationPublisher.class), new SimpleMeterRegistry(), new ObjectMapper(),
+            100, Duration.ofMinutes(5), true, true, "test");
+
     @InjectMocks
     private AccessoryService accessoryService;
 
@@ -84,7 +105,7 @@ class AccessoryServiceTest {
     @DisplayName("Ajout d'un accessoire à un véhicule avec succès")
     void addAccessoryToVehicle_Success() {
         // Given
-        when(vehicleRepository.findById(1L)).thenReturn(Optional.of(vehicle));
+        when(vehicleLocks.lockVehicle(1L)).thenReturn(vehicle);
         when(accessoryMapper.toEntity(any(AccessoryDTO.class))).thenReturn(accessory);
         when(accessoryRepository.save(any(Accessory.class))).thenReturn(accessory);
         when(accessoryMapper.toDTO(any(Accessory.class))).thenReturn(accessoryDTO);
@@ -96,13 +117,15 @@ class AccessoryServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getNom()).isEqualTo("GPS Navigation");
         assertThat(result.getPrix()).isEqualTo(new BigDecimal("499.99"));
+        assertThat(vehicle.getAccessoryCount()).isEqualTo(1);
+        verify(garageChangePublisher).publishAccessoryAdded(accessory);
     }
 
     @Test
     @DisplayName("Ajout d'un accessoire à un véhicule inexistant lève une exception")
     void addAccessoryToVehicle_VehicleNotFound() {
         // Given
-        when(vehicleRepository.findById(999L)).thenReturn(Optional.empty());
+        when(vehicleLocks.lockVehicle(999L)).thenThrow(new VehicleNotFoundException(999L));
 
         // When/Then
         assertThatThrownBy(() -> accessoryService.addAccessoryToVehicle(999L, accessoryDTO))
@@ -163,14 +186,15 @@ class AccessoryServiceTest {
                 .build();
 
         when(accessoryRepository.findById(1L)).thenReturn(Optional.of(accessory));
-        when(accessoryRepository.save(any(Accessory.class))).thenReturn(accessory);
+        when(accessoryRepository.saveAndFlush(any(Accessory.class))).thenReturn(accessory);
         when(accessoryMapper.toDTO(any(Accessory.class))).thenReturn(updateDTO);
 
         // When
-        AccessoryDTO result = accessoryService.updateAccessory(1L, updateDTO);
+        AccessoryDTO result = accessoryService.updateAccessory(1L, updateDTO, null);
 
-        // Then
+        // Then : le garage et le véhicule sont verrouillés avant l'écriture
         assertThat(result).isNotNull();
+        verify(vehicleLocks).lockVehicle(1L);
         verify(accessoryMapper).updateEntityFromDTO(updateDTO, accessory);
     }
 
@@ -178,14 +202,16 @@ class AccessoryServiceTest {
     @DisplayName("Suppression d'un accessoire avec succès")
     void deleteAccessory_Success() {
         // Given
-        accessory.setVehicle(vehicle);
-        vehicle.getAccessories().add(accessory);
+        vehicle.addAccessory(accessory);
         when(accessoryRepository.findById(1L)).thenReturn(Optional.of(accessory));
+        when(vehicleLocks.lockVehicle(1L)).thenReturn(vehicle);
 
         // When
         accessoryService.deleteAccessory(1L);
 
         // Then
         verify(accessoryRepository).delete(accessory);
+        assertThat(vehicle.getAccessoryCount()).isZero();
+        verify(garageChangePublisher).publishAccessoryDeleted(eq(accessory), eq(1L), any());
     }
 }
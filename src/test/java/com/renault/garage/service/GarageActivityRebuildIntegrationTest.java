@@ -0,0 +1,148 @@
+package com.renault.garage.service;
+
+import com.renault.garage.dto.ProjectionRebuildStatusDTO;
+import com.renault.garage.entity.GarageActivity;
+import com.renault.garage.enums.RebuildState;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.repository.GarageActivityOffsetRepository;
+import com.renault.garage.repository.GarageActivityRepository;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Reconstruction de l'activité des garages sur un broker embarqué : relecture du topic depuis
+ * l'offset zéro, remplacement de la table et reprise du listener principal à la position atteinte.
+ */
+@SpringBootTest(properties = {
+        // Auto-configuration Kafka active : le listener principal est démarré
+        "spring.autoconfigure.exclude=",
+        "spring.kafka.consumer.group-id=garage-activity-rebuild-test",
+        "garage.projections.rebuild.progress-interval=PT0.2S",
+        // Gestionnaire JCache propre au contexte : sa fermeture (@DirtiesContext) ne ferme pas
+        // les caches de second niveau des contextes de test encore en cache
+        "spring.jpa.properties.hibernate.javax.cache.uri=application.conf"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 1, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@DirtiesContext
+class GarageActivityRebuildIntegrationTest {
+
+    private static final String TOPIC = "vehicle-created";
+    private static final String GROUP_ID = "garage-activity-rebuild-test";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+
+    @Autowired
+    private KafkaAdmin kafkaAdmin;
+
+    @Autowired
+    private GarageActivityRebuildService garageActivityRebuildService;
+
+    @Autowired
+    private GarageActivityRepository garageActivityRepository;
+
+    @Autowired
+    private GarageActivityOffsetRepository garageActivityOffsetRepository;
+
+    @AfterEach
+    void tearDown() {
+        garageActivityRepository.deleteAllInBatch();
+        garageActivityOffsetRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("La projection est reconstruite depuis le journal, puis le listener reprend à la position atteinte")
+    void rebuild_ReplacesProjectionAndResumesLiveListener() throws Exception {
+        kafkaTemplate.send(TOPIC, "1", event(1L, 1L));
+        kafkaTemplate.send(TOPIC, "1", event(2L, 1L));
+        // Renvoi du relais de l'outbox
+        kafkaTemplate.send(TOPIC, "1", event(2L, 1L));
+        outboxKafkaTemplate.send(new ProducerRecord<>(TOPIC, "2", "pas un événement".getBytes(StandardCharsets.UTF_8)));
+        kafkaTemplate.send(TOPIC, "2", event(3L, 2L)).get();
+        await().atMost(TIMEOUT).until(() -> vehiclesCreated(2L) == 1);
+
+        // Projection altérée : compteur faux, garage inconnu du journal
+        GarageActivity garage1 = garageActivityRepository.findById(1L).orElseThrow();
+        garage1.setVehiclesCreated(42);
+        garageActivityRepository.save(garage1);
+        garageActivityRepository.save(GarageActivity.builder().garageId(99L).vehiclesCreated(7).build());
+
+        garageActivityRebuildService.start();
+        assertThatThrownBy(garageActivityRebuildService::start).hasMessageContaining("déjà en cours");
+        await().atMost(TIMEOUT).until(() -> garageActivityRebuildService.getStatus().orElseThrow().getFinishedAt() != null);
+
+        ProjectionRebuildStatusDTO status = garageActivityRebuildService.getStatus().orElseThrow();
+        assertThat(status.getState()).isEqualTo(RebuildState.COMPLETED);
+        assertThat(status.getEventsRead()).isEqualTo(5);
+        assertThat(status.getDuplicatesSkipped()).isEqualTo(1);
+        assertThat(status.getUnreadableSkipped()).isEqualTo(1);
+        assertThat(status.getGarages()).isEqualTo(2);
+        assertThat(status.getProgressPercent()).isEqualTo(100.0);
+        assertThat(garageActivityRepository.findAll()).extracting(GarageActivity::getGarageId).containsOnly(1L, 2L);
+        assertThat(vehiclesCreated(1L)).isEqualTo(2);
+        assertThat(vehiclesCreated(2L)).isEqualTo(1);
+        assertThat(committedOffsets()).isEqualTo(endOffsets());
+        // Derniers offsets appliqués alignés sur la position validée
+        endOffsets().forEach((partition, offset) -> assertThat(garageActivityOffsetRepository
+                .findById(partition.toString()).orElseThrow().getLastOffset()).isEqualTo(offset - 1));
+
+        // Le listener principal a repris sur la nouvelle projection
+        kafkaTemplate.send(TOPIC, "1", event(4L, 1L));
+        await().atMost(TIMEOUT).until(() -> vehiclesCreated(1L) == 3);
+    }
+
+    private long vehiclesCreated(Long garageId) {
+        return garageActivityRepository.findById(garageId).map(GarageActivity::getVehiclesCreated).orElse(0L);
+    }
+
+    private Map<TopicPartition, Long> committedOffsets() throws Exception {
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            return admin.listConsumerGroupOffsets(GROUP_ID).partitionsToOffsetAndMetadata().get().entrySet().stream()
+                    .filter(entry -> entry.getKey().topic().equals(TOPIC))
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+        }
+    }
+
+    private Map<TopicPartition, Long> endOffsets() throws Exception {
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            Map<TopicPartition, OffsetSpec> request = admin.describeTopics(List.of(TOPIC)).allTopicNames().get()
+                    .get(TOPIC).partitions().stream()
+                    .collect(Collectors.toMap(info -> new TopicPartition(TOPIC, info.partition()), info -> OffsetSpec.latest()));
+            return admin.listOffsets(request).all().get().entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+        }
+    }
+
+    private static VehicleCreatedEvent event(Long vehicleId, Long garageId) {
+        return new VehicleCreatedEvent(vehicleId, "Renault", "Clio", 2024, "ESSENCE",
+                garageId, "Garage " + garageId, Instant.now(), 0L);
+    }
+}
@@ -0,0 +1,102 @@
+package com.renault.garage.service;
+
+import com.renault.garage.entity.GarageActivity;
+import com.renault.garage.event.VehicleCreatedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires de la relecture d'une partition pour la reconstruction de l'activité des garages.
+ */
+class GarageActivityRebuildWorkerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("vehicle-created", 0);
+
+    private MockConsumer<String, Object> consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+    }
+
+    @Test
+    @DisplayName("Les créations sont agrégées par garage, doublons et messages illisibles écartés")
+    void catchUp_AggregatesByGarageAndSkipsDuplicatesAndUnreadable() {
+        GarageActivityRebuildWorker worker = new GarageActivityRebuildWorker(consumer, PARTITION, 0L);
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, event(1L, 1L)));
+            consumer.addRecord(record(1, event(2L, 1L)));
+            consumer.addRecord(record(2, null));
+        });
+        consumer.schedulePollTask(() -> {
+            // Renvoi du relais de l'outbox
+            consumer.addRecord(record(3, event(2L, 1L)));
+            consumer.addRecord(record(4, event(3L, 2L)));
+        });
+
+        worker.catchUp(5L);
+
+        Map<Long, GarageActivity> activities = worker.activities();
+        assertThat(activities).containsOnlyKeys(1L, 2L);
+        assertThat(activities.get(1L).getVehiclesCreated()).isEqualTo(2);
+        assertThat(activities.get(2L).getVehiclesCreated()).isEqualTo(1);
+        assertThat(worker.offsetsRead()).isEqualTo(5);
+        assertThat(worker.eventsRead()).isEqualTo(5);
+        assertThat(worker.duplicates()).isEqualTo(1);
+        assertThat(worker.unreadable()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Les enregistrements au-delà de la cible ne sont appliqués qu'à l'appel suivant")
+    void catchUp_StopsAtTargetThenResumes() {
+        GarageActivityRebuildWorker worker = new GarageActivityRebuildWorker(consumer, PARTITION, 0L);
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, event(1L, 1L)));
+            consumer.addRecord(record(1, event(2L, 1L)));
+            consumer.addRecord(record(2, event(3L, 1L)));
+        });
+
+        worker.catchUp(2L);
+
+        assertThat(worker.activities().get(1L).getVehiclesCreated()).isEqualTo(2);
+        assertThat(worker.offsetsRead()).isEqualTo(2);
+        assertThat(consumer.position(PARTITION)).isEqualTo(2);
+
+        consumer.schedulePollTask(() -> consumer.addRecord(record(2, event(3L, 1L))));
+        worker.catchUp(3L);
+
+        assertThat(worker.activities().get(1L).getVehiclesCreated()).isEqualTo(3);
+        assertThat(worker.offsetsRead()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Une partition déjà à sa cible n'est pas relue")
+    void catchUp_NothingToRead() {
+        GarageActivityRebuildWorker worker = new GarageActivityRebuildWorker(consumer, PARTITION, 0L);
+
+        worker.catchUp(0L);
+
+        assertThat(worker.activities()).isEmpty();
+        assertThat(worker.eventsRead()).isZero();
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, Object value) {
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, "1", value);
+    }
+
+    private static VehicleCreatedEvent event(Long vehicleId, Long garageId) {
+        return new VehicleCreatedEvent(vehicleId, "Renault", "Clio", 2024, "ESSENCE",
+                garageId, "Garage " + garageId, Instant.now(), 0L);
+    }
+}
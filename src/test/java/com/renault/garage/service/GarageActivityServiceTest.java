@@ -0,0 +1,202 @@
+package com.renault.garage.service;
+
+import com.renault.garage.entity.GarageActivity;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.repository.GarageActivityOffsetRepository;
+import com.renault.garage.repository.GarageActivityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests de la projection d'activité des garages, tenue en mémoire par partition.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GarageActivityServiceTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("vehicle-created", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("vehicle-created", 1);
+
+    @Autowired
+    private GarageActivityService garageActivityService;
+
+    @Autowired
+    private GarageActivityRepository garageActivityRepository;
+
+    @Autowired
+    private GarageActivityOffsetRepository garageActivityOffsetRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        garageActivityService.releaseAll();
+        garageActivityRepository.deleteAllInBatch();
+        garageActivityOffsetRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Un lot est appliqué par garage, en complétant les projections existantes")
+    void applyVehiclesCreated_GroupsByGarage() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        garageActivityRepository.save(GarageActivity.builder()
+                .garageId(1L).garageName("Garage 1").vehiclesCreated(10)
+                .lastVehicleCreatedAt(now.minusSeconds(60)).build());
+
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0,
+                event(100L, 1L, now.minusSeconds(5)),
+                event(101L, 2L, now.minusSeconds(4)),
+                event(102L, 1L, now),
+                event(103L, null, now)));
+
+        Map<Long, GarageActivity> byGarage = activitiesByGarage();
+        assertThat(byGarage).containsOnlyKeys(1L, 2L);
+        assertThat(byGarage.get(1L).getVehiclesCreated()).isEqualTo(12);
+        assertThat(byGarage.get(1L).getLastVehicleCreatedAt()).isEqualTo(now);
+        assertThat(byGarage.get(2L).getVehiclesCreated()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Les lots suivants d'une partition ne relisent pas les garages déjà connus")
+    void applyVehiclesCreated_KnownGaragesAreNotReadAgain() {
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(100L, 1L, Instant.now())));
+        long queries = statistics.getQueryExecutionCount();
+        long loads = statistics.getEntityLoadCount();
+
+        for (long i = 0; i < 5; i++) {
+            garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(200L + i, 1L, Instant.now())));
+        }
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(queries);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(loads);
+        assertThat(activitiesByGarage().get(1L).getVehiclesCreated()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Les partitions ont des états indépendants")
+    void applyVehiclesCreated_PartitionsAreIndependent() {
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(100L, 1L, Instant.now())));
+        garageActivityService.applyVehiclesCreated(PARTITION_1, records(PARTITION_1, event(101L, 2L, Instant.now())));
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(102L, 1L, Instant.now())));
+
+        Map<Long, GarageActivity> byGarage = activitiesByGarage();
+        assertThat(byGarage.get(1L).getVehiclesCreated()).isEqualTo(2);
+        assertThat(byGarage.get(2L).getVehiclesCreated()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Une écriture concurrente invalide l'état en mémoire, relu au lot suivant")
+    void applyVehiclesCreated_StaleStateIsReloaded() {
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(100L, 1L, Instant.now())));
+        // Autre writer (ancien propriétaire de la partition, reconstruction...)
+        GarageActivity activity = garageActivityRepository.findById(1L).orElseThrow();
+        activity.setVehiclesCreated(40);
+        garageActivityRepository.save(activity);
+
+        assertThatThrownBy(() -> garageActivityService.applyVehiclesCreated(PARTITION_0,
+                records(PARTITION_0, event(101L, 1L, Instant.now()))))
+                .hasRootCauseInstanceOf(StaleStateException.class);
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(101L, 1L, Instant.now())));
+
+        assertThat(activitiesByGarage().get(1L).getVehiclesCreated()).isEqualTo(41);
+    }
+
+    @Test
+    @DisplayName("Une partition retirée abandonne son état")
+    void releasePartitions_DropsState() {
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(100L, 1L, Instant.now())));
+        garageActivityService.releasePartitions(List.of(PARTITION_0));
+        long queries = statistics.getQueryExecutionCount();
+
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0, event(101L, 1L, Instant.now())));
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(queries + 1);
+        assertThat(activitiesByGarage().get(1L).getVehiclesCreated()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Un lot relivré par Kafka après un rééquilibrage n'est pas compté deux fois")
+    void applyVehiclesCreated_RedeliveredRecordsAreIgnored() {
+        double redelivered = meterRegistry.get("garage.vehicle-events.redelivered").counter().count();
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0,
+                event(100L, 1L, Instant.now()), event(101L, 1L, Instant.now())));
+        // Offsets non validés : le nouveau propriétaire de la partition relit le lot, puis la suite
+        garageActivityService.releasePartitions(List.of(PARTITION_0));
+
+        garageActivityService.applyVehiclesCreated(PARTITION_0, records(PARTITION_0,
+                event(100L, 1L, Instant.now()), event(101L, 1L, Instant.now()), event(102L, 1L, Instant.now())));
+
+        assertThat(activitiesByGarage().get(1L).getVehiclesCreated()).isEqualTo(3);
+        assertThat(meterRegistry.get("garage.vehicle-events.redelivered").counter().count()).isEqualTo(redelivered + 2);
+        assertThat(garageActivityOffsetRepository.findById(PARTITION_0.toString()).orElseThrow().getLastOffset())
+                .isEqualTo(102L);
+    }
+
+    @Test
+    @DisplayName("Une reprise relivrée n'est appliquée qu'une fois")
+    void applyVehicleCreated_RedeliveredRetryIsIgnored() {
+        TopicPartition retry = new TopicPartition("vehicle-created-failed-0", 0);
+        ConsumerRecord<String, VehicleCreatedEvent> record = records(retry, event(100L, 1L, Instant.now())).get(0);
+
+        garageActivityService.applyVehicleCreated(record);
+        garageActivityService.applyVehicleCreated(record);
+
+        assertThat(activitiesByGarage().get(1L).getVehiclesCreated()).isEqualTo(1);
+    }
+
+    private Map<Long, GarageActivity> activitiesByGarage() {
+        return garageActivityRepository.findAll().stream()
+                .collect(Collectors.toMap(GarageActivity::getGarageId, Function.identity()));
+    }
+
+    /**
+     * Enregistrements de la partition, à l'offset égal à l'ID du véhicule.
+     */
+    private List<ConsumerRecord<String, VehicleCreatedEvent>> records(TopicPartition partition, VehicleCreatedEvent... events) {
+        List<ConsumerRecord<String, VehicleCreatedEvent>> records = new ArrayList<>();
+        for (VehicleCreatedEvent event : events) {
+            records.add(new ConsumerRecord<>(partition.topic(), partition.partition(), event.vehicleId(),
+                    String.valueOf(event.garageId()), event));
+        }
+        return records;
+    }
+
+    private VehicleCreatedEvent event(Long vehicleId, Long garageId, Instant createdAt) {
+        return new VehicleCreatedEvent(vehicleId, "Renault", "Clio", 2024, "ESSENCE",
+                garageId, garageId != null ? "Garage " + garageId : null, createdAt, 0L);
+    }
+}
@@ -0,0 +1,124 @@
+package com.renault.garage.service;
+
+import com.renault.garage.dto.GarageFleetStatsDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.exception.FleetStatsUnavailableException;
+import com.renault.garage.exception.GarageNotFoundException;
+import com.renault.garage.kafka.GarageFleetState;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Properties;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires des requêtes interactives sur les agrégats de flotte.
+ */
+@ExtendWith(MockitoExtension.class)
+class GarageFleetStatsServiceTest {
+
+    @Mock
+    private StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Mock
+    private KafkaStreams kafkaStreams;
+
+    @Mock
+    private ReadOnlyKeyValueStore<String, GarageFleetState> store;
+
+    @InjectMocks
+    private GarageFleetStatsService garageFleetStatsService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(garageFleetStatsService, "yearBucketSize", 5);
+        when(streamsBuilderFactoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+    }
+
+    @Test
+    @DisplayName("Les agrégats d'un garage local sont lus dans le store, sans base de données")
+    void getFleetStats_ReadsLocalStore() {
+        GarageFleetState state = new GarageFleetState();
+        state.apply(VehicleCreatedEvent.of(10L, "Renault", "Clio", 2019, "DIESEL", 1L, "Garage", 0L));
+        state.apply(VehicleCreatedEvent.of(11L, "Renault", "Zoe", 2021, "ELECTRIQUE", 1L, "Garage", 0L));
+        state.apply(VehicleCreatedEvent.of(12L, "Renault", "Mégane", 2023, "ELECTRIQUE", 1L, "Garage", 0L));
+        doReturn(store).when(kafkaStreams).store(any(StoreQueryParameters.class));
+        when(store.get("1")).thenReturn(state);
+
+        GarageFleetStatsDTO stats = garageFleetStatsService.getFleetStats(1L);
+
+        assertThat(stats.getVehicleCount()).isEqualTo(3);
+        assertThat(stats.getRemainingCapacity()).isEqualTo(Garage.MAX_VEHICLES - 3);
+        assertThat(stats.getVehiclesByFuelType())
+                .containsOnly(entry(FuelType.DIESEL, 1L), entry(FuelType.ELECTRIQUE, 2L));
+        assertThat(stats.getVehiclesByYearBucket())
+                .containsExactly(entry("2015-2019", 1L), entry("2020-2024", 2L));
+    }
+
+    @Test
+    @DisplayName("Un garage absent du store lève une exception")
+    void getFleetStats_UnknownGarage() {
+        doReturn(store).when(kafkaStreams).store(any(StoreQueryParameters.class));
+
+        assertThatThrownBy(() -> garageFleetStatsService.getFleetStats(999L))
+                .isInstanceOf(GarageNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Un store en cours de rééquilibrage est signalé comme indisponible")
+    void getFleetStats_StoreRebalancing() {
+        when(kafkaStreams.store(any(StoreQueryParameters.class))).thenThrow(new InvalidStateStoreException("rebalancing"));
+
+        assertThatThrownBy(() -> garageFleetStatsService.getFleetStats(1L))
+                .isInstanceOf(FleetStatsUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Un garage hébergé par une autre instance désigne cette instance")
+    void findRemoteOwner_OtherInstance() {
+        localServer("node-a:8080");
+        when(kafkaStreams.queryMetadataForKey(any(), eq("1"), any(Serializer.class)))
+                .thenReturn(new KeyQueryMetadata(new HostInfo("node-b", 8080), Set.of(), 0));
+
+        assertThat(garageFleetStatsService.findRemoteOwner(1L)).contains(new HostInfo("node-b", 8080));
+    }
+
+    @Test
+    @DisplayName("Un garage hébergé localement est servi par cette instance")
+    void findRemoteOwner_LocalInstance() {
+        localServer("node-a:8080");
+        when(kafkaStreams.queryMetadataForKey(any(), eq("1"), any(Serializer.class)))
+                .thenReturn(new KeyQueryMetadata(new HostInfo("node-a", 8080), Set.of(), 0));
+
+        assertThat(garageFleetStatsService.findRemoteOwner(1L)).isEmpty();
+    }
+
+    private void localServer(String endpoint) {
+        Properties properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_SERVER_CONFIG, endpoint);
+        when(streamsBuilderFactoryBean.getStreamsConfiguration()).thenReturn(properties);
+    }
+}
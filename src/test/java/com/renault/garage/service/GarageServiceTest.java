@@ -1,27 +1,53 @@
 package com.renault.garage.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.cache.ResponseNearCache;
 import com.renault.garage.dto.GarageDTO;
+import com.renault.garage.dto.GarageSearchResultDTO;
+import com.renault.garage.dto.SearchPlanStepDTO;
 import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.FuelTypeMatch;
+import com.renault.garage.enums.NearCacheRegion;
 import com.renault.garage.exception.GarageNotFoundException;
+import com.renault.garage.exception.InvalidSearchCriteriaException;
+import com.renault.garage.exception.PreconditionFailedException;
+import com.renault.garage.kafka.CacheInvalidationPublisher;
+import com.renault.garage.kafka.GarageChangePublisher;
 import com.renault.garage.mapper.GarageMapper;
+import com.renault.garage.pagination.Cursor;
+import com.renault.garage.pagination.CursorPage;
+import com.renault.garage.pagination.GarageSortKey;
 import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import com.renault.garage.search.GarageSearchCriteria;
+import com.renault.garage.search.GarageSearchPlan;
+import com.renault.garage.search.GarageSearchPlanner;
+import com.renault.garage.search.GarageSearchPredicate;
+import com.renault.garage.search.GarageSearchPredicate.AccessPath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -37,6 +63,23 @@ class GarageServiceTest {
     @Mock
     private GarageMapper garageMapper;
 
+    @Mock
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @Mock
+    private GarageSearchPlanner garageSearchPlanner;
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private GarageChangePublisher garageChangePublisher;
+
+    @Spy
+    private ResponseNearCache responseNearCache = new ResponseNearCache(
+            mock(CacheInvalidationPublisher.class), new SimpleMeterRegistry(), new ObjectMapper(),
+            100, Duration.ofMinutes(5), true, true, "test");
+
     @InjectMocks
     private GarageService garageService;
 
@@ -78,6 +121,7 @@ class GarageServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Garage Paris");
         verify(garageRepository).save(any(Garage.class));
+        verify(garageChangePublisher).publishGarageCreated(garage);
     }
 
     @Test
@@ -111,19 +155,39 @@ class GarageServiceTest {
     @DisplayName("Liste paginée des garages")
     void getAllGarages_Paginated() {
         // Given
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Garage> garagePage = new PageImpl<>(List.of(garage));
-        
-        when(garageRepository.findAll(pageable)).thenReturn(garagePage);
+        when(garageRepository.findFirstPageOrderByName(Limit.of(11))).thenReturn(List.of(garage));
         when(garageMapper.toDTO(any(Garage.class))).thenReturn(garageDTO);
 
         // When
-        Page<GarageDTO> result = garageService.getAllGarages(pageable);
+        CursorPage<GarageDTO> result = garageService.getAllGarages(GarageSortKey.NAME, null, 10);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getName()).isEqualTo("Garage Paris");
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Page suivante des garages à partir d'un curseur")
+    void getAllGarages_NextPageFromCursor() {
+        // Given
+        Garage next = Garage.builder().id(2L).name("Garage Rennes").build();
+        String cursor = new Cursor("name", "Garage Lyon", 7L).encode();
+        when(garageRepository.findNextPageOrderByName("Garage Lyon", 7L, Limit.of(2)))
+                .thenReturn(List.of(garage, next));
+        when(garageMapper.toDTO(garage)).thenReturn(garageDTO);
+
+        // When
+        CursorPage<GarageDTO> result = garageService.getAllGarages(GarageSortKey.NAME, cursor, 1);
+
+        // Then
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(Cursor.decode(result.getNextCursor(), "name"))
+                .isEqualTo(new Cursor("name", "Garage Paris", 1L));
+        verify(garageMapper, never()).toDTO(next);
     }
 
     @Test
@@ -137,40 +201,187 @@ class GarageServiceTest {
                 .email("paris.updated@renault.fr")
                 .build();
 
-        when(garageRepository.findById(1L)).thenReturn(Optional.of(garage));
-        when(garageRepository.save(any(Garage.class))).thenReturn(garage);
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
+        when(garageRepository.saveAndFlush(any(Garage.class))).thenReturn(garage);
         when(garageMapper.toDTO(any(Garage.class))).thenReturn(updateDTO);
 
         // When
-        GarageDTO result = garageService.updateGarage(1L, updateDTO);
+        GarageDTO result = garageService.updateGarage(1L, updateDTO, null);
 
         // Then
         assertThat(result).isNotNull();
         verify(garageMapper).updateEntityFromDTO(updateDTO, garage);
-        verify(garageRepository).save(garage);
+        verify(garageRepository).saveAndFlush(garage);
+        verify(garageChangePublisher).publishGarageUpdated(eq(garage), anyList());
+    }
+
+    @Test
+    @DisplayName("Mise à jour d'un garage avec un If-Match obsolète refusée")
+    void updateGarage_IfMatchStale() {
+        // Given
+        garage.setVersion(4L);
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
+
+        // When/Then
+        assertThatThrownBy(() -> garageService.updateGarage(1L, garageDTO, "W/\"3\""))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("W/\"4\"");
+        verify(garageMapper, never()).updateEntityFromDTO(any(), any());
+        verify(garageRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Mise à jour d'un garage avec l'If-Match courant acceptée")
+    void updateGarage_IfMatchCurrent() {
+        // Given
+        garage.setVersion(4L);
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
+        when(garageRepository.saveAndFlush(garage)).thenReturn(garage);
+        when(garageMapper.toDTO(garage)).thenReturn(garageDTO);
+
+        // When
+        GarageDTO result = garageService.updateGarage(1L, garageDTO, "W/\"4\"");
+
+        // Then
+        assertThat(result).isSameAs(garageDTO);
+    }
+
+    @Test
+    @DisplayName("Lecture d'un garage servie par le near-cache jusqu'à sa mise à jour")
+    void getGarageById_NearCacheInvalidatedByUpdate() {
+        // Given
+        when(garageRepository.findById(1L)).thenReturn(Optional.of(garage));
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
+        when(garageRepository.saveAndFlush(garage)).thenReturn(garage);
+        when(garageMapper.toDTO(garage)).thenReturn(garageDTO);
+
+        // When
+        garageService.getGarageById(1L);
+        garageService.getGarageById(1L);
+        garageService.updateGarage(1L, garageDTO, null);
+        garageService.getGarageById(1L);
+
+        // Then : une lecture avant la mise à jour, une après
+        verify(garageRepository, times(2)).findById(1L);
+        verify(responseNearCache).invalidate(NearCacheRegion.GARAGE, 1L);
     }
 
     @Test
     @DisplayName("Suppression d'un garage avec succès")
     void deleteGarage_Success() {
         // Given
-        when(garageRepository.existsById(1L)).thenReturn(true);
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
 
         // When
         garageService.deleteGarage(1L);
 
-        // Then
-        verify(garageRepository).deleteById(1L);
+        // Then : l'événement de suppression part avant la suppression
+        InOrder inOrder = inOrder(garageChangePublisher, garageRepository);
+        inOrder.verify(garageChangePublisher).publishGarageDeleted(garage);
+        inOrder.verify(garageRepository).delete(garage);
     }
 
     @Test
     @DisplayName("Suppression d'un garage inexistant lève une exception")
     void deleteGarage_NotFound() {
         // Given
-        when(garageRepository.existsById(999L)).thenReturn(false);
+        when(garageRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> garageService.deleteGarage(999L))
                 .isInstanceOf(GarageNotFoundException.class);
+        verifyNoInteractions(garageChangePublisher);
+    }
+
+    @Test
+    @DisplayName("Recherche pilotée par le bitmap des carburants : IDs hydratés par lots, garages supprimés ignorés")
+    void searchGarages_BitmapDriving_HydratesPageFromIndex() {
+        // Given
+        Garage garage4 = Garage.builder().id(4L).name("Garage Lyon").build();
+        Garage garage7 = Garage.builder().id(7L).name("Garage Nantes").build();
+        BitSet ids = new BitSet();
+        ids.set(1);
+        ids.set(3); // supprimé depuis la lecture de l'index
+        ids.set(4);
+        ids.set(7);
+        GarageSearchCriteria criteria = GarageSearchCriteria.builder()
+                .fuelTypes(Set.of(FuelType.ELECTRIQUE, FuelType.HYBRIDE))
+                .fuelTypeMatch(FuelTypeMatch.ALL)
+                .build();
+        when(garageSearchPlanner.plan(criteria)).thenReturn(new GarageSearchPlan(List.of(
+                predicate("fuelType", 4, AccessPath.BITMAP_INDEX, ids)), 10));
+        when(garageRepository.<Garage, List<Garage>>findBy(any(Specification.class), any()))
+                .thenReturn(List.of(garage, garage4), List.of(garage7));
+        when(garageMapper.toDTO(any(Garage.class))).thenReturn(garageDTO);
+
+        // When
+        GarageSearchResultDTO result = garageService.searchGarages(criteria, null, 2, false);
+
+        // Then
+        assertThat(result.getPage().getContent()).hasSize(2);
+        assertThat(result.getPage().isHasNext()).isTrue();
+        assertThat(Cursor.decode(result.getPage().getNextCursor(), "id").id()).isEqualTo(4L);
+        assertThat(result.getPlan()).isNull();
+        verify(garageRepository, times(2)).findBy(any(Specification.class), any());
+        verify(garageMapper).toDTO(garage);
+        verify(garageMapper).toDTO(garage4);
+        verify(garageMapper, never()).toDTO(garage7);
+    }
+
+    @Test
+    @DisplayName("Recherche pilotée par une requête : tous les critères évalués en une requête, plan exposé")
+    void searchGarages_QueryDriving_SingleQueryWithPlan() {
+        // Given
+        GarageSearchCriteria criteria = GarageSearchCriteria.builder()
+                .accessoryName("GPS")
+                .fuelTypes(Set.of(FuelType.DIESEL))
+                .build();
+        BitSet dieselGarages = new BitSet();
+        dieselGarages.set(1, 9);
+        when(garageSearchPlanner.plan(criteria)).thenReturn(new GarageSearchPlan(List.of(
+                predicate("accessory", 2, AccessPath.SEARCH_INDEX, null),
+                predicate("fuelType", 8, AccessPath.BITMAP_INDEX, dieselGarages)), 10));
+        when(garageRepository.<Garage, List<Garage>>findBy(any(Specification.class), any())).thenReturn(List.of(garage));
+        when(garageMapper.toDTO(garage)).thenReturn(garageDTO);
+
+        // When
+        GarageSearchResultDTO result = garageService.searchGarages(criteria, null, 20, true);
+
+        // Then
+        assertThat(result.getPage().getContent()).containsExactly(garageDTO);
+        verify(garageRepository, times(1)).findBy(any(Specification.class), any());
+        assertThat(result.getPlan().isShortCircuited()).isFalse();
+        assertThat(result.getPlan().getSteps()).extracting(SearchPlanStepDTO::getPredicate, SearchPlanStepDTO::getRole)
+                .containsExactly(tuple("accessory", "DRIVING"), tuple("fuelType", "FILTER"));
+        assertThat(result.getPlan().getSteps().get(0).getSelectivity()).isEqualTo(0.2);
+    }
+
+    @Test
+    @DisplayName("Critère sans correspondance : aucune requête sur les garages")
+    void searchGarages_KnownEmpty_NoQuery() {
+        // Given
+        GarageSearchCriteria criteria = GarageSearchCriteria.builder().accessoryName("Radar").build();
+        when(garageSearchPlanner.plan(criteria)).thenReturn(new GarageSearchPlan(List.of(
+                predicate("accessory", 0, AccessPath.SEARCH_INDEX, null)), 10));
+
+        // When
+        GarageSearchResultDTO result = garageService.searchGarages(criteria, null, 20, true);
+
+        // Then
+        assertThat(result.getPage().getContent()).isEmpty();
+        assertThat(result.getPlan().isShortCircuited()).isTrue();
+        verifyNoInteractions(garageRepository);
+    }
+
+    @Test
+    @DisplayName("Recherche sans critère lève une exception")
+    void searchGarages_NoCriteria() {
+        assertThatThrownBy(() -> garageService.searchGarages(new GarageSearchCriteria(), null, 20, false))
+                .isInstanceOf(InvalidSearchCriteriaException.class);
+        verifyNoInteractions(garageSearchPlanner);
+    }
+
+    private static GarageSearchPredicate predicate(String name, long estimate, AccessPath accessPath, BitSet ids) {
+        return new GarageSearchPredicate(name, name, estimate, accessPath, (root, query, cb) -> null, ids);
     }
 }
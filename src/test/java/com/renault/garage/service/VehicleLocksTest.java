@@ -0,0 +1,99 @@
+package com.renault.garage.service;
+
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.exception.VehicleNotFoundException;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires des verrous garage puis véhicule.
+ */
+@ExtendWith(MockitoExtension.class)
+class VehicleLocksTest {
+
+    @Mock
+    private GarageRepository garageRepository;
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @InjectMocks
+    private VehicleLocks vehicleLocks;
+
+    @Test
+    @DisplayName("Le garage est verrouillé avant le véhicule")
+    void lockVehicle_LocksGarageThenVehicle() {
+        // Given
+        Vehicle vehicle = vehicleIn(10L);
+        when(vehicleRepository.findGarageIdById(1L)).thenReturn(Optional.of(10L));
+        when(vehicleRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(vehicle));
+
+        // When
+        Vehicle locked = vehicleLocks.lockVehicle(1L);
+
+        // Then
+        assertThat(locked).isSameAs(vehicle);
+        InOrder inOrder = inOrder(garageRepository, vehicleRepository);
+        inOrder.verify(garageRepository).findByIdForUpdate(10L);
+        inOrder.verify(vehicleRepository).findByIdForUpdate(1L);
+    }
+
+    @Test
+    @DisplayName("Un véhicule sans garage n'est verrouillé que sur sa propre ligne")
+    void lockVehicle_WithoutGarage_LocksVehicleOnly() {
+        // Given
+        Vehicle vehicle = Vehicle.builder().id(1L).build();
+        when(vehicleRepository.findGarageIdById(1L)).thenReturn(Optional.empty());
+        when(vehicleRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(vehicle));
+
+        // When
+        vehicleLocks.lockVehicle(1L);
+
+        // Then
+        verify(garageRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    @DisplayName("Un transfert validé entre la lecture du garage et le verrou est signalé comme concurrent")
+    void lockVehicle_GarageChangedMeanwhile_ThrowsOptimisticLockingFailure() {
+        // Given
+        when(vehicleRepository.findGarageIdById(1L)).thenReturn(Optional.of(10L));
+        when(vehicleRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(vehicleIn(20L)));
+
+        // When/Then
+        assertThatThrownBy(() -> vehicleLocks.lockVehicle(1L))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Verrouiller un véhicule inexistant lève une exception")
+    void lockVehicle_NotFound() {
+        // Given
+        when(vehicleRepository.findGarageIdById(999L)).thenReturn(Optional.empty());
+        when(vehicleRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> vehicleLocks.lockVehicle(999L))
+                .isInstanceOf(VehicleNotFoundException.class);
+    }
+
+    private Vehicle vehicleIn(Long garageId) {
+        return Vehicle.builder().id(1L).garage(Garage.builder().id(garageId).build()).build();
+    }
+}
@@ -0,0 +1,356 @@
+package com.renault.garage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.codec.EventCodecs;
+import com.renault.garage.dto.AccessoryDTO;
+import com.renault.garage.dto.GarageFleetBackfillResultDTO;
+import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.entity.OutboxEvent;
+import com.renault.garage.entity.Vehicle;
+import com.renault.garage.enums.AccessoryType;
+import com.renault.garage.enums.EventFormat;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.event.AccessoryDeletedEvent;
+import com.renault.garage.event.AccessoryUpdatedEvent;
+import com.renault.garage.event.GarageDeletedEvent;
+import com.renault.garage.event.GarageFleetSnapshotEvent;
+import com.renault.garage.event.GarageStateSnapshot;
+import com.renault.garage.event.VehicleCreatedEvent;
+import com.renault.garage.event.VehicleDeletedEvent;
+import com.renault.garage.event.VehicleTransferredEvent;
+import com.renault.garage.event.VehicleUpdatedEvent;
+import com.renault.garage.exception.GarageCapacityExceededException;
+import com.renault.garage.kafka.GarageFleetBackfill;
+import com.renault.garage.kafka.VehiclePublishResult;
+import com.renault.garage.kafka.VehiclePublisher;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.OutboxEventRepository;
+import com.renault.garage.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests de l'outbox transactionnelle : les événements sont écrits avec la modification,
+ * et disparaissent avec elle en cas de rollback. L'état des garages modifiés est écrit juste
+ * avant le commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VehicleOutboxTest {
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private GarageService garageService;
+
+    @Autowired
+    private AccessoryService accessoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EventCodecs eventCodecs;
+
+    @Autowired
+    private VehiclePublisher vehiclePublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GarageFleetBackfill garageFleetBackfill;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("L'ajout d'un véhicule écrit son événement dans l'outbox")
+    void addVehicleToGarage_WritesOutboxEvent() {
+        Garage garage = createGarage(0);
+
+        VehicleDTO created = vehicleService.addVehicleToGarage(garage.getId(), vehicle());
+
+        assertThat(eventsOn("vehicle-created")).hasSize(1);
+        OutboxEvent outboxEvent = eventsOn("vehicle-created").get(0);
+        assertThat(outboxEvent.getMessageKey()).isEqualTo(String.valueOf(garage.getId()));
+        assertThat(outboxEvent.getEventType()).isEqualTo(VehicleCreatedEvent.class.getName());
+        assertThat(outboxEvent.getFormat()).isEqualTo(EventFormat.BINARY);
+        VehicleCreatedEvent event = (VehicleCreatedEvent) eventCodecs.decode(outboxEvent.getPayload());
+        assertThat(event.vehicleId()).isEqualTo(created.getId());
+        assertThat(event.garageId()).isEqualTo(garage.getId());
+
+        // Le même événement alimente le flux de changements, partitionné par garage
+        assertThat(eventsOn("garage-changes"))
+                .singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getMessageKey()).isEqualTo(String.valueOf(garage.getId()));
+                    assertThat(change.getEventType()).isEqualTo(VehicleCreatedEvent.class.getName());
+                });
+    }
+
+    @Test
+    @DisplayName("Un transfert publie un changement sur la partition de chacun des deux garages")
+    void transferVehicle_PublishesChangeForBothGarages() {
+        Garage source = createGarage(0);
+        Garage target = createGarage(0);
+        VehicleDTO created = vehicleService.addVehicleToGarage(source.getId(), vehicle());
+        outboxEventRepository.deleteAll();
+
+        vehicleService.transferVehicle(created.getId(), target.getId());
+
+        assertThat(eventsOn("garage-changes"))
+                .extracting(OutboxEvent::getMessageKey, OutboxEvent::getEventType)
+                .containsExactlyInAnyOrder(
+                        tuple(String.valueOf(source.getId()), VehicleTransferredEvent.class.getName()),
+                        tuple(String.valueOf(target.getId()), VehicleTransferredEvent.class.getName()));
+    }
+
+    @Test
+    @DisplayName("La publication groupée écrit les événements de la série et signale les véhicules écartés")
+    void publishVehiclesCreated_EnqueuesBatchAndReportsFailures() {
+        Garage garage = createGarage(0);
+        List<Long> vehicleIds = List.of(
+                vehicleService.addVehicleToGarage(garage.getId(), vehicle()).getId(),
+                vehicleService.addVehicleToGarage(garage.getId(), vehicle()).getId());
+        outboxEventRepository.deleteAll();
+
+        VehiclePublishResult result = transactionTemplate.execute(status -> {
+            List<Vehicle> vehicles = new ArrayList<>(vehicleRepository.findAllById(vehicleIds));
+            // Véhicule non persisté : pas d'ID, pas d'événement
+            vehicles.add(1, Vehicle.builder().brand("Renault").model("Zoé").anneeFabrication(2024)
+                    .typeCarburant(FuelType.ELECTRIQUE).build());
+            return vehiclePublisher.publishVehiclesCreated(vehicles);
+        });
+
+        assertThat(result.published()).isEqualTo(2);
+        assertThat(result.failures()).singleElement().satisfies(failure -> {
+            assertThat(failure.index()).isEqualTo(1);
+            assertThat(failure.vehicleId()).isNull();
+        });
+        assertThat(eventsOn("vehicle-created"))
+                .extracting(event -> ((VehicleCreatedEvent) eventCodecs.decode(event.getPayload())).vehicleId())
+                .containsExactlyInAnyOrderElementsOf(vehicleIds);
+        assertThat(eventsOn("garage-changes")).hasSize(2)
+                .allSatisfy(change -> assertThat(change.getMessageKey()).isEqualTo(String.valueOf(garage.getId())));
+    }
+
+    @Test
+    @DisplayName("L'état du garage est publié une fois par transaction, avec les comptages par carburant")
+    void vehicleChanges_PublishGarageStateOncePerTransaction() {
+        Garage garage = createGarage(0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            vehicleService.addVehicleToGarage(garage.getId(), vehicle());
+            vehicleService.addVehicleToGarage(garage.getId(), vehicle());
+        });
+
+        assertThat(eventsOn("garage-state")).singleElement().satisfies(outboxEvent -> {
+            assertThat(outboxEvent.getMessageKey()).isEqualTo(String.valueOf(garage.getId()));
+            assertThat(outboxEvent.getEventType()).isEqualTo(GarageStateSnapshot.class.getName());
+            assertThat(outboxEvent.getFormat()).isEqualTo(EventFormat.JSON);
+            GarageStateSnapshot state = objectMapper.readValue(outboxEvent.getPayload(), GarageStateSnapshot.class);
+            assertThat(state.garageId()).isEqualTo(garage.getId());
+            assertThat(state.name()).isEqualTo("Garage Outbox");
+            assertThat(state.vehicleCount()).isEqualTo(2);
+            assertThat(state.vehiclesByFuelType()).containsExactly(entry(FuelType.ELECTRIQUE, 2));
+        });
+    }
+
+    @Test
+    @DisplayName("La suppression d'un garage publie un tombstone de son état")
+    void deleteGarage_PublishesStateTombstone() {
+        Garage garage = createGarage(0);
+
+        garageService.deleteGarage(garage.getId());
+
+        assertThat(eventsOn("garage-state")).singleElement().satisfies(outboxEvent -> {
+            assertThat(outboxEvent.getMessageKey()).isEqualTo(String.valueOf(garage.getId()));
+            assertThat(outboxEvent.getFormat()).isEqualTo(EventFormat.TOMBSTONE);
+        });
+    }
+
+    @Test
+    @DisplayName("Deux modifications d'un même garage s'ordonnent dans l'outbox selon leur commit")
+    void concurrentChangesOnSameGarage_AreEnqueuedInCommitOrder() throws Exception {
+        Garage garage = createGarage(0);
+        VehicleDTO first = vehicleService.addVehicleToGarage(garage.getId(), vehicle());
+        VehicleDTO second = vehicleService.addVehicleToGarage(garage.getId(), vehicle());
+        AccessoryDTO accessory = accessoryService.addAccessoryToVehicle(second.getId(), accessory("GPS"));
+        outboxEventRepository.deleteAll();
+
+        // Une première transaction modifie un véhicule du garage et tarde à valider
+        CountDownLatch locked = new CountDownLatch(1);
+        AtomicLong firstCommittedAt = new AtomicLong();
+        CompletableFuture<Void> slowUpdate = CompletableFuture.runAsync(() -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                vehicleService.updateVehicle(first.getId(), first, null);
+                locked.countDown();
+                sleep(300);
+            });
+            firstCommittedAt.set(System.nanoTime());
+        });
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // L'accessoire d'un autre véhicule du même garage attend le commit de la première
+        accessoryService.updateAccessory(accessory.getId(), accessory("GPS Premium"), null);
+        long secondCommittedAt = System.nanoTime();
+        slowUpdate.get(10, TimeUnit.SECONDS);
+
+        assertThat(secondCommittedAt).isGreaterThan(firstCommittedAt.get());
+        assertThat(eventsOn("garage-changes").stream()
+                .sorted(Comparator.comparing(OutboxEvent::getId))
+                .map(OutboxEvent::getEventType))
+                .containsExactly(VehicleUpdatedEvent.class.getName(), AccessoryUpdatedEvent.class.getName());
+    }
+
+    @Test
+    @DisplayName("La suppression d'un garage publie celle de ses accessoires et véhicules, puis la sienne")
+    void deleteGarage_PublishesChildDeletionsFirst() {
+        Garage garage = createGarage(0);
+        VehicleDTO vehicle = vehicleService.addVehicleToGarage(garage.getId(), vehicle());
+        accessoryService.addAccessoryToVehicle(vehicle.getId(), accessory("GPS"));
+        outboxEventRepository.deleteAll();
+
+        garageService.deleteGarage(garage.getId());
+
+        assertThat(eventsOn("garage-changes").stream()
+                .sorted(Comparator.comparing(OutboxEvent::getId)))
+                .extracting(OutboxEvent::getMessageKey, OutboxEvent::getEventType)
+                .containsExactly(
+                        tuple(String.valueOf(garage.getId()), AccessoryDeletedEvent.class.getName()),
+                        tuple(String.valueOf(garage.getId()), VehicleDeletedEvent.class.getName()),
+                        tuple(String.valueOf(garage.getId()), GarageDeletedEvent.class.getName()));
+    }
+
+    @Test
+    @DisplayName("La suppression d'un véhicule hors garage ne publie aucun changement")
+    void deleteVehicle_WithoutGarage_PublishesNoChange() {
+        Vehicle vehicle = vehicleRepository.save(Vehicle.builder().brand("Renault").model("Zoé")
+                .anneeFabrication(2024).typeCarburant(FuelType.ELECTRIQUE).build());
+
+        vehicleService.deleteVehicle(vehicle.getId());
+
+        assertThat(eventsOn("garage-changes")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Le remplissage des agrégats de flotte publie un instantané par garage, sans republier son état")
+    void backfillFleetStats_PublishesSnapshotPerGarage() {
+        Garage empty = createGarage(0);
+        Garage garage = createGarage(0);
+        VehicleDTO created = vehicleService.addVehicleToGarage(garage.getId(), vehicle());
+        outboxEventRepository.deleteAll();
+
+        GarageFleetBackfillResultDTO result = garageFleetBackfill.backfill();
+
+        assertThat(result.getTopic()).isEqualTo("garage-changes");
+        assertThat(result.getGarages()).isGreaterThanOrEqualTo(2);
+        assertThat(eventsOn("garage-state")).isEmpty();
+        assertThat(eventsOn("garage-changes"))
+                .filteredOn(change -> change.getMessageKey().equals(String.valueOf(garage.getId())))
+                .singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getEventType()).isEqualTo(GarageFleetSnapshotEvent.class.getName());
+                    GarageFleetSnapshotEvent snapshot =
+                            objectMapper.readValue(change.getPayload(), GarageFleetSnapshotEvent.class);
+                    assertThat(snapshot.vehicles()).singleElement().satisfies(fleetVehicle -> {
+                        assertThat(fleetVehicle.vehicleId()).isEqualTo(created.getId());
+                        assertThat(fleetVehicle.anneeFabrication()).isEqualTo(2024);
+                        assertThat(fleetVehicle.typeCarburant()).isEqualTo(FuelType.ELECTRIQUE.name());
+                    });
+                });
+        assertThat(eventsOn("garage-changes"))
+                .filteredOn(change -> change.getMessageKey().equals(String.valueOf(empty.getId())))
+                .singleElement()
+                .satisfies(change -> assertThat(objectMapper.readValue(change.getPayload(),
+                        GarageFleetSnapshotEvent.class).vehicles()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un ajout refusé n'écrit aucun événement")
+    void addVehicleToGarage_RollbackLeavesNoEvent() {
+        Garage garage = createGarage(Garage.MAX_VEHICLES);
+
+        assertThatThrownBy(() -> vehicleService.addVehicleToGarage(garage.getId(), vehicle()))
+                .isInstanceOf(GarageCapacityExceededException.class);
+
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    private List<OutboxEvent> eventsOn(String topic) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getTopic().equals(topic))
+                .toList();
+    }
+
+    private Garage createGarage(int vehicleCount) {
+        return garageRepository.save(Garage.builder()
+                .name("Garage Outbox")
+                .address("1 Rue de l'Outbox")
+                .telephone("0100000000")
+                .email("outbox@renault.fr")
+                .vehicleCount(vehicleCount)
+                .build());
+    }
+
+    private AccessoryDTO accessory(String nom) {
+        return AccessoryDTO.builder()
+                .nom(nom)
+                .description("Navigation")
+                .prix(new BigDecimal("499.99"))
+                .type(AccessoryType.MULTIMEDIA)
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private VehicleDTO vehicle() {
+        return VehicleDTO.builder()
+                .brand("Renault")
+                .model("Mégane")
+                .anneeFabrication(2024)
+                .typeCarburant(FuelType.ELECTRIQUE)
+                .build();
+    }
+}
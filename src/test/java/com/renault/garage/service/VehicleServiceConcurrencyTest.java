@@ -0,0 +1,151 @@
+package com.renault.garage.service;
+
+import com.renault.garage.dto.VehicleDTO;
+import com.renault.garage.entity.Garage;
+import com.renault.garage.enums.FuelType;
+import com.renault.garage.exception.GarageCapacityExceededException;
+import com.renault.garage.kafka.VehiclePublisher;
+import com.renault.garage.repository.GarageRepository;
+import com.renault.garage.repository.VehicleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de concurrence sur la réservation de capacité des garages.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class VehicleServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private GarageRepository garageRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @MockBean
+    private VehiclePublisher vehiclePublisher;
+
+    @AfterEach
+    void tearDown() {
+        vehicleRepository.deleteAll();
+        garageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Ajouts concurrents sur un même garage : jamais plus de 50 véhicules")
+    void addVehicleToGarage_ConcurrentInsertsOnSameGarage() throws Exception {
+        Garage garage = createGarage("Garage Concurrent");
+
+        InsertReport report = fireConcurrentInserts(List.of(garage.getId()), 300);
+
+        assertThat(report.succeeded()).isEqualTo(Garage.MAX_VEHICLES);
+        assertThat(report.rejected()).isEqualTo(300 - Garage.MAX_VEHICLES);
+        assertThat(report.failed()).isZero();
+        assertThat(vehicleRepository.countByGarageId(garage.getId())).isEqualTo(Garage.MAX_VEHICLES);
+        assertThat(garageRepository.findById(garage.getId()).orElseThrow().getVehicleCount())
+                .isEqualTo(Garage.MAX_VEHICLES);
+    }
+
+    @Test
+    @DisplayName("Ajouts concurrents sur plusieurs garages : chaque garage est plafonné indépendamment")
+    void addVehicleToGarage_ConcurrentInsertsAcrossGarages() throws Exception {
+        List<Long> garageIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            garageIds.add(createGarage("Garage " + i).getId());
+        }
+
+        InsertReport report = fireConcurrentInserts(garageIds, 600);
+
+        assertThat(report.succeeded()).isEqualTo(10 * Garage.MAX_VEHICLES);
+        assertThat(report.rejected()).isEqualTo(600 - 10 * Garage.MAX_VEHICLES);
+        assertThat(report.failed()).isZero();
+        for (Long garageId : garageIds) {
+            assertThat(vehicleRepository.countByGarageId(garageId)).isEqualTo(Garage.MAX_VEHICLES);
+            assertThat(garageRepository.findById(garageId).orElseThrow().getVehicleCount())
+                    .isEqualTo(Garage.MAX_VEHICLES);
+        }
+    }
+
+    private InsertReport fireConcurrentInserts(List<Long> garageIds, int attempts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < attempts; i++) {
+            Long garageId = garageIds.get(i % garageIds.size());
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    vehicleService.addVehicleToGarage(garageId, VehicleDTO.builder()
+                            .brand("Renault")
+                            .model("Clio " + index)
+                            .anneeFabrication(2024)
+                            .typeCarburant(FuelType.ESSENCE)
+                            .build());
+                    succeeded.incrementAndGet();
+                } catch (GarageCapacityExceededException e) {
+                    rejected.incrementAndGet();
+                } catch (RuntimeException e) {
+                    log.error("Échec inattendu de l'ajout concurrent", e);
+                    failed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        double throughput = attempts / (elapsedNanos / 1_000_000_000.0);
+        log.info("{} ajouts concurrents sur {} garage(s) en {} ms ({} req/s) : {} acceptés, {} refusés, {} en erreur",
+                attempts, garageIds.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                String.format("%.0f", throughput), succeeded.get(), rejected.get(), failed.get());
+
+        return new InsertReport(succeeded.get(), rejected.get(), failed.get());
+    }
+
+    private Garage createGarage(String name) {
+        return garageRepository.save(Garage.builder()
+                .name(name)
+                .address("1 Rue de la Concurrence")
+                .telephone("0100000000")
+                .email("concurrence@renault.fr")
+                .build());
+    }
+
+    private record InsertReport(int succeeded, int rejected, int failed) {
+    }
+}
@@ -1,24 +1,35 @@
 package com.renault.garage.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.renault.garage.cache.ResponseNearCache;
 import com.renault.garage.dto.VehicleDTO;
 import com.renault.garage.entity.Garage;
 import com.renault.garage.entity.Vehicle;
 import com.renault.garage.enums.FuelType;
+import com.renault.garage.enums.SearchField;
 import com.renault.garage.exception.GarageCapacityExceededException;
 import com.renault.garage.exception.GarageNotFoundException;
 import com.renault.garage.exception.VehicleNotFoundException;
+import com.renault.garage.kafka.CacheInvalidationPublisher;
+import com.renault.garage.kafka.GarageChangePublisher;
 import com.renault.garage.kafka.VehiclePublisher;
 import com.renault.garage.mapper.VehicleMapper;
+import com.renault.garage.pagination.CursorPage;
 import com.renault.garage.repository.GarageRepository;
 import com.renault.garage.repository.VehicleRepository;
+import com.renault.garage.search.GarageFuelTypeIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -46,6 +57,23 @@ class VehicleServiceTest {
     @Mock
     private VehiclePublisher vehiclePublisher;
 
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private GarageFuelTypeIndex garageFuelTypeIndex;
+
+    @Mock
+    private GarageChangePublisher garageChangePublisher;
+
+    @Mock
+    private VehicleLocks vehicleLocks;
+
+    @Spy
+    private ResponseNearCache responseNearCache = new ResponseNearCache(
+            mock(CacheInvalidationPublisher.class), new SimpleMeterRegistry(), new ObjectMapper(),
+            100, Duration.ofMinutes(5), true, true, "test");
+
     @InjectMocks
     private VehicleService vehicleService;
 
@@ -90,8 +118,7 @@ class VehicleServiceTest {
     @DisplayName("Ajout d'un véhicule à un garage avec succès")
     void addVehicleToGarage_Success() {
         // Given
-        when(garageRepository.findById(1L)).thenReturn(Optional.of(garage));
-        when(vehicleRepository.countByGarageId(1L)).thenReturn(0L);
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
         when(vehicleMapper.toEntity(any(VehicleDTO.class))).thenReturn(vehicle);
         when(vehicleRepository.save(any(Vehicle.class))).thenReturn(vehicle);
         when(vehicleMapper.toDTO(any(Vehicle.class))).thenReturn(vehicleDTO);
@@ -103,14 +130,16 @@ class VehicleServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getBrand()).isEqualTo("Renault");
         assertThat(result.getModel()).isEqualTo("Clio");
+        assertThat(garage.getVehicleCount()).isEqualTo(1);
         verify(vehiclePublisher).publishVehicleCreated(any(Vehicle.class));
+        verify(garageFuelTypeIndex).vehicleAdded(1L, FuelType.ESSENCE);
     }
 
     @Test
     @DisplayName("Ajout d'un véhicule à un garage inexistant lève une exception")
     void addVehicleToGarage_GarageNotFound() {
         // Given
-        when(garageRepository.findById(999L)).thenReturn(Optional.empty());
+        when(garageRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> vehicleService.addVehicleToGarage(999L, vehicleDTO))
@@ -120,9 +149,9 @@ class VehicleServiceTest {
     @Test
     @DisplayName("Ajout d'un véhicule à un garage plein lève une exception")
     void addVehicleToGarage_CapacityExceeded() {
-        // Given - Mock le count à 50 véhicules
-        when(garageRepository.findById(1L)).thenReturn(Optional.of(garage));
-        when(vehicleRepository.countByGarageId(1L)).thenReturn(50L);
+        // Given - Garage déjà à 50 véhicules
+        garage.setVehicleCount(Garage.MAX_VEHICLES);
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
 
         // When/Then
         assertThatThrownBy(() -> vehicleService.addVehicleToGarage(1L, vehicleDTO))
@@ -161,44 +190,88 @@ class VehicleServiceTest {
     void getVehiclesByGarageId_Success() {
         // Given
         when(garageRepository.existsById(1L)).thenReturn(true);
-        when(vehicleRepository.findByGarageId(1L)).thenReturn(List.of(vehicle));
+        when(vehicleRepository.findByGarageIdAndIdGreaterThanOrderByIdAsc(1L, 0L, Limit.of(21)))
+                .thenReturn(List.of(vehicle));
         when(vehicleMapper.toDTO(any(Vehicle.class))).thenReturn(vehicleDTO);
 
         // When
-        List<VehicleDTO> result = vehicleService.getVehiclesByGarageId(1L);
+        CursorPage<VehicleDTO> result = vehicleService.getVehiclesByGarageId(1L, null, 20);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getModel()).isEqualTo("Clio");
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getModel()).isEqualTo("Clio");
+        assertThat(result.isHasNext()).isFalse();
     }
 
     @Test
     @DisplayName("Recherche de véhicules par modèle")
     void getVehiclesByModel_Success() {
         // Given
-        when(vehicleRepository.findByModelContaining("Clio")).thenReturn(List.of(vehicle));
+        when(searchIndexService.findMatchingValues(SearchField.VEHICLE_MODEL, "clio"))
+                .thenReturn(Optional.of(List.of("clio", "clio estate")));
+        when(vehicleRepository.findByModelSearchIn(List.of("clio", "clio estate"), 0L, Limit.of(21)))
+                .thenReturn(List.of(vehicle));
+        when(vehicleMapper.toDTO(any(Vehicle.class))).thenReturn(vehicleDTO);
+
+        // When
+        CursorPage<VehicleDTO> result = vehicleService.getVehiclesByModel("Clio", null, 20);
+
+        // Then
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getModel()).isEqualTo("Clio");
+        verify(vehicleRepository, never()).findByModelSearchLike(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Recherche par modèle trop large : repli sur la colonne normalisée")
+    void getVehiclesByModel_TooManyMatchesFallsBackToScan() {
+        // Given
+        when(searchIndexService.findMatchingValues(SearchField.VEHICLE_MODEL, "o")).thenReturn(Optional.empty());
+        when(vehicleRepository.findByModelSearchLike("%o%", 0L, Limit.of(21))).thenReturn(List.of(vehicle));
         when(vehicleMapper.toDTO(any(Vehicle.class))).thenReturn(vehicleDTO);
 
         // When
-        List<VehicleDTO> result = vehicleService.getVehiclesByModel("Clio");
+        CursorPage<VehicleDTO> result = vehicleService.getVehiclesByModel("O", null, 20);
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getModel()).isEqualTo("Clio");
+        assertThat(result.getContent()).hasSize(1);
+        verify(vehicleRepository, never()).findByModelSearchIn(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Transfert d'un véhicule vers un garage plein lève une exception")
+    void transferVehicle_TargetCapacityExceeded() {
+        // Given
+        Garage fullGarage = Garage.builder()
+                .id(2L)
+                .name("Garage Lyon")
+                .vehicleCount(Garage.MAX_VEHICLES)
+                .build();
+        when(vehicleRepository.findById(1L)).thenReturn(Optional.of(vehicle));
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
+        when(garageRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(fullGarage));
+
+        // When/Then
+        assertThatThrownBy(() -> vehicleService.transferVehicle(1L, 2L))
+                .isInstanceOf(GarageCapacityExceededException.class);
+        assertThat(vehicle.getGarage()).isEqualTo(garage);
     }
 
     @Test
     @DisplayName("Suppression d'un véhicule avec succès")
     void deleteVehicle_Success() {
         // Given
-        vehicle.setGarage(garage);
-        garage.getVehicles().add(vehicle);
+        garage.addVehicle(vehicle);
         when(vehicleRepository.findById(1L)).thenReturn(Optional.of(vehicle));
+        when(garageRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(garage));
 
         // When
         vehicleService.deleteVehicle(1L);
 
         // Then
         verify(vehicleRepository).delete(vehicle);
+        assertThat(garage.getVehicleCount()).isZero();
+        verify(garageFuelTypeIndex).vehicleRemoved(1L, FuelType.ESSENCE);
+        verify(garageChangePublisher).publishVehicleDeleted(vehicle, 1L);
     }
 }